@@ -62,8 +62,10 @@ public final class CodecGenerationTool
             PARENT_PACKAGE,
             new PackageOutputManager(outputPath, ENCODER_PACKAGE), Validation.class);
 
+        final boolean lazyDecoding = Boolean.getBoolean(DecoderGenerator.LAZY_DECODING_PROP);
+        final boolean flyweightGroups = Boolean.getBoolean(DecoderGenerator.FLYWEIGHT_GROUPS_PROP);
         final DecoderGenerator decoderGenerator = new DecoderGenerator(
-            dictionary, 1, DECODER_PACKAGE, PARENT_PACKAGE, decoder, Validation.class);
+            dictionary, 1, DECODER_PACKAGE, PARENT_PACKAGE, decoder, Validation.class, lazyDecoding, flyweightGroups);
         final PrinterGenerator printerGenerator = new PrinterGenerator(dictionary, DECODER_PACKAGE, decoder);
         final AcceptorGenerator acceptorGenerator = new AcceptorGenerator(dictionary, DECODER_PACKAGE, decoder);
 
@@ -101,6 +103,9 @@ public final class CodecGenerationTool
     {
         System.err.println("Usage: CodecGenerationTool </path/to/output-directory> " +
             "<[/path/to/fixt-xml/dictionary;]/path/to/xml/dictionary>");
+        System.err.println("Set -D" + DecoderGenerator.LAZY_DECODING_PROP + "=true to generate lazy decoders");
+        System.err.println(
+            "Set -D" + DecoderGenerator.FLYWEIGHT_GROUPS_PROP + "=true to generate flyweight repeating groups");
         System.exit(-1);
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary;
+
+import java.util.Arrays;
+
+/**
+ * Maps the tags of a decoder's fields onto dense slot numbers, so that generated decoders can dispatch on a
+ * tableswitch over their slots rather than a lookupswitch over sparse tag numbers, eg: custom 5000+ and 9000+ tags.
+ * <p>
+ * The table has two levels: tags are split into pages of 128 and only the pages that contain a tag
+ * are allocated, pages without any tags share a single empty page. Looking up a tag is two array loads.
+ */
+public final class TagDispatchTable
+{
+    /**
+     * The slot of tags that aren't in the table, slots of tags that are in the table start at 1.
+     */
+    public static final int UNKNOWN_SLOT = 0;
+
+    private static final int PAGE_SIZE = 128;
+
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final short[] EMPTY_PAGE = new short[PAGE_SIZE];
+
+    private final short[][] pages;
+
+    /**
+     * Create a dispatch table, the slot of each tag is its index in the tags array plus 1.
+     *
+     * @param tags the tags of the fields, must be positive and unique.
+     */
+    public TagDispatchTable(final int... tags)
+    {
+        if (tags.length > Short.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Too many tags for a dispatch table: " + tags.length);
+        }
+
+        int maxTag = 0;
+        for (final int tag : tags)
+        {
+            if (tag <= 0)
+            {
+                throw new IllegalArgumentException("Tags must be positive: " + tag);
+            }
+
+            maxTag = Math.max(maxTag, tag);
+        }
+
+        pages = new short[(maxTag >>> PAGE_SHIFT) + 1][];
+        Arrays.fill(pages, EMPTY_PAGE);
+
+        for (int i = 0; i < tags.length; i++)
+        {
+            final int tag = tags[i];
+            final int pageIndex = tag >>> PAGE_SHIFT;
+            short[] page = pages[pageIndex];
+            if (page == EMPTY_PAGE)
+            {
+                page = new short[PAGE_SIZE];
+                pages[pageIndex] = page;
+            }
+
+            final int pageOffset = tag & PAGE_MASK;
+            if (page[pageOffset] != UNKNOWN_SLOT)
+            {
+                throw new IllegalArgumentException("Duplicate tag in dispatch table: " + tag);
+            }
+
+            page[pageOffset] = (short)(i + 1);
+        }
+    }
+
+    /**
+     * Lookup the slot of a tag.
+     *
+     * @param tag the tag to lookup.
+     * @return the slot of the tag or {@link #UNKNOWN_SLOT} if the tag isn't in the table.
+     */
+    public int slot(final int tag)
+    {
+        // Negative tags become large page indices so are also rejected by the bounds check.
+        final int pageIndex = tag >>> PAGE_SHIFT;
+        final short[][] pages = this.pages;
+        if (pageIndex >= pages.length)
+        {
+            return UNKNOWN_SLOT;
+        }
+
+        return pages[pageIndex][tag & PAGE_MASK];
+    }
+}
@@ -18,14 +18,18 @@ package uk.co.real_logic.artio.dictionary.generation;
 import org.agrona.generation.OutputManager;
 import org.agrona.generation.ResourceConsumer;
 import uk.co.real_logic.artio.builder.Decoder;
+import uk.co.real_logic.artio.dictionary.TagDispatchTable;
 import uk.co.real_logic.artio.dictionary.ir.*;
 import uk.co.real_logic.artio.dictionary.ir.Field.Type;
 import uk.co.real_logic.artio.fields.*;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.joining;
@@ -36,6 +40,7 @@ import static uk.co.real_logic.artio.dictionary.generation.EnumGenerator.NULL_VA
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.rethrown;
 import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.constantName;
 import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.fileHeader;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.importFor;
 import static uk.co.real_logic.sbe.generation.java.JavaUtil.formatPropertyName;
 
 // TODO: optimisations
@@ -51,6 +56,22 @@ public class DecoderGenerator extends Generator
 {
     public static final boolean CODEC_LOGGING = Boolean.getBoolean("fix.codec.log");
 
+    /**
+     * System property that makes the {@link uk.co.real_logic.artio.dictionary.CodecGenerationTool} generate
+     * lazy decoders.
+     *
+     * @see #DecoderGenerator(Dictionary, int, String, String, OutputManager, Class, boolean)
+     */
+    public static final String LAZY_DECODING_PROP = "fix.codecs.lazy_decoding";
+
+    /**
+     * System property that makes the {@link uk.co.real_logic.artio.dictionary.CodecGenerationTool} generate
+     * decoders with flyweight repeating groups.
+     *
+     * @see #DecoderGenerator(Dictionary, int, String, String, OutputManager, Class, boolean, boolean)
+     */
+    public static final String FLYWEIGHT_GROUPS_PROP = "fix.codecs.flyweight_groups";
+
     public static final String REQUIRED_FIELDS = "REQUIRED_FIELDS";
     public static final String GROUP_FIELDS = "GROUP_FIELDS";
 
@@ -80,8 +101,12 @@ public class DecoderGenerator extends Generator
     }
 
     private Aggregate currentAggregate = null;
+    // Dispatch tables of the inner group decoders of the class being generated, these are declared by that class.
+    private Map<String, String> hoistedDispatchTables = null;
 
     private final int initialBufferSize;
+    private final boolean lazyDecoding;
+    private final boolean flyweightGroups;
 
     public DecoderGenerator(
         final Dictionary dictionary,
@@ -90,9 +115,81 @@ public class DecoderGenerator extends Generator
         final String builderCommonPackage,
         final OutputManager outputManager,
         final Class<?> validationClass)
+    {
+        this(
+            dictionary, initialBufferSize, builderPackage, builderCommonPackage, outputManager, validationClass, false);
+    }
+
+    /**
+     * Create a decoder generator.
+     *
+     * Lazy decoders only record the offset and length of string, temporal and float fields when decoding a
+     * message, their values are parsed the first time that their getter is called. This makes decoding cheaper
+     * for wide messages where only a few fields are read. The values are parsed from the buffer that was last
+     * decoded, so they must be read before that buffer is reused.
+     *
+     * @param dictionary the dictionary to generate decoders for.
+     * @param initialBufferSize the initial size of the arrays that string and data fields are decoded into.
+     * @param builderPackage the package to generate the decoders in.
+     * @param builderCommonPackage the package of the generated constants and enums.
+     * @param outputManager the output manager to write the generated source to.
+     * @param validationClass the class whose CODEC_VALIDATION_ENABLED flag toggles validation.
+     * @param lazyDecoding true to generate lazy decoders, false to decode every field in decode().
+     */
+    public DecoderGenerator(
+        final Dictionary dictionary,
+        final int initialBufferSize,
+        final String builderPackage,
+        final String builderCommonPackage,
+        final OutputManager outputManager,
+        final Class<?> validationClass,
+        final boolean lazyDecoding)
+    {
+        this(
+            dictionary,
+            initialBufferSize,
+            builderPackage,
+            builderCommonPackage,
+            outputManager,
+            validationClass,
+            lazyDecoding,
+            false);
+    }
+
+    /**
+     * Create a decoder generator.
+     *
+     * By default each entry of a repeating group is decoded into its own group decoder, these form a chain that
+     * grows whenever a message has more entries than any before it. Flyweight repeating groups instead use a single
+     * group decoder per group that only records where the group's entries are whilst decoding the message. The
+     * group getter, the group decoder's next() method and the group iterator then decode each entry into that
+     * group decoder in turn, so decoding a group of any size doesn't allocate. Only one entry of a group can be
+     * read at a time and, as with lazy decoding, entries must be read before the decoded buffer is reused.
+     *
+     * @param dictionary the dictionary to generate decoders for.
+     * @param initialBufferSize the initial size of the arrays that string and data fields are decoded into.
+     * @param builderPackage the package to generate the decoders in.
+     * @param builderCommonPackage the package of the generated constants and enums.
+     * @param outputManager the output manager to write the generated source to.
+     * @param validationClass the class whose CODEC_VALIDATION_ENABLED flag toggles validation.
+     * @param lazyDecoding true to generate lazy decoders, false to decode every field in decode().
+     * @param flyweightGroups true to generate flyweight repeating groups, false to decode each entry of a
+     *                        repeating group into its own group decoder.
+     */
+    public DecoderGenerator(
+        final Dictionary dictionary,
+        final int initialBufferSize,
+        final String builderPackage,
+        final String builderCommonPackage,
+        final OutputManager outputManager,
+        final Class<?> validationClass,
+        final boolean lazyDecoding,
+        final boolean flyweightGroups)
     {
         super(dictionary, builderPackage, builderCommonPackage, outputManager, validationClass);
         this.initialBufferSize = initialBufferSize;
+        this.lazyDecoding = lazyDecoding;
+        this.flyweightGroups = flyweightGroups;
     }
 
     protected void generateAggregateFile(final Aggregate aggregate, final AggregateType type)
@@ -112,7 +209,8 @@ public class DecoderGenerator extends Generator
                 out.append(fileHeader(builderPackage));
 
                 generateImports("Decoder", type, out);
-                generateAggregateClass(aggregate, type, className, out);
+                out.append(importFor(TagDispatchTable.class));
+                generateAggregateClass(aggregate, type, className, false, out);
             });
     }
 
@@ -120,10 +218,16 @@ public class DecoderGenerator extends Generator
         final Aggregate aggregate,
         final AggregateType type,
         final String className,
+        final boolean isInnerClass,
         final Writer out) throws IOException
     {
         final Aggregate parentAggregate = currentAggregate;
         currentAggregate = aggregate;
+        final Map<String, String> parentDispatchTables = hoistedDispatchTables;
+        if (!isInnerClass)
+        {
+            hoistedDispatchTables = new LinkedHashMap<>();
+        }
 
         final boolean isMessage = type == MESSAGE;
         final boolean isGroup = type == GROUP;
@@ -145,9 +249,17 @@ public class DecoderGenerator extends Generator
         groupMethods(out, aggregate);
         headerMethods(out, aggregate, type);
         getters(out, aggregate.entries());
-        out.append(decodeMethod(aggregate.entries(), aggregate, type));
+        out.append(decodeMethod(aggregate.entries(), aggregate, type, className, isInnerClass));
         out.append(completeResetMethod(isMessage, aggregate.entries(), resetValidation(isGroup)));
         out.append(toString(aggregate, isMessage));
+        if (!isInnerClass)
+        {
+            for (final String dispatchTable : hoistedDispatchTables.values())
+            {
+                out.append(dispatchTable);
+            }
+            hoistedDispatchTables = parentDispatchTables;
+        }
         out.append("}\n");
         currentAggregate = parentAggregate;
     }
@@ -166,10 +278,10 @@ public class DecoderGenerator extends Generator
         }
     }
 
-    private void groupClass(final Group group, final Writer out) throws IOException
+    private void groupClass(final Group group, final boolean isInnerClass, final Writer out) throws IOException
     {
         final String className = decoderClassName(group);
-        generateAggregateClass(group, GROUP, className, out);
+        generateAggregateClass(group, GROUP, className, isInnerClass, out);
     }
 
     protected Class<?> topType(final AggregateType aggregateType)
@@ -179,6 +291,18 @@ public class DecoderGenerator extends Generator
 
     protected String resetRequiredFloat(final String name)
     {
+        if (lazyDecoding)
+        {
+            return String.format(
+                "    public void %2$s()\n" +
+                "    {\n" +
+                "        %1$s.reset();\n" +
+                "        %1$sDecoded = true;\n" +
+                "    }\n\n",
+                formatPropertyName(name),
+                nameOfResetMethod(name));
+        }
+
         return resetByMethod(name);
     }
 
@@ -194,6 +318,16 @@ public class DecoderGenerator extends Generator
 
     protected String toStringGroupSuffix()
     {
+        if (flyweightGroups)
+        {
+            // The entry has been formatted before the flyweight moves onto the next entry.
+            return
+                "        if (next() != null)\n" +
+                "        {\n" +
+                "            entries += \",\\n\" + toString();\n" +
+                "        }\n";
+        }
+
         return
             "        if (next != null)\n" +
             "        {\n" +
@@ -354,7 +488,7 @@ public class DecoderGenerator extends Generator
 
         final boolean isChar = type == Type.CHAR;
         final boolean isPrimitive = type.isIntBased() || isChar;
-
+        final String value = isLazilyDecoded(type) ? propertyName + "()" : propertyName;
 
         return String.format(
             "        if (%1$s!%2$s.isValid(%3$s%5$s))\n" +
@@ -365,7 +499,7 @@ public class DecoderGenerator extends Generator
             "        }\n",
             optionalCheck,
             name,
-            propertyName,
+            value,
             tagNumber,
             isPrimitive ? "" : ", " + propertyName + "Length");
     }
@@ -429,6 +563,7 @@ public class DecoderGenerator extends Generator
                 out.append(fileHeader(builderPackage));
 
                 generateImports("Decoder", AggregateType.COMPONENT, out);
+                out.append(importFor(TagDispatchTable.class));
                 out.append(String.format(
                     "\npublic interface %1$s\n" +
                     "{\n\n",
@@ -452,7 +587,8 @@ public class DecoderGenerator extends Generator
 
     private void groupInterfaceGetter(final Group group, final Writer out) throws IOException
     {
-        groupClass(group, out);
+        // Classes declared in an interface are implicitly static.
+        groupClass(group, false, out);
 
         out.append(String.format(
             "    public %1$s %2$s();\n",
@@ -513,6 +649,12 @@ public class DecoderGenerator extends Generator
         {
             wrapTrailerInConstructor(out, aggregate);
 
+            if (flyweightGroups)
+            {
+                flyweightGroupMethods(out, aggregate);
+                return;
+            }
+
             out.append(String.format(
                 "    private %1$s next = null;\n\n" +
                 "    public %1$s next()\n" +
@@ -525,6 +667,34 @@ public class DecoderGenerator extends Generator
         }
     }
 
+    private void flyweightGroupMethods(final Writer out, final Aggregate aggregate) throws IOException
+    {
+        out.append(String.format(
+            "    private int nextEntryOffset;\n\n" +
+            "    private int groupEnd;\n\n" +
+            "    private int remainingEntries;\n\n" +
+            "    void wrapGroup(final int offset, final int groupEnd, final int entries)\n" +
+            "    {\n" +
+            "        this.nextEntryOffset = offset;\n" +
+            "        this.groupEnd = groupEnd;\n" +
+            "        this.remainingEntries = entries;\n" +
+            "    }\n\n" +
+            "    public %1$s next()\n" +
+            "    {\n" +
+            "        if (remainingEntries <= 0 || nextEntryOffset >= groupEnd)\n" +
+            "        {\n" +
+            "            return null;\n" +
+            "        }\n\n" +
+            "        remainingEntries--;\n" +
+            "        reset();\n" +
+            "        nextEntryOffset += decode(buffer, nextEntryOffset, groupEnd - nextEntryOffset);\n" +
+            "        return this;\n" +
+            "    }\n\n" +
+            "    private IntHashSet seenFields = new IntHashSet(%2$d);\n\n",
+            decoderClassName(aggregate),
+            sizeHashSet(aggregate.entries())));
+    }
+
     private void wrapTrailerInConstructor(final Writer out, final Aggregate aggregate) throws IOException
     {
         out.append(String.format(
@@ -577,12 +747,38 @@ public class DecoderGenerator extends Generator
         // The component interface will generate the group class
         if (!(currentAggregate instanceof Component))
         {
-            groupClass(group, out);
+            groupClass(group, true, out);
         }
 
         final Entry numberField = group.numberField();
         final String prefix = fieldGetter(numberField, (Field)numberField.element());
 
+        if (flyweightGroups)
+        {
+            out.append(String.format(
+                "\n" +
+                "    private %1$s %2$s = null;\n\n" +
+                "    private int %2$sEntriesOffset;\n\n" +
+                "    private int %2$sEntriesEnd;\n\n" +
+                "    public %1$s %2$s()\n" +
+                "    {\n" +
+                "        if (%2$s == null)\n" +
+                "        {\n" +
+                "            return null;\n" +
+                "        }\n\n" +
+                "        %2$s.wrapGroup(%2$sEntriesOffset, %2$sEntriesEnd, %4$s);\n" +
+                "        return %2$s.next();\n" +
+                "    }\n\n" +
+                "%3$s",
+                decoderClassName(group),
+                formatPropertyName(group.name()),
+                prefix,
+                formatPropertyName(numberField.name())));
+
+            generateGroupIterator(out, group);
+            return;
+        }
+
         out.append(String.format(
             "\n" +
             "    private %1$s %2$s = null;\n" +
@@ -598,8 +794,55 @@ public class DecoderGenerator extends Generator
         generateGroupIterator(out, group);
     }
 
+    private void generateFlyweightGroupIterator(final Writer out, final Group group) throws IOException
+    {
+        out.append(String.format(
+            "    private %1$s %2$s = new %1$s();\n\n" +
+            "    public %1$s %2$s()\n" +
+            "    {\n" +
+            "        return %2$s.iterator();\n" +
+            "    }\n\n" +
+            "    public class %1$s implements Iterable<%4$s>, java.util.Iterator<%4$s>\n" +
+            "    {\n" +
+            "        private int remainder;\n" +
+            "        public boolean hasNext()\n" +
+            "        {\n" +
+            "            return remainder > 0;\n" +
+            "        }\n" +
+            "        public %4$s next()\n" +
+            "        {\n" +
+            "            remainder--;\n" +
+            "            return %5$s.next();\n" +
+            "        }\n" +
+            "        public void reset()\n" +
+            "        {\n" +
+            "            remainder = %3$s;\n" +
+            "            if (%5$s != null)\n" +
+            "            {\n" +
+            "                %5$s.wrapGroup(%5$sEntriesOffset, %5$sEntriesEnd, %3$s);\n" +
+            "            }\n" +
+            "        }\n" +
+            "        public %1$s iterator()\n" +
+            "        {\n" +
+            "            reset();\n" +
+            "            return this;\n" +
+            "        }\n" +
+            "    }\n\n",
+            iteratorClassName(group),
+            iteratorFieldName(group),
+            formatPropertyName(group.numberField().name()),
+            decoderClassName(group),
+            formatPropertyName(group.name())));
+    }
+
     private void generateGroupIterator(final Writer out, final Group group) throws IOException
     {
+        if (flyweightGroups)
+        {
+            generateFlyweightGroupIterator(out, group);
+            return;
+        }
+
         out.append(String.format(
             "    private %1$s %2$s = new %1$s();\n\n" +
             "    public %1$s %2$s()\n" +
@@ -645,19 +888,23 @@ public class DecoderGenerator extends Generator
         final String fieldName = formatPropertyName(name);
         final Type type = field.type();
         final String optionalCheck = optionalCheck(entry);
+        final boolean isLazilyDecoded = isLazilyDecoded(type);
+        final String value = isLazilyDecoded ? fieldName + "()" : fieldName;
 
         final String asStringBody = String.format(entry.required() ?
-            "new String(%1$s, 0, %1$sLength)" :
-            "has%2$s ? new String(%1$s, 0, %1$sLength) : null",
+            "new String(%3$s, 0, %1$sLength)" :
+            "has%2$s ? new String(%3$s, 0, %1$sLength) : null",
             fieldName,
-            name);
+            name,
+            value);
 
         final String enumValueDecoder = String.format(
             type.isStringBased() ?
-            "%1$s.decode(%2$s, %2$sLength)" :
-            "%1$s.decode(%2$s)",
+            "%1$s.decode(%3$s, %2$sLength)" :
+            "%1$s.decode(%3$s)",
             name,
-            fieldName);
+            fieldName,
+            value);
 
         final String asEnumBody = String.format(
             entry.required() ?
@@ -703,9 +950,11 @@ public class DecoderGenerator extends Generator
         return String.format(
             "    private %s %s%s;\n\n" +
             "%s" +
+            "%s" +
             "    public %1$s %2$s()\n" +
             "    {\n" +
             "%s" +
+            "%s" +
             "        return %2$s;\n" +
             "    }\n\n" +
             "%s\n" +
@@ -715,12 +964,57 @@ public class DecoderGenerator extends Generator
             fieldName,
             fieldInitialisation(type),
             hasField(entry),
+            lazyDecodingFields(type, fieldName),
             optionalCheck,
+            lazyDecode(type, fieldName),
             optionalGetter(entry),
             stringDecoder,
             enumDecoder);
     }
 
+    private boolean isLazilyDecoded(final Type type)
+    {
+        return lazyDecoding && (type.isStringBased() || type.isFloatBased());
+    }
+
+    private String lazyDecodingFields(final Type type, final String fieldName)
+    {
+        if (!isLazilyDecoded(type))
+        {
+            return "";
+        }
+
+        // The initial value of the field is also its reset value, so it starts off decoded.
+        final String decodedField = String.format("    private boolean %sDecoded = true;\n\n", fieldName);
+
+        // String based types already record their offset and length for the AsciiSequenceView getter.
+        return type.isFloatBased() ?
+            String.format(
+            "    private int %1$sOffset;\n\n" +
+            "    private int %1$sLength;\n\n" +
+            "%2$s",
+            fieldName,
+            decodedField) :
+            decodedField;
+    }
+
+    private String lazyDecode(final Type type, final String fieldName)
+    {
+        if (!isLazilyDecoded(type))
+        {
+            return "";
+        }
+
+        return String.format(
+            "        if (!%1$sDecoded)\n" +
+            "        {\n" +
+            "            %1$s = buffer.%2$s);\n" +
+            "            %1$sDecoded = true;\n" +
+            "        }\n\n",
+            fieldName,
+            decodeMethodFor(type, fieldName, fieldName + "Offset", fieldName + "Length"));
+    }
+
     private String fieldInitialisation(final Type type)
     {
         switch (type)
@@ -853,15 +1147,33 @@ public class DecoderGenerator extends Generator
         }
     }
 
-    private String decodeMethod(final List<Entry> entries, final Aggregate aggregate, final AggregateType type)
+    private String decodeMethod(
+        final List<Entry> entries,
+        final Aggregate aggregate,
+        final AggregateType type,
+        final String className,
+        final boolean isInnerClass)
     {
         final boolean hasCommonCompounds = type == MESSAGE;
         final boolean isGroup = type == GROUP;
         final boolean isHeader = type == HEADER;
         final String endGroupCheck = endGroupCheck(aggregate, isGroup);
 
+        // Tags are dispatched on by their slot in the dispatch table, the body's case labels are the slots.
+        final List<String> dispatchTags = new ArrayList<>();
+        final String body = entries.stream()
+            .map((entry) -> decodeEntry(entry, dispatchTags))
+            .collect(joining("\n", "", "\n"));
+        final String dispatchTable = dispatchTableName(className, isInnerClass);
+        final String dispatchTableDeclaration = tagDispatchTable(dispatchTable, dispatchTags);
+        if (isInnerClass)
+        {
+            hoistedDispatchTables.put(dispatchTable, dispatchTableDeclaration);
+        }
+
         final String prefix =
             "    private AsciiBuffer buffer;\n\n" +
+            (isInnerClass ? "" : dispatchTableDeclaration) +
             "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
             "    {\n" +
             "        // Decode " + aggregate.name() + "\n" +
@@ -909,13 +1221,9 @@ public class DecoderGenerator extends Generator
             "                missingRequiredFields.remove(tag);\n" +
             "                seenFieldCount++;\n" +
             "            }\n" +
-            "            switch (tag)\n" +
+            "            switch (" + dispatchTable + ".slot(tag))\n" +
             "            {\n\n";
 
-        final String body = entries.stream()
-            .map(this::decodeEntry)
-            .collect(joining("\n", "", "\n"));
-
         final String groupSuffix = aggregate.containsGroup() ? " && !" + GROUP_FIELDS + ".contains(tag)" : "";
 
         final String suffix =
@@ -938,11 +1246,86 @@ public class DecoderGenerator extends Generator
             "            }\n" +
             "        }\n" +
             decodeTrailerOrReturn(hasCommonCompounds, 2) +
-            "    }\n\n";
+            "    }\n\n" +
+            (isGroup && flyweightGroups ? scanEntryMethod(aggregate, dispatchTags, dispatchTable) : "");
 
         return prefix + body + suffix;
     }
 
+    private String scanEntryMethod(
+        final Aggregate aggregate, final List<String> dispatchTags, final String dispatchTable)
+    {
+        // Finds the end of an entry the same way that decode does, but only reads the tags of its fields and the
+        // number of entries of its nested groups.
+        final List<Group> groups = new ArrayList<>();
+        nestedGroups(aggregate.entries(), groups);
+        final String groupCases = groups.isEmpty() ? "" : groups
+            .stream()
+            .map((group) -> String.format(
+                "            case %1$d: // %2$s\n" +
+                "            {\n" +
+                "                if (%3$s == null)\n" +
+                "                {\n" +
+                "                    %3$s = new %4$s(trailer);\n" +
+                "                }\n" +
+                "                final int entries = buffer.getInt(valueOffset, endOfField);\n" +
+                "                for (int i = 0; i < entries && position < end; i++)\n" +
+                "                {\n" +
+                "                    position += %3$s.scanEntry(buffer, position, end - position);\n" +
+                "                }\n" +
+                "                break;\n" +
+                "            }\n",
+                dispatchTags.indexOf(constantName(group.numberField().name())) + 1,
+                group.numberField().name(),
+                formatPropertyName(group.name()),
+                decoderClassName(group)))
+            .collect(joining("\n",
+            "            switch (slot)\n" +
+            "            {\n",
+            "            }\n"));
+
+        return
+            "    int scanEntry(final AsciiBuffer buffer, final int offset, final int length)\n" +
+            "    {\n" +
+            "        final int end = offset + length;\n" +
+            "        int position = offset;\n" +
+            "        seenFields.clear();\n" +
+            "        while (position < end)\n" +
+            "        {\n" +
+            "            final int equalsPosition = buffer.scan(position, end, '=');\n" +
+            "            final int tag = buffer.getInt(position, equalsPosition);\n" +
+            "            final int slot = " + dispatchTable + ".slot(tag);\n" +
+            "            if (!seenFields.add(tag) ||\n" +
+            "                (slot == TagDispatchTable.UNKNOWN_SLOT &&\n" +
+            "                (" + CODEC_VALIDATION_ENABLED + " || Constants.ALL_FIELDS.contains(tag))))\n" +
+            "            {\n" +
+            "                return position - offset;\n" +
+            "            }\n" +
+            "            final int valueOffset = equalsPosition + 1;\n" +
+            "            final int endOfField = buffer.scan(valueOffset, end, START_OF_HEADER);\n" +
+            "            position = endOfField + 1;\n" +
+            groupCases +
+            "        }\n" +
+            "        return position - offset;\n" +
+            "    }\n\n";
+    }
+
+    private void nestedGroups(final List<Entry> entries, final List<Group> groups)
+    {
+        for (final Entry entry : entries)
+        {
+            final Entry.Element element = entry.element();
+            if (element instanceof Group)
+            {
+                groups.add((Group)element);
+            }
+            else if (element instanceof Component)
+            {
+                nestedGroups(((Component)element).entries(), groups);
+            }
+        }
+    }
+
     private String decodeTrailerOrReturn(final boolean hasCommonCompounds, final int indent)
     {
         return (hasCommonCompounds ?
@@ -965,7 +1348,15 @@ public class DecoderGenerator extends Generator
     private String endGroupCheck(final Aggregate aggregate, final boolean isGroup)
     {
         final String endGroupCheck;
-        if (isGroup)
+        if (isGroup && flyweightGroups)
+        {
+            endGroupCheck =
+                "            if (!seenFields.add(tag))\n" +
+                "            {\n" +
+                "                return position - offset;\n" +
+                "            }\n";
+        }
+        else if (isGroup)
         {
             endGroupCheck = String.format(
                 "            if (!seenFields.add(tag))\n" +
@@ -1007,21 +1398,50 @@ public class DecoderGenerator extends Generator
             "";
     }
 
-    private String decodeEntry(final Entry entry)
+    // Inner group decoders can't declare static fields, so their dispatch tables are declared by the enclosing
+    // static class under a name that's unique within it.
+    private String dispatchTableName(final String className, final boolean isInnerClass)
+    {
+        if (!isInnerClass)
+        {
+            return "TAG_DISPATCH_TABLE";
+        }
+
+        String name = constantName(className) + "_TAG_DISPATCH_TABLE";
+        for (int i = 2; hoistedDispatchTables.containsKey(name); i++)
+        {
+            name = constantName(className) + "_" + i + "_TAG_DISPATCH_TABLE";
+        }
+
+        return name;
+    }
+
+    private String tagDispatchTable(final String name, final List<String> dispatchTags)
+    {
+        return String.format(
+            "    private static final TagDispatchTable %s = new TagDispatchTable(%s);\n\n",
+            name,
+            dispatchTags
+                .stream()
+                .map((tag) -> "\n        Constants." + tag)
+                .collect(joining(",")));
+    }
+
+    private String decodeEntry(final Entry entry, final List<String> dispatchTags)
     {
         return entry.matchEntry(
-            (e) -> decodeField(e, ""),
-            this::decodeGroup,
-            this::decodeComponent);
+            (e) -> decodeField(e, "", dispatchTags),
+            (e) -> decodeGroup(e, dispatchTags),
+            (e) -> decodeComponent(e, dispatchTags));
     }
 
-    private String decodeComponent(final Entry entry)
+    private String decodeComponent(final Entry entry, final List<String> dispatchTags)
     {
         final Component component = (Component)entry.element();
         return component
             .entries()
             .stream()
-            .map(this::decodeEntry)
+            .map((e) -> decodeEntry(e, dispatchTags))
             .collect(joining("\n", "", "\n"));
     }
 
@@ -1034,10 +1454,32 @@ public class DecoderGenerator extends Generator
             .collect(joining(" + \n"));
     }
 
-    private String decodeGroup(final Entry entry)
+    private String decodeGroup(final Entry entry, final List<String> dispatchTags)
     {
         final Group group = (Group)entry.element();
 
+        if (flyweightGroups)
+        {
+            // Only scans the tags of the entries to find where they end, each entry is decoded when it's read.
+            final String scanGroup = String.format(
+                "                if (%1$s == null)\n" +
+                "                {\n" +
+                "                    %1$s = new %2$s(trailer);\n" +
+                "                }\n" +
+                "                position = endOfField + 1;\n" +
+                "                %1$sEntriesOffset = position;\n" +
+                "                for (int i = 0; i < %3$s && position < end; i++)\n" +
+                "                {\n" +
+                "                    position += %1$s.scanEntry(buffer, position, end - position);\n" +
+                "                }\n" +
+                "                %1$sEntriesEnd = position;\n",
+                formatPropertyName(group.name()),
+                decoderClassName(group),
+                formatPropertyName(group.numberField().name()));
+
+            return decodeField(group.numberField(), scanGroup, dispatchTags);
+        }
+
         final String parseGroup = String.format(
             "                if (%1$s == null)\n" +
             "                {\n" +
@@ -1057,10 +1499,10 @@ public class DecoderGenerator extends Generator
             decoderClassName(group),
             formatPropertyName(group.numberField().name()));
 
-        return decodeField(group.numberField(), parseGroup);
+        return decodeField(group.numberField(), parseGroup, dispatchTags);
     }
 
-    private String decodeField(final Entry entry, final String suffix)
+    private String decodeField(final Entry entry, final String suffix, final List<String> dispatchTags)
     {
         // Uses variables from surrounding context:
         // int tag = the tag number of the field
@@ -1071,21 +1513,42 @@ public class DecoderGenerator extends Generator
         final Field field = (Field)entry.element();
         final String name = entry.name();
         final String fieldName = formatPropertyName(name);
+        final Type type = field.type();
+        dispatchTags.add(constantName(name));
+        final int slot = dispatchTags.size();
+
+        if (isLazilyDecoded(type))
+        {
+            return String.format(
+                "            case %1$d: // %2$s\n" +
+                "%3$s" +
+                "                %4$sOffset = valueOffset;\n" +
+                "                %4$sLength = valueLength;\n" +
+                "                %4$sDecoded = false;\n" +
+                "%5$s" +
+                "                break;\n",
+                slot,
+                name,
+                optionalAssign(entry),
+                fieldName,
+                suffix);
+        }
 
         return String.format(
-            "            case Constants.%s:\n" +
+            "            case %d: // %s\n" +
             "%s" +
             "                %s = buffer.%s);\n" +
             "%s" +
             "%s" +
             "%s" +
             "                break;\n",
-            constantName(name),
+            slot,
+            name,
             optionalAssign(entry),
             fieldName,
-            decodeMethodFor(field.type(), fieldName),
-            storeOffsetForStrings(field.type(), fieldName),
-            storeLengthForVariableLength(field.type(), fieldName),
+            decodeMethodFor(type, fieldName, "valueOffset", "valueLength"),
+            storeOffsetForStrings(type, fieldName),
+            storeLengthForVariableLength(type, fieldName),
             suffix);
     }
 
@@ -1108,7 +1571,8 @@ public class DecoderGenerator extends Generator
         return entry.required() ? "" : String.format("                has%s = true;\n", entry.name());
     }
 
-    private String decodeMethodFor(final Type type, final String fieldName)
+    private String decodeMethodFor(
+        final Type type, final String fieldName, final String valueOffset, final String valueLength)
     {
         switch (type)
         {
@@ -1125,7 +1589,7 @@ public class DecoderGenerator extends Generator
             case QTY:
             case PERCENTAGE:
             case AMT:
-                return String.format("getFloat(%s, valueOffset, valueLength", fieldName);
+                return String.format("getFloat(%s, %s, %s", fieldName, valueOffset, valueLength);
 
             case CHAR:
                 return "getChar(valueOffset";
@@ -1138,7 +1602,7 @@ public class DecoderGenerator extends Generator
             case EXCHANGE:
             case COUNTRY:
             case LANGUAGE:
-                return String.format("getChars(%s, valueOffset, valueLength", fieldName);
+                return String.format("getChars(%s, %s, %s", fieldName, valueOffset, valueLength);
 
             case BOOLEAN:
                 return "getBoolean(valueOffset";
@@ -1152,7 +1616,7 @@ public class DecoderGenerator extends Generator
             case TZTIMEONLY:
             case TZTIMESTAMP:
             case MONTHYEAR:
-                return String.format("getBytes(%s, valueOffset, valueLength", fieldName);
+                return String.format("getBytes(%s, %s, %s", fieldName, valueOffset, valueLength);
 
             default:
                 throw new UnsupportedOperationException("Unknown type: " + type);
@@ -1164,6 +1628,20 @@ public class DecoderGenerator extends Generator
         return String.format("new String(%s, 0, %1$sLength)", fieldName);
     }
 
+    protected String fieldToString(final Field field)
+    {
+        final Type type = field.type();
+        if (isLazilyDecoded(type))
+        {
+            final String fieldName = formatPropertyName(field.name());
+            return type.isStringBased() ?
+                String.format("new String(%s(), 0, %1$sLength)", fieldName) :
+                fieldName + "()";
+        }
+
+        return super.fieldToString(field);
+    }
+
     protected boolean hasFlag(final Entry entry, final Field field)
     {
         return !entry.required();
@@ -1191,9 +1669,11 @@ public class DecoderGenerator extends Generator
                     "    {\n" +
                     "        %2$sOffset = 0;\n" +
                     "        %2$sLength = 0;\n" +
+                    "%3$s" +
                     "    }\n\n",
             nameOfResetMethod(name),
-            formatPropertyName(name));
+            formatPropertyName(name),
+            lazyDecoding ? String.format("        %sDecoded = true;\n", formatPropertyName(name)) : "");
     }
 
     protected String groupEntryToString(final Group element, final String name)
@@ -1204,7 +1684,8 @@ public class DecoderGenerator extends Generator
             "\\n  ]" +
             "\\n\", %2$s.toString().replace(\"\\n\", \"\\n  \")" + ") : \"\")",
             name,
-            formatPropertyName(name),
+            // Flyweight groups need to move onto their first entry
+            flyweightGroups ? formatPropertyName(name) + "()" : formatPropertyName(name),
             element.numberField().name());
     }
 
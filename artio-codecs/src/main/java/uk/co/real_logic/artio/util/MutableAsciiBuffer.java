@@ -20,8 +20,10 @@ import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.fields.*;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
 
 public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffer
 {
@@ -48,6 +50,13 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
     private static final byte[] MIN_INTEGER_VALUE = String.valueOf(Integer.MIN_VALUE).getBytes(US_ASCII);
     private static final byte[] MIN_LONG_VALUE = String.valueOf(Long.MIN_VALUE).getBytes(US_ASCII);
 
+    // Constants for processing the buffer a long word (8 bytes) at a time.
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long EVEN_BYTES = 0x00FF00FF00FF00FFL;
+    // Each 16 bit lane of the checksum accumulator gains at most 2 * 255 per word, so fold before it can overflow.
+    private static final int CHECKSUM_BLOCK_LENGTH = 64 * SIZE_OF_LONG;
+
     public MutableAsciiBuffer()
     {
         super(0, 0);
@@ -337,24 +346,62 @@ public final class MutableAsciiBuffer extends UnsafeBuffer implements AsciiBuffe
 
     public int scan(final int startInclusive, final int endInclusive, final byte terminator)
     {
-        int indexValue = UNKNOWN_INDEX;
-        for (int i = startInclusive; i <= endInclusive; i++)
+        int index = startInclusive;
+
+        // Only read whole words that lie within both the range and the buffer, the tail is checked bytewise.
+        final int lastWordStart = Math.min(endInclusive, capacity() - 1) - (SIZE_OF_LONG - 1);
+        if (index <= lastWordStart)
         {
-            final byte value = getByte(i);
-            if (value == terminator)
+            final long pattern = (terminator & 0xFF) * LOW_BITS;
+            do
             {
-                indexValue = i;
-                break;
+                final long word = getLong(index, ByteOrder.LITTLE_ENDIAN) ^ pattern;
+                final long matches = (word - LOW_BITS) & ~word & HIGH_BITS;
+                if (matches != 0)
+                {
+                    return index + (Long.numberOfTrailingZeros(matches) >>> 3);
+                }
+
+                index += SIZE_OF_LONG;
+            }
+            while (index <= lastWordStart);
+        }
+
+        for (; index <= endInclusive; index++)
+        {
+            if (getByte(index) == terminator)
+            {
+                return index;
             }
         }
 
-        return indexValue;
+        return UNKNOWN_INDEX;
     }
 
     public int computeChecksum(final int offset, final int end)
     {
         int total = 0;
-        for (int index = offset; index < end; index++)
+        int index = offset;
+
+        final int lastWordStart = Math.min(end, capacity()) - SIZE_OF_LONG;
+        while (index <= lastWordStart)
+        {
+            final int blockEnd = Math.min(lastWordStart, index + CHECKSUM_BLOCK_LENGTH - SIZE_OF_LONG);
+            long lanes = 0;
+            int negativeBytes = 0;
+            for (; index <= blockEnd; index += SIZE_OF_LONG)
+            {
+                final long word = getLong(index);
+                lanes += (word & EVEN_BYTES) + ((word >>> 8) & EVEN_BYTES);
+                negativeBytes += Long.bitCount(word & HIGH_BITS);
+            }
+
+            // Bytes are summed unsigned, so correct for getByte() being signed.
+            total += (int)((lanes & 0xFFFF) + ((lanes >>> 16) & 0xFFFF) + ((lanes >>> 32) & 0xFFFF) + (lanes >>> 48));
+            total -= negativeBytes << 8;
+        }
+
+        for (; index < end; index++)
         {
             total += (int)getByte(index);
         }
@@ -298,6 +298,10 @@ public final class ExampleDictionary
         "8=FIX.4.4\0019=77\00135=0\001115=abc\001116=2\001117=1.1\001127=19700101-00:00:00.001" +
         "\001120=1\001121=1\001122=1\001123=1\00110=063\001";
 
+    public static final String NESTED_GROUPS_MESSAGE_WITH_FIELDS_AFTER =
+        "8=FIX.4.4\0019=0101\00135=0\001127=19700101-00:00:00.001" +
+        "\001120=2\001121=1\001122=2\001123=1\001123=2\001121=2\001115=abc\001116=2\001117=1.1\00110=063\001";
+
     public static final String REPEATING_GROUP_MESSAGE_WITH_INVALID_TAG_NUMBER =
         "8=FIX.4.4\0019=0071\00135=0\001115=abc\001116=2\001117=1.1\001127=19700101-00:00:00.001" +
         "\001120=2\001121=1\0019999=9999\001121=2\00110=149\001";
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.dictionary.TagDispatchTable.UNKNOWN_SLOT;
+
+public class TagDispatchTableTest
+{
+    private static final int[] TAGS = { 8, 9, 35, 49, 56, 127, 128, 5001, 9999 };
+
+    private final TagDispatchTable table = new TagDispatchTable(TAGS);
+
+    @Test
+    public void shouldMapTagsToSlotsInOrder()
+    {
+        for (int i = 0; i < TAGS.length; i++)
+        {
+            assertEquals("Wrong slot for tag " + TAGS[i], i + 1, table.slot(TAGS[i]));
+        }
+    }
+
+    @Test
+    public void shouldNotFindTagsThatAreNotInTheTable()
+    {
+        assertEquals(UNKNOWN_SLOT, table.slot(10));
+        assertEquals(UNKNOWN_SLOT, table.slot(129));
+        assertEquals(UNKNOWN_SLOT, table.slot(5000));
+        assertEquals(UNKNOWN_SLOT, table.slot(10_000));
+        assertEquals(UNKNOWN_SLOT, table.slot(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldNotFindInvalidTags()
+    {
+        assertEquals(UNKNOWN_SLOT, table.slot(0));
+        assertEquals(UNKNOWN_SLOT, table.slot(-1));
+        assertEquals(UNKNOWN_SLOT, table.slot(Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void shouldSupportEmptyTables()
+    {
+        assertEquals(UNKNOWN_SLOT, new TagDispatchTable().slot(8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDuplicateTags()
+    {
+        new TagDispatchTable(8, 9, 8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveTags()
+    {
+        new TagDispatchTable(8, 0);
+    }
+}
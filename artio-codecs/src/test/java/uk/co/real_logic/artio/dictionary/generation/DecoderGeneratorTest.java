@@ -15,14 +15,25 @@
  */
 package uk.co.real_logic.artio.dictionary.generation;
 
+import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.agrona.IoUtil;
 import org.agrona.collections.IntHashSet;
+import org.agrona.generation.CharSequenceJavaFileObject;
 import org.agrona.generation.StringWriterOutputManager;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -41,6 +52,7 @@ import uk.co.real_logic.artio.util.Reflection;
 
 import static java.lang.reflect.Modifier.isAbstract;
 import static java.lang.reflect.Modifier.isPublic;
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.*;
 import static uk.co.real_logic.artio.builder.Decoder.NO_ERROR;
 import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
@@ -80,14 +92,21 @@ public class DecoderGeneratorTest
     private static Class<?> fieldsMessage;
     private static Class<?> allReqFieldTypesMessage;
     private static Class<?> enumTestMessage;
+    private static Class<?> lazyHeartbeat;
+    private static Class<?> lazyEnumTestMessage;
+    private static Class<?> flyweightGroupsHeartbeat;
+    private static Class<?> flyweightGroupsHeartbeatWithoutValidation;
 
     private MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
 
     @BeforeClass
     public static void generate() throws Exception
     {
-        final Map<String, CharSequence> sourcesWithValidation = generateSources(true);
-        final Map<String, CharSequence> sourcesWithoutValidation = generateSources(false);
+        final Map<String, CharSequence> sourcesWithValidation = generateSources(true, false, false);
+        final Map<String, CharSequence> sourcesWithoutValidation = generateSources(false, false, false);
+        final Map<String, CharSequence> lazySources = generateSources(true, true, false);
+        final Map<String, CharSequence> flyweightGroupsSources = generateSources(true, false, true);
+        final Map<String, CharSequence> flyweightGroupsSourcesWithoutValidation = generateSources(false, false, true);
         heartbeat = compileInMemory(HEARTBEAT_DECODER, sourcesWithValidation);
         if (heartbeat == null || CODEC_LOGGING)
         {
@@ -105,9 +124,31 @@ public class DecoderGeneratorTest
         {
             System.out.println("sourcesWithoutValidation = " + sourcesWithoutValidation);
         }
+
+        lazyHeartbeat = compileInMemory(HEARTBEAT_DECODER, lazySources);
+        lazyEnumTestMessage = compileInMemory(ENUM_TEST_MESSAGE_DECODER, lazySources);
+        if (lazyHeartbeat == null || CODEC_LOGGING)
+        {
+            System.out.println("lazySources = " + lazySources);
+        }
+
+        flyweightGroupsHeartbeat = compileInMemory(HEARTBEAT_DECODER, flyweightGroupsSources);
+        if (flyweightGroupsHeartbeat == null || CODEC_LOGGING)
+        {
+            System.out.println("flyweightGroupsSources = " + flyweightGroupsSources);
+        }
+
+        flyweightGroupsHeartbeatWithoutValidation = compileInMemory(
+            HEARTBEAT_DECODER, flyweightGroupsSourcesWithoutValidation);
+        if (flyweightGroupsHeartbeatWithoutValidation == null || CODEC_LOGGING)
+        {
+            System.out.println(
+                "flyweightGroupsSourcesWithoutValidation = " + flyweightGroupsSourcesWithoutValidation);
+        }
     }
 
-    private static Map<String, CharSequence> generateSources(final boolean validation)
+    private static Map<String, CharSequence> generateSources(
+        final boolean validation, final boolean lazyDecoding, final boolean flyweightGroups)
     {
         final Class<?> validationClass = validation ? ValidationOn.class : ValidationOff.class;
         final StringWriterOutputManager outputManager = new StringWriterOutputManager();
@@ -115,7 +156,14 @@ public class DecoderGeneratorTest
             MESSAGE_EXAMPLE, TEST_PACKAGE, outputManager);
         final EnumGenerator enumGenerator = new EnumGenerator(MESSAGE_EXAMPLE, TEST_PARENT_PACKAGE, outputManager);
         final DecoderGenerator decoderGenerator = new DecoderGenerator(
-            MESSAGE_EXAMPLE, 1, TEST_PACKAGE, TEST_PARENT_PACKAGE, outputManager, validationClass);
+            MESSAGE_EXAMPLE,
+            1,
+            TEST_PACKAGE,
+            TEST_PARENT_PACKAGE,
+            outputManager,
+            validationClass,
+            lazyDecoding,
+            flyweightGroups);
 
         constantGenerator.generate();
         enumGenerator.generate();
@@ -123,6 +171,15 @@ public class DecoderGeneratorTest
         return outputManager.getSources();
     }
 
+    @Test
+    public void shouldGenerateDecodersThatCompileAtJava8() throws Exception
+    {
+        // The heartbeat's repeating group is an inner class of the heartbeat's decoder, inner classes can't declare
+        // static fields before Java 16.
+        assertCompilesAtJava8(generateSources(true, false, false));
+        assertCompilesAtJava8(generateSources(true, false, true));
+    }
+
     @Test
     public void generatesDecoderClass() throws Exception
     {
@@ -422,6 +479,82 @@ public class DecoderGeneratorTest
         assertThat(decoder.toString(), containsString("\"OnBehalfOfCompID\": \"ab\","));
     }
 
+    @Test
+    public void lazilyDecodesValues() throws Exception
+    {
+        final Decoder decoder = decodeLazyHeartbeat(DERIVED_FIELDS_MESSAGE);
+
+        assertArrayEquals(ABC, getOnBehalfOfCompId(decoder));
+        assertEquals(2, getIntField(decoder));
+        assertEquals(new DecimalFloat(11, 1), getFloatField(decoder));
+
+        assertValid(decoder);
+    }
+
+    @Test
+    public void lazilyDecodesOptionalValues() throws Exception
+    {
+        final Decoder decoder = decodeLazyHeartbeat(ENCODED_MESSAGE);
+
+        assertTrue(hasTestReqId(decoder));
+        assertArrayEquals(ABC, getTestReqId(decoder));
+        assertArrayEquals(new byte[]{ '1', '2', '3' }, getDataField(decoder));
+
+        assertValid(decoder);
+    }
+
+    @Test
+    public void lazilyDecodesShorterStringsAfterLongerStrings() throws Exception
+    {
+        final Decoder decoder = decodeLazyHeartbeat(DERIVED_FIELDS_MESSAGE);
+
+        assertArrayEquals(ABC, getOnBehalfOfCompId(decoder));
+
+        decode(SHORTER_STRING_MESSAGE, decoder);
+
+        assertArrayEquals(AB, getOnBehalfOfCompId(decoder));
+    }
+
+    @Test
+    public void lazilyDecodesValuesNotReadFromThePreviousMessage() throws Exception
+    {
+        final Decoder decoder = decodeLazyHeartbeat(DERIVED_FIELDS_MESSAGE);
+
+        decode(SHORTER_STRING_MESSAGE, decoder);
+
+        assertArrayEquals(AB, getOnBehalfOfCompId(decoder));
+    }
+
+    @Test
+    public void shouldResetLazilyDecodedFields() throws Exception
+    {
+        final Decoder decoder = decodeLazyHeartbeat(ENCODED_MESSAGE);
+
+        decoder.reset();
+
+        assertFalse(hasTestReqId(decoder));
+        assertEquals(MISSING_FLOAT, getFloatField(decoder));
+        assertEquals(MISSING_INT, getIntField(decoder));
+    }
+
+    @Test
+    public void shouldIncludeLazilyDecodedFieldsInToString() throws Exception
+    {
+        final Decoder decoder = decodeLazyHeartbeat(ENCODED_MESSAGE);
+
+        assertThat(decoder.toString(), containsString(STRING_ENCODED_MESSAGE_EXAMPLE));
+    }
+
+    @Test
+    public void lazilyDecodesEnumValuesUsingAsEnumMethods() throws Exception
+    {
+        final Decoder decoder = (Decoder)lazyEnumTestMessage.getConstructor().newInstance();
+        decode(ET_ALL_FIELDS, decoder);
+        assertEquals("alpha", getRepresentation(get(decoder, STRING_ENUM_OPT + "AsEnum")));
+        assertEquals("gamma", getRepresentation(get(decoder, STRING_ENUM_REQ + "AsEnum")));
+        assertValid(decoder);
+    }
+
     @Test
     public void shouldDecodeRepeatingGroups() throws Exception
     {
@@ -499,6 +632,133 @@ public class DecoderGeneratorTest
         assertThat(decoder, hasToString(containsString(STRING_GROUP_TWO_ELEMENTS)));
     }
 
+    @Test
+    public void shouldDecodeFlyweightRepeatingGroups() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeat(REPEATING_GROUP_MESSAGE);
+
+        assertValidRepeatingGroupDecoded(decoder);
+    }
+
+    @Test
+    public void shouldDecodeEntriesOfFlyweightRepeatingGroupsIntoTheSameDecoder() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeat(REPEATING_GROUP_MESSAGE);
+
+        final Object group = getEgGroup(decoder);
+        assertEquals(1, getGroupField(group));
+        assertSame(group, next(group));
+        assertEquals(2, getGroupField(group));
+        assertNull(next(group));
+    }
+
+    @Test
+    public void shouldDecodeShorterFlyweightRepeatingGroups() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeat(REPEATING_GROUP_MESSAGE);
+
+        assertValidRepeatingGroupDecoded(decoder);
+
+        decode(SINGLE_REPEATING_GROUP_MESSAGE, decoder);
+
+        assertSingleRepeatingGroupDecoded(decoder);
+    }
+
+    @Test
+    public void shouldDecodeNestedFlyweightRepeatingGroups() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeat(NESTED_GROUP_MESSAGE);
+
+        assertEquals(1, getNoEgGroupGroupCounter(decoder));
+
+        final Object group = getEgGroup(decoder);
+        assertEquals(1, getGroupField(group));
+
+        final Object nestedGroup = getNestedGroup(group);
+        assertEquals(1, get(nestedGroup, "nestedField"));
+        assertNull(next(nestedGroup));
+        assertNull(next(group));
+
+        assertValid(decoder);
+    }
+
+    @Test
+    public void shouldScanNestedGroupsOfFlyweightRepeatingGroupEntries() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeat(NESTED_GROUPS_MESSAGE_WITH_FIELDS_AFTER);
+
+        assertEquals(2, getNoEgGroupGroupCounter(decoder));
+
+        final Object group = getEgGroup(decoder);
+        assertEquals(1, getGroupField(group));
+
+        final Object nestedGroup = getNestedGroup(group);
+        assertEquals(1, get(nestedGroup, "nestedField"));
+        assertSame(nestedGroup, next(nestedGroup));
+        assertEquals(2, get(nestedGroup, "nestedField"));
+        assertNull(next(nestedGroup));
+
+        assertSame(group, next(group));
+        assertEquals(2, getGroupField(group));
+        assertNull(next(group));
+
+        assertRepeatingGroupFieldsAfterDecoded(decoder);
+    }
+
+    @Test
+    public void shouldEndFlyweightRepeatingGroupEntriesAtUnknownFields() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeat(REPEATING_GROUP_WITH_UNKNOWN_FIELD);
+
+        assertFalse("Passed validation with unknown field", decoder.validate());
+        assertEquals("Wrong tag id", 1000, decoder.invalidTagId());
+        assertEquals("Wrong reject reason", INVALID_TAG_NUMBER, decoder.rejectReason());
+    }
+
+    @Test
+    public void shouldSkipInvalidTagNumberInFlyweightRepeatingGroupsWithoutValidation() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeatWithoutValidation(
+            REPEATING_GROUP_MESSAGE_WITH_INVALID_TAG_NUMBER);
+
+        assertRepeatingGroupAndFieldsDecoded(decoder);
+    }
+
+    @Test
+    public void shouldEndFlyweightRepeatingGroupEntriesAtKnownFieldsWithoutValidation() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeatWithoutValidation(
+            REPEATING_GROUP_MESSAGE_WITH_INVALID_TAG_NUMBER_FIELDS_AFTER);
+
+        assertRepeatingGroupAndFieldsDecoded(decoder);
+    }
+
+    @Test
+    public void shouldIterateOverFlyweightRepeatingGroups() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeat(REPEATING_GROUP_MESSAGE);
+
+        canIterateOverGroup(decoder);
+
+        canIterateOverGroupUsingForEach(decoder);
+    }
+
+    @Test
+    public void shouldNotIterateOverMissingFlyweightRepeatingGroups() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeat(NO_REPEATING_GROUP_MESSAGE);
+
+        canNotIteratorOverRepeatingGroup(decoder);
+    }
+
+    @Test
+    public void shouldToStringFlyweightRepeatingGroups() throws Exception
+    {
+        final Decoder decoder = decodeFlyweightGroupsHeartbeat(REPEATING_GROUP_MESSAGE);
+
+        assertThat(decoder, hasToString(containsString(STRING_GROUP_TWO_ELEMENTS)));
+    }
+
     @Test
     public void shouldDecodeComponents() throws Exception
     {
@@ -1031,6 +1291,15 @@ public class DecoderGeneratorTest
         assertValidRepeatingGroupDecoded(decoder);
     }
 
+    private void assertRepeatingGroupFieldsAfterDecoded(final Decoder decoder) throws Exception
+    {
+        assertArrayEquals(ABC, getOnBehalfOfCompId(decoder));
+        assertEquals(2, getIntField(decoder));
+        assertEquals(new DecimalFloat(11, 1), getFloatField(decoder));
+
+        assertValid(decoder);
+    }
+
     private void assertOptionalDifferentFieldsNotDecoded(final Decoder decoder) throws Exception
     {
         assertNull(getOptionalCurrencyFieldAsString(decoder));
@@ -1341,6 +1610,52 @@ public class DecoderGeneratorTest
         return decoder;
     }
 
+    private static void assertCompilesAtJava8(final Map<String, CharSequence> sources) throws Exception
+    {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final File outputDirectory = Files.createTempDirectory("decoders").toFile();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null))
+        {
+            final List<JavaFileObject> files = sources
+                .entrySet()
+                .stream()
+                .map((source) -> new CharSequenceJavaFileObject(source.getKey(), source.getValue()))
+                .collect(toList());
+            final List<String> options = Arrays.asList(
+                "-source", "8", "-target", "8", "-d", outputDirectory.getAbsolutePath());
+
+            final boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null, files).call();
+
+            assertTrue(diagnostics.getDiagnostics().toString(), compiled);
+        }
+        finally
+        {
+            IoUtil.delete(outputDirectory, false);
+        }
+    }
+
+    private Decoder decodeLazyHeartbeat(final String example) throws Exception
+    {
+        final Decoder decoder = (Decoder)lazyHeartbeat.getConstructor().newInstance();
+        decode(example, decoder);
+        return decoder;
+    }
+
+    private Decoder decodeFlyweightGroupsHeartbeat(final String example) throws Exception
+    {
+        final Decoder decoder = (Decoder)flyweightGroupsHeartbeat.getConstructor().newInstance();
+        decode(example, decoder);
+        return decoder;
+    }
+
+    private Decoder decodeFlyweightGroupsHeartbeatWithoutValidation(final String example) throws Exception
+    {
+        final Decoder decoder = (Decoder)flyweightGroupsHeartbeatWithoutValidation.getConstructor().newInstance();
+        decode(example, decoder);
+        return decoder;
+    }
+
     private Decoder decodeHeartbeatWithoutValidation(final String example) throws Exception
     {
         final Decoder decoder = (Decoder)heartbeatWithoutValidation.getConstructor().newInstance();
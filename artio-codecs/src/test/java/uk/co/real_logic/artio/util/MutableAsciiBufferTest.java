@@ -25,6 +25,8 @@ import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static uk.co.real_logic.artio.util.AsciiBuffer.SEPARATOR;
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
 import static uk.co.real_logic.artio.util.CustomMatchers.sequenceEqualsAscii;
 
 @RunWith(Theories.class)
@@ -76,6 +78,60 @@ public class MutableAsciiBufferTest
         assertThat(string, sequenceEqualsAscii(String.valueOf(Integer.MIN_VALUE), 1, length));
     }
 
+    @Test
+    public void shouldScanForTerminatorAtEveryPositionInAWord()
+    {
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[32]);
+        for (int i = 0; i < 32; i++)
+        {
+            buffer.putByte(i, (byte)'a');
+        }
+
+        for (int position = 0; position < 32; position++)
+        {
+            buffer.putByte(position, SEPARATOR);
+            assertEquals(position, buffer.scan(0, 31, SEPARATOR));
+            assertEquals(position, buffer.scan(position, 31, SEPARATOR));
+            buffer.putByte(position, (byte)'a');
+        }
+    }
+
+    @Test
+    public void shouldNotScanBeyondEndOfRange()
+    {
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[32]);
+        buffer.putByte(10, SEPARATOR);
+
+        assertEquals(UNKNOWN_INDEX, buffer.scan(0, 9, SEPARATOR));
+        assertEquals(UNKNOWN_INDEX, buffer.scan(11, 31, SEPARATOR));
+        assertEquals(10, buffer.scan(3, 10, SEPARATOR));
+    }
+
+    @Test
+    public void shouldComputeChecksumOfNegativeBytes()
+    {
+        final byte[] bytes = new byte[1027];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            bytes[i] = (byte)(i * 31);
+        }
+
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(bytes);
+        for (final int offset : new int[]{0, 1, 7, 13})
+        {
+            for (final int end : new int[]{offset, offset + 5, 100, 519, 1027})
+            {
+                int total = 0;
+                for (int i = offset; i < end; i++)
+                {
+                    total += bytes[i];
+                }
+
+                assertEquals("offset=" + offset + ",end=" + end, total % 256, buffer.computeChecksum(offset, end));
+            }
+        }
+    }
+
     @Test
     public void shouldWriteLongZero()
     {
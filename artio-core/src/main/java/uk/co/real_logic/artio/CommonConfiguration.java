@@ -91,6 +91,10 @@ public class CommonConfiguration
      * Property name for the file to log debug messages to, default is standard output
      */
     public static final String DEBUG_FILE_PROPERTY = "fix.core.debug.file";
+    /**
+     * Property name for the flag to enable scheduling session polls from their heartbeat and timeout deadlines.
+     */
+    public static final String DEADLINE_SESSION_POLLING_PROPERTY = "fix.core.deadline_session_polling";
     /**
      * Property name for the period at which histogram intervals are polled and logged
      */
@@ -216,6 +220,7 @@ public class CommonConfiguration
     private String histogramLoggingFile = null;
     private HistogramHandler histogramHandler;
     private String agentNamePrefix = DEFAULT_NAME_PREFIX;
+    private boolean deadlineSessionPolling = Boolean.getBoolean(DEADLINE_SESSION_POLLING_PROPERTY);
 
     private final AtomicBoolean isConcluded = new AtomicBoolean(false);
 
@@ -462,6 +467,22 @@ public class CommonConfiguration
         return this;
     }
 
+    /**
+     * Sets whether sessions are only polled when their next heartbeat, test request or logout deadline is due,
+     * or when a message is received for them. When off every session is polled on every duty cycle.
+     * <p>
+     * Default: false
+     *
+     * @param deadlineSessionPolling true to schedule session polls from their deadlines, false to poll every cycle.
+     * @return this
+     * @see CommonConfiguration#DEADLINE_SESSION_POLLING_PROPERTY
+     */
+    public CommonConfiguration deadlineSessionPolling(final boolean deadlineSessionPolling)
+    {
+        this.deadlineSessionPolling = deadlineSessionPolling;
+        return this;
+    }
+
     /**
      * Sets the clock to be used for recording timestamping messages.
      *
@@ -569,6 +590,11 @@ public class CommonConfiguration
         return printAeronStreamIdentifiers;
     }
 
+    public boolean deadlineSessionPolling()
+    {
+        return deadlineSessionPolling;
+    }
+
     protected void conclude(final String fixSuffix)
     {
         if (isConcluded.compareAndSet(false, true))
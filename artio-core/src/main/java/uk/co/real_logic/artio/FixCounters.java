@@ -16,11 +16,22 @@
 package uk.co.real_logic.artio;
 
 import org.agrona.CloseHelper;
+import org.agrona.collections.MutableInteger;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersManager;
+import org.agrona.concurrent.status.CountersReader;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.concurrent.status.CountersReader.NULL_COUNTER_ID;
 
 public class FixCounters implements AutoCloseable
 {
+    /**
+     * Type id of the counters of the position up to which each aeron session of an archived stream is durable.
+     * Their key is the stream id followed by the aeron session id.
+     */
+    public static final int ARCHIVED_DURABLE_POSITION_TYPE_ID = 1;
+
     private final CountersManager countersManager;
     private final AtomicCounter failedInboundPublications;
     private final AtomicCounter failedOutboundPublications;
@@ -86,6 +97,50 @@ public class FixCounters implements AutoCloseable
         return newCounter("Last Received MsgSeqNo for " + connectionId);
     }
 
+    public AtomicCounter indicesCaughtUpBytes(final int streamId)
+    {
+        return newCounter("Archived bytes caught up, summed over each index of stream " + streamId);
+    }
+
+    public AtomicCounter archivedDurablePosition(final int streamId, final int aeronSessionId)
+    {
+        return countersManager.newCounter(
+            "Durable archived position of stream " + streamId + " session " + aeronSessionId,
+            ARCHIVED_DURABLE_POSITION_TYPE_ID,
+            (keyBuffer) ->
+            {
+                keyBuffer.putInt(0, streamId);
+                keyBuffer.putInt(SIZE_OF_INT, aeronSessionId);
+            });
+    }
+
+    /**
+     * Find the counter of the position up to which an aeron session of an archived stream is durable, for example
+     * in order to wait for a message to be durable.
+     *
+     * @param countersReader the reader of the engine's counters.
+     * @param streamId the id of the archived stream.
+     * @param aeronSessionId the id of the aeron session.
+     * @return the id of the counter or {@link CountersReader#NULL_COUNTER_ID} if there isn't one.
+     */
+    public static int findArchivedDurablePosition(
+        final CountersReader countersReader, final int streamId, final int aeronSessionId)
+    {
+        final MutableInteger counterId = new MutableInteger(NULL_COUNTER_ID);
+        countersReader.forEach(
+            (id, typeId, keyBuffer, label) ->
+            {
+                if (typeId == ARCHIVED_DURABLE_POSITION_TYPE_ID &&
+                    keyBuffer.getInt(0) == streamId &&
+                    keyBuffer.getInt(SIZE_OF_INT) == aeronSessionId)
+                {
+                    counterId.value = id;
+                }
+            });
+
+        return counterId.value;
+    }
+
     private AtomicCounter newCounter(final String label)
     {
         return countersManager.newCounter(label);
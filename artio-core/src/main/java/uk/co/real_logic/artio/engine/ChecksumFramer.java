@@ -58,6 +58,26 @@ public class ChecksumFramer extends SectorFramer
         withChecksums(saveChecksumFunc);
     }
 
+    /**
+     * Update the checksum of a single sector, for callers that know which sectors they have written to.
+     *
+     * @param sectorStart the offset of the start of the sector within the buffer.
+     */
+    public void updateChecksum(final int sectorStart)
+    {
+        if (sectorStart + SECTOR_SIZE <= capacity)
+        {
+            final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
+            final int sectorChecksum = checksum(buffer.byteArray(), inMemoryByteBuffer, sectorStart);
+            buffer.putInt(sectorStart + SECTOR_DATA_LENGTH, sectorChecksum);
+
+            if (inMemoryByteBuffer != null)
+            {
+                inMemoryByteBuffer.clear();
+            }
+        }
+    }
+
     private void validateChecksum(final int checksumOffset, final int calculatedChecksum)
     {
         final int savedChecksum = buffer.getInt(checksumOffset);
@@ -77,18 +97,7 @@ public class ChecksumFramer extends SectorFramer
             final int sectorStart = sectorEnd - SECTOR_SIZE;
             final int checksumOffset = sectorEnd - CHECKSUM_SIZE;
 
-            crc32.reset();
-            if (inMemoryBytes != null)
-            {
-                crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
-            }
-            else
-            {
-                ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
-                ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
-                crc32.update(inMemoryByteBuffer);
-            }
-            final int sectorChecksum = (int)crc32.getValue();
+            final int sectorChecksum = checksum(inMemoryBytes, inMemoryByteBuffer, sectorStart);
             consumer.accept(checksumOffset, sectorChecksum);
         }
 
@@ -98,6 +107,22 @@ public class ChecksumFramer extends SectorFramer
         }
     }
 
+    private int checksum(final byte[] inMemoryBytes, final ByteBuffer inMemoryByteBuffer, final int sectorStart)
+    {
+        crc32.reset();
+        if (inMemoryBytes != null)
+        {
+            crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
+        }
+        else
+        {
+            ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
+            ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
+            crc32.update(inMemoryByteBuffer);
+        }
+        return (int)crc32.getValue();
+    }
+
     private interface ChecksumConsumer
     {
         void accept(int checksumOffset, int sectorChecksum);
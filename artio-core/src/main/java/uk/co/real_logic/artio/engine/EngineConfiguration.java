@@ -23,6 +23,7 @@ import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.decoder.*;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier;
+import uk.co.real_logic.artio.engine.logger.ArchiveDurability;
 import uk.co.real_logic.artio.replication.ClusterConfiguration;
 import uk.co.real_logic.artio.replication.RoleHandler;
 import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
@@ -33,6 +34,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import static java.lang.Integer.getInteger;
@@ -108,10 +110,40 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the maximum number of bytes to allow in the quarantine buffer before disconnection
      */
     public static final String SENDER_MAX_BYTES_IN_BUFFER_PROP = "fix.core.sender_max_bytes_in_buffer";
+    /**
+     * Property name for the size in bytes of the per connection buffer used to batch outbound messages into a
+     * single write. A value of 0 disables batching.
+     */
+    public static final String SENDER_BATCH_BUFFER_SIZE_PROP = "fix.core.sender_batch_buffer_size";
     /**
      * Property name for the timeout before a connection that hasn't sent a logon is disconnected
      */
     public static final String NO_LOGON_DISCONNECT_TIMEOUT_PROP = "fix.core.no_logon_disconnect";
+    /**
+     * Property name for how the archiver makes archived messages durable, one of {@link ArchiveDurability}'s names
+     */
+    public static final String ARCHIVE_DURABILITY_PROP = "fix.core.archive_durability";
+    /**
+     * Property name for the interval in milliseconds between forcing archived term files to the storage device
+     */
+    public static final String ARCHIVE_FORCE_INTERVAL_PROP = "fix.core.archive_force_interval";
+    /**
+     * Property name for the number of archived bytes that forces term files to the storage device in group commit mode
+     */
+    public static final String ARCHIVE_FORCE_THRESHOLD_PROP = "fix.core.archive_force_threshold";
+    /**
+     * Property name for the number of archived bytes covered by each record of the time index
+     */
+    public static final String TIME_INDEX_BLOCK_SIZE_PROP = "fix.core.time_index_block_size";
+    /**
+     * Property name for the maximum number of replay index segment files that are kept for each session
+     */
+    public static final String REPLAY_INDEX_MAX_SEGMENTS_PROP = "fix.core.replay_index_max_segments";
+    /**
+     * Property name for the maximum number of messages that the replayer resends for a resend request before
+     * serving other sessions
+     */
+    public static final String REPLAY_CHUNK_SIZE_PROP = "fix.core.replay_chunk_size";
 
     // ------------------------------------------------
     //          Configuration Defaults
@@ -131,13 +163,21 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE = 8 * 1024 * 1024;
     public static final int DEFAULT_SESSION_ID_BUFFER_SIZE = 4 * 1024 * 1024;
     public static final int DEFAULT_SENDER_MAX_BYTES_IN_BUFFER = 4 * 1024 * 1024;
+    public static final int DEFAULT_SENDER_BATCH_BUFFER_SIZE = 0;
     public static final int DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT = (int)SECONDS.toMillis(5);
+    public static final String DEFAULT_ARCHIVE_DURABILITY = ArchiveDurability.SYNCHRONOUS.name();
+    public static final int DEFAULT_ARCHIVE_FORCE_INTERVAL_IN_MS = 10;
+    public static final int DEFAULT_ARCHIVE_FORCE_THRESHOLD_IN_BYTES = 1024 * 1024;
+    public static final int DEFAULT_TIME_INDEX_BLOCK_SIZE_IN_BYTES = 64 * 1024;
+    public static final int DEFAULT_REPLAY_INDEX_MAX_SEGMENTS = 1;
+    public static final int DEFAULT_REPLAY_CHUNK_SIZE = 1000;
     public static final int DEFAULT_CLUSTER_TIMEOUT_IN_MS = 1000;
     public static final String DEFAULT_SESSION_ID_FILE = "session_id_buffer";
     public static final String DEFAULT_SEQUENCE_NUMBERS_SENT_FILE = "sequence_numbers_sent";
     public static final String DEFAULT_SEQUENCE_NUMBERS_RECEIVED_FILE = "sequence_numbers_received";
     public static final short NO_NODE_ID = -1;
     public static final long DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS = 10_000;
+    public static final long DEFAULT_ARCHIVE_RETENTION_CHECK_INTERVAL_IN_MS = 60_000;
     public static final ReplayHandler DEFAULT_REPLAY_HANDLER =
         (buffer, offset, length, libraryId, sessionId, sequenceIndex, messageType) ->
         {
@@ -196,16 +236,36 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         getInteger(SESSION_ID_BUFFER_SIZE_PROP, DEFAULT_SESSION_ID_BUFFER_SIZE);
     private int senderMaxBytesInBuffer =
         getInteger(SENDER_MAX_BYTES_IN_BUFFER_PROP, DEFAULT_SENDER_MAX_BYTES_IN_BUFFER);
+    private int senderBatchBufferSize =
+        getInteger(SENDER_BATCH_BUFFER_SIZE_PROP, DEFAULT_SENDER_BATCH_BUFFER_SIZE);
     private int noLogonDisconnectTimeoutInMs =
         getInteger(NO_LOGON_DISCONNECT_TIMEOUT_PROP, DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT);
+    private ArchiveDurability archiveDurability =
+        ArchiveDurability.valueOf(getProperty(ARCHIVE_DURABILITY_PROP, DEFAULT_ARCHIVE_DURABILITY));
+    private int archiveForceIntervalInMs =
+        getInteger(ARCHIVE_FORCE_INTERVAL_PROP, DEFAULT_ARCHIVE_FORCE_INTERVAL_IN_MS);
+    private int archiveForceThresholdInBytes =
+        getInteger(ARCHIVE_FORCE_THRESHOLD_PROP, DEFAULT_ARCHIVE_FORCE_THRESHOLD_IN_BYTES);
+    private int timeIndexBlockSizeInBytes =
+        getInteger(TIME_INDEX_BLOCK_SIZE_PROP, DEFAULT_TIME_INDEX_BLOCK_SIZE_IN_BYTES);
+    private int replayIndexMaxSegments = getInteger(REPLAY_INDEX_MAX_SEGMENTS_PROP, DEFAULT_REPLAY_INDEX_MAX_SEGMENTS);
+    private int replayChunkSize = getInteger(REPLAY_CHUNK_SIZE_PROP, DEFAULT_REPLAY_CHUNK_SIZE);
 
     private String libraryAeronChannel = null;
     private Function<EngineConfiguration, TcpChannelSupplier> channelSupplierFactory = TcpChannelSupplier::new;
     private RoleHandler roleHandler = ClusterConfiguration.DEFAULT_NODE_HANDLER;
     private SessionPersistenceStrategy sessionPersistenceStrategy;
     private long slowConsumerTimeoutInMs = DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
+    private long archiveRetentionMaxAgeInMs = 0;
+    private long archiveRetentionMaxSizeInBytes = 0;
+    private boolean deleteUnreplayableArchiveTerms = false;
+    private long archiveCompressionAgeInMs = 0;
+    private long archiveRetentionCheckIntervalInMs = DEFAULT_ARCHIVE_RETENTION_CHECK_INTERVAL_IN_MS;
     private EngineScheduler scheduler = new DefaultEngineScheduler();
     private ReplayHandler replayHandler = DEFAULT_REPLAY_HANDLER;
+    private Executor authenticationExecutor = null;
+    private Executor indexCatchUpExecutor = null;
+    private Executor replayReadAheadExecutor = null;
 
     /**
      * Sets the local address to bind to when the Gateway is used to accept connections.
@@ -428,6 +488,21 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the size of the per connection buffer used to batch outbound messages. When enabled all the messages
+     * for a connection that are read in a single poll of the outbound stream are written to the TCP connection in
+     * one write, rather than one write per message. Messages larger than the buffer are written individually.
+     *
+     * @param senderBatchBufferSize the size of the batch buffer in bytes, or 0 to disable batching.
+     * @return this
+     * @see EngineConfiguration#SENDER_BATCH_BUFFER_SIZE_PROP
+     */
+    public EngineConfiguration senderBatchBufferSize(final int senderBatchBufferSize)
+    {
+        this.senderBatchBufferSize = senderBatchBufferSize;
+        return this;
+    }
+
     /**
      * Set the timeout in milliseconds for TCP connections which don't send a logon message.
      *
@@ -440,6 +515,164 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Set how the archiver makes archived messages durable. Synchronous durability waits for the storage device on
+     * every write, the other modes trade a window of messages that can be lost on a crash for fewer waits.
+     * <p>
+     * The position up to which each aeron session of an archived stream is durable is published in a counter, see
+     * {@link uk.co.real_logic.artio.FixCounters#findArchivedDurablePosition}.
+     *
+     * @param archiveDurability how the archiver makes archived messages durable.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_DURABILITY_PROP
+     */
+    public EngineConfiguration archiveDurability(final ArchiveDurability archiveDurability)
+    {
+        this.archiveDurability = archiveDurability;
+        return this;
+    }
+
+    /**
+     * Set the interval between forcing archived term files to the storage device, when using periodic or group
+     * commit durability.
+     *
+     * @param archiveForceIntervalInMs the interval in milliseconds between forcing archived term files.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_FORCE_INTERVAL_PROP
+     */
+    public EngineConfiguration archiveForceIntervalInMs(final int archiveForceIntervalInMs)
+    {
+        this.archiveForceIntervalInMs = archiveForceIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Set the number of archived bytes that forces term files to the storage device before the force interval has
+     * elapsed, when using group commit durability.
+     *
+     * @param archiveForceThresholdInBytes the number of archived bytes that forces term files.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_FORCE_THRESHOLD_PROP
+     */
+    public EngineConfiguration archiveForceThresholdInBytes(final int archiveForceThresholdInBytes)
+    {
+        this.archiveForceThresholdInBytes = archiveForceThresholdInBytes;
+        return this;
+    }
+
+    /**
+     * Sets the number of archived bytes covered by each record of the time index. The time index lets
+     * {@link uk.co.real_logic.artio.engine.logger.FixArchiveScanner} skip the parts of the archive that are outside
+     * of the time range of a query. Smaller blocks make queries read less of the archive at the cost of a larger
+     * index.
+     *
+     * @param timeIndexBlockSizeInBytes the number of archived bytes covered by each record of the time index.
+     * @return this
+     * @see EngineConfiguration#TIME_INDEX_BLOCK_SIZE_PROP
+     */
+    public EngineConfiguration timeIndexBlockSizeInBytes(final int timeIndexBlockSizeInBytes)
+    {
+        this.timeIndexBlockSizeInBytes = timeIndexBlockSizeInBytes;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of replay index segments that are kept for each session. Each segment is a file of
+     * {@link #replayIndexFileSize(int)} bytes. With a single segment the replay index of a session is a ring buffer
+     * that overwrites its oldest records when it's full. With more than one a session that fills its segment rolls
+     * over to a new one and the oldest segment is deleted once there are more than this number of them.
+     * <p>
+     * A small index file size combined with many segments lets busy sessions keep a long replayable history
+     * without allocating a large index for every session.
+     *
+     * @param replayIndexMaxSegments the maximum number of replay index segments that are kept for each session.
+     * @return this
+     * @see EngineConfiguration#REPLAY_INDEX_MAX_SEGMENTS_PROP
+     */
+    public EngineConfiguration replayIndexMaxSegments(final int replayIndexMaxSegments)
+    {
+        this.replayIndexMaxSegments = replayIndexMaxSegments;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of messages that are resent in one go for a resend request. Larger resend requests
+     * are replayed a chunk at a time, taking turns with the resend requests of other sessions so that a
+     * counterparty that asks for a large range of messages doesn't hold up everyone else's resends.
+     * <p>
+     * Replays to the same connection are always sent in the order that they were requested. Set to 0 in order to
+     * replay every resend request in full before moving onto the next one.
+     *
+     * @param replayChunkSize the maximum number of messages resent for a resend request before serving others.
+     * @return this
+     * @see EngineConfiguration#REPLAY_CHUNK_SIZE_PROP
+     */
+    public EngineConfiguration replayChunkSize(final int replayChunkSize)
+    {
+        this.replayChunkSize = replayChunkSize;
+        return this;
+    }
+
+    /**
+     * Sets an executor that reads archived messages into memory ahead of replaying them.
+     * <p>
+     * When a replay's range of messages is known from the replay index the archived terms that it covers are read
+     * into the page cache on this executor whilst the replay runs, so a replay of messages that haven't been read
+     * since they were archived, for example the first resend request after a restart, doesn't page fault on every
+     * message. Reading ahead is a hint: requests are dropped if the executor rejects them or falls behind.
+     * <p>
+     * Optional, defaults to null, which doesn't read ahead.
+     *
+     * @param replayReadAheadExecutor the executor to read archived messages on.
+     * @return this
+     */
+    public EngineConfiguration replayReadAheadExecutor(final Executor replayReadAheadExecutor)
+    {
+        this.replayReadAheadExecutor = replayReadAheadExecutor;
+        return this;
+    }
+
+    /**
+     * Sets an executor on which the authentication strategy is invoked for acceptor logons.
+     * <p>
+     * By default the authentication strategy is invoked on the Framer thread, so a slow strategy delays every
+     * connection. When an executor is set, a connection that has sent a logon message stops reading until the
+     * executor has run the strategy and the Framer then resumes the logon, so only that connection is delayed.
+     * The strategy must be thread-safe if the executor uses more than one thread. A logon is still subject to the
+     * no logon disconnect timeout whilst it is being authenticated.
+     * <p>
+     * Optional, defaults to null, which invokes the authentication strategy on the Framer thread.
+     *
+     * @param authenticationExecutor the executor to invoke the authentication strategy on.
+     * @return this
+     */
+    public EngineConfiguration authenticationExecutor(final Executor authenticationExecutor)
+    {
+        this.authenticationExecutor = authenticationExecutor;
+        return this;
+    }
+
+    /**
+     * Sets an executor on which the indices catch up with the archive when the engine starts.
+     * <p>
+     * When the engine starts each of its indices reads any archived messages that it hadn't indexed before the
+     * engine was last stopped, for example after an unclean shutdown. By default the indices catch up one after
+     * another. When an executor is set each index catches up on it as a separate task, so the sent and received
+     * sequence number indices and the replay and time indices of each stream catch up in parallel. The engine
+     * still waits for every index to catch up before it starts. The number of archived bytes that have been caught
+     * up is reported through a counter for each stream.
+     * <p>
+     * Optional, defaults to null, which catches the indices up one after another on the starting thread.
+     *
+     * @param indexCatchUpExecutor the executor to catch indices up on.
+     * @return this
+     */
+    public EngineConfiguration indexCatchUpExecutor(final Executor indexCatchUpExecutor)
+    {
+        this.indexCatchUpExecutor = indexCatchUpExecutor;
+        return this;
+    }
+
     /**
      * Sets the aeron channel to use for clustered communications.
      *
@@ -520,6 +753,79 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Set the age after which archived term files are deleted. Age is measured from when a file was last written to.
+     * <p>
+     * Optional, defaults to 0, which doesn't delete files because of their age.
+     *
+     * @param archiveRetentionMaxAgeInMs the age in milliseconds after which archived term files are deleted.
+     * @return this
+     */
+    public EngineConfiguration archiveRetentionMaxAgeInMs(final long archiveRetentionMaxAgeInMs)
+    {
+        this.archiveRetentionMaxAgeInMs = archiveRetentionMaxAgeInMs;
+        return this;
+    }
+
+    /**
+     * Set the total size of the archived term files of a stream above which its oldest term files are deleted.
+     * The inbound and outbound streams are limited separately.
+     * <p>
+     * Optional, defaults to 0, which doesn't delete files because of their size.
+     *
+     * @param archiveRetentionMaxSizeInBytes the total size in bytes of each stream's archived term files.
+     * @return this
+     */
+    public EngineConfiguration archiveRetentionMaxSizeInBytes(final long archiveRetentionMaxSizeInBytes)
+    {
+        this.archiveRetentionMaxSizeInBytes = archiveRetentionMaxSizeInBytes;
+        return this;
+    }
+
+    /**
+     * Set whether archived term files are deleted once none of their messages can be replayed. A message can't be
+     * replayed once its FIX session has moved on to a new sequence index or once its replay index record has been
+     * overwritten.
+     * <p>
+     * Optional, defaults to false.
+     *
+     * @param deleteUnreplayableArchiveTerms true to delete archived term files that can't be replayed.
+     * @return this
+     */
+    public EngineConfiguration deleteUnreplayableArchiveTerms(final boolean deleteUnreplayableArchiveTerms)
+    {
+        this.deleteUnreplayableArchiveTerms = deleteUnreplayableArchiveTerms;
+        return this;
+    }
+
+    /**
+     * Set the age after which archived term files are compressed. Compressed term files can still be replayed and
+     * scanned, but reading them is slower, so this should be longer than resend requests usually reach back.
+     * Age is measured from when a file was last written to.
+     * <p>
+     * Optional, defaults to 0, which doesn't compress files.
+     *
+     * @param archiveCompressionAgeInMs the age in milliseconds after which archived term files are compressed.
+     * @return this
+     */
+    public EngineConfiguration archiveCompressionAgeInMs(final long archiveCompressionAgeInMs)
+    {
+        this.archiveCompressionAgeInMs = archiveCompressionAgeInMs;
+        return this;
+    }
+
+    /**
+     * Set the interval between checks for archived term files that should be deleted or compressed.
+     *
+     * @param archiveRetentionCheckIntervalInMs the interval in milliseconds between checks.
+     * @return this
+     */
+    public EngineConfiguration archiveRetentionCheckIntervalInMs(final long archiveRetentionCheckIntervalInMs)
+    {
+        this.archiveRetentionCheckIntervalInMs = archiveRetentionCheckIntervalInMs;
+        return this;
+    }
+
     public EngineConfiguration scheduler(final EngineScheduler scheduler)
     {
         this.scheduler = scheduler;
@@ -674,11 +980,61 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return senderMaxBytesInBuffer;
     }
 
+    public int senderBatchBufferSize()
+    {
+        return senderBatchBufferSize;
+    }
+
     public int noLogonDisconnectTimeoutInMs()
     {
         return noLogonDisconnectTimeoutInMs;
     }
 
+    public ArchiveDurability archiveDurability()
+    {
+        return archiveDurability;
+    }
+
+    public int archiveForceIntervalInMs()
+    {
+        return archiveForceIntervalInMs;
+    }
+
+    public int archiveForceThresholdInBytes()
+    {
+        return archiveForceThresholdInBytes;
+    }
+
+    public int timeIndexBlockSizeInBytes()
+    {
+        return timeIndexBlockSizeInBytes;
+    }
+
+    public int replayIndexMaxSegments()
+    {
+        return replayIndexMaxSegments;
+    }
+
+    public int replayChunkSize()
+    {
+        return replayChunkSize;
+    }
+
+    public Executor replayReadAheadExecutor()
+    {
+        return replayReadAheadExecutor;
+    }
+
+    public Executor authenticationExecutor()
+    {
+        return authenticationExecutor;
+    }
+
+    public Executor indexCatchUpExecutor()
+    {
+        return indexCatchUpExecutor;
+    }
+
     public String clusterAeronChannel()
     {
         return clusterAeronChannel;
@@ -724,6 +1080,39 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return slowConsumerTimeoutInMs;
     }
 
+    public long archiveRetentionMaxAgeInMs()
+    {
+        return archiveRetentionMaxAgeInMs;
+    }
+
+    public long archiveRetentionMaxSizeInBytes()
+    {
+        return archiveRetentionMaxSizeInBytes;
+    }
+
+    public boolean deleteUnreplayableArchiveTerms()
+    {
+        return deleteUnreplayableArchiveTerms;
+    }
+
+    public long archiveCompressionAgeInMs()
+    {
+        return archiveCompressionAgeInMs;
+    }
+
+    public long archiveRetentionCheckIntervalInMs()
+    {
+        return archiveRetentionCheckIntervalInMs;
+    }
+
+    public boolean hasArchiveRetention()
+    {
+        return archiveRetentionMaxAgeInMs > 0 ||
+            archiveRetentionMaxSizeInBytes > 0 ||
+            deleteUnreplayableArchiveTerms ||
+            archiveCompressionAgeInMs > 0;
+    }
+
     public ReplayHandler replayHandler()
     {
         return replayHandler;
@@ -36,8 +36,12 @@ import uk.co.real_logic.artio.replication.StreamIdentifier;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
@@ -155,6 +159,7 @@ public abstract class EngineContext implements AutoCloseable
             logFileDir,
             streamId,
             configuration.replayIndexFileSize(),
+            configuration.replayIndexMaxSegments(),
             cacheNumSets,
             cacheSetSize,
             LoggerUtil::map,
@@ -162,6 +167,11 @@ public abstract class EngineContext implements AutoCloseable
             errorHandler);
     }
 
+    protected TimeIndex newTimeIndex(final String logFileDir, final int streamId)
+    {
+        return new TimeIndex(logFileDir, streamId, configuration.timeIndexBlockSizeInBytes(), errorHandler);
+    }
+
     protected ReplayQuery newReplayQuery(final ArchiveReader archiveReader, final IdleStrategy idleStrategy)
     {
         final String logFileDir = configuration.logFileDir();
@@ -196,7 +206,9 @@ public abstract class EngineContext implements AutoCloseable
             configuration.loggerCacheNumSets(),
             configuration.loggerCacheSetSize(),
             streamId,
-            reservedValueFilter);
+            reservedValueFilter,
+            configuration.replayReadAheadExecutor(),
+            errorHandler);
     }
 
     protected Archiver archiver(final StreamIdentifier streamId, final CompletionPosition completionPosition)
@@ -207,7 +219,30 @@ public abstract class EngineContext implements AutoCloseable
             configuration.loggerCacheSetSize(),
             streamId,
             configuration.agentNamePrefix(),
-            completionPosition);
+            completionPosition,
+            configuration.archiveDurability(),
+            MILLISECONDS.toNanos(configuration.archiveForceIntervalInMs()),
+            configuration.archiveForceThresholdInBytes(),
+            nanoClock,
+            fixCounters);
+    }
+
+    protected ArchiveRetention archiveRetention(final StreamIdentifier streamId)
+    {
+        final String logFileDir = configuration.logFileDir();
+        return new ArchiveRetention(
+            LoggerUtil.newArchiveMetaData(logFileDir),
+            streamId,
+            logFileDir,
+            ReplayIndexDescriptor.replayPositionBuffer(logFileDir, streamId.streamId()),
+            new SystemEpochClock(),
+            configuration.archiveRetentionMaxAgeInMs(),
+            configuration.archiveRetentionMaxSizeInBytes(),
+            configuration.deleteUnreplayableArchiveTerms(),
+            configuration.archiveCompressionAgeInMs(),
+            configuration.archiveRetentionCheckIntervalInMs(),
+            errorHandler,
+            configuration.agentNamePrefix());
     }
 
     protected Replayer newReplayer(
@@ -225,7 +260,8 @@ public abstract class EngineContext implements AutoCloseable
             new SystemEpochClock(),
             configuration.gapfillOnReplayMessageTypes(),
             configuration.replayHandler(),
-            senderSequenceNumbers);
+            senderSequenceNumbers,
+            configuration.replayChunkSize());
     }
 
     protected void newIndexers(
@@ -240,15 +276,17 @@ public abstract class EngineContext implements AutoCloseable
         final ReplayIndex replayIndex = newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, INBOUND_LIBRARY_STREAM);
 
         inboundIndexer = new Indexer(
-            asList(replayIndex, receivedSequenceNumberIndex),
+            asList(replayIndex, receivedSequenceNumberIndex, newTimeIndex(logFileDir, INBOUND_LIBRARY_STREAM)),
             inboundArchiveReader,
             inboundLibraryStreams.subscription("inboundIndexer"),
             configuration.agentNamePrefix(),
-            inboundCompletionPosition);
+            inboundCompletionPosition,
+            fixCounters.indicesCaughtUpBytes(INBOUND_LIBRARY_STREAM));
 
         final List<Index> outboundIndices = new ArrayList<>();
         outboundIndices.add(newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, OUTBOUND_LIBRARY_STREAM));
         outboundIndices.add(sentSequenceNumberIndex);
+        outboundIndices.add(newTimeIndex(logFileDir, OUTBOUND_LIBRARY_STREAM));
         if (extraOutboundIndex != null)
         {
             outboundIndices.add(extraOutboundIndex);
@@ -259,7 +297,34 @@ public abstract class EngineContext implements AutoCloseable
             outboundArchiveReader,
             outboundLibraryStreams.subscription("outboundIndexer"),
             configuration.agentNamePrefix(),
-            outboundLibraryCompletionPosition);
+            outboundLibraryCompletionPosition,
+            fixCounters.indicesCaughtUpBytes(OUTBOUND_LIBRARY_STREAM));
+
+        final Executor catchUpExecutor = configuration.indexCatchUpExecutor();
+        if (catchUpExecutor == null)
+        {
+            inboundIndexer.catchIndexUp();
+            outboundIndexer.catchIndexUp();
+        }
+        else
+        {
+            CompletableFuture.allOf(
+                inboundIndexer.catchIndexUp(catchUpExecutor, catchUpArchiveReaders(inboundArchiveReader)),
+                outboundIndexer.catchIndexUp(catchUpExecutor, catchUpArchiveReaders(outboundArchiveReader)))
+                .join();
+        }
+    }
+
+    private Supplier<ArchiveReader> catchUpArchiveReaders(final ArchiveReader archiveReader)
+    {
+        if (archiveReader == null)
+        {
+            return () -> null;
+        }
+
+        final StreamIdentifier streamId = archiveReader.fullStreamId();
+        final int reservedValueFilter = archiveReader.reservedValueFilter();
+        return () -> archiveReader(streamId, reservedValueFilter);
     }
 
     public abstract Streams outboundLibraryStreams();
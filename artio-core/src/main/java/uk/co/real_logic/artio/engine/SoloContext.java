@@ -116,6 +116,16 @@ class SoloContext extends EngineContext
             agents.add(outboundIndexer);
             agents.add(replayer);
 
+            if (configuration.hasArchiveRetention())
+            {
+                if (configuration.logInboundMessages())
+                {
+                    agents.add(archiveRetention(inboundStreamId));
+                }
+
+                agents.add(archiveRetention(outboundStreamId));
+            }
+
             archivingAgent = new CompositeAgent(agents);
         }
         else
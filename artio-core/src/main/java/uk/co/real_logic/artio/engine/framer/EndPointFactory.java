@@ -114,6 +114,7 @@ class EndPointFactory
             errorHandler,
             framer,
             configuration.senderMaxBytesInBuffer(),
+            configuration.senderBatchBufferSize(),
             configuration.slowConsumerTimeoutInMs(),
             System.currentTimeMillis(),
             senderSequenceNumbers.onNewSender(connectionId));
@@ -404,11 +404,13 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private int sendOutboundMessages()
     {
         int messagesRead = librarySubscription.controlledPoll(librarySubscriber, outboundLibraryFragmentLimit);
+        senderEndPoints.flushBatches();
         messagesRead += librarySlowPeeker.peek(senderEndPointAssembler);
 
         if (isClustered())
         {
             messagesRead += clusterSubscription.poll(clusterSubscriber, outboundLibraryFragmentLimit);
+            senderEndPoints.flushBatches();
             messagesRead += clusterSlowPeeker.peek(senderEndPoints);
         }
         else if (nonLoggingPositionSender != null)
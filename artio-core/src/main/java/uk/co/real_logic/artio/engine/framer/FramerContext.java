@@ -97,7 +97,9 @@ public class FramerContext
             configuration.reasonableTransmissionTimeInMs(),
             errorHandler,
             sessionContexts,
-            configuration.sessionPersistenceStrategy());
+            configuration.sessionPersistenceStrategy(),
+            configuration.deadlineSessionPolling(),
+            configuration.authenticationExecutor());
 
         final EndPointFactory endPointFactory = new EndPointFactory(
             configuration,
@@ -23,6 +23,7 @@ import uk.co.real_logic.artio.session.CompositeKey;
 import uk.co.real_logic.artio.session.Session;
 import uk.co.real_logic.artio.session.SessionLogonListener;
 import uk.co.real_logic.artio.session.SessionParser;
+import uk.co.real_logic.artio.timing.DeadlinePollable;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.validation.PersistenceLevel;
 
@@ -32,7 +33,7 @@ import static uk.co.real_logic.artio.LogTag.FIX_MESSAGE;
 import static uk.co.real_logic.artio.LogTag.GATEWAY_MESSAGE;
 import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
 
-class GatewaySession implements SessionInfo
+class GatewaySession implements SessionInfo, DeadlinePollable
 {
     private static final int NO_TIMEOUT = -1;
 
@@ -56,6 +57,7 @@ class GatewaySession implements SessionInfo
     private PersistenceLevel persistenceLevel;
     private Consumer<GatewaySession> onGatewaySessionLogon;
     private SessionLogonListener logonListener = this::onSessionLogon;
+    private Runnable deadlineChangeHandler;
 
     GatewaySession(
         final long connectionId,
@@ -103,6 +105,7 @@ class GatewaySession implements SessionInfo
         this.sessionParser = sessionParser;
         this.session = session;
         this.session.logonListener(logonListener);
+        this.session.deadlineChangeHandler(deadlineChangeHandler);
         receiverEndPoint.libraryId(ENGINE_LIBRARY_ID);
         senderEndPoint.libraryId(ENGINE_LIBRARY_ID, blockablePosition);
     }
@@ -116,6 +119,7 @@ class GatewaySession implements SessionInfo
         senderEndPoint.libraryId(libraryId, blockablePosition);
         sessionParser = null;
         session.logonListener(null);
+        session.deadlineChangeHandler(null);
         context.updateAndSaveFrom(session);
         session.close();
         session = null;
@@ -126,11 +130,42 @@ class GatewaySession implements SessionInfo
         receiverEndPoint.play();
     }
 
-    int poll(final long time)
+    public int poll(final long time)
     {
         return session.poll(time) + checkNoLogonDisconnect(time);
     }
 
+    public long nextPollTimeInMs()
+    {
+        final long sessionPollTimeInMs = session.nextPollTimeInMs();
+        if (disconnectTimeout == NO_TIMEOUT || receiverEndPoint.hasDisconnected())
+        {
+            return sessionPollTimeInMs;
+        }
+
+        // A logon clears the disconnect timeout on the next poll.
+        final long disconnectPollTimeInMs = sessionKey != null ? 0 : disconnectTimeout;
+        return Math.min(sessionPollTimeInMs, disconnectPollTimeInMs);
+    }
+
+    void deadlineChangeHandler(final Runnable deadlineChangeHandler)
+    {
+        this.deadlineChangeHandler = deadlineChangeHandler;
+        if (session != null)
+        {
+            session.deadlineChangeHandler(deadlineChangeHandler);
+        }
+    }
+
+    private void onDeadlineChange()
+    {
+        final Runnable deadlineChangeHandler = this.deadlineChangeHandler;
+        if (deadlineChangeHandler != null)
+        {
+            deadlineChangeHandler.run();
+        }
+    }
+
     private int checkNoLogonDisconnect(final long time)
     {
         if (disconnectTimeout == NO_TIMEOUT)
@@ -181,6 +216,7 @@ class GatewaySession implements SessionInfo
             DebugLogger.log(FIX_MESSAGE, "Gateway Received %s %n", buffer, offset, length);
 
             sessionParser.onMessage(buffer, offset, length, messageType, sessionId);
+            onDeadlineChange();
         }
     }
 
@@ -255,6 +291,7 @@ class GatewaySession implements SessionInfo
     void disconnectAt(final long disconnectTimeout)
     {
         this.disconnectTimeout = disconnectTimeout;
+        onDeadlineChange();
     }
 
     public long bytesInBuffer()
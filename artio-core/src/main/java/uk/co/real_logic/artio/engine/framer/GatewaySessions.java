@@ -29,6 +29,7 @@ import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
 import uk.co.real_logic.artio.messages.SessionState;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.session.*;
+import uk.co.real_logic.artio.timing.DeadlinePollScheduler;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.validation.AuthenticationStrategy;
 import uk.co.real_logic.artio.validation.MessageValidationStrategy;
@@ -37,6 +38,7 @@ import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import static uk.co.real_logic.artio.LogTag.FIX_MESSAGE;
 import static uk.co.real_logic.artio.engine.framer.SessionContexts.DUPLICATE_SESSION;
@@ -60,6 +62,8 @@ class GatewaySessions
     private final long reasonableTransmissionTimeInMs;
     private final SessionContexts sessionContexts;
     private final SessionPersistenceStrategy sessionPersistenceStrategy;
+    private final DeadlinePollScheduler<GatewaySession> pollScheduler;
+    private final Executor authenticationExecutor;
 
     private ErrorHandler errorHandler;
 
@@ -76,7 +80,9 @@ class GatewaySessions
         final long reasonableTransmissionTimeInMs,
         final ErrorHandler errorHandler,
         final SessionContexts sessionContexts,
-        final SessionPersistenceStrategy sessionPersistenceStrategy)
+        final SessionPersistenceStrategy sessionPersistenceStrategy,
+        final boolean deadlineSessionPolling,
+        final Executor authenticationExecutor)
     {
         this.clock = clock;
         this.outboundPublication = outboundPublication;
@@ -91,6 +97,8 @@ class GatewaySessions
         this.errorHandler = errorHandler;
         this.sessionContexts = sessionContexts;
         this.sessionPersistenceStrategy = sessionPersistenceStrategy;
+        this.pollScheduler = deadlineSessionPolling ? new DeadlinePollScheduler<>(clock.time()) : null;
+        this.authenticationExecutor = authenticationExecutor;
     }
 
     void acquire(
@@ -141,6 +149,10 @@ class GatewaySessions
             errorHandler);
 
         sessions.add(gatewaySession);
+        if (pollScheduler != null)
+        {
+            gatewaySession.deadlineChangeHandler(() -> pollScheduler.reschedule(connectionId));
+        }
         gatewaySession.manage(sessionParser, session, engineBlockablePosition);
 
         final CompositeKey sessionKey = gatewaySession.sessionKey();
@@ -150,6 +162,11 @@ class GatewaySessions
             gatewaySession.onLogon(username, password, heartbeatIntervalInS);
             session.lastReceivedMsgSeqNum(lastReceivedSequenceNumber);
         }
+
+        if (pollScheduler != null)
+        {
+            pollScheduler.add(gatewaySession);
+        }
     }
 
     GatewaySession releaseBySessionId(final long sessionId)
@@ -160,7 +177,9 @@ class GatewaySessions
             return null;
         }
 
-        return sessions.remove(index);
+        final GatewaySession session = sessions.remove(index);
+        stopPolling(session);
+        return session;
     }
 
     GatewaySession sessionById(final long sessionId)
@@ -195,13 +214,28 @@ class GatewaySessions
         final GatewaySession session = removeSessionByConnectionId(connectionId, sessions);
         if (session != null)
         {
+            stopPolling(session);
             session.close();
         }
         return session;
     }
 
+    private void stopPolling(final GatewaySession session)
+    {
+        if (pollScheduler != null)
+        {
+            session.deadlineChangeHandler(null);
+            pollScheduler.remove(session.connectionId());
+        }
+    }
+
     int pollSessions(final long time)
     {
+        if (pollScheduler != null)
+        {
+            return pollScheduler.poll(time);
+        }
+
         final List<GatewaySession> sessions = this.sessions;
 
         int eventsProcessed = 0;
@@ -240,31 +274,134 @@ class GatewaySessions
         final SequenceNumberIndexReader receivedSequenceNumberIndex,
         final GatewaySession gatewaySession)
     {
-        final CompositeKey compositeKey = sessionIdStrategy.onAcceptLogon(logon.header());
-        final SessionContext sessionContext = sessionContexts.onLogon(compositeKey);
-        final long sessionId = sessionContext.sessionId();
+        final SessionContext sessionContext = sessionContexts.onAcceptLogon(logon.header());
         if (sessionContext == DUPLICATE_SESSION)
         {
             return AuthenticationResult.DUPLICATE_SESSION;
         }
 
-        boolean authenticated;
+        final CompositeKey compositeKey = sessionContext.compositeKey();
+
+        if (!authenticate(logon, connectionId))
+        {
+            sessionContexts.onDisconnect(sessionContext.sessionId());
+            return AuthenticationResult.FAILED_AUTHENTICATION;
+        }
+
+        return initiate(
+            logon,
+            connectionId,
+            sentSequenceNumberIndex,
+            receivedSequenceNumberIndex,
+            gatewaySession,
+            compositeKey,
+            sessionContext);
+    }
+
+    boolean authenticatesAsynchronously()
+    {
+        return authenticationExecutor != null;
+    }
+
+    /**
+     * Reserve the session of a logon and hand it to the authentication executor. The logon decoder mustn't be
+     * changed until the authentication has completed.
+     *
+     * @return the pending authentication, or null if the session is already logged on.
+     */
+    PendingAuthentication authenticateAsynchronously(final LogonDecoder logon, final long connectionId)
+    {
+        final SessionContext sessionContext = sessionContexts.onAcceptLogon(logon.header());
+        if (sessionContext == DUPLICATE_SESSION)
+        {
+            return null;
+        }
+
+        final CompositeKey compositeKey = sessionContext.compositeKey();
+        final PendingAuthentication pendingAuthentication = new PendingAuthentication(compositeKey, sessionContext);
         try
         {
-            authenticated = authenticationStrategy.authenticate(logon);
+            authenticationExecutor.execute(() ->
+            {
+                boolean authenticated = false;
+                try
+                {
+                    authenticated = authenticate(logon, connectionId);
+                }
+                finally
+                {
+                    pendingAuthentication.complete(authenticated);
+                }
+            });
         }
         catch (final Throwable throwable)
         {
-            // TODO(Nick): Maybe this should go back to also logging the message that was being decoded.
-            onStrategyError("authentication", throwable, connectionId);
-            authenticated = false;
+            final String message = String.format(
+                "Authentication executor failed to accept logon for connectionId=%d, defaulted to false",
+                connectionId);
+            onError(new FixGatewayException(message, throwable));
+            pendingAuthentication.complete(false);
         }
 
-        if (!authenticated)
+        return pendingAuthentication;
+    }
+
+    /**
+     * Complete a logon whose authentication has been decided by the authentication executor.
+     */
+    AuthenticationResult completeAuthentication(
+        final PendingAuthentication pendingAuthentication,
+        final LogonDecoder logon,
+        final long connectionId,
+        final SequenceNumberIndexReader sentSequenceNumberIndex,
+        final SequenceNumberIndexReader receivedSequenceNumberIndex,
+        final GatewaySession gatewaySession)
+    {
+        if (!pendingAuthentication.isAuthenticated())
         {
+            abandonAuthentication(pendingAuthentication);
             return AuthenticationResult.FAILED_AUTHENTICATION;
         }
 
+        return initiate(
+            logon,
+            connectionId,
+            sentSequenceNumberIndex,
+            receivedSequenceNumberIndex,
+            gatewaySession,
+            pendingAuthentication.compositeKey(),
+            pendingAuthentication.sessionContext());
+    }
+
+    void abandonAuthentication(final PendingAuthentication pendingAuthentication)
+    {
+        sessionContexts.onDisconnect(pendingAuthentication.sessionContext().sessionId());
+    }
+
+    private boolean authenticate(final LogonDecoder logon, final long connectionId)
+    {
+        try
+        {
+            return authenticationStrategy.authenticate(logon);
+        }
+        catch (final Throwable throwable)
+        {
+            // TODO(Nick): Maybe this should go back to also logging the message that was being decoded.
+            onStrategyError("authentication", throwable, connectionId);
+            return false;
+        }
+    }
+
+    private AuthenticationResult initiate(
+        final LogonDecoder logon,
+        final long connectionId,
+        final SequenceNumberIndexReader sentSequenceNumberIndex,
+        final SequenceNumberIndexReader receivedSequenceNumberIndex,
+        final GatewaySession gatewaySession,
+        final CompositeKey compositeKey,
+        final SessionContext sessionContext)
+    {
+        final long sessionId = sessionContext.sessionId();
         PersistenceLevel persistenceLevel;
         try
         {
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.session.CompositeKey;
+
+/**
+ * A logon that has been handed to the authentication executor. The session is reserved in the
+ * {@link SessionContexts} until the Framer completes or abandons the logon.
+ * <p>
+ * The result is published by the executor and read by the Framer.
+ */
+final class PendingAuthentication
+{
+    private static final int PENDING = 0;
+    private static final int AUTHENTICATED = 1;
+    private static final int REJECTED = 2;
+
+    private final CompositeKey compositeKey;
+    private final SessionContext sessionContext;
+
+    private volatile int state = PENDING;
+
+    PendingAuthentication(final CompositeKey compositeKey, final SessionContext sessionContext)
+    {
+        this.compositeKey = compositeKey;
+        this.sessionContext = sessionContext;
+    }
+
+    void complete(final boolean authenticated)
+    {
+        state = authenticated ? AUTHENTICATED : REJECTED;
+    }
+
+    boolean isPending()
+    {
+        return state == PENDING;
+    }
+
+    boolean isAuthenticated()
+    {
+        return state == AUTHENTICATED;
+    }
+
+    CompositeKey compositeKey()
+    {
+        return compositeKey;
+    }
+
+    SessionContext sessionContext()
+    {
+        return sessionContext;
+    }
+}
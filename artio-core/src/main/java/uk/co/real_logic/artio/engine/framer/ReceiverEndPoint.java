@@ -101,6 +101,7 @@ class ReceiverEndPoint
     private boolean hasDisconnected = false;
     private SelectionKey selectionKey;
     private boolean isPaused = false;
+    private PendingAuthentication pendingAuthentication;
 
     ReceiverEndPoint(
         final TcpChannel channel,
@@ -166,6 +167,19 @@ class ReceiverEndPoint
 
         try
         {
+            if (pendingAuthentication != null)
+            {
+                if (pendingAuthentication.isPending())
+                {
+                    return 0;
+                }
+
+                if (!completeAuthentication())
+                {
+                    return 1;
+                }
+            }
+
             return readData() + frameMessages();
         }
         catch (final ClosedChannelException ex)
@@ -356,6 +370,12 @@ class ReceiverEndPoint
             return false;
         }
 
+        if (gatewaySessions.authenticatesAsynchronously())
+        {
+            authenticateAsynchronously(offset, length);
+            return true;
+        }
+
         logon.decode(buffer, offset, length);
 
         final AuthenticationResult authResult = gatewaySessions.authenticateAndInitiate(
@@ -379,12 +399,58 @@ class ReceiverEndPoint
             return true;
         }
 
+        onAuthenticated();
+
+        return false;
+    }
+
+    private void authenticateAsynchronously(final int offset, final int length)
+    {
+        // The logon stays at the start of the buffer, and no more data is read, until the logon is completed.
+        moveRemainingDataToBufferStart(offset);
+        logon.decode(buffer, 0, length);
+
+        pendingAuthentication = gatewaySessions.authenticateAsynchronously(logon, connectionId());
+        if (pendingAuthentication == null)
+        {
+            close(DisconnectReason.DUPLICATE_SESSION);
+            removeEndpointFromFramer();
+        }
+    }
+
+    private boolean completeAuthentication()
+    {
+        final AuthenticationResult authResult = gatewaySessions.completeAuthentication(
+            pendingAuthentication,
+            logon,
+            connectionId(),
+            sentSequenceNumberIndex,
+            receivedSequenceNumberIndex,
+            gatewaySession);
+        pendingAuthentication = null;
+
+        if (!authResult.isValid())
+        {
+            onInvalidLogon();
+            return false;
+        }
+
+        onAuthenticated();
+
+        return true;
+    }
+
+    private void onAuthenticated()
+    {
         sessionId = gatewaySession.sessionId();
         sequenceIndex = gatewaySession.sequenceIndex();
 
         choosePublication(gatewaySession.persistenceLevel());
+    }
 
-        return false;
+    boolean isAwaitingAuthentication()
+    {
+        return pendingAuthentication != null;
     }
 
     private boolean stashIfBackPressured(final int offset, final long position)
@@ -585,6 +651,12 @@ class ReceiverEndPoint
         framer.schedule(() -> libraryPublication.saveDisconnect(libraryId, connectionId, reason));
 
         sessionContexts.onDisconnect(sessionId);
+        if (pendingAuthentication != null)
+        {
+            gatewaySessions.abandonAuthentication(pendingAuthentication);
+            pendingAuthentication = null;
+        }
+
         if (selectionKey != null)
         {
             selectionKey.cancel();
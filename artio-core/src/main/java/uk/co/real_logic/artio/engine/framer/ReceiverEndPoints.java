@@ -30,6 +30,8 @@ import static uk.co.real_logic.artio.messages.DisconnectReason.ENGINE_SHUTDOWN;
 class ReceiverEndPoints extends TransportPoller
 {
     private ReceiverEndPoint[] endPoints = new ReceiverEndPoint[0];
+    // End points that are waiting for an authentication result don't get selected, so they're polled separately.
+    private ReceiverEndPoint[] awaitingAuthenticationEndPoints = new ReceiverEndPoint[0];
 
     void add(final ReceiverEndPoint endPoint)
     {
@@ -61,6 +63,7 @@ class ReceiverEndPoints extends TransportPoller
         }
 
         this.endPoints = ArrayUtil.remove(endPoints, index);
+        removeAwaitingAuthentication(connectionId);
 
         selectNowToForceProcessing();
     }
@@ -88,7 +91,13 @@ class ReceiverEndPoints extends TransportPoller
             {
                 for (int i = numEndPoints - 1; i >= 0; i--)
                 {
-                    bytesReceived += endPoints[i].pollForData();
+                    final ReceiverEndPoint endPoint = endPoints[i];
+                    bytesReceived += endPoint.pollForData();
+                    if (endPoint.isAwaitingAuthentication())
+                    {
+                        // Tracked in case the number of end points rises above the threshold.
+                        addAwaitingAuthentication(endPoint);
+                    }
                 }
             }
             else
@@ -98,10 +107,17 @@ class ReceiverEndPoints extends TransportPoller
                 final SelectionKey[] keys = selectedKeySet.keys();
                 for (int i = selectedKeySet.size() - 1; i >= 0; i--)
                 {
-                    bytesReceived += ((ReceiverEndPoint)keys[i].attachment()).pollForData();
+                    final ReceiverEndPoint endPoint = (ReceiverEndPoint)keys[i].attachment();
+                    bytesReceived += endPoint.pollForData();
+                    if (endPoint.isAwaitingAuthentication())
+                    {
+                        addAwaitingAuthentication(endPoint);
+                    }
                 }
 
                 selectedKeySet.reset();
+
+                bytesReceived += pollAwaitingAuthentication();
             }
         }
         catch (final IOException ex)
@@ -112,6 +128,50 @@ class ReceiverEndPoints extends TransportPoller
         return bytesReceived;
     }
 
+    private int pollAwaitingAuthentication()
+    {
+        int bytesReceived = 0;
+        final ReceiverEndPoint[] endPoints = awaitingAuthenticationEndPoints;
+        for (int i = endPoints.length - 1; i >= 0; i--)
+        {
+            final ReceiverEndPoint endPoint = endPoints[i];
+            bytesReceived += endPoint.pollForData();
+            if (!endPoint.isAwaitingAuthentication())
+            {
+                awaitingAuthenticationEndPoints = ArrayUtil.remove(awaitingAuthenticationEndPoints, endPoint);
+            }
+        }
+
+        return bytesReceived;
+    }
+
+    private void addAwaitingAuthentication(final ReceiverEndPoint endPoint)
+    {
+        final ReceiverEndPoint[] endPoints = awaitingAuthenticationEndPoints;
+        for (final ReceiverEndPoint awaitingEndPoint : endPoints)
+        {
+            if (awaitingEndPoint == endPoint)
+            {
+                return;
+            }
+        }
+
+        awaitingAuthenticationEndPoints = ArrayUtil.add(endPoints, endPoint);
+    }
+
+    private void removeAwaitingAuthentication(final long connectionId)
+    {
+        final ReceiverEndPoint[] endPoints = awaitingAuthenticationEndPoints;
+        for (int i = endPoints.length - 1; i >= 0; i--)
+        {
+            if (endPoints[i].connectionId() == connectionId)
+            {
+                awaitingAuthenticationEndPoints = ArrayUtil.remove(endPoints, i);
+                return;
+            }
+        }
+    }
+
     public void close()
     {
         Stream.of(endPoints).forEach(receiverEndPoint -> receiverEndPoint.close(ENGINE_SHUTDOWN));
@@ -19,6 +19,7 @@ import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
@@ -28,6 +29,7 @@ import uk.co.real_logic.artio.messages.DisconnectReason;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static uk.co.real_logic.artio.LogTag.FIX_MESSAGE;
@@ -38,6 +40,8 @@ import static uk.co.real_logic.artio.protocol.GatewayPublication.FRAME_SIZE;
 
 class SenderEndPoint
 {
+    private static final int INITIAL_BATCH_MESSAGE_CAPACITY = 16;
+
     private final long connectionId;
     private final TcpChannel channel;
     private final AtomicCounter bytesInBuffer;
@@ -50,6 +54,14 @@ class SenderEndPoint
     private final StreamTracker replayTracker;
     private final SenderSequenceNumber senderSequenceNumber;
 
+    // Null if outbound messages aren't batched
+    private final ByteBuffer batchByteBuffer;
+    private final UnsafeBuffer batchBuffer;
+    private long[] batchPositions;
+    private int[] batchLengths;
+    private int batchCount;
+    private int batchLength;
+
     private int libraryId;
     private long sessionId;
     private long sendingTimeoutTimeInMs;
@@ -65,6 +77,7 @@ class SenderEndPoint
         final ErrorHandler errorHandler,
         final Framer framer,
         final int maxBytesInBuffer,
+        final int batchBufferSize,
         final long slowConsumerTimeoutInMs,
         final long timeInMs,
         final SenderSequenceNumber senderSequenceNumber)
@@ -83,6 +96,19 @@ class SenderEndPoint
         outboundTracker = new StreamTracker(outboundBlockablePosition);
         replayTracker = new StreamTracker(replayBlockablePosition);
         sendingTimeoutTimeInMs = timeInMs + slowConsumerTimeoutInMs;
+
+        if (batchBufferSize > 0)
+        {
+            batchByteBuffer = ByteBuffer.allocateDirect(batchBufferSize);
+            batchBuffer = new UnsafeBuffer(batchByteBuffer);
+            batchPositions = new long[INITIAL_BATCH_MESSAGE_CAPACITY];
+            batchLengths = new int[INITIAL_BATCH_MESSAGE_CAPACITY];
+        }
+        else
+        {
+            batchByteBuffer = null;
+            batchBuffer = null;
+        }
     }
 
     void onOutboundMessage(
@@ -100,7 +126,14 @@ class SenderEndPoint
             return;
         }
 
-        attemptFramedMessage(directBuffer, offset, bodyLength, timeInMs, position, outboundTracker);
+        if (batchBuffer != null)
+        {
+            batchFramedMessage(directBuffer, offset, bodyLength, timeInMs, position);
+        }
+        else
+        {
+            attemptFramedMessage(directBuffer, offset, bodyLength, timeInMs, position, outboundTracker);
+        }
 
         // TODO: think about how to deal with slow messages
         senderSequenceNumber.onNewMessage(sequenceNumber);
@@ -171,6 +204,118 @@ class SenderEndPoint
         }
     }
 
+    private void batchFramedMessage(
+        final DirectBuffer directBuffer,
+        final int offset,
+        final int bodyLength,
+        final long timeInMs,
+        final long position)
+    {
+        final int capacity = batchBuffer.capacity();
+        if (batchCount > 0 && batchLength + bodyLength > capacity)
+        {
+            flushBatch(timeInMs);
+        }
+
+        // Slow consumers and messages that can never fit into the batch go down the un-batched path
+        if (isSlowConsumer() || bodyLength > capacity)
+        {
+            attemptFramedMessage(directBuffer, offset, bodyLength, timeInMs, position, outboundTracker);
+            return;
+        }
+
+        if (batchCount == batchPositions.length)
+        {
+            final int newCapacity = batchCount << 1;
+            batchPositions = Arrays.copyOf(batchPositions, newCapacity);
+            batchLengths = Arrays.copyOf(batchLengths, newCapacity);
+        }
+
+        batchBuffer.putBytes(batchLength, directBuffer, offset, bodyLength);
+        batchPositions[batchCount] = position;
+        batchLengths[batchCount] = bodyLength;
+        batchCount++;
+        batchLength += bodyLength;
+    }
+
+    boolean hasBatchedMessages()
+    {
+        return batchCount > 0;
+    }
+
+    /**
+     * Write all the messages batched up since the last flush in a single write to the channel.
+     *
+     * @param timeInMs the current time
+     */
+    void flushBatch(final long timeInMs)
+    {
+        final int batchCount = this.batchCount;
+        final int batchLength = this.batchLength;
+        if (batchCount == 0)
+        {
+            return;
+        }
+
+        this.batchCount = 0;
+        this.batchLength = 0;
+
+        try
+        {
+            final ByteBuffer buffer = batchByteBuffer;
+            ByteBufferUtil.limit(buffer, batchLength);
+            ByteBufferUtil.position(buffer, 0);
+
+            final int written = channel.write(buffer);
+            DebugLogger.log(FIX_MESSAGE, "Written  %s%n", buffer, written);
+            updateSendingTimeoutTimeInMs(timeInMs, written);
+
+            if (written != batchLength)
+            {
+                onPartialBatchWrite(written, batchCount);
+            }
+            else
+            {
+                outboundTracker.sentPosition = batchPositions[batchCount - 1];
+            }
+        }
+        catch (final IOException ex)
+        {
+            onError(ex);
+        }
+    }
+
+    private void onPartialBatchWrite(final int written, final int batchCount)
+    {
+        final int[] batchLengths = this.batchLengths;
+
+        // Find the first message that wasn't completely written
+        int writtenOfMessage = written;
+        int index = 0;
+        while (writtenOfMessage >= batchLengths[index])
+        {
+            writtenOfMessage -= batchLengths[index];
+            index++;
+        }
+
+        final int bodyLength = batchLengths[index];
+        becomeSlowConsumer(writtenOfMessage, bodyLength, batchPositions[index], outboundTracker);
+
+        // Messages after the partially written one are accounted as if they arrived whilst slow.
+        long bytesInBuffer = bodyLength - writtenOfMessage;
+        for (int i = index + 1; i < batchCount; i++)
+        {
+            bytesInBuffer += batchLengths[i];
+        }
+
+        if (bytesInBuffer > maxBytesInBuffer)
+        {
+            removeEndpoint(SLOW_CONSUMER);
+        }
+
+        this.bytesInBuffer.setOrdered(bytesInBuffer);
+    }
+
     private int writeFramedMessage(
         final DirectBuffer directBuffer,
         final int offset,
@@ -247,6 +392,8 @@ class SenderEndPoint
 
     public void close()
     {
+        batchCount = 0;
+        batchLength = 0;
         bytesInBuffer.close();
         invalidLibraryAttempts.close();
     }
@@ -26,6 +26,8 @@ import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.replication.ClusterFragmentHandler;
 import uk.co.real_logic.artio.replication.ClusterHeader;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.LongToIntFunction;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
@@ -37,6 +39,7 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder fixMessage = new FixMessageDecoder();
     private final Long2ObjectHashMap<SenderEndPoint> connectionIdToSenderEndpoint = new Long2ObjectHashMap<>();
+    private final List<SenderEndPoint> endPointsWithBatchedMessages = new ArrayList<>();
     private final ErrorHandler errorHandler;
     private final LongToIntFunction libraryLookup = this::libraryLookup;
 
@@ -86,10 +89,41 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
         final SenderEndPoint endPoint = connectionIdToSenderEndpoint.get(connectionId);
         if (endPoint != null)
         {
+            final boolean hadBatchedMessages = endPoint.hasBatchedMessages();
             endPoint.onOutboundMessage(libraryId, buffer, offset, length, sequenceNumber, position, timeInMs);
+            if (!hadBatchedMessages && endPoint.hasBatchedMessages())
+            {
+                endPointsWithBatchedMessages.add(endPoint);
+            }
         }
     }
 
+    /**
+     * Flush any messages that have been batched up during this poll of the outbound stream, one write per
+     * connection. Has no effect if outbound batching is disabled.
+     *
+     * @return the number of connections flushed.
+     */
+    int flushBatches()
+    {
+        final List<SenderEndPoint> endPoints = this.endPointsWithBatchedMessages;
+        final int size = endPoints.size();
+        if (size == 0)
+        {
+            return 0;
+        }
+
+        // Closed end points discard their batch, so they can safely be left in the list until it's cleared.
+        final long timeInMs = this.timeInMs;
+        for (int i = 0; i < size; i++)
+        {
+            endPoints.get(i).flushBatch(timeInMs);
+        }
+        endPoints.clear();
+
+        return size;
+    }
+
     Action onReplayMessage(
         final long connectionId, final DirectBuffer buffer, final int offset, final int length, final long position)
     {
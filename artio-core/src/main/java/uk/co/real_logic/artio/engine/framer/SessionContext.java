@@ -15,6 +15,7 @@
  */
 package uk.co.real_logic.artio.engine.framer;
 
+import uk.co.real_logic.artio.session.CompositeKey;
 import uk.co.real_logic.artio.session.Session;
 
 /**
@@ -34,6 +35,9 @@ class SessionContext
 
     private long logonTime;
 
+    // Created upon the first logon of the session since the engine started.
+    private CompositeKey compositeKey;
+
     SessionContext(
         final long sessionId,
         final int sequenceIndex,
@@ -86,6 +90,16 @@ class SessionContext
         return sessionId;
     }
 
+    CompositeKey compositeKey()
+    {
+        return compositeKey;
+    }
+
+    void compositeKey(final CompositeKey compositeKey)
+    {
+        this.compositeKey = compositeKey;
+    }
+
     public boolean equals(final Object o)
     {
         if (this == o)
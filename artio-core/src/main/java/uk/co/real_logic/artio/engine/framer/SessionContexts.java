@@ -38,9 +38,9 @@ import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.zip.CRC32;
 
 import static uk.co.real_logic.artio.engine.SectorFramer.*;
@@ -53,6 +53,15 @@ import static uk.co.real_logic.artio.storage.messages.SessionIdEncoder.BLOCK_LEN
  * The session ids table is saved into a file. Records are written out using the {@link SessionIdEncoder}
  * and aren't allowed to span sectors. Each sector has a CRC32 checksum and each checksum is updated after writing
  * each session id record.
+ * <p>
+ * The saved records are looked up through an open addressing table of their positions in the file, keyed by the
+ * bytes of their saved composite keys, so loading the file upon startup only validates the checksums and hashes
+ * each saved key. The composite keys themselves aren't loaded and the context of a saved session is only created
+ * when it's first looked up.
+ * <p>
+ * An accepted logon is looked up by saving the composite key from its header straight into a buffer, so
+ * resolving a session that has already logged on since the engine started doesn't allocate. The composite key
+ * is only created upon the first logon of each session.
  */
 public class SessionContexts
 {
@@ -67,6 +76,8 @@ public class SessionContexts
     static final long LOWEST_VALID_SESSION_ID = 1L;
 
     private static final int HEADER_SIZE = MessageHeaderDecoder.ENCODED_LENGTH;
+    private static final int NO_RECORD = 0;
+    private static final int INITIAL_TABLE_CAPACITY = 64;
 
     private static final int ENCODING_BUFFER_SIZE = SECTOR_SIZE - CHECKSUM_SIZE;
     private final UnsafeBuffer compositeKeyBuffer = new UnsafeBuffer(new byte[ENCODING_BUFFER_SIZE]);
@@ -74,15 +85,16 @@ public class SessionContexts
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
     private final SessionIdEncoder sessionIdEncoder = new SessionIdEncoder();
+    private final SessionIdDecoder recordDecoder = new SessionIdDecoder();
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
     private final LogonDecoder logonDecoder = new LogonDecoder();
     private final int actingBlockLength = sessionIdEncoder.sbeBlockLength();
     private final int actingVersion = sessionIdEncoder.sbeSchemaVersion();
 
-    private final Function<CompositeKey, SessionContext> onNewLogonFunc = this::onNewLogon;
     private final LongHashSet currentlyAuthenticatedSessionIds = new LongHashSet();
     private final LongHashSet recordedSessions = new LongHashSet();
-    private final Map<CompositeKey, SessionContext> compositeToContext = new HashMap<>();
+    // Contexts of sessions whose records couldn't be saved into the file
+    private final Map<CompositeKey, SessionContext> unsavedContexts = new HashMap<>();
 
     private final CRC32 crc32 = new CRC32();
     private final SectorFramer sectorFramer;
@@ -93,6 +105,11 @@ public class SessionContexts
     private final ErrorHandler errorHandler;
     private final MappedFile mappedFile;
 
+    private int[] recordPositions = new int[INITIAL_TABLE_CAPACITY];
+    private int[] recordHashes = new int[INITIAL_TABLE_CAPACITY];
+    private SessionContext[] recordContexts = new SessionContext[INITIAL_TABLE_CAPACITY];
+    private int recordCount;
+
     private int filePosition;
     private long counter = LOWEST_VALID_SESSION_ID;
 
@@ -140,18 +157,15 @@ public class SessionContexts
                     filePosition = nextSectorPeekPosition;
                 }
             }
-            final int sequenceIndex = sessionIdDecoder.sequenceIndex();
-            final long logonTime = sessionIdDecoder.logonTime();
             final int compositeKeyLength = sessionIdDecoder.compositeKeyLength();
-            final CompositeKey compositeKey = idStrategy.load(
-                buffer, filePosition + BLOCK_LENGTH, compositeKeyLength);
-            if (compositeKey == null)
+            final int keyOffset = filePosition + BLOCK_LENGTH;
+            if (keyOffset + compositeKeyLength > buffer.capacity())
             {
                 return;
             }
 
-            compositeToContext.put(compositeKey,
-                new SessionContext(sessionId, sequenceIndex, logonTime, this, filePosition));
+            final int hash = hash(buffer, keyOffset, compositeKeyLength);
+            putRecord(findSlot(buffer, keyOffset, compositeKeyLength, hash), hash, filePosition, null);
             recordedSessions.add(sessionId);
             counter = Math.max(counter, sessionId + 1);
 
@@ -213,8 +227,48 @@ public class SessionContexts
 
     public SessionContext onLogon(final CompositeKey compositeKey)
     {
-        final SessionContext sessionContext = compositeToContext.computeIfAbsent(compositeKey, onNewLogonFunc);
+        SessionContext sessionContext = lookup(compositeKey);
+        if (sessionContext == null)
+        {
+            sessionContext = onNewLogon(compositeKey);
+        }
+        else if (sessionContext.compositeKey() == null)
+        {
+            sessionContext.compositeKey(compositeKey);
+        }
+
+        return authenticate(sessionContext);
+    }
 
+    /**
+     * Look up the session of an accepted logon, using {@link SessionIdStrategy#saveAcceptLogon} to avoid creating
+     * a composite key for sessions that have already logged on.
+     *
+     * @param header the header of the logon message.
+     * @return the context of the session, whose composite key has been set, or {@link #DUPLICATE_SESSION}.
+     */
+    SessionContext onAcceptLogon(final HeaderDecoder header)
+    {
+        final int compositeKeyLength = idStrategy.saveAcceptLogon(header, compositeKeyBuffer, 0);
+        if (compositeKeyLength != INSUFFICIENT_SPACE)
+        {
+            final SessionContext sessionContext = lookupSaved(compositeKeyLength);
+            if (sessionContext != null)
+            {
+                if (sessionContext.compositeKey() == null)
+                {
+                    sessionContext.compositeKey(idStrategy.onAcceptLogon(header));
+                }
+
+                return authenticate(sessionContext);
+            }
+        }
+
+        return onLogon(idStrategy.onAcceptLogon(header));
+    }
+
+    private SessionContext authenticate(final SessionContext sessionContext)
+    {
         if (!currentlyAuthenticatedSessionIds.add(sessionContext.sessionId()))
         {
             return DUPLICATE_SESSION;
@@ -229,6 +283,34 @@ public class SessionContexts
         return assignSessionId(compositeKey, sessionId, SessionContext.UNKNOWN_SEQUENCE_INDEX);
     }
 
+    private SessionContext lookup(final CompositeKey compositeKey)
+    {
+        final int compositeKeyLength = idStrategy.save(compositeKey, compositeKeyBuffer, 0);
+        if (compositeKeyLength != INSUFFICIENT_SPACE)
+        {
+            final SessionContext sessionContext = lookupSaved(compositeKeyLength);
+            if (sessionContext != null)
+            {
+                return sessionContext;
+            }
+        }
+
+        return unsavedContexts.get(compositeKey);
+    }
+
+    // Looks up the saved record of the key that has been saved into the compositeKeyBuffer.
+    private SessionContext lookupSaved(final int compositeKeyLength)
+    {
+        final int hash = hash(compositeKeyBuffer, 0, compositeKeyLength);
+        final int slot = findSlot(compositeKeyBuffer, 0, compositeKeyLength, hash);
+        if (recordPositions[slot] != NO_RECORD)
+        {
+            return context(slot);
+        }
+
+        return null;
+    }
+
     private SessionContext assignSessionId(
         final CompositeKey compositeKey,
         final long sessionId,
@@ -242,7 +324,11 @@ public class SessionContexts
                 "Unable to save record session id %d for %s, because the buffer is too small",
                 sessionId,
                 compositeKey)));
-            return new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, OUT_OF_SPACE);
+            final SessionContext sessionContext = new SessionContext(
+                sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, OUT_OF_SPACE);
+            sessionContext.compositeKey(compositeKey);
+            unsavedContexts.put(compositeKey, sessionContext);
+            return sessionContext;
         }
         else
         {
@@ -273,19 +359,156 @@ public class SessionContexts
                 }
             }
 
-            return new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, keyPosition);
+            final SessionContext sessionContext = new SessionContext(
+                sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, keyPosition);
+            sessionContext.compositeKey(compositeKey);
+            if (keyPosition == OUT_OF_SPACE)
+            {
+                unsavedContexts.put(compositeKey, sessionContext);
+            }
+            else
+            {
+                final int hash = hash(compositeKeyBuffer, 0, compositeKeyLength);
+                final int slot = findSlot(compositeKeyBuffer, 0, compositeKeyLength, hash);
+                putRecord(slot, hash, keyPosition, sessionContext);
+            }
+
+            return sessionContext;
         }
     }
 
     void sequenceReset(final long sessionId)
     {
-        compositeToContext
+        final int[] recordPositions = this.recordPositions;
+        for (int slot = 0; slot < recordPositions.length; slot++)
+        {
+            final int recordPosition = recordPositions[slot];
+            if (recordPosition != NO_RECORD && wrap(recordDecoder, recordPosition) == sessionId)
+            {
+                context(slot).onSequenceReset();
+            }
+        }
+
+        unsavedContexts
             .values()
             .stream()
             .filter(context -> context.sessionId() == sessionId)
             .forEach(SessionContext::onSequenceReset);
     }
 
+    private SessionContext context(final int slot)
+    {
+        SessionContext sessionContext = recordContexts[slot];
+        if (sessionContext == null)
+        {
+            final int recordPosition = recordPositions[slot];
+            final long sessionId = wrap(recordDecoder, recordPosition);
+            sessionContext = new SessionContext(
+                sessionId, recordDecoder.sequenceIndex(), recordDecoder.logonTime(), this, recordPosition);
+            recordContexts[slot] = sessionContext;
+        }
+
+        return sessionContext;
+    }
+
+    /**
+     * Find the slot of the saved record with the same composite key, or the empty slot to put it into.
+     */
+    private int findSlot(final DirectBuffer keyBuffer, final int keyOffset, final int keyLength, final int hash)
+    {
+        final int[] recordPositions = this.recordPositions;
+        final int mask = recordPositions.length - 1;
+        int slot = hash & mask;
+        while (true)
+        {
+            final int recordPosition = recordPositions[slot];
+            if (recordPosition == NO_RECORD ||
+                (recordHashes[slot] == hash && savedKeyEquals(recordPosition, keyBuffer, keyOffset, keyLength)))
+            {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean savedKeyEquals(
+        final int recordPosition, final DirectBuffer keyBuffer, final int keyOffset, final int keyLength)
+    {
+        recordDecoder.wrap(buffer, recordPosition, actingBlockLength, actingVersion);
+        if (recordDecoder.compositeKeyLength() != keyLength)
+        {
+            return false;
+        }
+
+        final int savedKeyOffset = recordPosition + BLOCK_LENGTH;
+        for (int i = 0; i < keyLength; i++)
+        {
+            if (buffer.getByte(savedKeyOffset + i) != keyBuffer.getByte(keyOffset + i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void putRecord(
+        final int slot, final int hash, final int recordPosition, final SessionContext sessionContext)
+    {
+        final boolean isNewRecord = recordPositions[slot] == NO_RECORD;
+        recordPositions[slot] = recordPosition;
+        recordHashes[slot] = hash;
+        recordContexts[slot] = sessionContext;
+
+        if (isNewRecord && ++recordCount > recordPositions.length >> 1)
+        {
+            growTable();
+        }
+    }
+
+    private void growTable()
+    {
+        final int[] oldPositions = recordPositions;
+        final int[] oldHashes = recordHashes;
+        final SessionContext[] oldContexts = recordContexts;
+        final int capacity = oldPositions.length << 1;
+        final int mask = capacity - 1;
+
+        recordPositions = new int[capacity];
+        recordHashes = new int[capacity];
+        recordContexts = new SessionContext[capacity];
+
+        for (int oldSlot = 0; oldSlot < oldPositions.length; oldSlot++)
+        {
+            final int recordPosition = oldPositions[oldSlot];
+            if (recordPosition != NO_RECORD)
+            {
+                final int hash = oldHashes[oldSlot];
+                int slot = hash & mask;
+                while (recordPositions[slot] != NO_RECORD)
+                {
+                    slot = (slot + 1) & mask;
+                }
+
+                recordPositions[slot] = recordPosition;
+                recordHashes[slot] = hash;
+                recordContexts[slot] = oldContexts[oldSlot];
+            }
+        }
+    }
+
+    private static int hash(final DirectBuffer buffer, final int offset, final int length)
+    {
+        int hash = 0;
+        for (int i = offset, end = offset + length; i < end; i++)
+        {
+            hash = 31 * hash + buffer.getByte(i);
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+
     // TODO: optimisation, more efficient checksumming, only checksum new data
     private void updateChecksum(final int start, final int checksumOffset)
     {
@@ -314,7 +537,10 @@ public class SessionContexts
 
         counter = LOWEST_VALID_SESSION_ID;
         currentlyAuthenticatedSessionIds.clear();
-        compositeToContext.clear();
+        Arrays.fill(recordPositions, NO_RECORD);
+        Arrays.fill(recordContexts, null);
+        recordCount = 0;
+        unsavedContexts.clear();
 
         if (backupLocation != null)
         {
@@ -357,8 +583,7 @@ public class SessionContexts
             header.targetSubIDAsString(),
             header.targetLocationIDAsString());
 
-        final SessionContext sessionContext = assignSessionId(compositeKey, sessionId, sequenceIndex);
-        compositeToContext.put(compositeKey, sessionContext);
+        assignSessionId(compositeKey, sessionId, sequenceIndex);
     }
 
     void updateSavedData(final int filePosition, final int sequenceIndex, final long logonTime)
@@ -377,7 +602,7 @@ public class SessionContexts
 
     long lookupSessionId(final CompositeKey compositeKey)
     {
-        final SessionContext sessionContext = compositeToContext.get(compositeKey);
+        final SessionContext sessionContext = lookup(compositeKey);
         if (sessionContext == null)
         {
             return Session.UNKNOWN;
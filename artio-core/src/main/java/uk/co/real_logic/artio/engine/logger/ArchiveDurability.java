@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+/**
+ * How the {@link Archiver} makes archived messages durable.
+ */
+public enum ArchiveDurability
+{
+    /**
+     * Term files are opened for synchronous writes, so every write waits for the storage device.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * Term files are never explicitly forced to the storage device, the operating system writes them back when it
+     * chooses to.
+     */
+    NONE,
+
+    /**
+     * Term files that have been written to are forced to the storage device once per force interval.
+     */
+    PERIODIC,
+
+    /**
+     * Term files that have been written to are forced to the storage device once per force interval, or sooner once
+     * the force threshold of bytes has been written, so that the writes of several messages share one force.
+     */
+    GROUP_COMMIT
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads ranges of archived terms into the page cache on an executor, so that a replay that is about to read them,
+ * for example the first resend after a restart, reads from memory rather than page faulting on the replaying thread.
+ * <p>
+ * Prefetching is only a hint: requests are dropped if too many are outstanding or the executor rejects them, and
+ * terms that have been deleted by archive retention are skipped.
+ */
+class ArchivePrefetcher
+{
+    static final int MAX_OUTSTANDING_REQUESTS = 64;
+    static final int PAGE_SIZE = 4 * 1024;
+
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+    private final Executor executor;
+    private final ErrorHandler errorHandler;
+
+    ArchivePrefetcher(final Executor executor, final ErrorHandler errorHandler)
+    {
+        this.executor = executor;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Prefetch a range of a term, or the whole of its compressed term file if it has been compressed.
+     *
+     * @param termFile the term's file.
+     * @param compressedTermFile the term's compressed file.
+     * @param offset the offset within the term to prefetch from.
+     * @param length the number of bytes to prefetch.
+     */
+    void prefetch(final File termFile, final File compressedTermFile, final int offset, final int length)
+    {
+        if (outstandingRequests.incrementAndGet() > MAX_OUTSTANDING_REQUESTS)
+        {
+            outstandingRequests.decrementAndGet();
+            return;
+        }
+
+        try
+        {
+            executor.execute(() ->
+            {
+                try
+                {
+                    load(termFile, compressedTermFile, offset, length);
+                }
+                finally
+                {
+                    outstandingRequests.decrementAndGet();
+                }
+            });
+        }
+        catch (final RejectedExecutionException ex)
+        {
+            outstandingRequests.decrementAndGet();
+        }
+    }
+
+    private void load(final File termFile, final File compressedTermFile, final int offset, final int length)
+    {
+        try
+        {
+            if (termFile.exists())
+            {
+                load(termFile, offset, length);
+            }
+            else if (compressedTermFile.exists())
+            {
+                load(compressedTermFile, 0, Integer.MAX_VALUE);
+            }
+        }
+        catch (final NoSuchFileException ex)
+        {
+            // Deleted or compressed by archive retention since the exists check.
+        }
+        catch (final IOException | RuntimeException ex)
+        {
+            errorHandler.onError(ex);
+        }
+    }
+
+    private static void load(final File file, final int offset, final int length) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ))
+        {
+            final long alignedOffset = offset & ~(PAGE_SIZE - 1);
+            final long mappedLength = Math.min((long)offset + length, channel.size()) - alignedOffset;
+            if (mappedLength > 0)
+            {
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, alignedOffset, mappedLength);
+                try
+                {
+                    buffer.load();
+                }
+                finally
+                {
+                    IoUtil.unmap(buffer);
+                }
+            }
+        }
+    }
+}
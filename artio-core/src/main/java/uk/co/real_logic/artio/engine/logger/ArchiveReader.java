@@ -20,7 +20,7 @@ import io.aeron.logbuffer.ControlledFragmentHandler;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import io.aeron.logbuffer.Header;
 import io.aeron.logbuffer.LogBufferDescriptor;
-import org.agrona.IoUtil;
+import org.agrona.ErrorHandler;
 import org.agrona.collections.Int2ObjectCache;
 import org.agrona.collections.Int2ObjectHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -31,7 +31,7 @@ import uk.co.real_logic.artio.storage.messages.ArchiveMetaDataDecoder;
 
 import java.io.File;
 import java.nio.ByteBuffer;
-import java.nio.MappedByteBuffer;
+import java.util.concurrent.Executor;
 import java.util.function.IntFunction;
 import java.util.zip.CRC32;
 
@@ -41,6 +41,7 @@ import static io.aeron.protocol.DataHeaderFlyweight.END_FLAG;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
 import static java.lang.Integer.numberOfTrailingZeros;
 import static uk.co.real_logic.artio.engine.logger.ArchiveDescriptor.nextTerm;
+import static uk.co.real_logic.artio.engine.logger.ArchivePrefetcher.PAGE_SIZE;
 
 public class ArchiveReader implements AutoCloseable
 {
@@ -74,7 +75,9 @@ public class ArchiveReader implements AutoCloseable
     private final int cacheNumSets;
     private final int cacheSetSize;
     private final int reservedValueFilter;
+    private final ArchivePrefetcher prefetcher;
     private final CRC32 checksum = new CRC32();
+    private final ArchivedTerm.DecompressionBuffer decompressionBuffer = new ArchivedTerm.DecompressionBuffer();
 
     /**
      * Create a new ArchiveReader.
@@ -91,10 +94,36 @@ public class ArchiveReader implements AutoCloseable
         final int cacheSetSize,
         final StreamIdentifier streamId,
         final int reservedValueFilter)
+    {
+        this(metaData, cacheNumSets, cacheSetSize, streamId, reservedValueFilter, null, null);
+    }
+
+    /**
+     * Create a new ArchiveReader that can read ahead of replays.
+     *
+     * @param metaData
+     * @param cacheNumSets
+     * @param cacheSetSize
+     * @param streamId
+     * @param reservedValueFilter bitmask for the non-checksum reserved value, or 0 if you don't want to filter.
+     * @param readAheadExecutor the executor that reads archived terms into memory ahead of a replay, or null to
+     *                          not read ahead.
+     * @param errorHandler the handler for errors when reading ahead.
+     * @see SessionReader#prefetch(long, long)
+     */
+    public ArchiveReader(
+        final ArchiveMetaData metaData,
+        final int cacheNumSets,
+        final int cacheSetSize,
+        final StreamIdentifier streamId,
+        final int reservedValueFilter,
+        final Executor readAheadExecutor,
+        final ErrorHandler errorHandler)
     {
         this.cacheNumSets = cacheNumSets;
         this.cacheSetSize = cacheSetSize;
         this.reservedValueFilter = reservedValueFilter;
+        prefetcher = readAheadExecutor == null ? null : new ArchivePrefetcher(readAheadExecutor, errorHandler);
         archiveBufferFactory = LoggerUtil::mapExistingFile;
         this.metaData = metaData;
         this.streamId = streamId;
@@ -190,21 +219,35 @@ public class ArchiveReader implements AutoCloseable
         return streamId;
     }
 
+    public int reservedValueFilter()
+    {
+        return reservedValueFilter;
+    }
+
+    boolean readsAhead()
+    {
+        return prefetcher != null;
+    }
+
     public class SessionReader implements AutoCloseable
     {
-        private final IntFunction<ByteBuffer> newBuffer = this::newBuffer;
+        private final IntFunction<ArchivedTerm> newTerm = this::newTerm;
         private final int sessionId;
-        private final Int2ObjectCache<ByteBuffer> termIdToBuffer =
-            new Int2ObjectCache<>(cacheNumSets, cacheSetSize, this::closeBuffer);
+        private final Int2ObjectCache<ArchivedTerm> termIdToTerm =
+            new Int2ObjectCache<>(cacheNumSets, cacheSetSize, ArchivedTerm::close);
         private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
         private final int initialTermId;
+        private final int termBufferLength;
         private final int positionBitsToShift;
         private final Header header;
 
+        private ArchivedTerm term;
+
         SessionReader(final int sessionId, final int initialTermId, final int termBufferLength)
         {
             this.sessionId = sessionId;
             this.initialTermId = initialTermId;
+            this.termBufferLength = termBufferLength;
             positionBitsToShift = numberOfTrailingZeros(termBufferLength);
             header = new Header(this.initialTermId, termBufferLength);
         }
@@ -235,6 +278,8 @@ public class ArchiveReader implements AutoCloseable
                     return NO_MESSAGE;
                 }
 
+                term.load(termOffset, frameLength - HEADER_LENGTH);
+
                 final long reservedValue = header.reservedValue();
                 if ((reservedValue & reservedValueFilter) != reservedValueFilter)
                 {
@@ -326,6 +371,7 @@ public class ArchiveReader implements AutoCloseable
                 final int reservedValue = ReservedValue.clusterStreamId(header.reservedValue());
                 if ((reservedValue & reservedValueFilter) == reservedValueFilter)
                 {
+                    term.load(termOffset, bodyLength);
                     if (!validateChecksum(termOffset, frameLength))
                     {
                         return CORRUPT_LOG;
@@ -366,12 +412,13 @@ public class ArchiveReader implements AutoCloseable
         {
             final int reservedValueFilter = ArchiveReader.this.reservedValueFilter;
             final int termId = computeTermIdFromPosition(position);
-            final ByteBuffer termBuffer = termIdToBuffer.computeIfAbsent(termId, newBuffer);
-            if (termBuffer == null)
+            final ArchivedTerm term = termIdToTerm.computeIfAbsent(termId, newTerm);
+            if (term == null)
             {
                 return false;
             }
 
+            final ByteBuffer termBuffer = term.termBuffer();
             buffer.wrap(termBuffer);
             final int termOffset = computeTermOffsetFromPosition(position);
             final int remainder = termBuffer.capacity() - termOffset;
@@ -384,8 +431,10 @@ public class ArchiveReader implements AutoCloseable
             while (messageOffset < end)
             {
                 final int headerOffset = messageOffset - HEADER_LENGTH;
+                term.load(headerOffset, HEADER_LENGTH);
                 header.offset(headerOffset);
                 final int frameLength = header.frameLength();
+                term.load(messageOffset, frameLength - HEADER_LENGTH);
                 final long reservedValue = header.reservedValue();
                 if ((reservedValue & reservedValueFilter) != reservedValueFilter)
                 {
@@ -400,34 +449,100 @@ public class ArchiveReader implements AutoCloseable
                 messageOffset = nextTerm(messageOffset, frameLength);
             }
 
+            term.load(termOffset, length);
             handler.onBlock(buffer, termOffset, length, sessionId, termId);
 
             return true;
         }
 
-        private ByteBuffer newBuffer(final int termId)
+        /**
+         * Read the archived terms that a range of messages is in into memory on the read ahead executor, if this
+         * reader has one, so that reading the messages afterwards doesn't block on disk.
+         *
+         * @param beginPosition the position of the first message in the range.
+         * @param endPosition the position of the last message in the range.
+         */
+        public void prefetch(final long beginPosition, final long endPosition)
+        {
+            final ArchivePrefetcher prefetcher = ArchiveReader.this.prefetcher;
+            if (prefetcher == null || endPosition < beginPosition)
+            {
+                return;
+            }
+
+            final int beginTermId = computeTermIdFromPosition(beginPosition);
+            final int endTermId = computeTermIdFromPosition(endPosition);
+            for (int termId = beginTermId; termId - endTermId <= 0; termId++)
+            {
+                final int beginOffset = termId == beginTermId ?
+                    Math.max(0, computeTermOffsetFromPosition(beginPosition) - HEADER_LENGTH) : 0;
+                // The last message's length isn't known, so prefetch a page of it and let the read fault in the rest.
+                final int endOffset = termId == endTermId ?
+                    Math.min(termBufferLength, computeTermOffsetFromPosition(endPosition) + PAGE_SIZE) :
+                    termBufferLength;
+
+                prefetcher.prefetch(
+                    directoryDescriptor.logFile(streamId, sessionId, termId),
+                    directoryDescriptor.compressedLogFile(streamId, sessionId, termId),
+                    beginOffset,
+                    endOffset - beginOffset);
+            }
+        }
+
+        private ArchivedTerm newTerm(final int termId)
         {
             final File logFile = directoryDescriptor.logFile(streamId, sessionId, termId);
-            if (!logFile.exists())
+            if (logFile.exists())
+            {
+                try
+                {
+                    return ArchivedTerm.mapped(archiveBufferFactory.map(logFile));
+                }
+                catch (final Exception ex)
+                {
+                    // The file can be deleted or compressed by archive retention after the exists check.
+                    if (logFile.exists())
+                    {
+                        throw ex;
+                    }
+                }
+            }
+
+            final File compressedLogFile = directoryDescriptor.compressedLogFile(streamId, sessionId, termId);
+            if (!compressedLogFile.exists())
             {
                 return null;
             }
 
-            return archiveBufferFactory.map(logFile);
+            try
+            {
+                return ArchivedTerm.compressed(compressedLogFile, decompressionBuffer);
+            }
+            catch (final Exception ex)
+            {
+                if (compressedLogFile.exists())
+                {
+                    throw ex;
+                }
+
+                return null;
+            }
         }
 
         private int scan(final long position)
         {
             final int termId = computeTermIdFromPosition(position);
-            final ByteBuffer termBuffer = termIdToBuffer.computeIfAbsent(termId, newBuffer);
-            if (termBuffer == null)
+            final ArchivedTerm term = termIdToTerm.computeIfAbsent(termId, newTerm);
+            if (term == null)
             {
                 return UNKNOWN_TERM;
             }
 
             final int termOffset = computeTermOffsetFromPosition(position);
             final int headerOffset = termOffset - HEADER_LENGTH;
-            buffer.wrap(termBuffer);
+            term.load(headerOffset, HEADER_LENGTH);
+            this.term = term;
+            buffer.wrap(term.termBuffer());
             header.buffer(buffer);
             header.offset(headerOffset);
 
@@ -446,15 +561,8 @@ public class ArchiveReader implements AutoCloseable
 
         public void close()
         {
-            termIdToBuffer.clear();
-        }
-
-        private void closeBuffer(final ByteBuffer buffer)
-        {
-            if (buffer instanceof MappedByteBuffer)
-            {
-                IoUtil.unmap((MappedByteBuffer)buffer);
-            }
+            term = null;
+            termIdToTerm.clear();
         }
 
         public int sessionId()
@@ -0,0 +1,668 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.LogBufferDescriptor;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+import uk.co.real_logic.artio.storage.messages.ArchiveMetaDataDecoder;
+import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordDecoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static uk.co.real_logic.artio.engine.logger.IndexedPositionReader.UNKNOWN_POSITION;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+
+/**
+ * Deletes the archived term files of a stream once they have expired.
+ * <p>
+ * A term file expires when it is older than the maximum age, when it can't be replayed any more, or when it is
+ * amongst the oldest files once the stream's term files are bigger than the maximum size. A term can't be replayed
+ * once no replay index record of its FIX session's current sequence index refers to it. The term that is being
+ * indexed, the one before it and any later terms are never deleted, which also protects the terms that are being
+ * archived. A session's current sequence index is the highest one amongst the records of all of its replay index
+ * segments.
+ * <p>
+ * Messages are addressed by their position within a term, so terms are deleted whole rather than compacted.
+ * The archive readers treat a deleted term as missing and replay queries skip the records that refer to it.
+ * <p>
+ * Term files that haven't expired can also be compressed once they're older than the compression age. Compressed
+ * term files are kept in blocks that the archive readers decompress as they're read, so recent terms, which are
+ * the ones that resend requests usually need, are read as quickly as before.
+ * <p>
+ * Each check runs over several duty cycles, scanning the replay index segments of one session, deleting a few term
+ * files or compressing one block of a term file per cycle, so that it doesn't hold up the other agents on the archiving
+ * thread.
+ */
+public class ArchiveRetention implements Agent
+{
+    private static final int IDLE = 0;
+    private static final int SCANNING_INDICES = 1;
+    private static final int DELETING = 2;
+    private static final int COMPRESSING = 3;
+
+    private static final int DELETES_PER_DUTY_CYCLE = 8;
+    private static final String LOG_FILE_SUFFIX = ".log";
+    private static final String COMPRESSED_LOG_FILE_SUFFIX = LOG_FILE_SUFFIX + LogDirectoryDescriptor.COMPRESSED_SUFFIX;
+    private static final String INDEX_FILE_PREFIX = "replay-index-";
+
+    private final MessageHeaderDecoder indexHeader = new MessageHeaderDecoder();
+    private final ReplayIndexRecordDecoder indexRecord = new ReplayIndexRecordDecoder();
+    private final Int2ObjectHashMap<TermLayout> aeronSessionIdToLayout = new Int2ObjectHashMap<>();
+    private final LongHashSet replayableTerms = new LongHashSet();
+    private final List<TermFile> termFiles = new ArrayList<>();
+    private final List<TermFile> expiredTermFiles = new ArrayList<>();
+    private final List<TermFile> compressibleTermFiles = new ArrayList<>();
+    private final TermCompressor compressor = new TermCompressor();
+    private final UnsafeBuffer indexBuffer = new UnsafeBuffer(0, 0);
+    private final List<MappedByteBuffer> segmentBuffers = new ArrayList<>();
+
+    private final ArchiveMetaData metaData;
+    private final StreamIdentifier streamId;
+    private final String logFileDir;
+    private final AtomicBuffer positionBuffer;
+    private final EpochClock clock;
+    private final long maxAgeInMs;
+    private final long maxSizeInBytes;
+    private final boolean deleteUnreplayableTerms;
+    private final long compressAfterInMs;
+    private final long checkIntervalInMs;
+    private final ErrorHandler errorHandler;
+    private final String agentNamePrefix;
+    private final String termFilePrefix;
+    private final String indexFileSuffix;
+    private final LogDirectoryDescriptor directoryDescriptor;
+
+    private IndexedPositionReader positionReader;
+    private int state = IDLE;
+    private long nextCheckTimeInMs;
+    private long[] indexedSessionIds;
+    private int indexedSessionIndex;
+    private int deleteIndex;
+    private int compressIndex;
+
+    /**
+     * Create a new ArchiveRetention.
+     *
+     * @param metaData the meta data of the archive.
+     * @param streamId the stream whose term files are deleted.
+     * @param logFileDir the directory that the archive and its indices are written to.
+     * @param positionBuffer the buffer that the replay index records its indexed positions in.
+     * @param clock the clock to check the age of term files against.
+     * @param maxAgeInMs the age after which term files expire, or 0 for no limit.
+     * @param maxSizeInBytes the total size of the stream's term files above which the oldest expire,
+     *                       or 0 for no limit.
+     * @param deleteUnreplayableTerms true if term files that can't be replayed any more should expire.
+     * @param compressAfterInMs the age after which term files are compressed, or 0 to not compress them.
+     * @param checkIntervalInMs the interval between checks for expired term files.
+     * @param errorHandler the handler for errors whilst compressing term files.
+     * @param agentNamePrefix the prefix of the agent's role name.
+     */
+    public ArchiveRetention(
+        final ArchiveMetaData metaData,
+        final StreamIdentifier streamId,
+        final String logFileDir,
+        final AtomicBuffer positionBuffer,
+        final EpochClock clock,
+        final long maxAgeInMs,
+        final long maxSizeInBytes,
+        final boolean deleteUnreplayableTerms,
+        final long compressAfterInMs,
+        final long checkIntervalInMs,
+        final ErrorHandler errorHandler,
+        final String agentNamePrefix)
+    {
+        this.metaData = metaData;
+        this.streamId = streamId;
+        this.logFileDir = logFileDir;
+        this.positionBuffer = positionBuffer;
+        this.clock = clock;
+        this.maxAgeInMs = maxAgeInMs;
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.deleteUnreplayableTerms = deleteUnreplayableTerms;
+        this.compressAfterInMs = compressAfterInMs;
+        this.checkIntervalInMs = checkIntervalInMs;
+        this.errorHandler = errorHandler;
+        this.agentNamePrefix = agentNamePrefix;
+
+        termFilePrefix = String.format("archive_%s_%d_", streamId.canonicalForm(), streamId.streamId());
+        indexFileSuffix = "-" + streamId.streamId();
+        directoryDescriptor = metaData.directoryDescriptor();
+        nextCheckTimeInMs = clock.time();
+    }
+
+    public int doWork()
+    {
+        switch (state)
+        {
+            case SCANNING_INDICES:
+                return scanNextSessionIndex();
+
+            case DELETING:
+                return deleteExpiredTermFiles();
+
+            case COMPRESSING:
+                return compressNextBlock();
+
+            default:
+                return startCheck();
+        }
+    }
+
+    private int startCheck()
+    {
+        final long timeInMs = clock.time();
+        if (timeInMs < nextCheckTimeInMs)
+        {
+            return 0;
+        }
+
+        nextCheckTimeInMs = timeInMs + checkIntervalInMs;
+        if (positionReader == null)
+        {
+            // Only read once the replay index has initialised the buffer's header.
+            positionReader = new IndexedPositionReader(positionBuffer);
+        }
+
+        aeronSessionIdToLayout.clear();
+        termFiles.clear();
+        listTermFiles();
+
+        if (deleteUnreplayableTerms)
+        {
+            replayableTerms.clear();
+            indexedSessionIds = listIndexedSessionIds();
+            indexedSessionIndex = 0;
+            state = SCANNING_INDICES;
+        }
+        else
+        {
+            selectExpiredTermFiles(timeInMs);
+        }
+
+        return 1;
+    }
+
+    private void listTermFiles()
+    {
+        final File[] files = new File(logFileDir).listFiles(
+            (dir, name) -> name.startsWith(termFilePrefix) &&
+            (name.endsWith(LOG_FILE_SUFFIX) || name.endsWith(COMPRESSED_LOG_FILE_SUFFIX)));
+        if (files == null)
+        {
+            return;
+        }
+
+        for (final File file : files)
+        {
+            final String name = file.getName();
+            final boolean isCompressed = name.endsWith(COMPRESSED_LOG_FILE_SUFFIX);
+            final int suffixLength = isCompressed ? COMPRESSED_LOG_FILE_SUFFIX.length() : LOG_FILE_SUFFIX.length();
+            final String ids = name.substring(termFilePrefix.length(), name.length() - suffixLength);
+            final int separator = ids.lastIndexOf('_');
+            if (separator == -1)
+            {
+                continue;
+            }
+
+            try
+            {
+                final int aeronSessionId = Integer.parseInt(ids.substring(0, separator));
+                final int termId = Integer.parseInt(ids.substring(separator + 1));
+                final TermLayout layout = layout(aeronSessionId);
+                if (layout != null)
+                {
+                    termFiles.add(new TermFile(
+                        file,
+                        aeronSessionId,
+                        termId,
+                        file.lastModified(),
+                        file.length(),
+                        layout.isIndexed(termId),
+                        isCompressed));
+                }
+            }
+            catch (final NumberFormatException ignore)
+            {
+                // Not a term file of this stream.
+            }
+        }
+    }
+
+    private long[] listIndexedSessionIds()
+    {
+        final String[] fileNames = new File(logFileDir).list();
+        if (fileNames == null)
+        {
+            return new long[0];
+        }
+
+        final LongHashSet fixSessionIds = new LongHashSet();
+        long[] sessionIds = new long[0];
+        for (final String fileName : fileNames)
+        {
+            if (!fileName.startsWith(INDEX_FILE_PREFIX))
+            {
+                continue;
+            }
+
+            // Rolled segments of a session's replay index have a numeric suffix after its file name.
+            final int segmentSeparator = fileName.lastIndexOf('.');
+            final String name = segmentSeparator == -1 ? fileName : fileName.substring(0, segmentSeparator);
+            if (name.endsWith(indexFileSuffix))
+            {
+                try
+                {
+                    final long fixSessionId = Long.parseLong(
+                        name.substring(INDEX_FILE_PREFIX.length(), name.length() - indexFileSuffix.length()));
+                    if (fixSessionIds.add(fixSessionId))
+                    {
+                        sessionIds = Arrays.copyOf(sessionIds, sessionIds.length + 1);
+                        sessionIds[sessionIds.length - 1] = fixSessionId;
+                    }
+                }
+                catch (final NumberFormatException ignore)
+                {
+                    // Not a replay index file of this stream.
+                }
+            }
+        }
+
+        return sessionIds;
+    }
+
+    private int scanNextSessionIndex()
+    {
+        if (indexedSessionIndex < indexedSessionIds.length)
+        {
+            scanSessionIndex(indexedSessionIds[indexedSessionIndex++]);
+            return 1;
+        }
+
+        indexedSessionIds = null;
+        selectExpiredTermFiles(clock.time());
+        return 1;
+    }
+
+    private void scanSessionIndex(final long fixSessionId)
+    {
+        final List<MappedByteBuffer> segmentBuffers = this.segmentBuffers;
+        final int requiredStreamId = streamId.streamId();
+        try
+        {
+            for (final int segmentIndex : segmentIndices(logFileDir, fixSessionId, requiredStreamId))
+            {
+                final File segmentFile = logFile(logFileDir, fixSessionId, requiredStreamId, segmentIndex);
+                if (segmentFile.exists())
+                {
+                    segmentBuffers.add(LoggerUtil.mapExistingFile(segmentFile));
+                }
+            }
+
+            // The records of the session's current sequence index are the only ones that can be replayed.
+            int currentSequenceIndex = Integer.MIN_VALUE;
+            for (int i = 0, size = segmentBuffers.size(); i < size; i++)
+            {
+                currentSequenceIndex = Math.max(
+                    currentSequenceIndex, scanSegment(segmentBuffers.get(i), Integer.MIN_VALUE));
+            }
+
+            for (int i = 0, size = segmentBuffers.size(); i < size; i++)
+            {
+                scanSegment(segmentBuffers.get(i), currentSequenceIndex);
+            }
+        }
+        finally
+        {
+            for (int i = 0, size = segmentBuffers.size(); i < size; i++)
+            {
+                IoUtil.unmap(segmentBuffers.get(i));
+            }
+            segmentBuffers.clear();
+        }
+    }
+
+    /**
+     * Scan the records of a replay index segment.
+     *
+     * @param mappedBuffer the segment.
+     * @param currentSequenceIndex the sequence index whose records' terms are replayable, or
+     *                             {@link Integer#MIN_VALUE} to only find the highest sequence index.
+     * @return the highest sequence index of the segment's records.
+     */
+    private int scanSegment(final MappedByteBuffer mappedBuffer, final int currentSequenceIndex)
+    {
+        final UnsafeBuffer indexBuffer = this.indexBuffer;
+        int highestSequenceIndex = Integer.MIN_VALUE;
+        try
+        {
+            indexBuffer.wrap(mappedBuffer);
+            if (indexBuffer.capacity() < INITIAL_RECORD_OFFSET)
+            {
+                return highestSequenceIndex;
+            }
+
+            indexHeader.wrap(indexBuffer, 0);
+            final int actingBlockLength = indexHeader.blockLength();
+            final int actingVersion = indexHeader.version();
+            final int end = INITIAL_RECORD_OFFSET + recordCapacity(indexBuffer.capacity());
+            final int requiredStreamId = streamId.streamId();
+
+            for (int offset = INITIAL_RECORD_OFFSET; offset < end; offset += RECORD_LENGTH)
+            {
+                indexRecord.wrap(indexBuffer, offset, actingBlockLength, actingVersion);
+                final long position = indexRecord.position();
+                if (position != 0 && indexRecord.streamId() == requiredStreamId)
+                {
+                    final int sequenceIndex = indexRecord.sequenceIndex();
+                    highestSequenceIndex = Math.max(highestSequenceIndex, sequenceIndex);
+                    if (sequenceIndex == currentSequenceIndex)
+                    {
+                        final int aeronSessionId = indexRecord.aeronSessionId();
+                        final TermLayout layout = layout(aeronSessionId);
+                        if (layout != null)
+                        {
+                            replayableTerms.add(termKey(aeronSessionId, layout.termId(position)));
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            indexBuffer.wrap(0, 0);
+        }
+
+        return highestSequenceIndex;
+    }
+
+    private void selectExpiredTermFiles(final long timeInMs)
+    {
+        final List<TermFile> termFiles = this.termFiles;
+        final List<TermFile> expiredTermFiles = this.expiredTermFiles;
+        expiredTermFiles.clear();
+        termFiles.sort(Comparator.comparingLong(TermFile::lastModified));
+
+        final long expiryTimeInMs = timeInMs - maxAgeInMs;
+        long totalSizeInBytes = 0;
+        for (int i = 0, size = termFiles.size(); i < size; i++)
+        {
+            final TermFile termFile = termFiles.get(i);
+            totalSizeInBytes += termFile.length();
+            if (termFile.isIndexed() && (
+                (maxAgeInMs > 0 && termFile.lastModified() < expiryTimeInMs) ||
+                (deleteUnreplayableTerms &&
+                !replayableTerms.contains(termKey(termFile.aeronSessionId(), termFile.termId())))))
+            {
+                termFile.expire();
+                expiredTermFiles.add(termFile);
+                totalSizeInBytes -= termFile.length();
+            }
+        }
+
+        if (maxSizeInBytes > 0)
+        {
+            for (int i = 0, size = termFiles.size(); i < size && totalSizeInBytes > maxSizeInBytes; i++)
+            {
+                final TermFile termFile = termFiles.get(i);
+                if (termFile.isIndexed() && !termFile.hasExpired())
+                {
+                    termFile.expire();
+                    expiredTermFiles.add(termFile);
+                    totalSizeInBytes -= termFile.length();
+                }
+            }
+        }
+
+        if (compressAfterInMs > 0)
+        {
+            final long compressTimeInMs = timeInMs - compressAfterInMs;
+            for (int i = 0, size = termFiles.size(); i < size; i++)
+            {
+                final TermFile termFile = termFiles.get(i);
+                if (termFile.isIndexed() &&
+                    !termFile.hasExpired() &&
+                    !termFile.isCompressed() &&
+                    termFile.lastModified() < compressTimeInMs)
+                {
+                    compressibleTermFiles.add(termFile);
+                }
+            }
+        }
+
+        termFiles.clear();
+        replayableTerms.clear();
+        deleteIndex = 0;
+        compressIndex = 0;
+        state = DELETING;
+    }
+
+    private int deleteExpiredTermFiles()
+    {
+        final List<TermFile> expiredTermFiles = this.expiredTermFiles;
+        final int end = Math.min(deleteIndex + DELETES_PER_DUTY_CYCLE, expiredTermFiles.size());
+        int deleted = 0;
+        for (; deleteIndex < end; deleteIndex++)
+        {
+            // A file that can't be deleted, for example because it's still mapped, is retried by the next check.
+            if (expiredTermFiles.get(deleteIndex).file().delete())
+            {
+                deleted++;
+            }
+        }
+
+        if (deleteIndex == expiredTermFiles.size())
+        {
+            expiredTermFiles.clear();
+            state = compressibleTermFiles.isEmpty() ? IDLE : COMPRESSING;
+        }
+
+        return deleted;
+    }
+
+    private int compressNextBlock()
+    {
+        final List<TermFile> compressibleTermFiles = this.compressibleTermFiles;
+        final TermFile termFile = compressibleTermFiles.get(compressIndex);
+        final TermCompressor compressor = this.compressor;
+        try
+        {
+            if (!compressor.isCompressing())
+            {
+                final File file = termFile.file();
+                if (file.exists())
+                {
+                    final File compressedFile = directoryDescriptor.compressedLogFile(
+                        streamId, termFile.aeronSessionId(), termFile.termId());
+                    compressor.begin(file, compressedFile);
+                }
+                else
+                {
+                    compressIndex++;
+                }
+            }
+            else if (compressor.compressNextBlock())
+            {
+                compressor.complete();
+                compressIndex++;
+            }
+        }
+        catch (final IOException | RuntimeException ex)
+        {
+            compressor.abort();
+            compressIndex++;
+            errorHandler.onError(ex);
+        }
+
+        if (compressIndex == compressibleTermFiles.size())
+        {
+            compressibleTermFiles.clear();
+            state = IDLE;
+        }
+
+        return 1;
+    }
+
+    private TermLayout layout(final int aeronSessionId)
+    {
+        TermLayout layout = aeronSessionIdToLayout.get(aeronSessionId);
+        if (layout == null)
+        {
+            final ArchiveMetaDataDecoder decoder = metaData.read(streamId, aeronSessionId);
+            final long indexedPosition = positionReader.indexedPosition(aeronSessionId);
+            if (decoder != null && indexedPosition != UNKNOWN_POSITION)
+            {
+                layout = new TermLayout(decoder.initialTermId(), decoder.termBufferLength(), indexedPosition);
+                aeronSessionIdToLayout.put(aeronSessionId, layout);
+            }
+        }
+
+        return layout;
+    }
+
+    private static long termKey(final int aeronSessionId, final int termId)
+    {
+        return ((long)aeronSessionId << 32) | (termId & 0xFFFF_FFFFL);
+    }
+
+    public void onClose()
+    {
+        compressor.close();
+        metaData.close();
+        IoUtil.unmap(positionBuffer.byteBuffer());
+    }
+
+    public String roleName()
+    {
+        return agentNamePrefix + "ArchiveRetention";
+    }
+
+    private static final class TermLayout
+    {
+        private final int initialTermId;
+        private final int positionBitsToShift;
+        private final int indexedTermId;
+
+        private TermLayout(final int initialTermId, final int termBufferLength, final long indexedPosition)
+        {
+            this.initialTermId = initialTermId;
+            this.positionBitsToShift = Integer.numberOfTrailingZeros(termBufferLength);
+            this.indexedTermId = termId(indexedPosition);
+        }
+
+        private int termId(final long position)
+        {
+            return LogBufferDescriptor.computeTermIdFromPosition(position, positionBitsToShift, initialTermId);
+        }
+
+        private boolean isIndexed(final int termId)
+        {
+            // The sequence number index only saves its position when the term rolls, so it catches up from the
+            // previous term after a restart. Term ids can wrap around, so compare their difference.
+            return termId - indexedTermId < -1;
+        }
+    }
+
+    private static final class TermFile
+    {
+        private final File file;
+        private final int aeronSessionId;
+        private final int termId;
+        private final long lastModified;
+        private final long length;
+        private final boolean isIndexed;
+        private final boolean isCompressed;
+
+        private boolean hasExpired;
+
+        private TermFile(
+            final File file,
+            final int aeronSessionId,
+            final int termId,
+            final long lastModified,
+            final long length,
+            final boolean isIndexed,
+            final boolean isCompressed)
+        {
+            this.file = file;
+            this.aeronSessionId = aeronSessionId;
+            this.termId = termId;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.isIndexed = isIndexed;
+            this.isCompressed = isCompressed;
+        }
+
+        private File file()
+        {
+            return file;
+        }
+
+        private int aeronSessionId()
+        {
+            return aeronSessionId;
+        }
+
+        private int termId()
+        {
+            return termId;
+        }
+
+        private long lastModified()
+        {
+            return lastModified;
+        }
+
+        private long length()
+        {
+            return length;
+        }
+
+        private boolean isIndexed()
+        {
+            return isIndexed;
+        }
+
+        private boolean isCompressed()
+        {
+            return isCompressed;
+        }
+
+        private boolean hasExpired()
+        {
+            return hasExpired;
+        }
+
+        private void expire()
+        {
+            hasExpired = true;
+        }
+    }
+}
@@ -16,26 +16,79 @@
 package uk.co.real_logic.artio.engine.logger;
 
 import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.FrameDescriptor;
 import io.aeron.logbuffer.Header;
 import io.aeron.logbuffer.LogBufferDescriptor;
 import io.aeron.logbuffer.TermReader;
+import org.agrona.BitUtil;
 import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.replication.StreamIdentifier;
+import uk.co.real_logic.artio.storage.messages.ArchiveMetaDataDecoder;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.logbuffer.LogBufferDescriptor.computeTermIdFromPosition;
+import static io.aeron.logbuffer.LogBufferDescriptor.computeTermOffsetFromPosition;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static uk.co.real_logic.artio.CommonConfiguration.backoffIdleStrategy;
+import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
+import static uk.co.real_logic.artio.engine.logger.TimeIndexDescriptor.NOT_INDEXED;
+import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
 
 /**
  * Support for enumerating/filtering/compressing archives.
  */
 public class ArchiveScanner
 {
+    /**
+     * How {@link #forEachFragmentInParallel(StreamIdentifier, ForkJoinPool, ParallelOrder, Supplier, ErrorHandler)}
+     * delivers fragments.
+     */
+    public enum ParallelOrder
+    {
+        /**
+         * Fragments are delivered on the calling thread to a single handler, whilst the pool reads the following
+         * term files ahead. Each Aeron session's fragments are delivered in position order and the sessions are
+         * delivered in the order of the timestamps of the first FIX messages that are archived in them.
+         */
+        BY_POSITION,
+
+        /**
+         * Each term file is read and its fragments are delivered on one of the pool's threads. Each thread has its
+         * own handler, so handlers don't need to be thread-safe, but the caller needs to combine their results.
+         */
+        UNORDERED
+    }
+
+    private static final int SESSION_SCAN_CACHE_NUM_SETS = 1;
+    private static final int SESSION_SCAN_CACHE_SET_SIZE = 4;
+
+    private final String logFileDir;
     private final LogDirectoryDescriptor directoryDescriptor;
 
     public ArchiveScanner(
         final String logFileDir)
     {
+        this.logFileDir = logFileDir;
         this.directoryDescriptor = new LogDirectoryDescriptor(logFileDir);
     }
 
@@ -47,21 +100,590 @@ public class ArchiveScanner
         final UnsafeBuffer termBuffer = new UnsafeBuffer(0, 0);
         for (final File logFile : directoryDescriptor.listLogFiles(streamId))
         {
-            final ByteBuffer byteBuffer = LoggerUtil.mapExistingFile(logFile);
-            if (byteBuffer.capacity() > 0)
+            scanLogFile(logFile, termBuffer, handler, errorHandler);
+        }
+    }
+
+    /**
+     * Enumerate the fragments of a FIX session's messages within a stream. The session's replay index is used to
+     * read only that session's messages, so only the messages that the replay index records, ie ones that were
+     * successfully sent or received, are enumerated. If the session has no replay index, or its replay index has
+     * overwritten or deleted the segments with its earliest records, then this falls back to
+     * {@link #forEachFragment(StreamIdentifier, long, long, FragmentHandler, ErrorHandler)}. Callers still need to
+     * filter the fragments by their session and timestamp.
+     *
+     * @param streamId the stream to scan.
+     * @param sessionId the surrogate session id of the FIX session.
+     * @param beginTimestampInclusive the earliest timestamp of interest.
+     * @param endTimestampExclusive the timestamp after the latest timestamp of interest.
+     * @param handler the handler to pass the fragments to.
+     * @param errorHandler the handler for errors.
+     */
+    public void forEachSessionFragment(
+        final StreamIdentifier streamId,
+        final long sessionId,
+        final long beginTimestampInclusive,
+        final long endTimestampExclusive,
+        final FragmentHandler handler,
+        final ErrorHandler errorHandler)
+    {
+        if (!hasCompleteReplayIndex(sessionId, streamId.streamId()))
+        {
+            forEachFragment(streamId, beginTimestampInclusive, endTimestampExclusive, handler, errorHandler);
+            return;
+        }
+
+        final ArchiveReader archiveReader = new ArchiveReader(
+            LoggerUtil.newArchiveMetaData(logFileDir),
+            SESSION_SCAN_CACHE_NUM_SETS,
+            SESSION_SCAN_CACHE_SET_SIZE,
+            streamId,
+            NO_FILTER);
+        try (ReplayQuery replayQuery = new ReplayQuery(
+            logFileDir,
+            1,
+            1,
+            LoggerUtil::mapExistingFile,
+            archiveReader,
+            streamId.streamId(),
+            backoffIdleStrategy()))
+        {
+            replayQuery.query(
+                (buffer, offset, length, header) ->
+                {
+                    handler.onFragment(buffer, offset, length, header);
+                    return CONTINUE;
+                },
+                sessionId,
+                0,
+                0,
+                MOST_RECENT_MESSAGE,
+                0);
+        }
+    }
+
+    private boolean hasCompleteReplayIndex(final long sessionId, final int streamId)
+    {
+        final int[] segmentIndices = ReplayIndexDescriptor.segmentIndices(logFileDir, sessionId, streamId);
+        if (segmentIndices.length == 0 || segmentIndices[0] != 0)
+        {
+            return false;
+        }
+
+        for (final int segmentIndex : segmentIndices)
+        {
+            if (hasOverwrittenRecords(ReplayIndexDescriptor.logFile(logFileDir, sessionId, streamId, segmentIndex)))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean hasOverwrittenRecords(final File replayIndexFile)
+    {
+        final MappedByteBuffer mappedBuffer = LoggerUtil.mapExistingFile(replayIndexFile);
+        try
+        {
+            return ReplayIndexDescriptor.hasOverwrittenRecords(new UnsafeBuffer(mappedBuffer));
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+    }
+
+    /**
+     * Enumerate the fragments of a stream, reading its term files in parallel on a fork join pool.
+     *
+     * @param streamId the stream to scan.
+     * @param pool the pool to read the term files on.
+     * @param order how the fragments are delivered.
+     * @param handlerSupplier supplies the handler for each thread that fragments are delivered on.
+     * @param errorHandler the handler for errors, called from the pool's threads.
+     * @see ParallelOrder
+     */
+    public void forEachFragmentInParallel(
+        final StreamIdentifier streamId,
+        final ForkJoinPool pool,
+        final ParallelOrder order,
+        final Supplier<FragmentHandler> handlerSupplier,
+        final ErrorHandler errorHandler)
+    {
+        final List<File> logFiles = directoryDescriptor.listLogFiles(streamId);
+        if (order == ParallelOrder.UNORDERED)
+        {
+            scanUnordered(logFiles, pool, handlerSupplier, errorHandler);
+        }
+        else
+        {
+            scanByPosition(sortByPosition(streamId, logFiles), pool, handlerSupplier.get(), errorHandler);
+        }
+    }
+
+    private static void scanUnordered(
+        final List<File> logFiles,
+        final ForkJoinPool pool,
+        final Supplier<FragmentHandler> handlerSupplier,
+        final ErrorHandler errorHandler)
+    {
+        final ThreadLocal<FragmentHandler> workerHandler = ThreadLocal.withInitial(handlerSupplier);
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(logFiles.size());
+        for (final File logFile : logFiles)
+        {
+            tasks.add(pool.submit(
+                () -> scanLogFile(logFile, new UnsafeBuffer(0, 0), workerHandler.get(), errorHandler)));
+        }
+
+        RuntimeException failure = null;
+        for (final ForkJoinTask<?> task : tasks)
+        {
+            try
+            {
+                task.join();
+            }
+            catch (final RuntimeException ex)
+            {
+                if (failure == null)
+                {
+                    failure = ex;
+                }
+                else
+                {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    private static void scanByPosition(
+        final List<File> logFiles,
+        final ForkJoinPool pool,
+        final FragmentHandler handler,
+        final ErrorHandler errorHandler)
+    {
+        final int readAhead = pool.getParallelism();
+        final ArrayDeque<ForkJoinTask<ArchivedTerm>> preloadedTerms = new ArrayDeque<>(readAhead);
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(0, 0);
+        final int fileCount = logFiles.size();
+        int fileIndex = 0;
+        try
+        {
+            while (fileIndex < fileCount || !preloadedTerms.isEmpty())
+            {
+                while (fileIndex < fileCount && preloadedTerms.size() < readAhead)
+                {
+                    final File logFile = logFiles.get(fileIndex++);
+                    preloadedTerms.add(pool.submit(() -> preloadTerm(logFile)));
+                }
+
+                try (ArchivedTerm term = preloadedTerms.poll().join())
+                {
+                    readTerm(term, termBuffer, handler, errorHandler);
+                }
+            }
+        }
+        finally
+        {
+            // Release the terms that have been read ahead if reading stopped early.
+            for (final ForkJoinTask<ArchivedTerm> task : preloadedTerms)
+            {
+                task.quietlyJoin();
+                if (!task.isCompletedAbnormally())
+                {
+                    task.getRawResult().close();
+                }
+            }
+        }
+    }
+
+    private List<File> sortByPosition(final StreamIdentifier streamId, final List<File> logFiles)
+    {
+        final Int2IntHashMap sessionIdToInitialTermId = new Int2IntHashMap(0);
+        final Int2ObjectHashMap<File> sessionIdToOldestLogFile = new Int2ObjectHashMap<>();
+        try (ArchiveMetaData metaData = new ArchiveMetaData(directoryDescriptor))
+        {
+            for (final File logFile : logFiles)
+            {
+                final int sessionId = LogDirectoryDescriptor.computeSessionId(logFile);
+                if (!sessionIdToInitialTermId.containsKey(sessionId))
+                {
+                    final ArchiveMetaDataDecoder decoder = metaData.read(streamId, sessionId);
+                    sessionIdToInitialTermId.put(sessionId, decoder == null ? 0 : decoder.initialTermId());
+                }
+            }
+        }
+
+        final ToIntFunction<File> termCount = (logFile) ->
+        {
+            final int sessionId = LogDirectoryDescriptor.computeSessionId(logFile);
+            return LogDirectoryDescriptor.computeTermId(logFile) - sessionIdToInitialTermId.get(sessionId);
+        };
+        for (final File logFile : logFiles)
+        {
+            final int sessionId = LogDirectoryDescriptor.computeSessionId(logFile);
+            final File oldestLogFile = sessionIdToOldestLogFile.get(sessionId);
+            if (oldestLogFile == null || termCount.applyAsInt(logFile) < termCount.applyAsInt(oldestLogFile))
+            {
+                sessionIdToOldestLogFile.put(sessionId, logFile);
+            }
+        }
+
+        // Positions of different Aeron sessions aren't comparable, so the session whose first archived message is
+        // the oldest is delivered first.
+        final Long2LongHashMap sessionIdToAge = new Long2LongHashMap(Long.MAX_VALUE);
+        for (final File oldestLogFile : sessionIdToOldestLogFile.values())
+        {
+            sessionIdToAge.put(
+                LogDirectoryDescriptor.computeSessionId(oldestLogFile), firstMessageTimestamp(oldestLogFile));
+        }
+
+        final List<File> sortedLogFiles = new ArrayList<>(logFiles);
+        sortedLogFiles.sort(Comparator
+            .comparingLong((File logFile) -> sessionIdToAge.get(LogDirectoryDescriptor.computeSessionId(logFile)))
+            .thenComparingInt(LogDirectoryDescriptor::computeSessionId)
+            .thenComparingInt(termCount));
+
+        return sortedLogFiles;
+    }
+
+    private static long firstMessageTimestamp(final File logFile)
+    {
+        final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+        final FixMessageDecoder fixMessage = new FixMessageDecoder();
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(0, 0);
+        try (ArchivedTerm term = mapTerm(logFile))
+        {
+            final ByteBuffer byteBuffer = term.termBuffer();
+            termBuffer.wrap(byteBuffer);
+            final int termLength = byteBuffer.capacity();
+            int termOffset = 0;
+            while (termOffset + HEADER_LENGTH <= termLength)
+            {
+                term.load(termOffset, HEADER_LENGTH);
+                final int frameLength = FrameDescriptor.frameLength(termBuffer, termOffset);
+                if (frameLength <= 0 || termOffset + frameLength > termLength)
+                {
+                    break;
+                }
+
+                final int messageOffset = termOffset + HEADER_LENGTH;
+                if (!FrameDescriptor.isPaddingFrame(termBuffer, termOffset) &&
+                    frameLength >= HEADER_LENGTH + MessageHeaderDecoder.ENCODED_LENGTH + FixMessageDecoder.BLOCK_LENGTH)
+                {
+                    term.load(messageOffset, frameLength - HEADER_LENGTH);
+                    messageHeader.wrap(termBuffer, messageOffset);
+                    if (messageHeader.templateId() == FixMessageDecoder.TEMPLATE_ID)
+                    {
+                        fixMessage.wrap(
+                            termBuffer,
+                            messageOffset + MessageHeaderDecoder.ENCODED_LENGTH,
+                            messageHeader.blockLength(),
+                            messageHeader.version());
+                        return fixMessage.timestamp();
+                    }
+                }
+
+                termOffset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    private static ArchivedTerm preloadTerm(final File logFile)
+    {
+        final ArchivedTerm term = mapTerm(logFile);
+        try
+        {
+            term.preload();
+            return term;
+        }
+        catch (final RuntimeException ex)
+        {
+            term.close();
+            throw ex;
+        }
+    }
+
+    private static void scanLogFile(
+        final File logFile,
+        final UnsafeBuffer termBuffer,
+        final FragmentHandler handler,
+        final ErrorHandler errorHandler)
+    {
+        try (ArchivedTerm term = mapTerm(logFile))
+        {
+            readTerm(term, termBuffer, handler, errorHandler);
+        }
+    }
+
+    private static void readTerm(
+        final ArchivedTerm term,
+        final UnsafeBuffer termBuffer,
+        final FragmentHandler handler,
+        final ErrorHandler errorHandler)
+    {
+        final ByteBuffer byteBuffer = term.termBuffer();
+        if (byteBuffer.capacity() > 0)
+        {
+            term.load(0, byteBuffer.capacity());
+            termBuffer.wrap(byteBuffer);
+            final int initialTermId = LogBufferDescriptor.initialTermId(termBuffer);
+            final Header header = new Header(initialTermId, termBuffer.capacity());
+            TermReader.read(
+                termBuffer,
+                0,
+                handler,
+                Integer.MAX_VALUE,
+                header,
+                errorHandler);
+        }
+    }
+
+    /**
+     * Enumerate the fragments of a stream that might have a timestamp within a time range. If the stream has a
+     * {@link TimeIndex} then only the blocks of the archive whose timestamps overlap the range, and anything archived
+     * after the last indexed block, are read. Otherwise every fragment is read. Callers still need to filter the
+     * fragments by their timestamp.
+     *
+     * @param streamId the stream to scan.
+     * @param beginTimestampInclusive the earliest timestamp of interest.
+     * @param endTimestampExclusive the timestamp after the latest timestamp of interest.
+     * @param handler the handler to pass the fragments to.
+     * @param errorHandler the handler for errors.
+     */
+    public void forEachFragment(
+        final StreamIdentifier streamId,
+        final long beginTimestampInclusive,
+        final long endTimestampExclusive,
+        final FragmentHandler handler,
+        final ErrorHandler errorHandler)
+    {
+        if (beginTimestampInclusive == Long.MIN_VALUE && endTimestampExclusive == Long.MAX_VALUE)
+        {
+            forEachFragment(streamId, handler, errorHandler);
+            return;
+        }
+
+        try (IndexedScan indexedScan = new IndexedScan(streamId, handler, errorHandler))
+        {
+            final File timeIndexFile = TimeIndexDescriptor.timeIndexFile(logFileDir, streamId.streamId());
+            final int recordCount = TimeIndexDescriptor.readRecords(
+                timeIndexFile,
+                errorHandler,
+                (aeronSessionId, beginPosition, endPosition, minTimestamp, maxTimestamp) ->
+                {
+                    if (minTimestamp < endTimestampExclusive && maxTimestamp >= beginTimestampInclusive)
+                    {
+                        indexedScan.readRange(aeronSessionId, beginPosition - HEADER_LENGTH, endPosition);
+                    }
+                    indexedScan.onIndexed(aeronSessionId, endPosition);
+                });
+
+            if (recordCount == NOT_INDEXED)
             {
-                termBuffer.wrap(byteBuffer);
-                final int initialTermId = LogBufferDescriptor.initialTermId(termBuffer);
-                final Header header = new Header(initialTermId, termBuffer.capacity());
-                TermReader.read(
-                    termBuffer,
-                    0,
-                    handler,
-                    Integer.MAX_VALUE,
-                    header,
-                    errorHandler);
+                forEachFragment(streamId, handler, errorHandler);
             }
+            else
+            {
+                indexedScan.readUnindexed();
+            }
+        }
+    }
+
+    private static ArchivedTerm mapTerm(final File logFile)
+    {
+        if (LogDirectoryDescriptor.isCompressed(logFile))
+        {
+            return ArchivedTerm.compressed(logFile);
         }
+
+        return ArchivedTerm.mapped(LoggerUtil.mapExistingFile(logFile));
     }
 
+    /**
+     * Reads the parts of an archive that a time index refers to, and the parts after the last indexed position of
+     * each Aeron session.
+     */
+    private final class IndexedScan implements AutoCloseable
+    {
+        private final Int2ObjectHashMap<SessionTerms> aeronSessionIdToTerms = new Int2ObjectHashMap<>();
+        private final Long2LongHashMap aeronSessionIdToIndexedPosition =
+            new Long2LongHashMap(IndexedPositionReader.UNKNOWN_POSITION);
+        private final UnsafeBuffer termBuffer = new UnsafeBuffer(0, 0);
+        private final ArchiveMetaData metaData;
+        private final StreamIdentifier streamId;
+        private final FragmentHandler handler;
+        private final ErrorHandler errorHandler;
+
+        private ArchivedTerm term;
+        private int termSessionId;
+        private int termId;
+
+        IndexedScan(final StreamIdentifier streamId, final FragmentHandler handler, final ErrorHandler errorHandler)
+        {
+            this.streamId = streamId;
+            this.handler = handler;
+            this.errorHandler = errorHandler;
+            metaData = new ArchiveMetaData(directoryDescriptor);
+        }
+
+        void onIndexed(final int aeronSessionId, final long endPosition)
+        {
+            if (endPosition > aeronSessionIdToIndexedPosition.get(aeronSessionId))
+            {
+                aeronSessionIdToIndexedPosition.put(aeronSessionId, endPosition);
+            }
+        }
+
+        void readRange(final int aeronSessionId, final long beginPosition, final long endPosition)
+        {
+            final SessionTerms terms = sessionTerms(aeronSessionId);
+            if (terms == null)
+            {
+                return;
+            }
+
+            long position = beginPosition;
+            while (position < endPosition)
+            {
+                final int termId = computeTermIdFromPosition(
+                    position, terms.positionBitsToShift, terms.initialTermId);
+                final int termOffset = computeTermOffsetFromPosition(position, terms.positionBitsToShift);
+                final int termLimit = (int)Math.min(terms.termLength, termOffset + (endPosition - position));
+
+                readTerm(aeronSessionId, termId, termOffset, termLimit, terms.header);
+
+                position += termLimit - termOffset;
+            }
+        }
+
+        void readUnindexed()
+        {
+            for (final File logFile : directoryDescriptor.listLogFiles(streamId))
+            {
+                final int aeronSessionId = LogDirectoryDescriptor.computeSessionId(logFile);
+                final int termId = LogDirectoryDescriptor.computeTermId(logFile);
+                final long indexedPosition = aeronSessionIdToIndexedPosition.get(aeronSessionId);
+                final SessionTerms terms = sessionTerms(aeronSessionId);
+                if (terms == null || indexedPosition == IndexedPositionReader.UNKNOWN_POSITION)
+                {
+                    closeTerm();
+                    scanLogFile(logFile, termBuffer, handler, errorHandler);
+                    continue;
+                }
+
+                final int indexedTermId = computeTermIdFromPosition(
+                    indexedPosition, terms.positionBitsToShift, terms.initialTermId);
+                if (termId - indexedTermId >= 0)
+                {
+                    final int termOffset = termId == indexedTermId ?
+                        computeTermOffsetFromPosition(indexedPosition, terms.positionBitsToShift) : 0;
+                    readTerm(aeronSessionId, termId, termOffset, terms.termLength, terms.header);
+                }
+            }
+        }
+
+        private void readTerm(
+            final int aeronSessionId, final int termId, final int termOffset, final int termLimit, final Header header)
+        {
+            final ArchivedTerm archivedTerm = term(aeronSessionId, termId);
+            if (archivedTerm == null || termLimit > archivedTerm.termBuffer().capacity())
+            {
+                return;
+            }
+
+            archivedTerm.load(termOffset, termLimit - termOffset);
+            termBuffer.wrap(archivedTerm.termBuffer(), 0, termLimit);
+            TermReader.read(
+                termBuffer,
+                termOffset,
+                handler,
+                Integer.MAX_VALUE,
+                header,
+                errorHandler);
+        }
+
+        private ArchivedTerm term(final int aeronSessionId, final int termId)
+        {
+            if (term != null && termSessionId == aeronSessionId && this.termId == termId)
+            {
+                return term;
+            }
+
+            closeTerm();
+
+            File logFile = directoryDescriptor.logFile(streamId, aeronSessionId, termId);
+            if (!logFile.exists())
+            {
+                logFile = directoryDescriptor.compressedLogFile(streamId, aeronSessionId, termId);
+                if (!logFile.exists())
+                {
+                    // Removed by archive retention.
+                    return null;
+                }
+            }
+
+            term = mapTerm(logFile);
+            termSessionId = aeronSessionId;
+            this.termId = termId;
+            return term;
+        }
+
+        private SessionTerms sessionTerms(final int aeronSessionId)
+        {
+            SessionTerms terms = aeronSessionIdToTerms.get(aeronSessionId);
+            if (terms == null)
+            {
+                final ArchiveMetaDataDecoder decoder = metaData.read(streamId, aeronSessionId);
+                if (decoder == null)
+                {
+                    return null;
+                }
+
+                terms = new SessionTerms(decoder.initialTermId(), decoder.termBufferLength());
+                aeronSessionIdToTerms.put(aeronSessionId, terms);
+            }
+
+            return terms;
+        }
+
+        private void closeTerm()
+        {
+            if (term != null)
+            {
+                term.close();
+                term = null;
+            }
+        }
+
+        public void close()
+        {
+            closeTerm();
+            metaData.close();
+        }
+    }
+
+    private static final class SessionTerms
+    {
+        private final int initialTermId;
+        private final int termLength;
+        private final int positionBitsToShift;
+        private final Header header;
+
+        private SessionTerms(final int initialTermId, final int termLength)
+        {
+            this.initialTermId = initialTermId;
+            this.termLength = termLength;
+            positionBitsToShift = Integer.numberOfTrailingZeros(termLength);
+            header = new Header(initialTermId, termLength);
+        }
+    }
 }
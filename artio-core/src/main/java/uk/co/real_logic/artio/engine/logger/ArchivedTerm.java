@@ -0,0 +1,280 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static uk.co.real_logic.artio.engine.logger.CompressedTermDescriptor.*;
+
+/**
+ * A term of the archive, either mapped from its term file or decompressed from its compressed term file.
+ * <p>
+ * Compressed terms are decompressed a block at a time as they're read, so callers must {@link #load(int, int)}
+ * the range of the term that they're about to read. Loading a mapped term is a no-op.
+ * <p>
+ * Compressed terms decompress into a {@link DecompressionBuffer}, which can be shared between the compressed terms
+ * that a reader caches. Only the compressed term that was most recently read holds the shared buffer, so reading
+ * another term decompresses the blocks that it reads again, and the buffer of a term mustn't be used once another
+ * term that shares it has been read.
+ */
+final class ArchivedTerm implements AutoCloseable
+{
+    private final MappedByteBuffer compressedByteBuffer;
+    private final UnsafeBuffer compressedBuffer;
+    private final Inflater inflater;
+    private final DecompressionBuffer decompressionBuffer;
+    private final boolean[] loadedBlocks;
+    private final int termLength;
+    private final int blockBitsToShift;
+
+    private ByteBuffer termBuffer;
+    private byte[] compressedBlock;
+
+    static ArchivedTerm mapped(final ByteBuffer termBuffer)
+    {
+        return new ArchivedTerm(termBuffer);
+    }
+
+    static ArchivedTerm compressed(final File compressedTermFile)
+    {
+        return compressed(compressedTermFile, new DecompressionBuffer());
+    }
+
+    static ArchivedTerm compressed(final File compressedTermFile, final DecompressionBuffer decompressionBuffer)
+    {
+        final MappedByteBuffer compressedByteBuffer = LoggerUtil.mapExistingFile(compressedTermFile);
+        try
+        {
+            return new ArchivedTerm(compressedTermFile, compressedByteBuffer, decompressionBuffer);
+        }
+        catch (final RuntimeException ex)
+        {
+            IoUtil.unmap(compressedByteBuffer);
+            throw ex;
+        }
+    }
+
+    private ArchivedTerm(final ByteBuffer termBuffer)
+    {
+        this.termBuffer = termBuffer;
+        compressedByteBuffer = null;
+        compressedBuffer = null;
+        inflater = null;
+        decompressionBuffer = null;
+        loadedBlocks = null;
+        termLength = termBuffer.capacity();
+        blockBitsToShift = 0;
+    }
+
+    private ArchivedTerm(
+        final File compressedTermFile,
+        final MappedByteBuffer compressedByteBuffer,
+        final DecompressionBuffer decompressionBuffer)
+    {
+        this.compressedByteBuffer = compressedByteBuffer;
+        compressedBuffer = new UnsafeBuffer(compressedByteBuffer);
+
+        final int capacity = compressedBuffer.capacity();
+        final int termLength = capacity < BLOCK_OFFSETS_OFFSET ? 0 : compressedBuffer.getInt(TERM_LENGTH_OFFSET);
+        final int blockLength = capacity < BLOCK_OFFSETS_OFFSET ? 0 : compressedBuffer.getInt(BLOCK_LENGTH_OFFSET);
+        final int blockCount = capacity < BLOCK_OFFSETS_OFFSET ? 0 : compressedBuffer.getInt(BLOCK_COUNT_OFFSET);
+        if (termLength <= 0 ||
+            !BitUtil.isPowerOfTwo(blockLength) ||
+            blockCount != blockCount(termLength, blockLength) ||
+            capacity < dataOffset(blockCount))
+        {
+            throw new IllegalStateException("Invalid compressed term file: " + compressedTermFile);
+        }
+
+        this.termLength = termLength;
+        this.decompressionBuffer = decompressionBuffer;
+        inflater = new Inflater();
+        loadedBlocks = new boolean[blockCount];
+        blockBitsToShift = Integer.numberOfTrailingZeros(blockLength);
+        compressedBlock = new byte[blockLength];
+    }
+
+    ByteBuffer termBuffer()
+    {
+        acquireTermBuffer();
+        return termBuffer;
+    }
+
+    /**
+     * Ensure that a range of the term can be read.
+     *
+     * @param offset the offset within the term to read from.
+     * @param length the number of bytes to read.
+     */
+    void load(final int offset, final int length)
+    {
+        final boolean[] loadedBlocks = this.loadedBlocks;
+        if (loadedBlocks == null || length <= 0)
+        {
+            return;
+        }
+
+        final int start = Math.max(0, offset);
+        final int end = Math.min(termLength, offset + length);
+        if (start >= end)
+        {
+            return;
+        }
+
+        acquireTermBuffer();
+
+        final int lastBlock = (end - 1) >> blockBitsToShift;
+        for (int blockIndex = start >> blockBitsToShift; blockIndex <= lastBlock; blockIndex++)
+        {
+            if (!loadedBlocks[blockIndex])
+            {
+                loadedBlocks[blockIndex] = loadBlock(blockIndex);
+            }
+        }
+    }
+
+    /**
+     * Read the whole term into memory, so that it can be read without blocking on I/O or decompression.
+     */
+    void preload()
+    {
+        if (loadedBlocks != null)
+        {
+            load(0, termLength);
+        }
+        else if (termBuffer instanceof MappedByteBuffer)
+        {
+            ((MappedByteBuffer)termBuffer).load();
+        }
+    }
+
+    private void acquireTermBuffer()
+    {
+        final DecompressionBuffer decompressionBuffer = this.decompressionBuffer;
+        if (decompressionBuffer != null && decompressionBuffer.owner != this)
+        {
+            // Another term has decompressed over this term's blocks since they were loaded.
+            termBuffer = decompressionBuffer.acquire(this, termBuffer);
+            Arrays.fill(loadedBlocks, false);
+        }
+    }
+
+    private boolean loadBlock(final int blockIndex)
+    {
+        final UnsafeBuffer compressedBuffer = this.compressedBuffer;
+        final long blockStart = compressedBuffer.getLong(blockOffsetOffset(blockIndex));
+        final long blockEnd = compressedBuffer.getLong(blockOffsetOffset(blockIndex + 1));
+        final int compressedLength = (int)(blockEnd - blockStart);
+        final int termOffset = blockIndex << blockBitsToShift;
+        final int blockLength = Math.min(1 << blockBitsToShift, termLength - termOffset);
+        final byte[] termArray = termBuffer.array();
+        if (compressedLength == 0)
+        {
+            // Blocks of zeros aren't stored.
+            Arrays.fill(termArray, termOffset, termOffset + blockLength, (byte)0);
+            return true;
+        }
+
+        if (blockStart < 0 || compressedLength < 0 || blockEnd > compressedBuffer.capacity())
+        {
+            return false;
+        }
+
+        if (compressedBlock.length < compressedLength)
+        {
+            compressedBlock = new byte[compressedLength];
+        }
+        compressedBuffer.getBytes((int)blockStart, compressedBlock, 0, compressedLength);
+
+        final Inflater inflater = this.inflater;
+        inflater.reset();
+        inflater.setInput(compressedBlock, 0, compressedLength);
+        boolean inflated;
+        try
+        {
+            inflated = inflater.inflate(termArray, termOffset, blockLength) == blockLength;
+        }
+        catch (final DataFormatException ex)
+        {
+            inflated = false;
+        }
+
+        if (!inflated)
+        {
+            // A corrupt block is left as zeros, so its messages fail to read rather than the whole term.
+            Arrays.fill(termArray, termOffset, termOffset + blockLength, (byte)0);
+        }
+
+        return inflated;
+    }
+
+    public void close()
+    {
+        if (inflater != null)
+        {
+            inflater.end();
+            IoUtil.unmap(compressedByteBuffer);
+            decompressionBuffer.release(this);
+        }
+        else if (termBuffer instanceof MappedByteBuffer)
+        {
+            IoUtil.unmap((MappedByteBuffer)termBuffer);
+        }
+    }
+
+    /**
+     * The buffer that compressed terms decompress their blocks into.
+     */
+    static final class DecompressionBuffer
+    {
+        private byte[] bytes = new byte[0];
+        private ArchivedTerm owner;
+
+        private ByteBuffer acquire(final ArchivedTerm term, final ByteBuffer termBuffer)
+        {
+            owner = term;
+            final int termLength = term.termLength;
+            if (bytes.length < termLength)
+            {
+                bytes = new byte[termLength];
+            }
+
+            if (termBuffer != null && termBuffer.array() == bytes)
+            {
+                return termBuffer;
+            }
+
+            return ByteBuffer.wrap(bytes, 0, termLength).slice();
+        }
+
+        private void release(final ArchivedTerm term)
+        {
+            if (owner == term)
+            {
+                owner = null;
+            }
+        }
+    }
+}
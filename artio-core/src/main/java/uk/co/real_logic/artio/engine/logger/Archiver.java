@@ -25,7 +25,10 @@ import org.agrona.LangUtil;
 import org.agrona.collections.Int2ObjectCache;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
 import uk.co.real_logic.artio.engine.CompletionPosition;
 import uk.co.real_logic.artio.replication.ReservedValue;
@@ -36,6 +39,8 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.IntFunction;
 import java.util.zip.CRC32;
 
@@ -63,11 +68,19 @@ public class Archiver implements Agent, RawBlockHandler
     private final LogDirectoryDescriptor directoryDescriptor;
     private final CRC32 checksum = new CRC32();
     private final DataHeaderFlyweight header = new DataHeaderFlyweight();
+    private final List<SessionArchiver> unforcedArchivers = new ArrayList<>();
+    private final ArchiveDurability durability;
+    private final long forceIntervalInNs;
+    private final long forceThresholdInBytes;
+    private final NanoClock clock;
+    private final FixCounters fixCounters;
 
     private ArchivedPositionHandler positionHandler = (aeronSessionId, endPosition, length) -> {};
 
     private boolean isClosed = false;
     private Subscription subscription;
+    private long unforcedBytes;
+    private long nextForceTimeInNs;
 
     public Archiver(
         final ArchiveMetaData metaData,
@@ -77,6 +90,54 @@ public class Archiver implements Agent, RawBlockHandler
         final String agentNamePrefix,
         final CompletionPosition completionPosition)
     {
+        this(
+            metaData,
+            cacheNumSets,
+            cacheSetSize,
+            streamId,
+            agentNamePrefix,
+            completionPosition,
+            ArchiveDurability.SYNCHRONOUS,
+            0,
+            0,
+            System::nanoTime,
+            null);
+    }
+
+    /**
+     * Create a new Archiver.
+     *
+     * @param metaData the meta data of the archive.
+     * @param cacheNumSets the number of sets in the cache of session archivers.
+     * @param cacheSetSize the size of each set in the cache of session archivers.
+     * @param streamId the stream to archive.
+     * @param agentNamePrefix the prefix of the agent's role name.
+     * @param completionPosition the positions to archive up to when closing.
+     * @param durability how archived messages are made durable.
+     * @param forceIntervalInNs the interval between forcing term files for periodic and group commit durability.
+     * @param forceThresholdInBytes the number of bytes written that forces term files for group commit durability.
+     * @param clock the clock to time the force interval with.
+     * @param fixCounters the counters to publish durable positions to, or null not to publish them.
+     */
+    public Archiver(
+        final ArchiveMetaData metaData,
+        final int cacheNumSets,
+        final int cacheSetSize,
+        final StreamIdentifier streamId,
+        final String agentNamePrefix,
+        final CompletionPosition completionPosition,
+        final ArchiveDurability durability,
+        final long forceIntervalInNs,
+        final long forceThresholdInBytes,
+        final NanoClock clock,
+        final FixCounters fixCounters)
+    {
+        this.durability = durability;
+        this.forceIntervalInNs = forceIntervalInNs;
+        this.forceThresholdInBytes = forceThresholdInBytes;
+        this.clock = clock;
+        this.fixCounters = fixCounters;
+        nextForceTimeInNs = clock.nanoTime();
         this.metaData = metaData;
         this.directoryDescriptor = metaData.directoryDescriptor();
         this.streamId = streamId;
@@ -106,7 +167,47 @@ public class Archiver implements Agent, RawBlockHandler
             return 0;
         }
 
-        return (int)subscription.rawPoll(this, POLL_LENGTH);
+        return (int)subscription.rawPoll(this, POLL_LENGTH) + forceIfDue();
+    }
+
+    private int forceIfDue()
+    {
+        final List<SessionArchiver> unforcedArchivers = this.unforcedArchivers;
+        if (unforcedArchivers.isEmpty())
+        {
+            return 0;
+        }
+
+        final long timeInNs = clock.nanoTime();
+        final boolean reachedThreshold =
+            durability == ArchiveDurability.GROUP_COMMIT && unforcedBytes >= forceThresholdInBytes;
+        if (timeInNs - nextForceTimeInNs < 0 && !reachedThreshold)
+        {
+            return 0;
+        }
+
+        try
+        {
+            for (int i = 0, size = unforcedArchivers.size(); i < size; i++)
+            {
+                unforcedArchivers.get(i).force();
+            }
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        unforcedArchivers.clear();
+        unforcedBytes = 0;
+        nextForceTimeInNs = timeInNs + forceIntervalInNs;
+
+        return 1;
+    }
+
+    private boolean forcesPeriodically()
+    {
+        return durability == ArchiveDurability.PERIODIC || durability == ArchiveDurability.GROUP_COMMIT;
     }
 
     private SessionArchiver newSessionArchiver(final int sessionId)
@@ -222,9 +323,13 @@ public class Archiver implements Agent, RawBlockHandler
         private final int positionBitsToShift;
         private final int initialTermId;
 
+        private final AtomicCounter durablePosition;
+
         private int currentTermId = UNKNOWN;
         private RandomAccessFile currentLogFile;
         private FileChannel currentLogChannel;
+        private long unforcedPosition;
+        private boolean isUnforced;
 
         protected SessionArchiver(final int sessionId, final Image image)
         {
@@ -233,6 +338,16 @@ public class Archiver implements Agent, RawBlockHandler
             termBufferLength = image.termBufferLength();
             positionBitsToShift = Integer.numberOfTrailingZeros(termBufferLength);
             initialTermId = image.initialTermId();
+
+            if (fixCounters != null && durability != ArchiveDurability.NONE)
+            {
+                durablePosition = fixCounters.archivedDurablePosition(streamId.streamId(), sessionId);
+                durablePosition.setOrdered(image.position());
+            }
+            else
+            {
+                durablePosition = null;
+            }
         }
 
         public int poll()
@@ -253,7 +368,8 @@ public class Archiver implements Agent, RawBlockHandler
             {
                 if (termId != currentTermId)
                 {
-                    close();
+                    force();
+                    closeLogFile();
                     final File location = logFile(termId);
                     currentLogFile = openFile(location);
                     currentLogChannel = currentLogFile.getChannel();
@@ -266,6 +382,7 @@ public class Archiver implements Agent, RawBlockHandler
                 final long endPosition = computePosition(
                     termId, termOffset + length, positionBitsToShift, initialTermId);
                 positionHandler.onArchivedPosition(sessionId, endPosition, length);
+                onWritten(endPosition, length);
 
                 if (transferred != length)
                 {
@@ -331,6 +448,40 @@ public class Archiver implements Agent, RawBlockHandler
             return image.position();
         }
 
+        private void onWritten(final long endPosition, final int length)
+        {
+            if (durability == ArchiveDurability.SYNCHRONOUS)
+            {
+                if (durablePosition != null)
+                {
+                    durablePosition.setOrdered(endPosition);
+                }
+            }
+            else if (forcesPeriodically())
+            {
+                unforcedPosition = endPosition;
+                unforcedBytes += length;
+                if (!isUnforced)
+                {
+                    isUnforced = true;
+                    unforcedArchivers.add(this);
+                }
+            }
+        }
+
+        private void force() throws IOException
+        {
+            if (isUnforced)
+            {
+                currentLogChannel.force(false);
+                isUnforced = false;
+                if (durablePosition != null)
+                {
+                    durablePosition.setOrdered(unforcedPosition);
+                }
+            }
+        }
+
         public boolean patch(
             final DirectBuffer bodyBuffer, final int readOffset, final int bodyLength)
         {
@@ -386,13 +537,31 @@ public class Archiver implements Agent, RawBlockHandler
         }
 
         public void close()
+        {
+            try
+            {
+                force();
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+            finally
+            {
+                closeLogFile();
+                CloseHelper.close(durablePosition);
+            }
+        }
+
+        private void closeLogFile()
         {
             CloseHelper.close(currentLogChannel);
         }
 
         private RandomAccessFile openFile(final File location) throws IOException
         {
-            final RandomAccessFile file = new RandomAccessFile(location, "rwd");
+            final String mode = durability == ArchiveDurability.SYNCHRONOUS ? "rwd" : "rw";
+            final RandomAccessFile file = new RandomAccessFile(location, mode);
             file.setLength(termBufferLength);
             return file;
         }
@@ -465,6 +634,10 @@ public class Archiver implements Agent, RawBlockHandler
         {
             if (patchTermLogChannel != currentLogChannel)
             {
+                if (forcesPeriodically())
+                {
+                    patchTermLogChannel.force(false);
+                }
                 patchTermLogChannel.close();
             }
         }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * A compressed term file holds a term of the archive as a series of independently deflated blocks, so that a
+ * message can be read without decompressing the rest of its term.
+ * <p>
+ * Term Length
+ * Block Length
+ * Block Count
+ * Padding
+ * Table of Block Count + 1 block offsets, block N is stored between offsets N and N + 1
+ * Compressed Blocks, blocks that are all zeros aren't stored
+ */
+final class CompressedTermDescriptor
+{
+    static final int BLOCK_LENGTH = 32 * 1024;
+
+    static final int TERM_LENGTH_OFFSET = 0;
+    static final int BLOCK_LENGTH_OFFSET = TERM_LENGTH_OFFSET + SIZE_OF_INT;
+    static final int BLOCK_COUNT_OFFSET = BLOCK_LENGTH_OFFSET + SIZE_OF_INT;
+    static final int BLOCK_OFFSETS_OFFSET = BLOCK_COUNT_OFFSET + 2 * SIZE_OF_INT;
+
+    static int blockCount(final int termLength, final int blockLength)
+    {
+        return (termLength + blockLength - 1) / blockLength;
+    }
+
+    static int blockOffsetOffset(final int blockIndex)
+    {
+        return BLOCK_OFFSETS_OFFSET + blockIndex * SIZE_OF_LONG;
+    }
+
+    static int dataOffset(final int blockCount)
+    {
+        return blockOffsetOffset(blockCount + 1);
+    }
+}
@@ -77,6 +77,10 @@ public final class FixArchivePrinter
                     predicate = to(parseLong(optionValue)).and(predicate);
                     break;
 
+                case "session-id":
+                    predicate = sessionOf(parseLong(optionValue)).and(predicate);
+                    break;
+
                 case "message-types":
                     final String[] messageTypes = optionValue.split(",");
                     predicate = messageTypeOf(messageTypes).and(predicate);
@@ -132,7 +136,8 @@ public final class FixArchivePrinter
         scanner.scan(
             aeronChannel,
             direction,
-            filterBy(FixArchivePrinter::print, predicate),
+            predicate,
+            FixArchivePrinter::print,
             Throwable::printStackTrace);
     }
 
@@ -172,6 +177,10 @@ public final class FixArchivePrinter
             "to",
             "Time in milliseconds that messages are not later than",
             false);
+        printOption(
+            "session-id",
+            "Only print messages from the session with this surrogate session id, uses the session's replay index",
+            false);
         printOption(
             "message-types",
             "Comma separated list of the message types (35=) that are printed",
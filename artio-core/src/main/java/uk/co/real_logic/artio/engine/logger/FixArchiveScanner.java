@@ -21,10 +21,15 @@ import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
 import uk.co.real_logic.artio.replication.StreamIdentifier;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
 import static uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType.SENT;
 
 /**
@@ -36,14 +41,8 @@ import static uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType
  */
 public class FixArchiveScanner
 {
-    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
-    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
-    private final LogEntryHandler logEntryHandler = new LogEntryHandler();
-
     private final ArchiveScanner archiveScanner;
 
-    private FixMessageConsumer handler;
-
     public enum MessageType
     {
         /** Messages sent from the engine to another FIX system */
@@ -64,14 +63,93 @@ public class FixArchiveScanner
         final FixMessageConsumer handler,
         final ErrorHandler errorHandler)
     {
-        this.handler = handler;
         final StreamIdentifier id = new StreamIdentifier(
             aeronChannel, messageType == SENT ? OUTBOUND_LIBRARY_STREAM : INBOUND_LIBRARY_STREAM);
-        archiveScanner.forEachFragment(id, logEntryHandler, errorHandler);
+        archiveScanner.forEachFragment(id, new LogEntryHandler(handler), errorHandler);
     }
 
-    class LogEntryHandler implements FragmentHandler
+    /**
+     * Scan the archive for fix messages, reading its files in parallel on a fork join pool.
+     *
+     * @param aeronChannel the aeron channel that the engine archived messages from.
+     * @param messageType whether to scan the sent or received messages.
+     * @param pool the pool to read the archive's files on.
+     * @param order how the messages are delivered, see {@link ArchiveScanner.ParallelOrder}.
+     * @param handlerSupplier supplies the handler for each thread that messages are delivered on.
+     * @param errorHandler the handler for errors, called from the pool's threads.
+     */
+    public void scanInParallel(
+        final String aeronChannel,
+        final MessageType messageType,
+        final ForkJoinPool pool,
+        final ArchiveScanner.ParallelOrder order,
+        final Supplier<FixMessageConsumer> handlerSupplier,
+        final ErrorHandler errorHandler)
     {
+        final StreamIdentifier id = new StreamIdentifier(
+            aeronChannel, messageType == SENT ? OUTBOUND_LIBRARY_STREAM : INBOUND_LIBRARY_STREAM);
+        archiveScanner.forEachFragmentInParallel(
+            id, pool, order, () -> new LogEntryHandler(handlerSupplier.get()), errorHandler);
+    }
+
+    /**
+     * Scan the archive for fix messages that pass a predicate. If the predicate restricts messages to the
+     * successfully sent or received messages of a single session, with {@link FixMessagePredicates#sessionOf(long)}
+     * and {@link FixMessagePredicates#statusOf(MessageStatus)} of {@link MessageStatus#OK}, then only that
+     * session's messages are read, using its replay index, which only records those messages. Otherwise if the
+     * predicate restricts the timestamps of the messages, for example with
+     * {@link FixMessagePredicates#between(long, long)}, then only the parts of the archive that the time index says
+     * might contain them are read.
+     *
+     * @param aeronChannel the aeron channel that the engine archived messages from.
+     * @param messageType whether to scan the sent or received messages.
+     * @param predicate the predicate that messages must pass to be passed to the handler.
+     * @param handler the handler to receive the messages.
+     * @param errorHandler the handler for errors.
+     */
+    public void scan(
+        final String aeronChannel,
+        final MessageType messageType,
+        final FixMessagePredicate predicate,
+        final FixMessageConsumer handler,
+        final ErrorHandler errorHandler)
+    {
+        final LogEntryHandler logEntryHandler = new LogEntryHandler(FixMessagePredicates.filterBy(handler, predicate));
+        final StreamIdentifier id = new StreamIdentifier(
+            aeronChannel, messageType == SENT ? OUTBOUND_LIBRARY_STREAM : INBOUND_LIBRARY_STREAM);
+        final long sessionId = predicate.requiredSessionId();
+        if (sessionId != UNK_SESSION && predicate.requiredStatus() == MessageStatus.OK)
+        {
+            archiveScanner.forEachSessionFragment(
+                id,
+                sessionId,
+                predicate.beginTimestampInclusiveInMs(),
+                predicate.endTimestampExclusiveInMs(),
+                logEntryHandler,
+                errorHandler);
+        }
+        else
+        {
+            archiveScanner.forEachFragment(
+                id,
+                predicate.beginTimestampInclusiveInMs(),
+                predicate.endTimestampExclusiveInMs(),
+                logEntryHandler,
+                errorHandler);
+        }
+    }
+
+    static class LogEntryHandler implements FragmentHandler
+    {
+        private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+        private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+        private final FixMessageConsumer handler;
+
+        LogEntryHandler(final FixMessageConsumer handler)
+        {
+            this.handler = handler;
+        }
+
         @SuppressWarnings("FinalParameters")
         public void onFragment(
             final DirectBuffer buffer, int offset, final int length, final Header header)
@@ -15,7 +15,11 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+
+import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
 
 /**
  * A criteria for filtering fix messages.
@@ -27,13 +31,69 @@ public interface FixMessagePredicate
 {
     boolean test(FixMessageDecoder message);
 
+    /**
+     * Gets the surrogate session id that messages must have to pass this predicate. Used to only read that
+     * session's messages from the archive.
+     *
+     * @return the surrogate session id that messages must have to pass this predicate or
+     * {@link SessionInfo#UNK_SESSION} if messages from any session can pass it.
+     */
+    default long requiredSessionId()
+    {
+        return UNK_SESSION;
+    }
+
+    /**
+     * Gets the earliest timestamp of a message that can pass this predicate. Used to skip parts of the archive
+     * that are before it.
+     *
+     * @return the earliest timestamp of a message that can pass this predicate.
+     */
+    default long beginTimestampInclusiveInMs()
+    {
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Gets the timestamp after the latest timestamp of a message that can pass this predicate. Used to skip parts of
+     * the archive that are after it.
+     *
+     * @return the timestamp after the latest timestamp of a message that can pass this predicate.
+     */
+    default long endTimestampExclusiveInMs()
+    {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the status that messages must have to pass this predicate. Used to only read the messages that a
+     * session's replay index records, which are the ones with the {@link MessageStatus#OK} status.
+     *
+     * @return the status that messages must have to pass this predicate or null if messages with any status can
+     * pass it.
+     */
+    default MessageStatus requiredStatus()
+    {
+        return null;
+    }
+
     default FixMessagePredicate and(final FixMessagePredicate other)
     {
-        return (message) -> test(message) && other.test(message);
+        return FixMessagePredicates.restrictedTo(
+            (message) -> test(message) && other.test(message),
+            requiredSessionId() != UNK_SESSION ? requiredSessionId() : other.requiredSessionId(),
+            Math.max(beginTimestampInclusiveInMs(), other.beginTimestampInclusiveInMs()),
+            Math.min(endTimestampExclusiveInMs(), other.endTimestampExclusiveInMs()),
+            requiredStatus() != null ? requiredStatus() : other.requiredStatus());
     }
 
     default FixMessagePredicate or(final FixMessagePredicate other)
     {
-        return (message) -> test(message) || other.test(message);
+        return FixMessagePredicates.restrictedTo(
+            (message) -> test(message) || other.test(message),
+            requiredSessionId() == other.requiredSessionId() ? requiredSessionId() : UNK_SESSION,
+            Math.min(beginTimestampInclusiveInMs(), other.beginTimestampInclusiveInMs()),
+            Math.max(endTimestampExclusiveInMs(), other.endTimestampExclusiveInMs()),
+            requiredStatus() == other.requiredStatus() ? requiredStatus() : null);
     }
 }
@@ -20,6 +20,8 @@ import org.agrona.collections.IntHashSet;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.dictionary.generation.CodecUtil;
 import uk.co.real_logic.artio.dictionary.generation.GenerationUtil;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.BufferAsciiSequence;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -31,6 +33,8 @@ import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
+
 /**
  * Filters to be used in conjunction with {@link FixArchiveScanner}.
  */
@@ -82,7 +86,12 @@ public final class FixMessagePredicates
      */
     public static FixMessagePredicate from(final long beginTimestampInclusiveInMs)
     {
-        return (message) -> message.timestamp() >= beginTimestampInclusiveInMs;
+        return restrictedTo(
+            (message) -> message.timestamp() >= beginTimestampInclusiveInMs,
+            UNK_SESSION,
+            beginTimestampInclusiveInMs,
+            Long.MAX_VALUE,
+            null);
     }
 
     /**
@@ -92,7 +101,73 @@ public final class FixMessagePredicates
      */
     public static FixMessagePredicate to(final long endTimestampExclusiveInMs)
     {
-        return (message) -> message.timestamp() < endTimestampExclusiveInMs;
+        return restrictedTo(
+            (message) -> message.timestamp() < endTimestampExclusiveInMs,
+            UNK_SESSION,
+            Long.MIN_VALUE,
+            endTimestampExclusiveInMs,
+            null);
+    }
+
+    static FixMessagePredicate restrictedTo(
+        final FixMessagePredicate predicate,
+        final long requiredSessionId,
+        final long beginTimestampInclusiveInMs,
+        final long endTimestampExclusiveInMs,
+        final MessageStatus requiredStatus)
+    {
+        if (requiredSessionId == UNK_SESSION &&
+            beginTimestampInclusiveInMs == Long.MIN_VALUE &&
+            endTimestampExclusiveInMs == Long.MAX_VALUE &&
+            requiredStatus == null)
+        {
+            return predicate;
+        }
+
+        return new FixMessagePredicate()
+        {
+            public boolean test(final FixMessageDecoder message)
+            {
+                return predicate.test(message);
+            }
+
+            public long requiredSessionId()
+            {
+                return requiredSessionId;
+            }
+
+            public long beginTimestampInclusiveInMs()
+            {
+                return beginTimestampInclusiveInMs;
+            }
+
+            public long endTimestampExclusiveInMs()
+            {
+                return endTimestampExclusiveInMs;
+            }
+
+            public MessageStatus requiredStatus()
+            {
+                return requiredStatus;
+            }
+        };
+    }
+
+    /**
+     * Filter messages by their status, eg: {@link MessageStatus#OK} for the messages that were successfully sent or
+     * received.
+     *
+     * @param status the status required of the messages.
+     * @return the resulting predicate.
+     */
+    public static FixMessagePredicate statusOf(final MessageStatus status)
+    {
+        return restrictedTo(
+            (message) -> message.status() == status,
+            UNK_SESSION,
+            Long.MIN_VALUE,
+            Long.MAX_VALUE,
+            status);
     }
 
     /**
@@ -212,7 +287,12 @@ public final class FixMessagePredicates
      */
     public static FixMessagePredicate sessionOf(final long sessionId)
     {
-        return (message) -> message.session() == sessionId;
+        return restrictedTo(
+            (message) -> message.session() == sessionId,
+            sessionId,
+            Long.MIN_VALUE,
+            Long.MAX_VALUE,
+            null);
     }
 
     public static FixMessagePredicate bodyMatches(final Pattern pattern)
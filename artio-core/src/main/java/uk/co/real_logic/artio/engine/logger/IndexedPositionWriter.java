@@ -24,7 +24,10 @@ import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
 import uk.co.real_logic.artio.storage.messages.IndexedPositionDecoder;
 import uk.co.real_logic.artio.storage.messages.IndexedPositionEncoder;
 
+import java.util.BitSet;
+
 import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
+import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_SIZE;
 
 /**
  * Writes out a log of the stream positions that we have indexed up to.
@@ -46,6 +49,8 @@ class IndexedPositionWriter
     private final AtomicBuffer buffer;
     private final ErrorHandler errorHandler;
     private final ChecksumFramer checksumFramer;
+    // Sectors that have been written to since their checksums were last updated
+    private final BitSet dirtySectors = new BitSet();
 
     IndexedPositionWriter(
         final AtomicBuffer buffer,
@@ -83,7 +88,14 @@ class IndexedPositionWriter
         }
     }
 
-    void indexedUpTo(final int aeronSessionId, final long position)
+    /**
+     * Record the position that a stream has been indexed up to.
+     *
+     * @param aeronSessionId the aeron session id of the stream.
+     * @param position the position that has been indexed up to.
+     * @return the offset of the updated record within the buffer, or {@code OUT_OF_SPACE}.
+     */
+    int indexedUpTo(final int aeronSessionId, final long position)
     {
         final Int2IntHashMap recordOffsets = this.recordOffsets;
 
@@ -99,12 +111,12 @@ class IndexedPositionWriter
             while (true)
             {
                 offset = checksumFramer.claim(offset, RECORD_LENGTH);
-                if (position == OUT_OF_SPACE)
+                if (offset == OUT_OF_SPACE)
                 {
                     errorHandler.onError(new IllegalStateException(String.format(
                         "Unable to record new session (%d), indexed position buffer full",
                         aeronSessionId)));
-                    return;
+                    return OUT_OF_SPACE;
                 }
 
                 decoder.wrap(buffer, offset, actingBlockLength, actingVersion);
@@ -115,7 +127,7 @@ class IndexedPositionWriter
 
                     recordOffsets.put(aeronSessionId, offset);
                     putPosition(position, buffer, offset);
-                    return;
+                    return offset;
                 }
 
                 offset += RECORD_LENGTH;
@@ -124,6 +136,7 @@ class IndexedPositionWriter
         else
         {
             putPosition(position, buffer, offset);
+            return offset;
         }
     }
 
@@ -135,6 +148,31 @@ class IndexedPositionWriter
     void updateChecksums()
     {
         checksumFramer.updateChecksums();
+        dirtySectors.clear();
+    }
+
+    /**
+     * Update the checksums of only the sectors that have been written to since their checksums were last updated.
+     *
+     * @return the number of sectors whose checksums were updated.
+     */
+    int updateDirtyChecksums()
+    {
+        final BitSet dirtySectors = this.dirtySectors;
+        int sectors = 0;
+        for (int sector = dirtySectors.nextSetBit(0); sector >= 0; sector = dirtySectors.nextSetBit(sector + 1))
+        {
+            checksumFramer.updateChecksum(sector * SECTOR_SIZE);
+            sectors++;
+        }
+        dirtySectors.clear();
+
+        return sectors;
+    }
+
+    void updateChecksum(final int sectorStart)
+    {
+        checksumFramer.updateChecksum(sectorStart);
     }
 
     AtomicBuffer buffer()
@@ -145,5 +183,6 @@ class IndexedPositionWriter
     private void putPosition(final long position, final AtomicBuffer buffer, final int offset)
     {
         buffer.putLongVolatile(offset + POSITION_OFFSET, position);
+        dirtySectors.set(offset / SECTOR_SIZE);
     }
 }
@@ -19,6 +19,7 @@ import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import org.agrona.DirectBuffer;
 import org.agrona.collections.CollectionUtil;
 import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
@@ -28,6 +29,9 @@ import uk.co.real_logic.artio.replication.ClusterHeader;
 import uk.co.real_logic.artio.replication.ClusterableSubscription;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
@@ -35,6 +39,9 @@ import static uk.co.real_logic.artio.engine.logger.ArchiveDescriptor.alignTerm;
 
 /**
  * Incrementally builds indexes by polling a subscription.
+ * <p>
+ * Before polling the indices must be caught up with any archived messages that they haven't yet indexed, using
+ * either {@link #catchIndexUp()} or {@link #catchIndexUp(Executor, Supplier)}.
  */
 public class Indexer implements Agent, ClusterFragmentHandler
 {
@@ -45,20 +52,23 @@ public class Indexer implements Agent, ClusterFragmentHandler
     private final ClusterableSubscription subscription;
     private final String agentNamePrefix;
     private final CompletionPosition completionPosition;
+    // Each index reads the archive separately whilst catching up, so this counts each archived byte once per index.
+    private final AtomicCounter caughtUpBytes;
 
     public Indexer(
         final List<Index> indices,
         final ArchiveReader archiveReader,
         final ClusterableSubscription subscription,
         final String agentNamePrefix,
-        final CompletionPosition completionPosition)
+        final CompletionPosition completionPosition,
+        final AtomicCounter caughtUpBytes)
     {
         this.indices = indices;
         this.archiveReader = archiveReader;
         this.subscription = subscription;
         this.agentNamePrefix = agentNamePrefix;
         this.completionPosition = completionPosition;
-        catchIndexUp();
+        this.caughtUpBytes = caughtUpBytes;
     }
 
     public int doWork()
@@ -66,25 +76,69 @@ public class Indexer implements Agent, ClusterFragmentHandler
         return subscription.poll(this, LIMIT) + CollectionUtil.sum(indices, Index::doWork);
     }
 
-    private void catchIndexUp()
+    /**
+     * Catch each index up with the archive in turn, on the calling thread.
+     */
+    public void catchIndexUp()
     {
         for (final Index index : indices)
         {
-            index.readLastPosition((aeronSessionId, endOfLastMessageposition) ->
-            {
-                final ArchiveReader.SessionReader sessionReader = archiveReader.session(aeronSessionId);
-                if (sessionReader != null)
+            catchIndexUp(index, archiveReader);
+        }
+    }
+
+    /**
+     * Catch the indices up with the archive in parallel, running a task for each index on the executor. The
+     * archive reader isn't thread-safe, so each task reads the archive using its own reader, which it closes
+     * once the index has caught up.
+     * <p>
+     * The indexer mustn't be polled until the returned future has completed.
+     *
+     * @param executor the executor to run the catch up tasks on.
+     * @param archiveReaders a supplier of new readers of the same stream as this indexer's archive reader.
+     * @return a future that completes once all of the indices have caught up.
+     */
+    public CompletableFuture<Void> catchIndexUp(
+        final Executor executor, final Supplier<ArchiveReader> archiveReaders)
+    {
+        final CompletableFuture<?>[] catchUps = new CompletableFuture<?>[indices.size()];
+        for (int i = 0; i < catchUps.length; i++)
+        {
+            final Index index = indices.get(i);
+            catchUps[i] = CompletableFuture.runAsync(
+                () ->
                 {
-                    do
+                    try (ArchiveReader archiveReader = archiveReaders.get())
                     {
+                        catchIndexUp(index, archiveReader);
+                    }
+                },
+                executor);
+        }
 
-                        final long nextMessagePosition = alignTerm(endOfLastMessageposition) + HEADER_LENGTH;
-                        endOfLastMessageposition = sessionReader.read(nextMessagePosition, index);
+        return CompletableFuture.allOf(catchUps);
+    }
+
+    private void catchIndexUp(final Index index, final ArchiveReader archiveReader)
+    {
+        index.readLastPosition((aeronSessionId, endOfLastMessageposition) ->
+        {
+            final ArchiveReader.SessionReader sessionReader = archiveReader.session(aeronSessionId);
+            if (sessionReader != null)
+            {
+                do
+                {
+                    final long nextMessagePosition = alignTerm(endOfLastMessageposition) + HEADER_LENGTH;
+                    final long readPosition = sessionReader.read(nextMessagePosition, index);
+                    if (readPosition > 0)
+                    {
+                        caughtUpBytes.getAndAdd(readPosition - endOfLastMessageposition);
                     }
-                    while (endOfLastMessageposition > 0);
+                    endOfLastMessageposition = readPosition;
                 }
-            });
-        }
+                while (endOfLastMessageposition > 0);
+            }
+        });
     }
 
     public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final ClusterHeader header)
@@ -110,7 +164,7 @@ public class Indexer implements Agent, ClusterFragmentHandler
     {
         quiesce();
 
-        Exceptions.closeAll(() -> Exceptions.closeAll(indices), archiveReader, subscription);
+        Exceptions.closeAll(() -> Exceptions.closeAll(indices), archiveReader, subscription, caughtUpBytes);
     }
 
     private void quiesce()
@@ -25,14 +25,18 @@ public class LogDirectoryDescriptor
 {
     private static final int EXTENSION_LENGTH = ".log".length();
 
+    static final String COMPRESSED_SUFFIX = ".z";
+
     private final String logFileDir;
     private final String logFileFormat;
+    private final String compressedLogFileFormat;
     private final String metaDataLogFileFormat;
 
     public LogDirectoryDescriptor(final String logFileDir)
     {
         this.logFileDir = logFileDir;
         logFileFormat = logFileDir + File.separator + "archive_%s_%d_%d_%d.log";
+        compressedLogFileFormat = logFileFormat + COMPRESSED_SUFFIX;
         metaDataLogFileFormat = logFileDir + File.separator + "meta-data_%s_%d_%d.log";
     }
 
@@ -41,6 +45,17 @@ public class LogDirectoryDescriptor
         return new File(String.format(logFileFormat, stream.canonicalForm(), stream.streamId(), sessionId, termId));
     }
 
+    public File compressedLogFile(final StreamIdentifier stream, final int sessionId, final int termId)
+    {
+        return new File(String.format(
+            compressedLogFileFormat, stream.canonicalForm(), stream.streamId(), sessionId, termId));
+    }
+
+    public static boolean isCompressed(final File logFile)
+    {
+        return logFile.getName().endsWith(COMPRESSED_SUFFIX);
+    }
+
     public File metaDataLogFile(final StreamIdentifier stream, final int sessionId)
     {
         return new File(String.format(metaDataLogFileFormat, stream.canonicalForm(), stream.streamId(), sessionId));
@@ -48,17 +63,32 @@ public class LogDirectoryDescriptor
 
     public List<File> listLogFiles(final StreamIdentifier stream)
     {
-        final String prefix = String.format("archive_%s_%d", stream.canonicalForm(), stream.streamId());
+        final String prefix = String.format("archive_%s_%d_", stream.canonicalForm(), stream.streamId());
         final File logFileDir = new File(this.logFileDir);
         return Arrays.asList(logFileDir.listFiles(file -> file.getName().startsWith(prefix)));
     }
 
     public static int computeTermId(final File logFile)
+    {
+        final String logFileName = stripExtension(logFile);
+        return Integer.parseInt(logFileName.substring(logFileName.lastIndexOf('_') + 1));
+    }
+
+    public static int computeSessionId(final File logFile)
+    {
+        final String logFileName = stripExtension(logFile);
+        final int endOfSessionId = logFileName.lastIndexOf('_');
+        final int startOfSessionId = logFileName.lastIndexOf('_', endOfSessionId - 1) + 1;
+
+        return Integer.parseInt(logFileName.substring(startOfSessionId, endOfSessionId));
+    }
+
+    private static String stripExtension(final File logFile)
     {
         final String logFileName = logFile.getName();
-        final int startOfTermId = logFileName.lastIndexOf('-');
-        final int endOfTermId = logFileName.length() - EXTENSION_LENGTH;
+        final int extensionLength = isCompressed(logFile) ?
+            EXTENSION_LENGTH + COMPRESSED_SUFFIX.length() : EXTENSION_LENGTH;
 
-        return Integer.parseInt(logFileName.substring(startOfTermId, endOfTermId));
+        return logFileName.substring(0, logFileName.length() - extensionLength);
     }
 }
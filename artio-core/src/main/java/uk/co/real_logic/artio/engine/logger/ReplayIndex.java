@@ -45,6 +45,15 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  *
  * Written Positions are stored in a separate file at {@link ReplayIndexDescriptor#replayPositionPath(String, int)}.
  *
+ * Each session's index is made up of one or more segment files. With a single segment the index is a ring buffer
+ * that overwrites its oldest records. With more segments a full segment rolls over to a new one and the oldest
+ * segments are deleted when there are more than maxSegments of them.
+ *
+ * The indexed position of each message is checksummed as soon as it's written, but only the sector that it was
+ * written to is checksummed rather than the whole positions buffer. Deferring checksums to once per duty cycle
+ * would be cheaper, but a process that was killed in between would leave a stale checksum behind, which would
+ * then be reported as file system corruption upon restart.
+ *
  * Buffer Consists of:
  *
  * MessageHeader
@@ -69,6 +78,7 @@ public class ReplayIndex implements Index
     private final String logFileDir;
     private final int requiredStreamId;
     private final int indexFileSize;
+    private final int maxSegments;
     private final BufferFactory bufferFactory;
     private final AtomicBuffer positionBuffer;
 
@@ -76,6 +86,7 @@ public class ReplayIndex implements Index
         final String logFileDir,
         final int requiredStreamId,
         final int indexFileSize,
+        final int maxSegments,
         final int cacheNumSets,
         final int cacheSetSize,
         final BufferFactory bufferFactory,
@@ -86,6 +97,8 @@ public class ReplayIndex implements Index
         this.requiredStreamId = requiredStreamId;
         this.indexFileSize = indexFileSize;
         checkIndexFileSize(indexFileSize);
+        this.maxSegments = maxSegments;
+        checkMaxSegments(maxSegments);
         this.bufferFactory = bufferFactory;
         this.positionBuffer = positionBuffer;
         fixSessionIdToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionIndex::close);
@@ -151,14 +164,35 @@ public class ReplayIndex implements Index
 
     private final class SessionIndex implements AutoCloseable
     {
-        private final ByteBuffer wrappedBuffer;
-        private final AtomicBuffer buffer;
-        private final int capacity;
+        private final long fixSessionId;
+
+        private int lowestSegmentIndex;
+        private int segmentIndex;
+        private ByteBuffer wrappedBuffer;
+        private AtomicBuffer buffer;
+        private int capacity;
 
         private SessionIndex(final long fixSessionId)
         {
-            final File logFile = logFile(logFileDir, fixSessionId, requiredStreamId);
+            this.fixSessionId = fixSessionId;
+
+            final int[] segmentIndices = segmentIndices(logFileDir, fixSessionId, requiredStreamId);
+            if (segmentIndices.length == 0)
+            {
+                mapSegment(0);
+            }
+            else
+            {
+                lowestSegmentIndex = segmentIndices[0];
+                mapSegment(segmentIndices[segmentIndices.length - 1]);
+            }
+        }
+
+        private void mapSegment(final int segmentIndex)
+        {
+            final File logFile = logFile(logFileDir, fixSessionId, requiredStreamId, segmentIndex);
             final boolean exists = logFile.exists();
+            this.segmentIndex = segmentIndex;
             this.wrappedBuffer = bufferFactory.map(logFile, indexFileSize);
             this.buffer = new UnsafeBuffer(wrappedBuffer);
 
@@ -172,7 +206,7 @@ public class ReplayIndex implements Index
                     .schemaId(replayIndexRecord.sbeSchemaId())
                     .version(replayIndexRecord.sbeSchemaVersion());
             }
-            else
+            else if (maxSegments == 1)
             {
                 // Reset the positions in order to avoid wraps at the start.
                 final int resetPosition = offset(beginChange(buffer), capacity);
@@ -189,6 +223,11 @@ public class ReplayIndex implements Index
             final int sequenceNumber,
             final int sequenceIndex)
         {
+            if (maxSegments > 1 && isFull(buffer))
+            {
+                rollSegment();
+            }
+
             final long beginChangePosition = beginChange(buffer);
             final long changePosition = beginChangePosition + RECORD_LENGTH;
 
@@ -206,11 +245,23 @@ public class ReplayIndex implements Index
                 .sequenceIndex(sequenceIndex);
 
             positionWriter.indexedUpTo(aeronSessionId, endPosition);
-            positionWriter.updateChecksums();
+            positionWriter.updateDirtyChecksums();
 
             endChangeOrdered(buffer, changePosition);
         }
 
+        private void rollSegment()
+        {
+            close();
+            mapSegment(segmentIndex + 1);
+
+            while (segmentIndex - lowestSegmentIndex >= maxSegments)
+            {
+                IoUtil.delete(logFile(logFileDir, fixSessionId, requiredStreamId, lowestSegmentIndex), true);
+                lowestSegmentIndex++;
+            }
+        }
+
         public void close()
         {
             IoUtil.unmap(wrappedBuffer);
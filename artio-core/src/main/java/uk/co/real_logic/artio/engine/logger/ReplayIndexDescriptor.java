@@ -21,6 +21,7 @@ import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
 
 import java.io.File;
+import java.util.Arrays;
 
 public class ReplayIndexDescriptor
 {
@@ -33,11 +34,64 @@ public class ReplayIndexDescriptor
 
     static final int RECORD_LENGTH = 32;
 
+    private static final String SEGMENT_SEPARATOR = ".";
+    private static final int[] NO_SEGMENTS = new int[0];
+
     static File logFile(final String logFileDir, final long fixSessionId, final int streamId)
     {
         return new File(String.format(logFileDir + File.separator + "replay-index-%d-%d", fixSessionId, streamId));
     }
 
+    /**
+     * Get the file of a segment of a session's replay index. The first segment is the file that a replay index
+     * without segments uses.
+     */
+    static File logFile(final String logFileDir, final long fixSessionId, final int streamId, final int segmentIndex)
+    {
+        final File logFile = logFile(logFileDir, fixSessionId, streamId);
+        return segmentIndex == 0 ? logFile : new File(logFile.getPath() + SEGMENT_SEPARATOR + segmentIndex);
+    }
+
+    /**
+     * Find the segments of a session's replay index.
+     *
+     * @return the indices of the segments that exist in ascending order, empty if the session has no replay index.
+     */
+    static int[] segmentIndices(final String logFileDir, final long fixSessionId, final int streamId)
+    {
+        final String fileName = logFile(logFileDir, fixSessionId, streamId).getName();
+        final String segmentPrefix = fileName + SEGMENT_SEPARATOR;
+        final String[] fileNames = new File(logFileDir).list();
+        if (fileNames == null)
+        {
+            return NO_SEGMENTS;
+        }
+
+        return Arrays.stream(fileNames)
+            .filter((name) -> name.equals(fileName) || isSegmentFileName(name, segmentPrefix))
+            .mapToInt((name) -> name.equals(fileName) ? 0 : Integer.parseInt(name.substring(segmentPrefix.length())))
+            .sorted()
+            .toArray();
+    }
+
+    private static boolean isSegmentFileName(final String name, final String segmentPrefix)
+    {
+        if (!name.startsWith(segmentPrefix) || name.length() == segmentPrefix.length())
+        {
+            return false;
+        }
+
+        for (int i = segmentPrefix.length(); i < name.length(); i++)
+        {
+            if (!Character.isDigit(name.charAt(i)))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public static UnsafeBuffer replayPositionBuffer(final String logFileDir, final int streamId)
     {
         final String pathname = replayPositionPath(logFileDir, streamId);
@@ -74,6 +128,16 @@ public class ReplayIndexDescriptor
         return buffer.getLong(BEGIN_CHANGE_OFFSET);
     }
 
+    static boolean hasOverwrittenRecords(final AtomicBuffer buffer)
+    {
+        return beginChangeVolatile(buffer) > recordCapacity(buffer.capacity());
+    }
+
+    static boolean isFull(final AtomicBuffer buffer)
+    {
+        return beginChangeVolatile(buffer) >= recordCapacity(buffer.capacity());
+    }
+
     static int recordCapacity(final int indexFileSize)
     {
         return indexFileSize - INITIAL_RECORD_OFFSET;
@@ -92,4 +156,12 @@ public class ReplayIndexDescriptor
                 "IndexFileSize must be a positive power of 2 + INITIAL_RECORD_OFFSET: indexFileSize=" + indexFileSize);
         }
     }
+
+    static void checkMaxSegments(final int maxSegments)
+    {
+        if (maxSegments < 1)
+        {
+            throw new IllegalStateException("MaxSegments must be positive: maxSegments=" + maxSegments);
+        }
+    }
 }
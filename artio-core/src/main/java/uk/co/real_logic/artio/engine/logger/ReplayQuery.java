@@ -23,11 +23,15 @@ import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordDecoder;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.LongFunction;
 
 import static org.agrona.UnsafeAccess.UNSAFE;
+import static uk.co.real_logic.artio.engine.logger.ArchiveReader.UNKNOWN_TERM;
 import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
 import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
 
@@ -35,6 +39,8 @@ import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
  * Queries an index of a composite key of session id and sequence number.
  *
  * This object isn't thread-safe, but the underlying replay index is a single-writer, multiple-reader threadsafe index.
+ * The segments of a session's index are queried oldest first, picking up segments that the writer has rolled over to
+ * since the previous query.
  */
 public class ReplayQuery implements AutoCloseable
 {
@@ -95,18 +101,127 @@ public class ReplayQuery implements AutoCloseable
 
     private final class SessionQuery implements AutoCloseable
     {
+        private final List<SegmentQuery> segments = new ArrayList<>();
+        private final long sessionId;
+
+        private int count;
+        private int lastAeronSessionId;
+        private ArchiveReader.SessionReader sessionReader;
+
+        private SessionQuery(final long sessionId)
+        {
+            this.sessionId = sessionId;
+            mapSegments();
+        }
+
+        private void mapSegments()
+        {
+            final int[] segmentIndices = segmentIndices(logFileDir, sessionId, requiredStreamId);
+            if (segmentIndices.length == 0)
+            {
+                segments.add(new SegmentQuery(sessionId, 0));
+            }
+            else
+            {
+                for (final int segmentIndex : segmentIndices)
+                {
+                    segments.add(new SegmentQuery(sessionId, segmentIndex));
+                }
+            }
+        }
+
+        private int query(
+            final ControlledFragmentHandler handler,
+            final int beginSequenceNumber,
+            final int beginSequenceIndex,
+            final int endSequenceNumber,
+            final int endSequenceIndex)
+        {
+            refreshSegments();
+
+            count = 0;
+            lastAeronSessionId = 0;
+            sessionReader = null;
+
+            final List<SegmentQuery> segments = this.segments;
+            for (int i = 0, size = segments.size(); i < size; i++)
+            {
+                if (!segments.get(i).query(
+                    this, handler, beginSequenceNumber, beginSequenceIndex, endSequenceNumber, endSequenceIndex))
+                {
+                    break;
+                }
+            }
+
+            sessionReader = null;
+
+            return count;
+        }
+
+        private void refreshSegments()
+        {
+            final List<SegmentQuery> segments = this.segments;
+
+            SegmentQuery lastSegment = segments.get(segments.size() - 1);
+            while (isFull(lastSegment.buffer))
+            {
+                final int nextSegmentIndex = lastSegment.segmentIndex + 1;
+                if (!logFile(logFileDir, sessionId, requiredStreamId, nextSegmentIndex).exists())
+                {
+                    if (!lastSegment.file.exists())
+                    {
+                        // The writer has rolled over so many times since the last query that every segment that
+                        // this query knows about has been deleted.
+                        close();
+                        mapSegments();
+                        return;
+                    }
+
+                    break;
+                }
+
+                lastSegment = new SegmentQuery(sessionId, nextSegmentIndex);
+                segments.add(lastSegment);
+            }
+
+            // The oldest segments are deleted by the writer's retention once it has rolled over to newer ones.
+            while (segments.size() > 1 && !segments.get(0).file.exists())
+            {
+                segments.remove(0).close();
+            }
+        }
+
+        public void close()
+        {
+            segments.forEach(SegmentQuery::close);
+            segments.clear();
+        }
+    }
+
+    private final class SegmentQuery implements AutoCloseable
+    {
+        private final File file;
+        private final int segmentIndex;
         private final ByteBuffer wrappedBuffer;
         private final UnsafeBuffer buffer;
         private final int capacity;
 
-        private SessionQuery(final long sessionId)
+        private SegmentQuery(final long sessionId, final int segmentIndex)
         {
-            wrappedBuffer = indexBufferFactory.map(logFile(logFileDir, sessionId, requiredStreamId));
+            this.segmentIndex = segmentIndex;
+            file = logFile(logFileDir, sessionId, requiredStreamId, segmentIndex);
+            wrappedBuffer = indexBufferFactory.map(file);
             buffer = new UnsafeBuffer(wrappedBuffer);
             capacity = recordCapacity(buffer.capacity());
         }
 
-        private int query(
+        /**
+         * Replay the records of this segment.
+         *
+         * @return true if the query should carry on with the next segment, false if it should stop.
+         */
+        private boolean query(
+            final SessionQuery sessionQuery,
             final ControlledFragmentHandler handler,
             final int beginSequenceNumber,
             final int beginSequenceIndex,
@@ -120,18 +235,39 @@ public class ReplayQuery implements AutoCloseable
             final int requiredStreamId = ReplayQuery.this.requiredStreamId;
             final boolean upToMostRecentMessage = endSequenceNumber == MOST_RECENT_MESSAGE;
 
-            int count = 0;
-            int lastAeronSessionId = 0;
-            ArchiveReader.SessionReader sessionReader = null;
-
             // positions on a monotonically increasing scale
             long iteratorPosition = beginChangeVolatile(buffer);
+            final long searchEndPosition;
             // First iteration around you need to start at 0
             if (iteratorPosition < capacity)
             {
                 iteratorPosition = 0;
+                searchEndPosition = Math.min(endChangeVolatile(buffer), capacity);
+            }
+            else
+            {
+                searchEndPosition = iteratorPosition + capacity;
             }
             long stopIteratingPosition = iteratorPosition + capacity;
+            iteratorPosition = searchBeginPosition(
+                iteratorPosition,
+                searchEndPosition,
+                beginSequenceNumber,
+                beginSequenceIndex,
+                actingBlockLength,
+                actingVersion);
+
+            if (archiveReader.readsAhead())
+            {
+                readAhead(
+                    iteratorPosition,
+                    stopIteratingPosition,
+                    endSequenceNumber,
+                    endSequenceIndex,
+                    upToMostRecentMessage,
+                    actingBlockLength,
+                    actingVersion);
+            }
 
             while (iteratorPosition != stopIteratingPosition)
             {
@@ -162,20 +298,22 @@ public class ReplayQuery implements AutoCloseable
 
                     if (position == 0)
                     {
-                        break;
+                        return false;
                     }
 
-                    if (sessionReader == null || aeronSessionId != lastAeronSessionId)
+                    ArchiveReader.SessionReader sessionReader = sessionQuery.sessionReader;
+                    if (sessionReader == null || aeronSessionId != sessionQuery.lastAeronSessionId)
                     {
-                        lastAeronSessionId = aeronSessionId;
+                        sessionQuery.lastAeronSessionId = aeronSessionId;
                         sessionReader = archiveReader.session(aeronSessionId);
+                        sessionQuery.sessionReader = sessionReader;
                     }
 
                     // You can't find the entry in the log file so treat the same as
                     // ArchiveReader.read() returning NO_MESSAGE.
                     if (sessionReader == null)
                     {
-                        break;
+                        return false;
                     }
 
                     final boolean endOk = upToMostRecentMessage || sequenceIndex < endSequenceIndex ||
@@ -185,12 +323,16 @@ public class ReplayQuery implements AutoCloseable
                     if (startOk && endOk && streamId == requiredStreamId)
                     {
                         final long readTo = sessionReader.read(position, handler);
-                        if (readTo < 0 || readTo == position)
+                        // The term has been deleted by archive retention, so the message can't be replayed.
+                        if (readTo != UNKNOWN_TERM)
                         {
-                            break;
-                        }
+                            if (readTo < 0 || readTo == position)
+                            {
+                                return false;
+                            }
 
-                        count++;
+                            sessionQuery.count++;
+                        }
                     }
                     iteratorPosition += RECORD_LENGTH;
                 }
@@ -200,7 +342,127 @@ public class ReplayQuery implements AutoCloseable
                 }
             }
 
-            return count;
+            return true;
+        }
+
+        /**
+         * Records are indexed in sequence order, so binary search for the first record that could be replayed
+         * rather than iterating over every record before it. Records that the writer overwrites during the search
+         * have later sequence numbers than the ones they replace, so they can make the search begin too early, which
+         * the iteration filters out, but never too late.
+         */
+        private long searchBeginPosition(
+            final long startPosition,
+            final long endPosition,
+            final int beginSequenceNumber,
+            final int beginSequenceIndex,
+            final int actingBlockLength,
+            final int actingVersion)
+        {
+            long low = 0;
+            long high = (endPosition - startPosition) / RECORD_LENGTH;
+            while (low < high)
+            {
+                final long middle = (low + high) >>> 1;
+                final long changePosition = endChangeVolatile(buffer);
+                final int offset = offset(startPosition + middle * RECORD_LENGTH, capacity);
+
+                indexRecord.wrap(buffer, offset, actingBlockLength, actingVersion);
+                final long position = indexRecord.position();
+                final int sequenceIndex = indexRecord.sequenceIndex();
+                final int sequenceNumber = indexRecord.sequenceNumber();
+
+                UNSAFE.loadFence(); // LoadLoad required so previous loads don't move past version check below.
+
+                if (changePosition == beginChangeVolatile(buffer))
+                {
+                    idleStrategy.reset();
+
+                    final boolean beforeBegin = position != 0 && (sequenceIndex < beginSequenceIndex ||
+                        (sequenceIndex == beginSequenceIndex && sequenceNumber < beginSequenceNumber));
+                    if (beforeBegin)
+                    {
+                        low = middle + 1;
+                    }
+                    else
+                    {
+                        high = middle;
+                    }
+                }
+                else
+                {
+                    idleStrategy.idle();
+                }
+            }
+
+            return startPosition + low * RECORD_LENGTH;
+        }
+
+        /**
+         * Ask the archive reader to prefetch the messages that this segment's query will replay. The records are
+         * read without checking for concurrent writes, as the prefetched ranges are only a hint.
+         */
+        private void readAhead(
+            final long beginPosition,
+            final long stopPosition,
+            final int endSequenceNumber,
+            final int endSequenceIndex,
+            final boolean upToMostRecentMessage,
+            final int actingBlockLength,
+            final int actingVersion)
+        {
+            int rangeAeronSessionId = 0;
+            long rangeBeginPosition = 0;
+            long rangeEndPosition = -1;
+
+            for (long iteratorPosition = beginPosition;
+                iteratorPosition != stopPosition;
+                iteratorPosition += RECORD_LENGTH)
+            {
+                indexRecord.wrap(buffer, offset(iteratorPosition, capacity), actingBlockLength, actingVersion);
+                final long position = indexRecord.position();
+                final int sequenceIndex = indexRecord.sequenceIndex();
+                final int sequenceNumber = indexRecord.sequenceNumber();
+                final boolean afterEnd = !upToMostRecentMessage && (sequenceIndex > endSequenceIndex ||
+                    (sequenceIndex == endSequenceIndex && sequenceNumber > endSequenceNumber));
+                if (position == 0 || afterEnd)
+                {
+                    break;
+                }
+
+                if (indexRecord.streamId() != requiredStreamId)
+                {
+                    continue;
+                }
+
+                final int aeronSessionId = indexRecord.aeronSessionId();
+                if (rangeEndPosition >= 0 && aeronSessionId == rangeAeronSessionId)
+                {
+                    rangeBeginPosition = Math.min(rangeBeginPosition, position);
+                    rangeEndPosition = Math.max(rangeEndPosition, position);
+                }
+                else
+                {
+                    prefetch(rangeAeronSessionId, rangeBeginPosition, rangeEndPosition);
+                    rangeAeronSessionId = aeronSessionId;
+                    rangeBeginPosition = position;
+                    rangeEndPosition = position;
+                }
+            }
+
+            prefetch(rangeAeronSessionId, rangeBeginPosition, rangeEndPosition);
+        }
+
+        private void prefetch(final int aeronSessionId, final long beginPosition, final long endPosition)
+        {
+            if (endPosition >= 0)
+            {
+                final ArchiveReader.SessionReader sessionReader = archiveReader.session(aeronSessionId);
+                if (sessionReader != null)
+                {
+                    sessionReader.prefetch(beginPosition, endPosition);
+                }
+            }
         }
 
         public void close()
@@ -41,6 +41,8 @@ import uk.co.real_logic.artio.replication.ClusterableSubscription;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
+import java.util.ArrayDeque;
+import java.util.Iterator;
 import java.util.Set;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
@@ -54,6 +56,11 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  * This agent subscribes to the stream of incoming fix data messages. It parses
  * Resend Request messages and searches the log, using the replay index to find
  * relevant messages to resend.
+ *
+ * Resend requests for more than the replay chunk size of messages are replayed a chunk at a time. The rest of the
+ * request is queued and its chunks take turns with those of other queued requests, so one large resend doesn't
+ * hold up the resends of every other session. Requests to the same connection are replayed in the order that
+ * they were received.
  */
 public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Agent
 {
@@ -92,6 +99,10 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
     private final IntHashSet gapFillMessageTypes;
     private final ReplayHandler replayHandler;
     private final SenderSequenceNumbers senderSequenceNumbers;
+    private final int replayChunkSize;
+
+    private final ArrayDeque<PendingReplay> pendingReplays = new ArrayDeque<>();
+    private final ArrayDeque<PendingReplay> freePendingReplays = new ArrayDeque<>();
 
     private int currentMessageOffset;
     private int currentMessageLength;
@@ -115,7 +126,8 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         final EpochClock clock,
         final Set<String> gapfillOnReplayMessageTypes,
         final ReplayHandler replayHandler,
-        final SenderSequenceNumbers senderSequenceNumbers)
+        final SenderSequenceNumbers senderSequenceNumbers,
+        final int replayChunkSize)
     {
         this.replayQuery = replayQuery;
         this.publication = publication;
@@ -127,6 +139,7 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
         this.agentNamePrefix = agentNamePrefix;
         this.replayHandler = replayHandler;
         this.senderSequenceNumbers = senderSequenceNumbers;
+        this.replayChunkSize = replayChunkSize;
 
         possDupEnabler = new PossDupEnabler(
             bufferClaim,
@@ -203,65 +216,244 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
                 return CONTINUE;
             }
 
+            final PendingReplay pendingReplay = pendingReplayFor(connectionId);
+            if (pendingReplay != null)
+            {
+                // Wait for the earlier replay to this connection to finish, so that the replays stay in order.
+                pendingReplay.last().next = newPendingReplay(
+                    srcBuffer, srcOffset, limit, connectionId, sessionId, sequenceIndex, beginSeqNo, endSeqNo);
+                return CONTINUE;
+            }
+
             this.connectionId = connectionId;
             this.sessionId = sessionId;
             this.sequenceIndex = sequenceIndex;
             this.lastSeqNo = beginSeqNo - 1;
 
-            backpressured = false;
-            final int count = replayQuery.query(
-                assembler,
-                sessionId,
-                beginSeqNo,
-                sequenceIndex,
-                endSeqNo,
-                sequenceIndex);
+            final int chunkEndSeqNo = chunkEndSeqNo(beginSeqNo, endSeqNo);
+            final PendingReplay remainder = chunkEndSeqNo == endSeqNo ? null : newPendingReplay(
+                srcBuffer, srcOffset, limit, connectionId, sessionId, sequenceIndex, chunkEndSeqNo + 1, endSeqNo);
 
-            if (backpressured)
+            final Action action = replayChunk(beginSeqNo, chunkEndSeqNo, endSeqNo);
+            if (action == ABORT)
             {
-                return ABORT;
+                if (remainder != null)
+                {
+                    freePendingReplays.addLast(remainder);
+                }
+
+                return action;
             }
 
-            // If the last N messages were admin messages then we need to send a gapfill
-            // after the replay query has run.
-            if (beginGapFillSeqNum != NONE)
+            if (remainder != null)
             {
-                final int newSequenceNumber =
-                    replayUpToMostRecent ? newSeqNo(connectionId) : endSeqNo + 1;
-                final Action action = sendGapFill(beginGapFillSeqNum, newSequenceNumber);
-                if (action == ABORT)
-                {
-                    backpressured = true;
-                    return action;
-                }
+                remainder.lastSeqNo = lastSeqNo;
+                remainder.beginGapFillSeqNum = beginGapFillSeqNum;
+                beginGapFillSeqNum = NONE;
+                pendingReplays.addLast(remainder);
+            }
+        }
+
+        return CONTINUE;
+    }
+
+    private Action replayChunk(final int beginSeqNo, final int chunkEndSeqNo, final int endSeqNo)
+    {
+        backpressured = false;
+        final int count = replayQuery.query(
+            assembler,
+            sessionId,
+            beginSeqNo,
+            sequenceIndex,
+            chunkEndSeqNo,
+            sequenceIndex);
+
+        if (backpressured)
+        {
+            return ABORT;
+        }
+
+        final boolean replayUpToMostRecent = chunkEndSeqNo == MOST_RECENT_MESSAGE;
+        // If the last N messages were admin messages then we need to send a gapfill
+        // after the replay query has run. A chunk that isn't the last one leaves its gapfill
+        // to be sent by the next chunk.
+        if (beginGapFillSeqNum != NONE && chunkEndSeqNo == endSeqNo)
+        {
+            final int newSequenceNumber =
+                replayUpToMostRecent ? newSeqNo(connectionId) : chunkEndSeqNo + 1;
+            final Action action = sendGapFill(beginGapFillSeqNum, newSequenceNumber);
+            if (action == ABORT)
+            {
+                backpressured = true;
+                return action;
             }
 
-            // Validate that we've replayed the correct number of messages.
-            // If we have missing messages for some reason then just gap fill them.
-            if (!replayUpToMostRecent)
+            lastSeqNo = newSequenceNumber - 1;
+            beginGapFillSeqNum = NONE;
+        }
+
+        // Validate that we've replayed the correct number of messages.
+        // If we have missing messages for some reason then just gap fill them.
+        if (!replayUpToMostRecent)
+        {
+            final int expectedCount = chunkEndSeqNo - beginSeqNo + 1;
+            if (count != expectedCount)
             {
-                final int expectedCount = endSeqNo - beginSeqNo + 1;
-                if (count != expectedCount)
+                // The gapfill of a last chunk's trailing admin messages may already have covered it.
+                if (count == 0 && lastSeqNo < chunkEndSeqNo)
                 {
-                    if (count == 0)
+                    final int gapFillSeqNo = beginGapFillSeqNum != NONE ? beginGapFillSeqNum : beginSeqNo;
+                    final Action action = sendGapFill(gapFillSeqNo, chunkEndSeqNo + 1);
+                    if (action == ABORT)
                     {
-                        final Action action = sendGapFill(beginSeqNo, endSeqNo + 1);
-                        if (action == ABORT)
-                        {
-                            return action;
-                        }
+                        return action;
                     }
 
-                    onIllegalState(
-                        "[%s] Error in resend request, count(%d) < expectedCount (%d)",
-                        message(), count, expectedCount);
+                    lastSeqNo = chunkEndSeqNo;
+                    beginGapFillSeqNum = NONE;
                 }
+
+                onIllegalState(
+                    "[%s] Error in resend request, count(%d) < expectedCount (%d)",
+                    message(), count, expectedCount);
             }
         }
 
         return CONTINUE;
     }
 
+    private int chunkEndSeqNo(final int beginSeqNo, final int endSeqNo)
+    {
+        if (replayChunkSize > 0)
+        {
+            final int lastSeqNoToReplay = endSeqNo == MOST_RECENT_MESSAGE ? newSeqNo(connectionId) - 1 : endSeqNo;
+            if (lastSeqNoToReplay - beginSeqNo >= replayChunkSize)
+            {
+                return beginSeqNo + replayChunkSize - 1;
+            }
+        }
+
+        return endSeqNo;
+    }
+
+    private int replayPendingChunks()
+    {
+        // A back pressured resend request gets retried before anything else is replayed.
+        if (backpressured)
+        {
+            return 0;
+        }
+
+        int work = 0;
+        while (work < POLL_LIMIT && !pendingReplays.isEmpty())
+        {
+            final PendingReplay pendingReplay = pendingReplays.peekFirst();
+            final int beginSeqNo = pendingReplay.nextSeqNo;
+            final int endSeqNo = pendingReplay.endSeqNo;
+
+            resume(pendingReplay);
+
+            final int chunkEndSeqNo = chunkEndSeqNo(beginSeqNo, endSeqNo);
+            final Action action = replayChunk(beginSeqNo, chunkEndSeqNo, endSeqNo);
+            if (action == ABORT)
+            {
+                if (backpressured)
+                {
+                    pendingReplay.nextSeqNo = beginGapFillSeqNum != NONE ? beginGapFillSeqNum : lastSeqNo + 1;
+                    pendingReplay.lastSeqNo = pendingReplay.nextSeqNo - 1;
+                    pendingReplay.beginGapFillSeqNum = beginGapFillSeqNum;
+                    backpressured = false;
+                }
+
+                beginGapFillSeqNum = NONE;
+                break;
+            }
+
+            pendingReplays.pollFirst();
+            work++;
+
+            if (chunkEndSeqNo == endSeqNo)
+            {
+                if (pendingReplay.next != null)
+                {
+                    pendingReplays.addLast(pendingReplay.next);
+                    pendingReplay.next = null;
+                }
+
+                freePendingReplays.addLast(pendingReplay);
+            }
+            else
+            {
+                pendingReplay.nextSeqNo = chunkEndSeqNo + 1;
+                pendingReplay.lastSeqNo = lastSeqNo;
+                pendingReplay.beginGapFillSeqNum = beginGapFillSeqNum;
+                pendingReplays.addLast(pendingReplay);
+            }
+
+            beginGapFillSeqNum = NONE;
+        }
+
+        return work;
+    }
+
+    private void resume(final PendingReplay pendingReplay)
+    {
+        final int length = pendingReplay.length;
+        asciiBuffer.wrap(pendingReplay.buffer);
+        currentMessageOffset = 0;
+        currentMessageLength = length;
+
+        resendRequest.reset();
+        resendRequest.decode(asciiBuffer, 0, length);
+
+        connectionId = pendingReplay.connectionId;
+        sessionId = pendingReplay.sessionId;
+        sequenceIndex = pendingReplay.sequenceIndex;
+        lastSeqNo = pendingReplay.lastSeqNo;
+        beginGapFillSeqNum = pendingReplay.beginGapFillSeqNum;
+    }
+
+    private PendingReplay pendingReplayFor(final long connectionId)
+    {
+        for (final PendingReplay pendingReplay : pendingReplays)
+        {
+            if (pendingReplay.connectionId == connectionId)
+            {
+                return pendingReplay;
+            }
+        }
+
+        return null;
+    }
+
+    private PendingReplay newPendingReplay(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int length,
+        final long connectionId,
+        final long sessionId,
+        final int sequenceIndex,
+        final int beginSeqNo,
+        final int endSeqNo)
+    {
+        PendingReplay pendingReplay = freePendingReplays.pollFirst();
+        if (pendingReplay == null)
+        {
+            pendingReplay = new PendingReplay();
+        }
+
+        pendingReplay.copy(srcBuffer, srcOffset, length);
+        pendingReplay.connectionId = connectionId;
+        pendingReplay.sessionId = sessionId;
+        pendingReplay.sequenceIndex = sequenceIndex;
+        pendingReplay.nextSeqNo = beginSeqNo;
+        pendingReplay.endSeqNo = endSeqNo;
+        pendingReplay.lastSeqNo = beginSeqNo - 1;
+        pendingReplay.beginGapFillSeqNum = NONE;
+
+        return pendingReplay;
+    }
+
     private int newSeqNo(final long connectionId)
     {
         return senderSequenceNumbers.lastSentSequenceNumber(connectionId) + 1;
@@ -370,6 +562,24 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
 
     public Action onDisconnect(final int libraryId, final long connectionId, final DisconnectReason reason)
     {
+        // Nothing more can be resent to a disconnected connection.
+        final Iterator<PendingReplay> it = pendingReplays.iterator();
+        while (it.hasNext())
+        {
+            PendingReplay pendingReplay = it.next();
+            if (pendingReplay.connectionId == connectionId)
+            {
+                it.remove();
+                while (pendingReplay != null)
+                {
+                    final PendingReplay next = pendingReplay.next;
+                    pendingReplay.next = null;
+                    freePendingReplays.addLast(pendingReplay);
+                    pendingReplay = next;
+                }
+            }
+        }
+
         return CONTINUE;
     }
 
@@ -414,7 +624,8 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
 
     public int doWork()
     {
-        return senderSequenceNumbers.poll() + subscription.poll(protocolSubscription, POLL_LIMIT);
+        return senderSequenceNumbers.poll() + subscription.poll(protocolSubscription, POLL_LIMIT) +
+            replayPendingChunks();
     }
 
     public void onClose()
@@ -427,4 +638,46 @@ public class Replayer implements ProtocolHandler, ControlledFragmentHandler, Age
     {
         return agentNamePrefix + "Replayer";
     }
+
+    /**
+     * The remainder of a resend request that is being replayed a chunk at a time, along with any later resend
+     * requests to the same connection. Holds a copy of the resend request, since gap fills are addressed using its
+     * header.
+     */
+    private static final class PendingReplay
+    {
+        private final MutableAsciiBuffer buffer = new MutableAsciiBuffer();
+
+        private int length;
+        private long connectionId;
+        private long sessionId;
+        private int sequenceIndex;
+        private int nextSeqNo;
+        private int endSeqNo;
+        private int lastSeqNo;
+        private int beginGapFillSeqNum;
+        private PendingReplay next;
+
+        private void copy(final DirectBuffer srcBuffer, final int srcOffset, final int length)
+        {
+            if (buffer.capacity() < length)
+            {
+                buffer.wrap(new byte[length]);
+            }
+
+            buffer.putBytes(0, srcBuffer, srcOffset, length);
+            this.length = length;
+        }
+
+        private PendingReplay last()
+        {
+            PendingReplay last = this;
+            while (last.next != null)
+            {
+                last = last.next;
+            }
+
+            return last;
+        }
+    }
 }
@@ -16,6 +16,7 @@
 package uk.co.real_logic.artio.engine.logger;
 
 import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.AtomicBuffer;
 import uk.co.real_logic.artio.engine.SectorFramer;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
@@ -25,11 +26,27 @@ import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
 import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
 import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexWriter.SEQUENCE_NUMBER_OFFSET;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.BLOCK_LENGTH;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
 
+/**
+ * Reads the last known sequence number of a session from the sequence number index.
+ * <p>
+ * Lookups of known sessions are constant time: the offsets of the records that have been seen so far are cached
+ * by session id, and records that the writer has appended since the last lookup are indexed incrementally. A record
+ * that is found at a cached offset is always validated against its session id, if that fails then the index has
+ * been reset and the cache is rebuilt from the start of the buffer.
+ * <p>
+ * A reset can also rewrite records before the last indexed one, so a session that isn't found amongst the cached
+ * and newly appended records is looked up again from the start of the buffer. Lookups of unknown sessions
+ * therefore cost a scan of every record.
+ */
 public class SequenceNumberIndexReader
 {
+    private static final long MISSING_RECORD = -1L;
+
+    private final Long2LongHashMap recordOffsets = new Long2LongHashMap(MISSING_RECORD);
     private final MessageHeaderDecoder fileHeaderDecoder = new MessageHeaderDecoder();
     private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
     private final AtomicBuffer inMemoryBuffer;
@@ -37,6 +54,9 @@ public class SequenceNumberIndexReader
     private final IndexedPositionReader positions;
     private final ErrorHandler errorHandler;
 
+    // The offset to start looking for newly written records from
+    private int unindexedOffset = HEADER_SIZE;
+
     public SequenceNumberIndexReader(final AtomicBuffer inMemoryBuffer, final ErrorHandler errorHandler)
     {
         this.inMemoryBuffer = inMemoryBuffer;
@@ -49,7 +69,40 @@ public class SequenceNumberIndexReader
 
     public int lastKnownSequenceNumber(final long sessionId)
     {
-        int position = SequenceNumberIndexDescriptor.HEADER_SIZE;
+        final int recordOffset = (int)recordOffsets.get(sessionId);
+        if (recordOffset != MISSING_RECORD)
+        {
+            lastKnownDecoder.wrap(inMemoryBuffer, recordOffset, BLOCK_LENGTH, SCHEMA_VERSION);
+            if (lastKnownDecoder.sessionId() == sessionId)
+            {
+                return lastKnownDecoder.sequenceNumber();
+            }
+
+            clearRecordOffsets();
+        }
+
+        final boolean hasIndexedRecords = unindexedOffset != HEADER_SIZE;
+        final int sequenceNumber = indexNewRecords(sessionId);
+        if (sequenceNumber == UNK_SESSION && hasIndexedRecords)
+        {
+            // The session's record may have been rewritten before the last indexed record by a reset.
+            clearRecordOffsets();
+            return indexNewRecords(sessionId);
+        }
+
+        return sequenceNumber;
+    }
+
+    private void clearRecordOffsets()
+    {
+        recordOffsets.clear();
+        unindexedOffset = HEADER_SIZE;
+    }
+
+    private int indexNewRecords(final long sessionId)
+    {
+        final AtomicBuffer inMemoryBuffer = this.inMemoryBuffer;
+        int position = unindexedOffset;
         while (true)
         {
             position = sectorFramer.claim(position, RECORD_SIZE);
@@ -58,14 +111,24 @@ public class SequenceNumberIndexReader
                 return UNK_SESSION;
             }
 
-            lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
-
-            if (lastKnownDecoder.sessionId() == sessionId)
+            // Records are written contiguously and the sequence number is written after the session id.
+            final int sequenceNumber = inMemoryBuffer.getIntVolatile(position + SEQUENCE_NUMBER_OFFSET);
+            if (sequenceNumber == 0)
             {
-                return lastKnownDecoder.sequenceNumber();
+                return UNK_SESSION;
             }
 
+            lastKnownDecoder.wrap(inMemoryBuffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
+            final long recordSessionId = lastKnownDecoder.sessionId();
+            recordOffsets.put(recordSessionId, position);
+
             position += RECORD_SIZE;
+            unindexedOffset = position;
+
+            if (recordSessionId == sessionId)
+            {
+                return sequenceNumber;
+            }
         }
     }
 
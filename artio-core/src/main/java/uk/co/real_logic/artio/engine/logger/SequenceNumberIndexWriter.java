@@ -30,6 +30,7 @@ import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.io.File;
+import java.util.BitSet;
 
 import static uk.co.real_logic.artio.engine.SectorFramer.*;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
@@ -38,6 +39,10 @@ import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEnc
 /**
  * Writes updates into an in-memory buffer. This buffer is then flushed down to disk. A passing place
  * file is used to ensure that there's a recoverable option if it fails.
+ * <p>
+ * The index and writable files take turns at being written to, so each flush only re-checksums the sectors
+ * that have changed since the last flush and copies the sectors that the writable file is missing, rather than
+ * the whole buffer.
  */
 public class SequenceNumberIndexWriter implements Index
 {
@@ -69,6 +74,11 @@ public class SequenceNumberIndexWriter implements Index
     private final int streamId;
     private final int indexedPositionsOffset;
     private final IndexedPositionWriter positions;
+    private final int positionsSectorIndex;
+    // Sectors that have changed since the file was last updated
+    private final BitSet dirtySectors;
+    // Sectors whose contents in the writable file differ from the in memory buffer
+    private final BitSet unsavedSectors;
 
     private MappedFile writableFile;
     private MappedFile indexFile;
@@ -94,6 +104,13 @@ public class SequenceNumberIndexWriter implements Index
 
         // TODO: Fsync parent directory
         indexedPositionsOffset = positionTableOffset(fileCapacity);
+        positionsSectorIndex = indexedPositionsOffset / SECTOR_SIZE;
+        final int sectorCount = (fileCapacity + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        dirtySectors = new BitSet(sectorCount);
+        unsavedSectors = new BitSet(sectorCount);
+        // Nothing is known about the writable file's contents and a blank buffer has no checksums yet.
+        dirtySectors.set(0, sectorCount);
+        unsavedSectors.set(0, sectorCount);
         checksumFramer = new ChecksumFramer(
             inMemoryBuffer, indexedPositionsOffset, errorHandler, 0, "SequenceNumberIndex");
         try
@@ -165,13 +182,19 @@ public class SequenceNumberIndexWriter implements Index
         }
 
         checkTermRoll(buffer, srcOffset, endPosition, length);
-        positions.indexedUpTo(aeronSessionId, endPosition);
+        final int positionOffset = positions.indexedUpTo(aeronSessionId, endPosition);
+        if (positionOffset != OUT_OF_SPACE)
+        {
+            dirtySectors.set((indexedPositionsOffset + positionOffset) / SECTOR_SIZE);
+        }
     }
 
     void resetSequenceNumbers()
     {
         inMemoryBuffer.setMemory(0, indexedPositionsOffset, (byte)0);
+        recordOffsets.clear();
         initialiseBlankBuffer();
+        dirtySectors.set(0, positionsSectorIndex);
     }
 
     private void checkTermRoll(final DirectBuffer buffer, final int offset, final long endPosition, final int length)
@@ -191,19 +214,62 @@ public class SequenceNumberIndexWriter implements Index
 
     private void updateFile()
     {
-        checksumFramer.updateChecksums();
-        positions.updateChecksums();
+        updateChecksums();
         saveFile();
-        flipFiles();
+        if (flipFiles())
+        {
+            // The writable file is now the old index file, which is missing the sectors that have just changed.
+            unsavedSectors.clear();
+            unsavedSectors.or(dirtySectors);
+        }
+        dirtySectors.clear();
+    }
+
+    private void updateChecksums()
+    {
+        final BitSet dirtySectors = this.dirtySectors;
+        final int positionsSectorIndex = this.positionsSectorIndex;
+        final int positionsCapacity = fileCapacity - indexedPositionsOffset;
+        for (int sector = dirtySectors.nextSetBit(0);
+            sector >= 0 && sector < positionsSectorIndex;
+            sector = dirtySectors.nextSetBit(sector + 1))
+        {
+            final int sectorStart = sector * SECTOR_SIZE;
+            checksumFramer.updateChecksum(sectorStart);
+            // The positions table's checksums are calculated from the start of the underlying in memory
+            // buffer rather than the start of the table, so changed records also change the checksum of the
+            // positions sector at the same offset within the table, which then needs saving.
+            if (sectorStart + SECTOR_SIZE <= positionsCapacity)
+            {
+                dirtySectors.set(positionsSectorIndex + sector);
+            }
+        }
+
+        for (int sector = dirtySectors.nextSetBit(positionsSectorIndex);
+            sector >= 0;
+            sector = dirtySectors.nextSetBit(sector + 1))
+        {
+            positions.updateChecksum(sector * SECTOR_SIZE - indexedPositionsOffset);
+        }
     }
 
     private void saveFile()
     {
-        writableFile.buffer().putBytes(0, inMemoryBuffer, 0, fileCapacity);
+        final BitSet unsavedSectors = this.unsavedSectors;
+        final AtomicBuffer fileBuffer = writableFile.buffer();
+        final int fileCapacity = this.fileCapacity;
+
+        unsavedSectors.or(dirtySectors);
+        for (int sector = unsavedSectors.nextSetBit(0); sector >= 0; sector = unsavedSectors.nextSetBit(sector + 1))
+        {
+            final int sectorStart = sector * SECTOR_SIZE;
+            final int sectorLength = Math.min(SECTOR_SIZE, fileCapacity - sectorStart);
+            fileBuffer.putBytes(sectorStart, inMemoryBuffer, sectorStart, sectorLength);
+        }
         writableFile.force();
     }
 
-    private void flipFiles()
+    private boolean flipFiles()
     {
         if (RUNNING_ON_WINDOWS)
         {
@@ -227,6 +293,8 @@ public class SequenceNumberIndexWriter implements Index
             writableFile = indexFile;
             indexFile = file;
         }
+
+        return flipsFiles;
     }
 
     private boolean rename(final File src, final File dest)
@@ -406,5 +474,6 @@ public class SequenceNumberIndexWriter implements Index
         final int value)
     {
         inMemoryBuffer.putIntOrdered(recordOffset + SEQUENCE_NUMBER_OFFSET, value);
+        dirtySectors.set(recordOffset / SECTOR_SIZE);
     }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.CloseHelper;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.util.zip.Deflater;
+
+import static uk.co.real_logic.artio.engine.logger.CompressedTermDescriptor.*;
+
+/**
+ * Compresses a term file into a compressed term file one block at a time, so that compressing a term can be
+ * spread over several duty cycles.
+ * <p>
+ * The compressed term file is written to a temporary file and renamed once it's complete, then the term file is
+ * deleted, so readers always find one of the two files. The compressed term file keeps the last modified time of
+ * the term file so that archive retention ages it in the same way.
+ */
+final class TermCompressor implements AutoCloseable
+{
+    private static final String TEMPORARY_PREFIX = "compressing-";
+
+    private final Deflater deflater = new Deflater();
+    private final UnsafeBuffer sourceBuffer = new UnsafeBuffer(0, 0);
+    private final byte[] block = new byte[BLOCK_LENGTH];
+    private final byte[] compressedBlock = new byte[BLOCK_LENGTH];
+
+    private File sourceFile;
+    private File targetFile;
+    private File temporaryFile;
+    private MappedByteBuffer sourceByteBuffer;
+    private RandomAccessFile target;
+    private UnsafeBuffer blockOffsets;
+    private int blockCount;
+    private int blockIndex;
+    private long writeOffset;
+
+    /**
+     * Start compressing a term file.
+     *
+     * @param sourceFile the term file to compress.
+     * @param targetFile the compressed term file to write.
+     * @throws IOException if the compressed term file can't be created.
+     */
+    void begin(final File sourceFile, final File targetFile) throws IOException
+    {
+        abort();
+
+        this.sourceFile = sourceFile;
+        this.targetFile = targetFile;
+        temporaryFile = new File(targetFile.getParentFile(), TEMPORARY_PREFIX + targetFile.getName());
+
+        sourceByteBuffer = LoggerUtil.mapExistingFile(sourceFile);
+        sourceBuffer.wrap(sourceByteBuffer);
+        blockCount = blockCount(sourceBuffer.capacity(), BLOCK_LENGTH);
+        blockIndex = 0;
+        writeOffset = dataOffset(blockCount);
+        blockOffsets = new UnsafeBuffer(new byte[(int)writeOffset]);
+        blockOffsets.putInt(TERM_LENGTH_OFFSET, sourceBuffer.capacity());
+        blockOffsets.putInt(BLOCK_LENGTH_OFFSET, BLOCK_LENGTH);
+        blockOffsets.putInt(BLOCK_COUNT_OFFSET, blockCount);
+
+        target = new RandomAccessFile(temporaryFile, "rw");
+        target.setLength(0);
+        target.seek(writeOffset);
+    }
+
+    boolean isCompressing()
+    {
+        return target != null;
+    }
+
+    /**
+     * Compress the next block of the term file.
+     *
+     * @return true if all the blocks have been compressed, false otherwise.
+     * @throws IOException if the block can't be written.
+     */
+    boolean compressNextBlock() throws IOException
+    {
+        if (blockIndex < blockCount)
+        {
+            final int termOffset = blockIndex * BLOCK_LENGTH;
+            final int blockLength = Math.min(BLOCK_LENGTH, sourceBuffer.capacity() - termOffset);
+            final byte[] block = this.block;
+            sourceBuffer.getBytes(termOffset, block, 0, blockLength);
+
+            blockOffsets.putLong(blockOffsetOffset(blockIndex), writeOffset);
+            if (!isZero(block, blockLength))
+            {
+                final Deflater deflater = this.deflater;
+                deflater.reset();
+                deflater.setInput(block, 0, blockLength);
+                deflater.finish();
+                while (!deflater.finished())
+                {
+                    final int compressedLength = deflater.deflate(compressedBlock);
+                    target.write(compressedBlock, 0, compressedLength);
+                    writeOffset += compressedLength;
+                }
+            }
+
+            blockIndex++;
+        }
+
+        return blockIndex == blockCount;
+    }
+
+    /**
+     * Complete compressing the term file once all its blocks have been compressed, replacing it with the compressed
+     * term file.
+     *
+     * @throws IOException if the compressed term file can't be written or renamed.
+     */
+    void complete() throws IOException
+    {
+        blockOffsets.putLong(blockOffsetOffset(blockCount), writeOffset);
+        target.seek(0);
+        target.write(blockOffsets.byteArray());
+        target.getFD().sync();
+        target.close();
+        target = null;
+
+        final long lastModified = sourceFile.lastModified();
+        if (!temporaryFile.renameTo(targetFile))
+        {
+            temporaryFile.delete();
+            unmapSource();
+            throw new IOException("Unable to rename " + temporaryFile + " to " + targetFile);
+        }
+        targetFile.setLastModified(lastModified);
+
+        unmapSource();
+        if (!sourceFile.delete())
+        {
+            throw new IOException("Unable to delete " + sourceFile + " after compressing it");
+        }
+    }
+
+    /**
+     * Stop compressing the current term file, if any, and delete its partially written compressed term file.
+     */
+    void abort()
+    {
+        if (target != null)
+        {
+            CloseHelper.quietClose(target);
+            target = null;
+            temporaryFile.delete();
+        }
+
+        unmapSource();
+    }
+
+    public void close()
+    {
+        abort();
+        deflater.end();
+    }
+
+    private void unmapSource()
+    {
+        if (sourceByteBuffer != null)
+        {
+            sourceBuffer.wrap(0, 0);
+            IoUtil.unmap(sourceByteBuffer);
+            sourceByteBuffer = null;
+        }
+    }
+
+    private static boolean isZero(final byte[] block, final int length)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            if (block[i] != 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FrameDescriptor;
+import org.agrona.BitUtil;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.TimeIndexRecordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.IntFunction;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static uk.co.real_logic.artio.engine.logger.TimeIndexDescriptor.NOT_INDEXED;
+import static uk.co.real_logic.artio.engine.logger.TimeIndexDescriptor.RECORD_LENGTH;
+
+/**
+ * Builds a sparse index of the timestamps of fix messages within a stream, so that time bounded queries of the
+ * archive can skip to the parts of it that might contain matching messages.
+ *
+ * Each Aeron session's messages are grouped into contiguous blocks of at least the block size and a record of the
+ * block's position range and its minimum and maximum timestamps is appended to the file at
+ * {@link TimeIndexDescriptor#timeIndexFile(String, int)} once the block is complete. Incomplete blocks are written
+ * on close and are otherwise rebuilt from the archive on restart.
+ */
+public class TimeIndex implements Index
+{
+    private final IntFunction<Block> newBlock = Block::new;
+    private final Int2ObjectHashMap<Block> aeronSessionIdToBlock = new Int2ObjectHashMap<>();
+    private final Long2LongHashMap aeronSessionIdToIndexedPosition =
+        new Long2LongHashMap(IndexedPositionReader.UNKNOWN_POSITION);
+    private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
+    private final FixMessageDecoder messageFrame = new FixMessageDecoder();
+    private final TimeIndexRecordEncoder recordEncoder = new TimeIndexRecordEncoder();
+    private final ByteBuffer recordByteBuffer = ByteBuffer.allocateDirect(RECORD_LENGTH);
+    private final UnsafeBuffer recordBuffer = new UnsafeBuffer(recordByteBuffer);
+
+    private final int requiredStreamId;
+    private final int blockSizeInBytes;
+    private final FileChannel channel;
+
+    private long writePosition;
+
+    public TimeIndex(
+        final String logFileDir,
+        final int requiredStreamId,
+        final int blockSizeInBytes,
+        final ErrorHandler errorHandler)
+    {
+        this.requiredStreamId = requiredStreamId;
+        this.blockSizeInBytes = blockSizeInBytes;
+
+        final File file = TimeIndexDescriptor.timeIndexFile(logFileDir, requiredStreamId);
+        final int recordCount = TimeIndexDescriptor.readRecords(
+            file,
+            errorHandler,
+            (aeronSessionId, beginPosition, endPosition, minTimestamp, maxTimestamp) ->
+            {
+                if (endPosition > aeronSessionIdToIndexedPosition.get(aeronSessionId))
+                {
+                    aeronSessionIdToIndexedPosition.put(aeronSessionId, endPosition);
+                }
+            });
+
+        recordEncoder.wrap(recordBuffer, 0);
+        FileChannel channel = null;
+        try
+        {
+            IoUtil.ensureDirectoryExists(file.getParentFile(), logFileDir);
+            channel = FileChannel.open(file.toPath(), CREATE, WRITE);
+            if (recordCount == NOT_INDEXED)
+            {
+                aeronSessionIdToIndexedPosition.clear();
+                writeHeader(channel);
+                writePosition = TimeIndexDescriptor.HEADER_LENGTH;
+            }
+            else
+            {
+                writePosition = TimeIndexDescriptor.HEADER_LENGTH + (long)recordCount * RECORD_LENGTH;
+            }
+            channel.truncate(writePosition);
+        }
+        catch (final IOException ex)
+        {
+            CloseHelper.quietClose(channel);
+            LangUtil.rethrowUnchecked(ex);
+        }
+        this.channel = channel;
+    }
+
+    public void indexRecord(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int srcLength,
+        final int streamId,
+        final int aeronSessionId,
+        final long endPosition)
+    {
+        if (streamId != requiredStreamId)
+        {
+            return;
+        }
+
+        final int alignedLength = BitUtil.align(srcLength, FrameDescriptor.FRAME_ALIGNMENT);
+        final long beginPosition = endPosition - alignedLength;
+
+        final Block block = aeronSessionIdToBlock.computeIfAbsent(aeronSessionId, newBlock);
+        final long indexedPosition = block.isEmpty() ?
+            aeronSessionIdToIndexedPosition.get(aeronSessionId) : block.endPosition;
+        if (endPosition <= indexedPosition)
+        {
+            // Already indexed whilst catching up.
+            return;
+        }
+
+        if (!block.isEmpty() && beginPosition != block.endPosition + HEADER_LENGTH)
+        {
+            // Gaps are left by padding at the end of a term, keep the blocks contiguous.
+            writeRecord(block);
+        }
+
+        if (block.isEmpty())
+        {
+            block.beginPosition = beginPosition;
+        }
+        block.endPosition = endPosition;
+
+        frameHeaderDecoder.wrap(srcBuffer, srcOffset);
+        if (frameHeaderDecoder.templateId() == FixMessageDecoder.TEMPLATE_ID)
+        {
+            messageFrame.wrap(
+                srcBuffer,
+                srcOffset + frameHeaderDecoder.encodedLength(),
+                frameHeaderDecoder.blockLength(),
+                frameHeaderDecoder.version());
+
+            final long timestamp = messageFrame.timestamp();
+            block.minTimestamp = Math.min(block.minTimestamp, timestamp);
+            block.maxTimestamp = Math.max(block.maxTimestamp, timestamp);
+        }
+
+        if (endPosition - block.beginPosition >= blockSizeInBytes)
+        {
+            writeRecord(block);
+        }
+    }
+
+    private void writeRecord(final Block block)
+    {
+        if (block.hasTimestamps())
+        {
+            recordEncoder
+                .streamId(requiredStreamId)
+                .aeronSessionId(block.aeronSessionId)
+                .beginPosition(block.beginPosition)
+                .endPosition(block.endPosition)
+                .minTimestamp(block.minTimestamp)
+                .maxTimestamp(block.maxTimestamp);
+
+            recordByteBuffer.clear();
+            write(recordByteBuffer);
+        }
+
+        aeronSessionIdToIndexedPosition.put(block.aeronSessionId, block.endPosition);
+        block.reset();
+    }
+
+    private void write(final ByteBuffer buffer)
+    {
+        try
+        {
+            while (buffer.hasRemaining())
+            {
+                writePosition += channel.write(buffer, writePosition);
+            }
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+    }
+
+    private void writeHeader(final FileChannel channel) throws IOException
+    {
+        final ByteBuffer headerByteBuffer = ByteBuffer.allocate(TimeIndexDescriptor.HEADER_LENGTH);
+        new MessageHeaderEncoder()
+            .wrap(new UnsafeBuffer(headerByteBuffer), 0)
+            .blockLength(TimeIndexRecordEncoder.BLOCK_LENGTH)
+            .templateId(TimeIndexRecordEncoder.TEMPLATE_ID)
+            .schemaId(TimeIndexRecordEncoder.SCHEMA_ID)
+            .version(TimeIndexRecordEncoder.SCHEMA_VERSION);
+
+        long position = 0;
+        while (headerByteBuffer.hasRemaining())
+        {
+            position += channel.write(headerByteBuffer, position);
+        }
+    }
+
+    public void close()
+    {
+        if (channel.isOpen())
+        {
+            aeronSessionIdToBlock.values().forEach(this::writeRecord);
+            aeronSessionIdToBlock.clear();
+            CloseHelper.close(channel);
+        }
+    }
+
+    public void readLastPosition(final IndexedPositionConsumer consumer)
+    {
+        aeronSessionIdToIndexedPosition.longForEach(
+            (aeronSessionId, endPosition) -> consumer.accept((int)aeronSessionId, endPosition));
+    }
+
+    private static final class Block
+    {
+        private final int aeronSessionId;
+
+        private long beginPosition;
+        private long endPosition;
+        private long minTimestamp;
+        private long maxTimestamp;
+
+        private Block(final int aeronSessionId)
+        {
+            this.aeronSessionId = aeronSessionId;
+            reset();
+        }
+
+        private boolean isEmpty()
+        {
+            return endPosition == 0;
+        }
+
+        private boolean hasTimestamps()
+        {
+            return minTimestamp <= maxTimestamp;
+        }
+
+        private void reset()
+        {
+            beginPosition = 0;
+            endPosition = 0;
+            minTimestamp = Long.MAX_VALUE;
+            maxTimestamp = Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.TimeIndexRecordDecoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * A time index file consists of a MessageHeader followed by TimeIndexRecord entries that are appended as
+ * blocks of the archive are indexed. A partially written record at the end of the file is ignored.
+ */
+final class TimeIndexDescriptor
+{
+    static final int NOT_INDEXED = -1;
+
+    static final int HEADER_LENGTH = MessageHeaderEncoder.ENCODED_LENGTH;
+    static final int RECORD_LENGTH = TimeIndexRecordDecoder.BLOCK_LENGTH;
+
+    @FunctionalInterface
+    interface RecordHandler
+    {
+        void onRecord(
+            int aeronSessionId, long beginPosition, long endPosition, long minTimestamp, long maxTimestamp);
+    }
+
+    static File timeIndexFile(final String logFileDir, final int streamId)
+    {
+        return new File(logFileDir + File.separator + "time-index-" + streamId);
+    }
+
+    /**
+     * Read all the complete records in a time index file.
+     *
+     * @param file the time index file.
+     * @param errorHandler notified if the file isn't a time index file.
+     * @param handler the handler to pass each record to.
+     * @return the number of records read or {@link #NOT_INDEXED} if the file doesn't exist or isn't valid.
+     */
+    static int readRecords(final File file, final ErrorHandler errorHandler, final RecordHandler handler)
+    {
+        if (!file.exists())
+        {
+            return NOT_INDEXED;
+        }
+
+        UnsafeBuffer buffer = null;
+        try
+        {
+            buffer = new UnsafeBuffer(Files.readAllBytes(file.toPath()));
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+        }
+
+        if (buffer.capacity() < HEADER_LENGTH || !LoggerUtil.validateBuffer(
+            buffer, new MessageHeaderDecoder(), TimeIndexRecordDecoder.SCHEMA_ID, errorHandler))
+        {
+            return NOT_INDEXED;
+        }
+
+        final TimeIndexRecordDecoder decoder = new TimeIndexRecordDecoder();
+        final int recordCount = (buffer.capacity() - HEADER_LENGTH) / RECORD_LENGTH;
+        int offset = HEADER_LENGTH;
+        for (int i = 0; i < recordCount; i++)
+        {
+            decoder.wrap(buffer, offset, RECORD_LENGTH, TimeIndexRecordDecoder.SCHEMA_VERSION);
+            handler.onRecord(
+                decoder.aeronSessionId(),
+                decoder.beginPosition(),
+                decoder.endPosition(),
+                decoder.minTimestamp(),
+                decoder.maxTimestamp());
+
+            offset += RECORD_LENGTH;
+        }
+
+        return recordCount;
+    }
+}
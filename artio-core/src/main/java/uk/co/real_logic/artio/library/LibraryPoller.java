@@ -33,6 +33,7 @@ import uk.co.real_logic.artio.messages.*;
 import uk.co.real_logic.artio.messages.ControlNotificationDecoder.SessionsDecoder;
 import uk.co.real_logic.artio.protocol.*;
 import uk.co.real_logic.artio.session.*;
+import uk.co.real_logic.artio.timing.DeadlinePollScheduler;
 import uk.co.real_logic.artio.timing.LibraryTimers;
 import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -113,6 +114,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final SentPositionHandler sentPositionHandler;
     private final boolean enginesAreClustered;
     private final FixCounters fixCounters;
+    private final DeadlinePollScheduler<Session> pollScheduler;
 
     private final Long2ObjectHashMap<LibraryReply<?>> correlationIdToReply = new Long2ObjectHashMap<>();
     private final LibraryTransport transport;
@@ -162,6 +164,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         this.sentPositionHandler = configuration.sentPositionHandler();
         this.clock = clock;
         this.enginesAreClustered = configuration.libraryAeronChannels().size() > 1;
+        this.pollScheduler = configuration.deadlineSessionPolling() ? new DeadlinePollScheduler<>(clock.time()) : null;
     }
 
     boolean isConnected()
@@ -215,7 +218,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     void disableSession(final Session session)
     {
-        sessions = ArrayUtil.remove(sessions, session);
+        removeSession(session);
         accessor.disable(session);
     }
 
@@ -513,6 +516,11 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private int pollSessions(final long timeInMs)
     {
+        if (pollScheduler != null)
+        {
+            return pollScheduler.poll(timeInMs);
+        }
+
         final Session[] sessions = this.sessions;
         int total = 0;
 
@@ -538,7 +546,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             {
                 this.pendingInitiatorSessions = pendingSessions = ArrayUtil.remove(pendingSessions, i);
                 size--;
-                sessions = ArrayUtil.add(sessions, session);
+                addSession(session);
             }
             else
             {
@@ -549,6 +557,32 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         return total;
     }
 
+    private void addSession(final Session session)
+    {
+        sessions = ArrayUtil.add(sessions, session);
+        if (pollScheduler != null)
+        {
+            final long connectionId = session.connectionId();
+            session.deadlineChangeHandler(() -> pollScheduler.reschedule(connectionId));
+            pollScheduler.add(session);
+        }
+    }
+
+    private void removeSession(final Session session)
+    {
+        sessions = ArrayUtil.remove(sessions, session);
+        stopPolling(session);
+    }
+
+    private void stopPolling(final Session session)
+    {
+        if (pollScheduler != null)
+        {
+            session.deadlineChangeHandler(null);
+            pollScheduler.remove(session.connectionId());
+        }
+    }
+
     private long timeInMs()
     {
         return clock.time();
@@ -656,7 +690,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     final Session session = acceptSession(
                         connection, address, sessionState, heartbeatIntervalInS, sequenceIndex, logonTime);
                     newSession(connection, sessionId, session);
-                    sessions = ArrayUtil.add(sessions, session);
+                    addSession(session);
                 }
 
                 // ie the initial part of this library getting hold of this session.
@@ -726,7 +760,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             final SessionSubscriber subscriber = connectionIdToSession.get(connectionId);
             if (subscriber != null)
             {
-                return subscriber.onMessage(
+                final Action action = subscriber.onMessage(
                     buffer,
                     offset,
                     length,
@@ -737,6 +771,13 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     timestamp,
                     status,
                     position);
+
+                if (pollScheduler != null)
+                {
+                    pollScheduler.reschedule(connectionId);
+                }
+
+                return action;
             }
         }
 
@@ -765,7 +806,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     session.close();
                     // session will be in either pendingInitiatorSessions or sessions
                     pendingInitiatorSessions = ArrayUtil.remove(pendingInitiatorSessions, session);
-                    sessions = ArrayUtil.remove(sessions, session);
+                    removeSession(session);
                 }
 
                 return action;
@@ -919,6 +960,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                         subscriber.onTimeout(libraryId);
                     }
                     session.close();
+                    stopPolling(session);
                     // TODO(Nick): Maybe we shouldn't be creating a lot of arrays and batch this up?
                     sessions = ArrayUtil.remove(sessions, i);
                     size--;
@@ -177,4 +177,14 @@ public class InitiatorSession extends Session
 
         return actions + super.poll(time);
     }
+
+    public long nextPollTimeInMs()
+    {
+        if (state() == SessionState.CONNECTED && id() != UNKNOWN)
+        {
+            return 0;
+        }
+
+        return super.nextPollTimeInMs();
+    }
 }
@@ -41,6 +41,9 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
     private final int actingBlockLength = keyDecoder.sbeBlockLength();
     private final int actingVersion = keyDecoder.sbeSchemaVersion();
 
+    private byte[] localCompIdBytes = new byte[0];
+    private byte[] remoteCompIdBytes = new byte[0];
+
     SenderAndTargetSessionIdStrategy()
     {
     }
@@ -103,6 +106,30 @@ class SenderAndTargetSessionIdStrategy implements SessionIdStrategy
         return length;
     }
 
+    public int saveAcceptLogon(final HeaderDecoder header, final MutableDirectBuffer buffer, final int offset)
+    {
+        requireNonNull(header, "header");
+        requireNonNull(buffer, "buffer");
+
+        final int localCompIdLength = header.targetCompIDLength();
+        final int remoteCompIdLength = header.senderCompIDLength();
+
+        final int length = localCompIdLength + remoteCompIdLength + BLOCK_AND_LENGTH_FIELDS_LENGTH;
+        if (buffer.capacity() < offset + length)
+        {
+            return INSUFFICIENT_SPACE;
+        }
+
+        localCompIdBytes = CodecUtil.toBytes(header.targetCompID(), localCompIdBytes, localCompIdLength);
+        remoteCompIdBytes = CodecUtil.toBytes(header.senderCompID(), remoteCompIdBytes, remoteCompIdLength);
+
+        keyEncoder.wrap(buffer, offset);
+        keyEncoder.putLocalCompId(localCompIdBytes, 0, localCompIdLength);
+        keyEncoder.putRemoteCompId(remoteCompIdBytes, 0, remoteCompIdLength);
+
+        return length;
+    }
+
     public CompositeKey load(final DirectBuffer buffer, final int offset, final int length)
     {
         requireNonNull(buffer, "buffer");
@@ -40,6 +40,10 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
     private final int actingBlockLength = keyDecoder.sbeBlockLength();
     private final int actingVersion = keyDecoder.sbeSchemaVersion();
 
+    private byte[] localCompIdBytes = new byte[0];
+    private byte[] localSubIdBytes = new byte[0];
+    private byte[] remoteCompIdBytes = new byte[0];
+
     SenderTargetAndSubSessionIdStrategy()
     {
     }
@@ -103,6 +107,32 @@ class SenderTargetAndSubSessionIdStrategy implements SessionIdStrategy
         return length;
     }
 
+    public int saveAcceptLogon(final HeaderDecoder header, final MutableDirectBuffer buffer, final int offset)
+    {
+        final int localCompIdLength = header.targetCompIDLength();
+        final int localSubIdLength = header.targetSubIDLength();
+        final int remoteCompIdLength = header.senderCompIDLength();
+
+        final int length =
+            localCompIdLength + localSubIdLength + remoteCompIdLength + BLOCK_AND_LENGTH_FIELDS_LENGTH;
+
+        if (buffer.capacity() < offset + length)
+        {
+            return INSUFFICIENT_SPACE;
+        }
+
+        localCompIdBytes = CodecUtil.toBytes(header.targetCompID(), localCompIdBytes, localCompIdLength);
+        localSubIdBytes = CodecUtil.toBytes(header.targetSubID(), localSubIdBytes, localSubIdLength);
+        remoteCompIdBytes = CodecUtil.toBytes(header.senderCompID(), remoteCompIdBytes, remoteCompIdLength);
+
+        keyEncoder.wrap(buffer, offset);
+        keyEncoder.putLocalCompId(localCompIdBytes, 0, localCompIdLength);
+        keyEncoder.putLocalSubId(localSubIdBytes, 0, localSubIdLength);
+        keyEncoder.putRemoteCompId(remoteCompIdBytes, 0, remoteCompIdLength);
+
+        return length;
+    }
+
     public CompositeKey load(final DirectBuffer buffer, final int offset, final int length)
     {
         keyDecoder.wrap(buffer, offset, actingBlockLength, actingVersion);
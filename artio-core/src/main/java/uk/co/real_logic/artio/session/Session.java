@@ -32,6 +32,7 @@ import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.messages.SessionState;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.timing.DeadlinePollable;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
@@ -79,7 +80,7 @@ import static uk.co.real_logic.artio.messages.SessionState.*;
  * <p>
  * Manual disable: * -> DISABLED
  */
-public class Session implements AutoCloseable
+public class Session implements AutoCloseable, DeadlinePollable
 {
     public static final long UNKNOWN = -1;
     public static final long NO_OPERATION = MIN_VALUE;
@@ -141,6 +142,7 @@ public class Session implements AutoCloseable
     private boolean incorrectBeginString = false;
 
     private SessionLogonListener logonListener;
+    private Runnable deadlineChangeHandler;
 
     private int logoutRejectReason = NO_LOGOUT_REJECT_REASON;
 
@@ -408,6 +410,8 @@ public class Session implements AutoCloseable
             sessionIdStrategy.setupSession(sessionKey, header);
         }
 
+        // Encoders can't write straight into a publication claim: the claim length has to be exact and known
+        // up front, and encoders use scratch space beyond the end of numeric fields whilst encoding them.
         final long result = encoder.encode(asciiBuffer, 0);
         final int length = Encoder.length(result);
         final int offset = Encoder.offset(result);
@@ -586,6 +590,34 @@ public class Session implements AutoCloseable
         }
     }
 
+    /**
+     * Get the time at which this session next needs to be polled in order to send heartbeats or test requests,
+     * time out a logout or retry an action that was back-pressured. Users of the API don't need to call this method.
+     *
+     * @return the time in milliseconds at which this session next needs polling.
+     * @see uk.co.real_logic.artio.CommonConfiguration#deadlineSessionPolling(boolean)
+     */
+    public long nextPollTimeInMs()
+    {
+        switch (state)
+        {
+            case DISCONNECTING:
+            case LOGGING_OUT:
+            case LOGGING_OUT_AND_DISCONNECTING:
+                return 0;
+
+            case ACTIVE:
+            case AWAITING_RESEND:
+                return Math.min(nextRequiredHeartbeatTimeInMs, nextRequiredInboundMessageTimeInMs);
+
+            case AWAITING_LOGOUT:
+                return nextRequiredInboundMessageTimeInMs;
+
+            default:
+                return NO_DEADLINE;
+        }
+    }
+
     public boolean isActive()
     {
         final SessionState state = this.state;
@@ -1177,6 +1209,7 @@ public class Session implements AutoCloseable
         incNextReceivedInboundMessageTime(time);
         sendingHeartbeatIntervalInMs = (long)(heartbeatIntervalInMs * HEARTBEAT_PAUSE_FACTOR);
         nextRequiredHeartbeatTimeInMs = time + sendingHeartbeatIntervalInMs;
+        onDeadlineChange();
 
         return this;
     }
@@ -1184,15 +1217,26 @@ public class Session implements AutoCloseable
     protected Session state(final SessionState state)
     {
         this.state = state;
+        onDeadlineChange();
         return this;
     }
 
     public Session id(final long id)
     {
         this.id = id;
+        onDeadlineChange();
         return this;
     }
 
+    private void onDeadlineChange()
+    {
+        final Runnable deadlineChangeHandler = this.deadlineChangeHandler;
+        if (deadlineChangeHandler != null)
+        {
+            deadlineChangeHandler.run();
+        }
+    }
+
     protected long time()
     {
         return clock.time();
@@ -1363,6 +1407,17 @@ public class Session implements AutoCloseable
         this.logonListener = logonListener;
     }
 
+    /**
+     * Sets a handler that is invoked when this session's state or heartbeat interval changes, and thus its
+     * {@link #nextPollTimeInMs()} may have been brought forward. Users of the API don't need to call this method.
+     *
+     * @param deadlineChangeHandler the handler to invoke, or null to invoke no handler.
+     */
+    public void deadlineChangeHandler(final Runnable deadlineChangeHandler)
+    {
+        this.deadlineChangeHandler = deadlineChangeHandler;
+    }
+
     public void logoutRejectReason(final int logoutRejectReason)
     {
         this.logoutRejectReason = logoutRejectReason;
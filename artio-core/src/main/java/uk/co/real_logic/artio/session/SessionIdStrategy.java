@@ -95,6 +95,24 @@ public interface SessionIdStrategy
      */
     int save(CompositeKey compositeKey, MutableDirectBuffer buffer, int offset);
 
+    /**
+     * Saves the composite key of an accepted logon to a buffer, without creating the key. The saved key must be
+     * the same as if the key created by {@link #onAcceptLogon(HeaderDecoder)} had been saved, so that the engine
+     * can look up a session that has previously logged on without allocating.
+     * <p>
+     * The default implementation creates the key, so implementations should override this method in order to
+     * avoid the allocation.
+     *
+     * @param header the header of the logon message.
+     * @param buffer the buffer to save it to
+     * @param offset the offset within the buffer to start saving at
+     * @return the length used to save the key, or {@link SessionIdStrategy#INSUFFICIENT_SPACE} otherwise
+     */
+    default int saveAcceptLogon(final HeaderDecoder header, final MutableDirectBuffer buffer, final int offset)
+    {
+        return save(onAcceptLogon(header), buffer, offset);
+    }
+
     /**
      * Loads a composite key from a buffer.
      *
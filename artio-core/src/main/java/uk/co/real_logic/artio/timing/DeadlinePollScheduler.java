@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.Long2ObjectHashMap;
+
+import static uk.co.real_logic.artio.timing.DeadlinePollable.NO_DEADLINE;
+import static uk.co.real_logic.artio.timing.DeadlineTimerWheel.NULL_TIMER;
+
+/**
+ * Polls {@link DeadlinePollable}s when their next deadline has passed rather than on every duty cycle.
+ * <p>
+ * Pollables must be rescheduled when something, such as a received message or a state change, brings their next
+ * poll time forward. Being rescheduled too often is harmless: a pollable that is polled early gets rescheduled for
+ * its new deadline.
+ */
+public final class DeadlinePollScheduler<T extends DeadlinePollable>
+{
+    public static final long TICK_RESOLUTION_IN_MS = 1;
+    public static final int TICKS_PER_WHEEL = 1024;
+
+    private final Long2ObjectHashMap<T> connectionIdToPollable = new Long2ObjectHashMap<>();
+    private final Long2LongHashMap connectionIdToTimerId = new Long2LongHashMap(NULL_TIMER);
+    private final Long2ObjectHashMap<T> timerIdToPollable = new Long2ObjectHashMap<>();
+    private final DeadlineTimerWheel.TimerHandler onTimerExpiry = this::onTimerExpiry;
+    private final DeadlineTimerWheel timerWheel;
+
+    private int actions;
+
+    public DeadlinePollScheduler(final long startTimeInMs)
+    {
+        timerWheel = new DeadlineTimerWheel(startTimeInMs, TICK_RESOLUTION_IN_MS, TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Start polling a pollable, it is first polled at its next poll time.
+     *
+     * @param pollable the pollable to start polling.
+     */
+    public void add(final T pollable)
+    {
+        final long connectionId = pollable.connectionId();
+        connectionIdToPollable.put(connectionId, pollable);
+        schedule(connectionId, pollable);
+    }
+
+    /**
+     * Reschedule a pollable for its current next poll time, does nothing if the pollable hasn't been added.
+     *
+     * @param connectionId the connection id of the pollable to reschedule.
+     */
+    public void reschedule(final long connectionId)
+    {
+        final T pollable = connectionIdToPollable.get(connectionId);
+        if (pollable != null)
+        {
+            schedule(connectionId, pollable);
+        }
+    }
+
+    /**
+     * Stop polling a pollable.
+     *
+     * @param connectionId the connection id of the pollable to stop polling.
+     */
+    public void remove(final long connectionId)
+    {
+        connectionIdToPollable.remove(connectionId);
+        cancel(connectionId);
+    }
+
+    /**
+     * Poll all the pollables whose next poll time has passed.
+     *
+     * @param timeInMs the current time in milliseconds.
+     * @return the number of actions performed by the pollables.
+     */
+    public int poll(final long timeInMs)
+    {
+        actions = 0;
+        timerWheel.poll(timeInMs, onTimerExpiry);
+        return actions;
+    }
+
+    public int size()
+    {
+        return connectionIdToPollable.size();
+    }
+
+    private void schedule(final long connectionId, final T pollable)
+    {
+        cancel(connectionId);
+
+        final long nextPollTimeInMs = pollable.nextPollTimeInMs();
+        if (nextPollTimeInMs != NO_DEADLINE)
+        {
+            final long timerId = timerWheel.scheduleTimer(nextPollTimeInMs);
+            timerIdToPollable.put(timerId, pollable);
+            connectionIdToTimerId.put(connectionId, timerId);
+        }
+    }
+
+    private void cancel(final long connectionId)
+    {
+        final long timerId = connectionIdToTimerId.remove(connectionId);
+        if (timerId != NULL_TIMER)
+        {
+            timerWheel.cancelTimer(timerId);
+            timerIdToPollable.remove(timerId);
+        }
+    }
+
+    private void onTimerExpiry(final long timeInMs, final long timerId)
+    {
+        final T pollable = timerIdToPollable.remove(timerId);
+        final long connectionId = pollable.connectionId();
+        connectionIdToTimerId.remove(connectionId);
+
+        try
+        {
+            actions += pollable.poll(timeInMs);
+        }
+        finally
+        {
+            // The pollable may have been removed whilst it was being polled.
+            if (connectionIdToPollable.get(connectionId) == pollable)
+            {
+                schedule(connectionId, pollable);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+/**
+ * Something that only needs polling when a deadline has passed, see {@link DeadlinePollScheduler}.
+ */
+public interface DeadlinePollable
+{
+    long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * Get the id of the connection, this identifies the pollable within a scheduler.
+     *
+     * @return the id of the connection.
+     */
+    long connectionId();
+
+    /**
+     * Poll for any actions whose deadlines have passed.
+     *
+     * @param timeInMs the current time in milliseconds.
+     * @return the number of actions performed.
+     */
+    int poll(long timeInMs);
+
+    /**
+     * Get the time at which this next needs polling. Times at or before the current time are polled on the next
+     * tick.
+     *
+     * @return the time at which this next needs polling, or {@link #NO_DEADLINE} if it doesn't.
+     */
+    long nextPollTimeInMs();
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.agrona.BitUtil;
+
+import java.util.Arrays;
+
+/**
+ * A hashed timer wheel of deadlines in milliseconds. Scheduling and cancelling timers are O(1) and polling only
+ * touches the ticks that have passed since the last poll. Each tick is an array of deadlines that grows when full,
+ * so the wheel doesn't allocate once it has warmed up.
+ * <p>
+ * Timers are identified by a timer id that encodes their tick and slot. Timers that become due whilst the wheel
+ * is being polled, for example because the handler reschedules them, expire on the next tick rather than in the
+ * same poll.
+ * <p>
+ * Not thread-safe.
+ */
+public final class DeadlineTimerWheel
+{
+    public static final long NULL_TIMER = -1;
+
+    private static final long NULL_DEADLINE = Long.MAX_VALUE;
+    private static final int INITIAL_TICK_ALLOCATION = 16;
+
+    @FunctionalInterface
+    public interface TimerHandler
+    {
+        /**
+         * Called when a timer expires.
+         *
+         * @param timeInMs the time that the wheel was polled at.
+         * @param timerId the id of the timer that has expired.
+         */
+        void onTimerExpiry(long timeInMs, long timerId);
+    }
+
+    private final long tickResolutionInMs;
+    private final int tickMask;
+    private final long[][] wheel;
+
+    private long currentTick;
+    private long minimumScheduleTick;
+    private int timerCount;
+
+    /**
+     * Create a new timer wheel.
+     *
+     * @param startTimeInMs the time from which the wheel starts ticking.
+     * @param tickResolutionInMs the length of each tick of the wheel in milliseconds.
+     * @param ticksPerWheel the number of ticks in one rotation of the wheel, must be a power of 2.
+     */
+    public DeadlineTimerWheel(final long startTimeInMs, final long tickResolutionInMs, final int ticksPerWheel)
+    {
+        if (tickResolutionInMs <= 0)
+        {
+            throw new IllegalArgumentException("tickResolutionInMs must be positive: " + tickResolutionInMs);
+        }
+
+        if (!BitUtil.isPowerOfTwo(ticksPerWheel))
+        {
+            throw new IllegalArgumentException("ticksPerWheel must be a power of 2: " + ticksPerWheel);
+        }
+
+        this.tickResolutionInMs = tickResolutionInMs;
+        this.tickMask = ticksPerWheel - 1;
+        this.wheel = new long[ticksPerWheel][];
+        for (int i = 0; i < ticksPerWheel; i++)
+        {
+            wheel[i] = newTick(INITIAL_TICK_ALLOCATION);
+        }
+
+        currentTick = startTimeInMs / tickResolutionInMs;
+        minimumScheduleTick = currentTick;
+    }
+
+    /**
+     * Schedule a timer for a deadline. Deadlines in the past expire at the next poll.
+     *
+     * @param deadlineInMs the time at which the timer should expire.
+     * @return the id of the timer.
+     */
+    public long scheduleTimer(final long deadlineInMs)
+    {
+        // Deadlines before the minimum tick are moved up to it so that they aren't expired by the current poll.
+        final long tick = Math.max(deadlineInMs / tickResolutionInMs, minimumScheduleTick);
+        final long deadline = Math.max(deadlineInMs, minimumScheduleTick * tickResolutionInMs);
+        final int wheelIndex = (int)(tick & tickMask);
+        long[] deadlines = wheel[wheelIndex];
+
+        int slotIndex = 0;
+        final int length = deadlines.length;
+        while (slotIndex < length && deadlines[slotIndex] != NULL_DEADLINE)
+        {
+            slotIndex++;
+        }
+
+        if (slotIndex == length)
+        {
+            deadlines = Arrays.copyOf(deadlines, length << 1);
+            Arrays.fill(deadlines, length, deadlines.length, NULL_DEADLINE);
+            wheel[wheelIndex] = deadlines;
+        }
+
+        deadlines[slotIndex] = deadline;
+        timerCount++;
+
+        return timerId(wheelIndex, slotIndex);
+    }
+
+    /**
+     * Cancel a previously scheduled timer.
+     *
+     * @param timerId the id of the timer to cancel.
+     * @return true if the timer was scheduled, false if it has already expired or been cancelled.
+     */
+    public boolean cancelTimer(final long timerId)
+    {
+        final int wheelIndex = (int)(timerId >>> 32);
+        final int slotIndex = (int)timerId;
+        final long[] deadlines = wheel[wheelIndex];
+
+        if (slotIndex < deadlines.length && deadlines[slotIndex] != NULL_DEADLINE)
+        {
+            deadlines[slotIndex] = NULL_DEADLINE;
+            timerCount--;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Expire all the timers whose deadlines are at or before the current time.
+     *
+     * @param timeInMs the current time.
+     * @param handler the handler to notify of expired timers.
+     * @return the number of timers that have expired.
+     */
+    public int poll(final long timeInMs, final TimerHandler handler)
+    {
+        final long targetTick = Math.max(timeInMs / tickResolutionInMs, currentTick);
+        if (timerCount == 0)
+        {
+            advanceTo(targetTick);
+            return 0;
+        }
+
+        // Each tick only needs visiting once, even if the wheel hasn't been polled for longer than a rotation.
+        final long lastTick = currentTick + Math.min(targetTick - currentTick + 1, wheel.length);
+        minimumScheduleTick = targetTick + 1;
+
+        int expired = 0;
+        try
+        {
+            for (long tick = currentTick; tick < lastTick; tick++)
+            {
+                final int wheelIndex = (int)(tick & tickMask);
+                for (int slotIndex = 0; slotIndex < wheel[wheelIndex].length; slotIndex++)
+                {
+                    // Re-read as the handler can grow the tick by scheduling a timer.
+                    final long[] deadlines = wheel[wheelIndex];
+                    if (deadlines[slotIndex] <= timeInMs)
+                    {
+                        deadlines[slotIndex] = NULL_DEADLINE;
+                        timerCount--;
+                        expired++;
+
+                        handler.onTimerExpiry(timeInMs, timerId(wheelIndex, slotIndex));
+                    }
+                }
+            }
+
+            advanceTo(targetTick);
+        }
+        finally
+        {
+            // If the handler throws then the ticks are revisited on the next poll.
+            minimumScheduleTick = currentTick;
+        }
+
+        return expired;
+    }
+
+    /**
+     * Get the number of timers that are currently scheduled.
+     *
+     * @return the number of timers that are currently scheduled.
+     */
+    public int timerCount()
+    {
+        return timerCount;
+    }
+
+    private void advanceTo(final long targetTick)
+    {
+        currentTick = targetTick;
+        minimumScheduleTick = targetTick;
+    }
+
+    private static long timerId(final int wheelIndex, final int slotIndex)
+    {
+        return ((long)wheelIndex << 32) | slotIndex;
+    }
+
+    private static long[] newTick(final int length)
+    {
+        final long[] deadlines = new long[length];
+        Arrays.fill(deadlines, NULL_DEADLINE);
+        return deadlines;
+    }
+}
@@ -365,6 +365,101 @@ public class ReceiverEndPointTest
         sessionReceivesTwoMessages();
     }
 
+    @Test
+    public void shouldNotReadWhilstAuthenticationIsPending() throws IOException
+    {
+        givenAnAsynchronousAuthentication();
+
+        theEndpointReceivesACompleteMessage();
+        pollsData(MSG_LEN);
+
+        theEndpointReceivesNothing();
+        pollsData(0);
+
+        verify(mockChannel, times(1)).read(any(ByteBuffer.class));
+        assertTrue(endPoint.isAwaitingAuthentication());
+        nothingMoreSaved();
+        sessionReceivedCountIs(0);
+    }
+
+    @Test
+    public void shouldFrameLogonOnceAuthenticated()
+    {
+        final PendingAuthentication pendingAuthentication = givenAnAsynchronousAuthentication();
+
+        theEndpointReceivesACompleteMessage();
+        pollsData(MSG_LEN);
+
+        pendingAuthentication.complete(true);
+        theEndpointReceivesNothing();
+        pollsData(MSG_LEN);
+
+        assertFalse(endPoint.isAwaitingAuthentication());
+        savesAFramedMessage();
+        sessionReceivesOneMessage();
+    }
+
+    @Test
+    public void shouldDisconnectWhenAsynchronousAuthenticationFails()
+    {
+        final PendingAuthentication pendingAuthentication = givenAnAsynchronousAuthentication();
+        when(mockGatewaySessions.completeAuthentication(
+            eq(pendingAuthentication), any(), anyLong(), any(), any(), eq(gatewaySession)))
+            .thenReturn(AuthenticationResult.FAILED_AUTHENTICATION);
+
+        theEndpointReceivesACompleteMessage();
+        pollsData(MSG_LEN);
+
+        pendingAuthentication.complete(false);
+        pollsData(1);
+
+        assertTrue(endPoint.hasDisconnected());
+        verify(libraryPublication).saveDisconnect(
+            LIBRARY_ID, CONNECTION_ID, DisconnectReason.FAILED_AUTHENTICATION);
+        sessionReceivedCountIs(0);
+    }
+
+    @Test
+    public void shouldAbandonPendingAuthenticationWhenDisconnected()
+    {
+        final PendingAuthentication pendingAuthentication = givenAnAsynchronousAuthentication();
+
+        theEndpointReceivesACompleteMessage();
+        pollsData(MSG_LEN);
+
+        endPoint.onNoLogonDisconnect();
+
+        verify(mockGatewaySessions).abandonAuthentication(pendingAuthentication);
+        assertFalse(endPoint.isAwaitingAuthentication());
+    }
+
+    @Test
+    public void shouldNotifyDuplicateSessionWhenAuthenticatingAsynchronously()
+    {
+        givenAnAsynchronousAuthentication();
+        when(mockGatewaySessions.authenticateAsynchronously(any(), anyLong())).thenReturn(null);
+
+        theEndpointReceivesACompleteMessage();
+
+        pollsData(MSG_LEN);
+
+        verifyDuplicateSession(times(1));
+    }
+
+    private PendingAuthentication givenAnAsynchronousAuthentication()
+    {
+        final PendingAuthentication pendingAuthentication =
+            new PendingAuthentication(sessionKey, mock(SessionContext.class));
+        when(mockGatewaySessions.authenticatesAsynchronously()).thenReturn(true);
+        when(mockGatewaySessions.authenticateAsynchronously(any(), eq(CONNECTION_ID)))
+            .thenReturn(pendingAuthentication);
+        when(mockGatewaySessions.completeAuthentication(
+            eq(pendingAuthentication), any(), anyLong(), any(), any(), eq(gatewaySession)))
+            .thenReturn(authenticationResult);
+
+        return pendingAuthentication;
+    }
+
     private void firstSaveAttemptIsBackPressured()
     {
         when(libraryPublication
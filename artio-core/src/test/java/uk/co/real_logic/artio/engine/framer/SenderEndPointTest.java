@@ -32,6 +32,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
@@ -51,6 +52,7 @@ public class SenderEndPointTest
     private static final int FRAGMENT_LENGTH = alignTerm(HEADER_LENGTH + FRAME_SIZE + BODY_LENGTH);
     private static final long BEGIN_POSITION = 8000;
     private static final int MAX_BYTES_IN_BUFFER = 3 * BODY_LENGTH;
+    private static final int BATCH_BUFFER_SIZE = 8 * BODY_LENGTH;
 
     private TcpChannel tcpChannel = mock(TcpChannel.class);
     private AtomicCounter bytesInBuffer = fakeCounter();
@@ -74,6 +76,23 @@ public class SenderEndPointTest
         errorHandler,
         framer,
         MAX_BYTES_IN_BUFFER,
+        0,
+        DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+        0,
+        senderSequenceNumber);
+
+    private SenderEndPoint batchingEndPoint = new SenderEndPoint(
+        CONNECTION_ID,
+        LIBRARY_ID,
+        libraryBlockablePosition,
+        replayBlockablePosition,
+        tcpChannel,
+        bytesInBuffer,
+        invalidLibraryAttempts,
+        errorHandler,
+        framer,
+        MAX_BYTES_IN_BUFFER,
+        BATCH_BUFFER_SIZE,
         DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
         0,
         senderSequenceNumber);
@@ -383,6 +402,85 @@ public class SenderEndPointTest
         verifyNoMoreErrors();
     }
 
+    @Test
+    public void shouldWriteBatchedMessagesInSingleWrite() throws IOException
+    {
+        onBatchedOutboundMessage(POSITION);
+        onBatchedOutboundMessage(POSITION + FRAGMENT_LENGTH);
+        verify(tcpChannel, never()).write(any(ByteBuffer.class));
+
+        batchWillWrite(2 * BODY_LENGTH);
+        batchingEndPoint.flushBatch(100);
+
+        verify(tcpChannel, times(1)).write(any(ByteBuffer.class));
+        assertBytesInBuffer(0);
+        assertFalse(batchingEndPoint.hasBatchedMessages());
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldBecomeSlowConsumerOnPartialBatchWrite() throws IOException
+    {
+        final int firstWrites = 41;
+
+        onBatchedOutboundMessage(POSITION);
+        onBatchedOutboundMessage(POSITION + FRAGMENT_LENGTH);
+        onBatchedOutboundMessage(POSITION + 2 * FRAGMENT_LENGTH);
+
+        batchWillWrite(BODY_LENGTH + firstWrites);
+        batchingEndPoint.flushBatch(100);
+
+        assertBytesInBuffer((BODY_LENGTH - firstWrites) + BODY_LENGTH);
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, true);
+        verifySlowConsumerDisconnect(never());
+    }
+
+    @Test
+    public void shouldNotBatchMessagesWhenSlowConsumer() throws IOException
+    {
+        onBatchedOutboundMessage(POSITION);
+        batchWillWrite(0);
+        batchingEndPoint.flushBatch(100);
+        reset(tcpChannel);
+
+        onBatchedOutboundMessage(POSITION + FRAGMENT_LENGTH);
+
+        assertFalse(batchingEndPoint.hasBatchedMessages());
+        verify(tcpChannel, never()).write(any(ByteBuffer.class));
+        assertBytesInBuffer(2 * BODY_LENGTH);
+    }
+
+    @Test
+    public void shouldDisconnectSlowConsumerWhenPartialBatchWriteExceedsMaxBytes()
+    {
+        onBatchedOutboundMessage(POSITION);
+        onBatchedOutboundMessage(POSITION + FRAGMENT_LENGTH);
+        onBatchedOutboundMessage(POSITION + 2 * FRAGMENT_LENGTH);
+        onBatchedOutboundMessage(POSITION + 3 * FRAGMENT_LENGTH);
+
+        batchWillWrite(0);
+        batchingEndPoint.flushBatch(100);
+
+        verifySlowConsumerDisconnect(times(1));
+    }
+
+    private void onBatchedOutboundMessage(final long position)
+    {
+        batchingEndPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, 0, position, 100);
+    }
+
+    private void batchWillWrite(final int bytes)
+    {
+        try
+        {
+            when(tcpChannel.write(any(ByteBuffer.class))).thenReturn(bytes);
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
     private void byteBufferNotWritten()
     {
         byteBufferWritten(never());
@@ -92,6 +92,56 @@ public class SessionContextsTest
         assertValuesEqual(bContext, sessionContextsAfterRestart.onLogon(bSession));
     }
 
+    @Test
+    public void doesNotLoadCompositeKeysUponRestart()
+    {
+        final SessionContext aContext = sessionContexts.onLogon(aSession);
+        aContext.onSequenceReset();
+
+        final SessionIdStrategy spiedIdStrategy = spy(idStrategy);
+        when(mappedFile.buffer()).thenReturn(buffer);
+        final SessionContexts sessionContextsAfterRestart = new SessionContexts(
+            mappedFile, spiedIdStrategy, errorHandler);
+
+        assertValuesEqual(aContext, sessionContextsAfterRestart.onLogon(aSession));
+        verify(spiedIdStrategy, never()).load(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void resetsSequenceIndexOfSessionsNotLookedUpSinceRestart()
+    {
+        final SessionContext aContext = sessionContexts.onLogon(aSession);
+        aContext.onSequenceReset();
+
+        newSessionContexts(buffer).sequenceReset(aContext.sessionId());
+
+        final SessionContext aContextAfterReset = newSessionContexts(buffer).onLogon(aSession);
+        assertEquals(aContext, aContextAfterReset);
+        assertEquals(aContext.sequenceIndex() + 1, aContextAfterReset.sequenceIndex());
+    }
+
+    @Test
+    public void onlyCreatesCompositeKeyUponFirstAcceptedLogonOfSession()
+    {
+        final SessionContext aContext = sessionContexts.onLogon(aSession);
+
+        final SessionIdStrategy spiedIdStrategy = spy(idStrategy);
+        when(mappedFile.buffer()).thenReturn(buffer);
+        final SessionContexts sessionContextsAfterRestart = new SessionContexts(
+            mappedFile, spiedIdStrategy, errorHandler);
+        final HeaderDecoder header = acceptedLogonHeader(aSession);
+
+        final SessionContext acceptedContext = sessionContextsAfterRestart.onAcceptLogon(header);
+        sessionContextsAfterRestart.onDisconnect(acceptedContext.sessionId());
+        final SessionContext reconnectedContext = sessionContextsAfterRestart.onAcceptLogon(header);
+
+        assertValuesEqual(aContext, acceptedContext);
+        assertSame(acceptedContext, reconnectedContext);
+        assertEquals(aSession, reconnectedContext.compositeKey());
+        verify(spiedIdStrategy, times(1)).onAcceptLogon(header);
+        assertEquals(SessionContexts.DUPLICATE_SESSION, sessionContextsAfterRestart.onAcceptLogon(header));
+    }
+
     @Test
     public void continuesIncrementingSessionContextsAfterRestart()
     {
@@ -219,6 +269,18 @@ public class SessionContextsTest
             new SessionContext(sessionId, SEQUENCE_INDEX, Session.NO_LOGON_TIME, sessionContexts, FILE_POSITION));
     }
 
+    private HeaderDecoder acceptedLogonHeader(final CompositeKey compositeKey)
+    {
+        final char[] senderCompId = compositeKey.remoteCompId().toCharArray();
+        final char[] targetCompId = compositeKey.localCompId().toCharArray();
+        final HeaderDecoder header = mock(HeaderDecoder.class);
+        when(header.senderCompID()).thenReturn(senderCompId);
+        when(header.senderCompIDLength()).thenReturn(senderCompId.length);
+        when(header.targetCompID()).thenReturn(targetCompId);
+        when(header.targetCompIDLength()).thenReturn(targetCompId.length);
+        return header;
+    }
+
     private void verifyNoBackUp()
     {
         verify(mappedFile, never()).transferTo(any());
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_SIZE;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.INITIAL_RECORD_OFFSET;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.RECORD_LENGTH;
+
+public class ArchiveRetentionTest
+{
+    private static final StreamIdentifier STREAM_ID = new StreamIdentifier(IPC_CHANNEL, 1);
+    private static final int SESSION_ID = 2;
+    private static final long FIX_SESSION_ID = 3;
+    private static final int INITIAL_TERM_ID = 0;
+    private static final int TERM_BUFFER_LENGTH = 64 * 1024;
+    private static final int TERM_COUNT = 6;
+    private static final int TERM_FILE_LENGTH = 1024;
+    private static final long START_TIME_IN_MS = 1_000_000_000_000L;
+    private static final long CHECK_INTERVAL_IN_MS = 1_000;
+
+    private final String tempDir = IoUtil.tmpDirName() + File.separator + "artt";
+    private final LogDirectoryDescriptor directory = new LogDirectoryDescriptor(tempDir);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final UnsafeBuffer positionBuffer = new UnsafeBuffer(new byte[2 * SECTOR_SIZE]);
+
+    private ArchiveMetaData metaData;
+    private ArchiveRetention retention;
+    private long timeInMs = START_TIME_IN_MS + TERM_COUNT * CHECK_INTERVAL_IN_MS;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        ensureTempDirDoesNotExist();
+        IoUtil.ensureDirectoryExists(new File(tempDir), tempDir);
+
+        metaData = new ArchiveMetaData(directory, LoggerUtil::mapExistingFile, LoggerUtil::mapNewFile);
+        metaData.write(STREAM_ID, SESSION_ID, INITIAL_TERM_ID, TERM_BUFFER_LENGTH);
+
+        // Each term file is a second older than the next one.
+        for (int termId = 0; termId < TERM_COUNT; termId++)
+        {
+            final File termFile = directory.logFile(STREAM_ID, SESSION_ID, termId);
+            try (RandomAccessFile file = new RandomAccessFile(termFile, "rw"))
+            {
+                file.setLength(TERM_FILE_LENGTH);
+            }
+            termFile.setLastModified(START_TIME_IN_MS + termId * CHECK_INTERVAL_IN_MS);
+        }
+
+        // Indexing has reached the last term.
+        new IndexedPositionWriter(positionBuffer, errorHandler, 0, "IndexedPosition")
+            .indexedUpTo(SESSION_ID, termPosition(TERM_COUNT - 1) + 10);
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (retention != null)
+        {
+            retention.onClose();
+        }
+        else
+        {
+            metaData.close();
+        }
+
+        ensureTempDirDoesNotExist();
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldDeleteTermFilesOlderThanMaxAge()
+    {
+        newRetention(3_500, 0, false);
+
+        checkRetention();
+
+        termsDeleted(0, 1, 2);
+        termsExist(3, 4, 5);
+    }
+
+    @Test
+    public void shouldNotDeleteTermsThatHaveNotBeenIndexed()
+    {
+        newRetention(1, 0, false);
+
+        checkRetention();
+
+        termsDeleted(0, 1, 2, 3);
+        termsExist(4, 5);
+    }
+
+    @Test
+    public void shouldDeleteOldestTermFilesAboveMaxSize()
+    {
+        newRetention(0, 3 * TERM_FILE_LENGTH, false);
+
+        checkRetention();
+
+        termsDeleted(0, 1, 2);
+        termsExist(3, 4, 5);
+    }
+
+    @Test
+    public void shouldDeleteTermFilesThatCantBeReplayed()
+    {
+        writeReplayIndex(
+            termPosition(1), 0,
+            termPosition(2), 1,
+            termPosition(3), 1);
+        newRetention(0, 0, true);
+
+        checkRetention();
+
+        termsDeleted(0, 1);
+        termsExist(2, 3, 4, 5);
+    }
+
+    @Test
+    public void shouldKeepTermFilesThatRolledReplayIndexSegmentsRefer()
+    {
+        writeReplayIndex(
+            0,
+            termPosition(1), 0,
+            termPosition(2), 0);
+        writeReplayIndex(
+            1,
+            termPosition(3), 1);
+        newRetention(0, 0, true);
+
+        checkRetention();
+
+        termsDeleted(0, 1, 2);
+        termsExist(3, 4, 5);
+    }
+
+    @Test
+    public void shouldOnlyCheckOncePerInterval()
+    {
+        newRetention(TERM_COUNT * CHECK_INTERVAL_IN_MS, 0, false);
+
+        checkRetention();
+        termsExist(0, 1, 2, 3, 4, 5);
+
+        timeInMs += CHECK_INTERVAL_IN_MS / 2;
+        checkRetention();
+        termsExist(0, 1, 2, 3, 4, 5);
+
+        timeInMs += CHECK_INTERVAL_IN_MS / 2;
+        checkRetention();
+        termsDeleted(0);
+        termsExist(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void shouldCompressIndexedTermFilesOlderThanCompressionAge()
+    {
+        newRetention(0, 0, false, 3_500);
+
+        checkRetention();
+
+        termsCompressed(0, 1, 2);
+        termsExist(3, 4, 5);
+        assertEquals(START_TIME_IN_MS, directory.compressedLogFile(STREAM_ID, SESSION_ID, 0).lastModified());
+    }
+
+    @Test
+    public void shouldDeleteCompressedTermFilesOlderThanMaxAge()
+    {
+        newRetention(0, 0, false, 1);
+        checkRetention();
+        termsCompressed(0, 1, 2, 3);
+
+        retention.onClose();
+        metaData = new ArchiveMetaData(directory, LoggerUtil::mapExistingFile, LoggerUtil::mapNewFile);
+        newRetention(3_500, 0, false, 1);
+
+        checkRetention();
+
+        termsDeleted(0, 1, 2);
+        termsCompressed(3);
+    }
+
+    private void newRetention(final long maxAgeInMs, final long maxSizeInBytes, final boolean deleteUnreplayable)
+    {
+        newRetention(maxAgeInMs, maxSizeInBytes, deleteUnreplayable, 0);
+    }
+
+    private void newRetention(
+        final long maxAgeInMs, final long maxSizeInBytes, final boolean deleteUnreplayable, final long compressAfterInMs)
+    {
+        retention = new ArchiveRetention(
+            metaData,
+            STREAM_ID,
+            tempDir,
+            positionBuffer,
+            () -> timeInMs,
+            maxAgeInMs,
+            maxSizeInBytes,
+            deleteUnreplayable,
+            compressAfterInMs,
+            CHECK_INTERVAL_IN_MS,
+            errorHandler,
+            "");
+    }
+
+    private void checkRetention()
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            retention.doWork();
+        }
+    }
+
+    private void writeReplayIndex(final long... positionsAndSequenceIndices)
+    {
+        writeReplayIndex(0, positionsAndSequenceIndices);
+    }
+
+    private void writeReplayIndex(final int segmentIndex, final long... positionsAndSequenceIndices)
+    {
+        final ReplayIndexRecordEncoder recordEncoder = new ReplayIndexRecordEncoder();
+        final File indexFile = ReplayIndexDescriptor.logFile(
+            tempDir, FIX_SESSION_ID, STREAM_ID.streamId(), segmentIndex);
+        final MappedByteBuffer mappedBuffer = LoggerUtil.mapNewFile(indexFile, INITIAL_RECORD_OFFSET + 1024);
+        try
+        {
+            final UnsafeBuffer buffer = new UnsafeBuffer(mappedBuffer);
+            new MessageHeaderEncoder()
+                .wrap(buffer, 0)
+                .blockLength(recordEncoder.sbeBlockLength())
+                .templateId(recordEncoder.sbeTemplateId())
+                .schemaId(recordEncoder.sbeSchemaId())
+                .version(recordEncoder.sbeSchemaVersion());
+
+            int offset = INITIAL_RECORD_OFFSET;
+            for (int i = 0; i < positionsAndSequenceIndices.length; i += 2)
+            {
+                recordEncoder
+                    .wrap(buffer, offset)
+                    .streamId(STREAM_ID.streamId())
+                    .aeronSessionId(SESSION_ID)
+                    .position(positionsAndSequenceIndices[i])
+                    .sequenceNumber(i + 1)
+                    .sequenceIndex((int)positionsAndSequenceIndices[i + 1]);
+                offset += RECORD_LENGTH;
+            }
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+    }
+
+    private void termsDeleted(final int... termIds)
+    {
+        for (final int termId : termIds)
+        {
+            assertFalse("term " + termId, directory.logFile(STREAM_ID, SESSION_ID, termId).exists());
+            assertFalse("term " + termId, directory.compressedLogFile(STREAM_ID, SESSION_ID, termId).exists());
+        }
+    }
+
+    private void termsCompressed(final int... termIds)
+    {
+        for (final int termId : termIds)
+        {
+            assertFalse("term " + termId, directory.logFile(STREAM_ID, SESSION_ID, termId).exists());
+            assertTrue("term " + termId, directory.compressedLogFile(STREAM_ID, SESSION_ID, termId).exists());
+        }
+    }
+
+    private void termsExist(final int... termIds)
+    {
+        for (final int termId : termIds)
+        {
+            assertTrue("term " + termId, directory.logFile(STREAM_ID, SESSION_ID, termId).exists());
+        }
+    }
+
+    private static long termPosition(final int termId)
+    {
+        return (long)(termId - INITIAL_TERM_ID) * TERM_BUFFER_LENGTH;
+    }
+
+    private void ensureTempDirDoesNotExist()
+    {
+        final File dir = new File(tempDir);
+        if (dir.exists())
+        {
+            IoUtil.delete(dir, false);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.logbuffer.Header;
+import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.HeaderFlyweight;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.replication.ReservedValue;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.logger.ArchiveScanner.ParallelOrder.BY_POSITION;
+import static uk.co.real_logic.artio.engine.logger.ArchiveScanner.ParallelOrder.UNORDERED;
+import static uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType.SENT;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.sessionOf;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.statusOf;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.INITIAL_RECORD_OFFSET;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.RECORD_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.REPLAY_POSITION_BUFFER_SIZE;
+
+public class ArchiveScannerTest
+{
+    private static final StreamIdentifier STREAM_ID = new StreamIdentifier(IPC_CHANNEL, OUTBOUND_LIBRARY_STREAM);
+    private static final int AERON_SESSION_ID = 5;
+    private static final int INITIAL_TERM_ID = 0;
+    private static final int TERM_BUFFER_LENGTH = 64 * 1024;
+    private static final int MESSAGES_PER_SESSION = 10;
+    private static final long SESSION_ID = 1;
+    private static final long OTHER_SESSION_ID = 2;
+    private static final long UNINDEXED_SESSION_ID = 3;
+    private static final int WRAPPING_AERON_SESSION_ID = 6;
+    private static final int WRAPPING_INITIAL_TERM_ID = Integer.MAX_VALUE - 1;
+    private static final int FRAMES_PER_TERM = 4;
+
+    private final String tempDir = IoUtil.tmpDirName() + File.separator + "asct";
+    private final LogDirectoryDescriptor directory = new LogDirectoryDescriptor(tempDir);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final UnsafeBuffer replayPositionBuffer = new UnsafeBuffer(new byte[REPLAY_POSITION_BUFFER_SIZE]);
+
+    private UnsafeBuffer termBuffer;
+    private MessageStatus lastSessionMessageStatus = MessageStatus.OK;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(new File(tempDir), true);
+        IoUtil.ensureDirectoryExists(new File(tempDir), tempDir);
+
+        try (ArchiveMetaData metaData =
+            new ArchiveMetaData(directory, LoggerUtil::mapExistingFile, LoggerUtil::mapNewFile))
+        {
+            metaData.write(STREAM_ID, AERON_SESSION_ID, INITIAL_TERM_ID, TERM_BUFFER_LENGTH);
+        }
+
+        final File termFile = directory.logFile(STREAM_ID, AERON_SESSION_ID, INITIAL_TERM_ID);
+        termBuffer = new UnsafeBuffer(LoggerUtil.mapNewFile(termFile, TERM_BUFFER_LENGTH));
+    }
+
+    @After
+    public void tearDown()
+    {
+        IoUtil.unmap((MappedByteBuffer)termBuffer.byteBuffer());
+        IoUtil.delete(new File(tempDir), true);
+
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldOnlyReadTheMessagesOfAnIndexedSession()
+    {
+        archiveMessages(INITIAL_RECORD_OFFSET + 1024 * RECORD_LENGTH);
+
+        assertEquals(MESSAGES_PER_SESSION, countSessionFragments(SESSION_ID));
+        assertThat(scanSequenceNumbers(SESSION_ID), contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    }
+
+    @Test
+    public void shouldOnlyUseTheReplayIndexWhenScanningForMessagesThatItRecords()
+    {
+        lastSessionMessageStatus = MessageStatus.INVALID_CHECKSUM;
+        archiveMessages(INITIAL_RECORD_OFFSET + 1024 * RECORD_LENGTH);
+
+        assertThat(scanSequenceNumbers(sessionOf(SESSION_ID)), contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+        assertThat(scanSequenceNumbers(SESSION_ID), contains(1, 2, 3, 4, 5, 6, 7, 8, 9));
+    }
+
+    @Test
+    public void shouldReadEveryMessageForASessionWithoutAReplayIndex()
+    {
+        archiveMessages(INITIAL_RECORD_OFFSET + 1024 * RECORD_LENGTH);
+
+        assertEquals(2 * MESSAGES_PER_SESSION, countSessionFragments(UNINDEXED_SESSION_ID));
+    }
+
+    @Test
+    public void shouldReadEveryMessageWhenTheReplayIndexHasOverwrittenRecords()
+    {
+        archiveMessages(INITIAL_RECORD_OFFSET + 4 * RECORD_LENGTH);
+
+        assertEquals(2 * MESSAGES_PER_SESSION, countSessionFragments(SESSION_ID));
+        assertThat(scanSequenceNumbers(SESSION_ID), contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    }
+
+    @Test
+    public void shouldReadOnlyTheMessagesOfASessionFromASegmentedReplayIndex()
+    {
+        archiveMessages(INITIAL_RECORD_OFFSET + 4 * RECORD_LENGTH, 3);
+
+        assertEquals(MESSAGES_PER_SESSION, countSessionFragments(SESSION_ID));
+        assertThat(scanSequenceNumbers(SESSION_ID), contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    }
+
+    @Test
+    public void shouldReadEveryMessageWhenTheOldestReplayIndexSegmentHasBeenDeleted()
+    {
+        archiveMessages(INITIAL_RECORD_OFFSET + 4 * RECORD_LENGTH, 2);
+
+        assertEquals(2 * MESSAGES_PER_SESSION, countSessionFragments(SESSION_ID));
+        assertThat(scanSequenceNumbers(SESSION_ID), contains(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    }
+
+    @Test
+    public void shouldScanTermFilesInParallelInPositionOrder()
+    {
+        archiveTermsOfTwoSessions();
+
+        final List<String> terms = new ArrayList<>();
+        final int[] lastTermOffset = {-1};
+        final FragmentHandler handler = (buffer, offset, length, header) ->
+        {
+            final String term = header.sessionId() + ":" + header.termId();
+            if (terms.isEmpty() || !terms.get(terms.size() - 1).equals(term))
+            {
+                terms.add(term);
+                lastTermOffset[0] = -1;
+            }
+
+            assertThat(header.termOffset(), greaterThan(lastTermOffset[0]));
+            lastTermOffset[0] = header.termOffset();
+        };
+
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            new ArchiveScanner(tempDir).forEachFragmentInParallel(
+                STREAM_ID, pool, BY_POSITION, () -> handler, errorHandler);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        assertThat(terms, contains(
+            WRAPPING_AERON_SESSION_ID + ":" + WRAPPING_INITIAL_TERM_ID,
+            WRAPPING_AERON_SESSION_ID + ":" + Integer.MAX_VALUE,
+            WRAPPING_AERON_SESSION_ID + ":" + Integer.MIN_VALUE,
+            AERON_SESSION_ID + ":" + INITIAL_TERM_ID,
+            AERON_SESSION_ID + ":" + (INITIAL_TERM_ID + 1)));
+    }
+
+    @Test
+    public void shouldScanTermFilesInParallelWithAHandlerPerThread()
+    {
+        archiveTermsOfTwoSessions();
+
+        final List<ThreadConfinedCounter> counters = new CopyOnWriteArrayList<>();
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            new ArchiveScanner(tempDir).forEachFragmentInParallel(
+                STREAM_ID,
+                pool,
+                UNORDERED,
+                () ->
+                {
+                    final ThreadConfinedCounter counter = new ThreadConfinedCounter();
+                    counters.add(counter);
+                    return counter;
+                },
+                errorHandler);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        assertEquals(5 * FRAMES_PER_TERM, counters.stream().mapToInt((counter) -> counter.fragmentCount).sum());
+    }
+
+    private void archiveTermsOfTwoSessions()
+    {
+        final long now = System.currentTimeMillis();
+        final long earlier = now - 60_000;
+
+        writeFrames(termBuffer, AERON_SESSION_ID, INITIAL_TERM_ID, now);
+        final List<File> termFiles = new ArrayList<>();
+        termFiles.add(directory.logFile(STREAM_ID, AERON_SESSION_ID, INITIAL_TERM_ID));
+        termFiles.add(writeTermFile(AERON_SESSION_ID, INITIAL_TERM_ID + 1, now));
+
+        try (ArchiveMetaData metaData =
+            new ArchiveMetaData(directory, LoggerUtil::mapExistingFile, LoggerUtil::mapNewFile))
+        {
+            metaData.write(STREAM_ID, WRAPPING_AERON_SESSION_ID, WRAPPING_INITIAL_TERM_ID, TERM_BUFFER_LENGTH);
+        }
+
+        final List<File> olderTermFiles = new ArrayList<>();
+        olderTermFiles.add(writeTermFile(WRAPPING_AERON_SESSION_ID, Integer.MIN_VALUE, earlier));
+        olderTermFiles.add(writeTermFile(WRAPPING_AERON_SESSION_ID, WRAPPING_INITIAL_TERM_ID, earlier));
+        olderTermFiles.add(writeTermFile(WRAPPING_AERON_SESSION_ID, Integer.MAX_VALUE, earlier));
+
+        // Sessions are ordered by their archived messages, so modification times that disagree are ignored.
+        termFiles.forEach((file) -> assertTrue(file.setLastModified(earlier)));
+        olderTermFiles.forEach((file) -> assertTrue(file.setLastModified(now)));
+    }
+
+    private File writeTermFile(final int aeronSessionId, final int termId, final long timestamp)
+    {
+        final File termFile = directory.logFile(STREAM_ID, aeronSessionId, termId);
+        final MappedByteBuffer mappedBuffer = LoggerUtil.mapNewFile(termFile, TERM_BUFFER_LENGTH);
+        try
+        {
+            writeFrames(new UnsafeBuffer(mappedBuffer), aeronSessionId, termId, timestamp);
+        }
+        finally
+        {
+            IoUtil.unmap(mappedBuffer);
+        }
+
+        return termFile;
+    }
+
+    private static void writeFrames(
+        final UnsafeBuffer buffer, final int aeronSessionId, final int termId, final long timestamp)
+    {
+        final DataHeaderFlyweight dataHeader = new DataHeaderFlyweight();
+        final MessageHeaderEncoder header = new MessageHeaderEncoder();
+        final FixMessageEncoder messageFrame = new FixMessageEncoder();
+        int termOffset = 0;
+        for (int i = 0; i < FRAMES_PER_TERM; i++)
+        {
+            final byte[] body = fixMessage(i + 1);
+            messageFrame
+                .wrapAndApplyHeader(buffer, termOffset + HEADER_LENGTH, header)
+                .timestamp(timestamp + i)
+                .status(MessageStatus.OK)
+                .putBody(body, 0, body.length);
+            final int frameLength = HEADER_LENGTH + MessageHeaderEncoder.ENCODED_LENGTH + messageFrame.encodedLength();
+
+            dataHeader.wrap(buffer, termOffset, HEADER_LENGTH);
+            dataHeader
+                .sessionId(aeronSessionId)
+                .streamId(STREAM_ID.streamId())
+                .termId(termId)
+                .termOffset(termOffset)
+                .frameLength(frameLength)
+                .version(HeaderFlyweight.CURRENT_VERSION)
+                .flags(DataHeaderFlyweight.BEGIN_AND_END_FLAGS)
+                .headerType(HeaderFlyweight.HDR_TYPE_DATA);
+
+            termOffset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+        }
+    }
+
+    private void archiveMessages(final int replayIndexFileSize)
+    {
+        archiveMessages(replayIndexFileSize, 1);
+    }
+
+    private void archiveMessages(final int replayIndexFileSize, final int replayIndexMaxSegments)
+    {
+        final DataHeaderFlyweight dataHeader = new DataHeaderFlyweight();
+        final MessageHeaderEncoder header = new MessageHeaderEncoder();
+        final FixMessageEncoder messageFrame = new FixMessageEncoder();
+        final CRC32 checksum = new CRC32();
+        final ReplayIndex replayIndex = new ReplayIndex(
+            tempDir,
+            STREAM_ID.streamId(),
+            replayIndexFileSize,
+            replayIndexMaxSegments,
+            1,
+            1,
+            LoggerUtil::map,
+            replayPositionBuffer,
+            errorHandler);
+
+        try
+        {
+            int termOffset = 0;
+            for (int i = 0; i < 2 * MESSAGES_PER_SESSION; i++)
+            {
+                final long sessionId = i % 2 == 0 ? SESSION_ID : OTHER_SESSION_ID;
+                final byte[] body = fixMessage(i / 2 + 1);
+                final int bodyOffset = termOffset + HEADER_LENGTH;
+
+                messageFrame
+                    .wrapAndApplyHeader(termBuffer, bodyOffset, header)
+                    .session(sessionId)
+                    .status(i == 2 * MESSAGES_PER_SESSION - 2 ? lastSessionMessageStatus : MessageStatus.OK)
+                    .putBody(body, 0, body.length);
+                final int bodyLength = MessageHeaderEncoder.ENCODED_LENGTH + messageFrame.encodedLength();
+                final int frameLength = HEADER_LENGTH + bodyLength;
+
+                final byte[] frameBody = new byte[bodyLength];
+                termBuffer.getBytes(bodyOffset, frameBody);
+                checksum.reset();
+                checksum.update(frameBody);
+
+                dataHeader.wrap(termBuffer, termOffset, HEADER_LENGTH);
+                dataHeader
+                    .sessionId(AERON_SESSION_ID)
+                    .streamId(STREAM_ID.streamId())
+                    .termId(INITIAL_TERM_ID)
+                    .termOffset(termOffset)
+                    .reservedValue(ReservedValue.ofChecksum((int)checksum.getValue()))
+                    .frameLength(frameLength)
+                    .version(HeaderFlyweight.CURRENT_VERSION)
+                    .flags(DataHeaderFlyweight.BEGIN_AND_END_FLAGS)
+                    .headerType(HeaderFlyweight.HDR_TYPE_DATA);
+
+                termOffset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+
+                replayIndex.indexRecord(
+                    termBuffer, bodyOffset, bodyLength, STREAM_ID.streamId(), AERON_SESSION_ID, termOffset);
+            }
+        }
+        finally
+        {
+            replayIndex.close();
+        }
+    }
+
+    private static byte[] fixMessage(final int sequenceNumber)
+    {
+        final String message = "8=FIX.4.4\u00019=50\u000135=0\u000134=" + sequenceNumber +
+            "\u000149=sender\u000156=target\u000152=19700101-00:00:00\u000110=000\u0001";
+        return message.getBytes(US_ASCII);
+    }
+
+    private int countSessionFragments(final long sessionId)
+    {
+        final int[] fragmentCount = {0};
+        final FragmentHandler handler = (buffer, offset, length, header) -> fragmentCount[0]++;
+        new ArchiveScanner(tempDir).forEachSessionFragment(
+            STREAM_ID, sessionId, Long.MIN_VALUE, Long.MAX_VALUE, handler, errorHandler);
+        return fragmentCount[0];
+    }
+
+    private List<Integer> scanSequenceNumbers(final long sessionId)
+    {
+        return scanSequenceNumbers(sessionOf(sessionId).and(statusOf(MessageStatus.OK)));
+    }
+
+    private List<Integer> scanSequenceNumbers(final FixMessagePredicate predicate)
+    {
+        final List<Integer> sequenceNumbers = new ArrayList<>();
+        new FixArchiveScanner(tempDir).scan(
+            IPC_CHANNEL,
+            SENT,
+            predicate,
+            (message, buffer, offset, length, header) ->
+            {
+                final String body = message.body();
+                final int start = body.indexOf("\u000134=") + 4;
+                sequenceNumbers.add(Integer.parseInt(body.substring(start, body.indexOf('\u0001', start))));
+            },
+            errorHandler);
+        return sequenceNumbers;
+    }
+
+    private static final class ThreadConfinedCounter implements FragmentHandler
+    {
+        private final Thread thread = Thread.currentThread();
+
+        private int fragmentCount;
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            assertSame(thread, Thread.currentThread());
+            fragmentCount++;
+        }
+    }
+}
@@ -17,6 +17,7 @@ package uk.co.real_logic.artio.engine.logger;
 
 import io.aeron.Aeron;
 import io.aeron.Publication;
+import io.aeron.Subscription;
 import io.aeron.driver.MediaDriver;
 import io.aeron.logbuffer.BlockHandler;
 import io.aeron.logbuffer.ControlledFragmentHandler;
@@ -27,6 +28,7 @@ import org.agrona.DirectBuffer;
 import org.agrona.IoUtil;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -35,6 +37,7 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 import org.mockito.ArgumentCaptor;
 import org.mockito.verification.VerificationMode;
+import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.engine.CompletionPosition;
 import uk.co.real_logic.artio.replication.ReservedValue;
 import uk.co.real_logic.artio.replication.StreamIdentifier;
@@ -102,6 +105,8 @@ public class ArchiverTest
     private final ArgumentCaptor<Integer> lengthCaptor = ArgumentCaptor.forClass(Integer.class);
     private final CompletionPosition completionPosition = mock(CompletionPosition.class);
     private final Long2LongHashMap completedPositions = new Long2LongHashMap(CompletionPosition.MISSING_VALUE);
+    private final FixCounters fixCounters = mock(FixCounters.class);
+    private final AtomicCounter durablePosition = mock(AtomicCounter.class);
 
     private final int size;
     private final int endOfFirstMessage;
@@ -116,6 +121,7 @@ public class ArchiverTest
     private ArchiveReader archiveReader;
     private ArchiveReader filteredArchiveReader;
     private Publication publication;
+    private Subscription subscription;
 
     private int lastArchivedValue;
     private int work = 0;
@@ -134,6 +140,7 @@ public class ArchiverTest
     {
         when(completionPosition.hasCompleted()).thenReturn(true);
         when(completionPosition.positions()).thenReturn(completedPositions);
+        when(fixCounters.archivedDurablePosition(anyInt(), anyInt())).thenReturn(durablePosition);
 
         deleteLogFileDir();
 
@@ -152,7 +159,29 @@ public class ArchiverTest
             completionPosition);
 
         publication = aeron.addPublication(CHANNEL, STREAM_ID);
-        archiver.subscription(aeron.addSubscription(CHANNEL, STREAM_ID));
+        subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+        archiver.subscription(subscription);
+    }
+
+    private void archiveWith(final ArchiveDurability durability)
+    {
+        subscription.close();
+
+        archiver = new Archiver(
+            new ArchiveMetaData(logDirectoryDescriptor),
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            new StreamIdentifier(CHANNEL, STREAM_ID),
+            DEFAULT_NAME_PREFIX,
+            completionPosition,
+            durability,
+            0,
+            0,
+            System::nanoTime,
+            fixCounters);
+
+        subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+        archiver.subscription(subscription);
     }
 
     @After
@@ -202,6 +231,38 @@ public class ArchiverTest
         assertReadsInitialValue(HEADER_LENGTH, endPosition);
     }
 
+    @Test
+    public void shouldPublishDurablePositionWhenForcedByGroupCommit()
+    {
+        archiveWith(ArchiveDurability.GROUP_COMMIT);
+
+        final long endPosition = writeAndArchiveBuffer(INITIAL_VALUE);
+
+        verify(durablePosition).setOrdered(endPosition);
+        assertReadsInitialValue(HEADER_LENGTH, endPosition);
+    }
+
+    @Test
+    public void shouldPublishDurablePositionWhenWrittenSynchronously()
+    {
+        archiveWith(ArchiveDurability.SYNCHRONOUS);
+
+        final long endPosition = writeAndArchiveBuffer(INITIAL_VALUE);
+
+        verify(durablePosition).setOrdered(endPosition);
+    }
+
+    @Test
+    public void shouldNotPublishDurablePositionWithoutDurability()
+    {
+        archiveWith(ArchiveDurability.NONE);
+
+        final long endPosition = writeAndArchiveBuffer(INITIAL_VALUE);
+
+        verify(fixCounters, never()).archivedDurablePosition(anyInt(), anyInt());
+        assertReadsInitialValue(HEADER_LENGTH, endPosition);
+    }
+
     @Test
     public void shouldReadFilteredDataThatWasWritten()
     {
@@ -109,6 +109,24 @@ public class IndexedPositionTest
         assertEquals(position, new IndexedPositionReader(buffer).indexedPosition(SESSION_ID));
     }
 
+    @Test
+    public void shouldValidateChecksumsOfDirtySectors()
+    {
+        final int position = 10;
+
+        indexed(position, SESSION_ID);
+        writer.updateChecksums();
+
+        final int otherPosition = 20;
+        indexed(otherPosition, OTHER_SESSION_ID);
+        assertEquals(1, writer.updateDirtyChecksums());
+        assertEquals(0, writer.updateDirtyChecksums());
+
+        newWriter();
+        noErrors();
+        assertEquals(otherPosition, new IndexedPositionReader(buffer).indexedPosition(OTHER_SESSION_ID));
+    }
+
     @Test
     public void shouldDetectFileSystemCorruption()
     {
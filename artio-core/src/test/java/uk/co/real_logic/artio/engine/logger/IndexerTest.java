@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.concurrent.AtomicCounter;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.junit.After;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.CompletionPosition;
+import uk.co.real_logic.artio.replication.ClusterableSubscription;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class IndexerTest
+{
+    private static final int INDEX_COUNT = 4;
+    private static final int FIRST_AERON_SESSION_ID = 10;
+    private static final long INDEXED_POSITION = 1024;
+    private static final long CHUNK_LENGTH = 1024;
+    private static final int CHUNK_COUNT = 3;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(INDEX_COUNT);
+    private final CountersManager countersManager = new CountersManager(
+        new UnsafeBuffer(ByteBuffer.allocateDirect(64 * 1024)), new UnsafeBuffer(ByteBuffer.allocateDirect(16 * 1024)));
+    private final AtomicCounter caughtUpBytes = countersManager.newCounter("caughtUpBytes");
+    private final List<Index> indices = new ArrayList<>();
+    private final List<ArchiveReader.SessionReader> sessionReaders = new ArrayList<>();
+    private final Queue<ArchiveReader> archiveReaders = new ConcurrentLinkedQueue<>();
+    private final List<ArchiveReader> allArchiveReaders = new ArrayList<>();
+
+    private Indexer indexer;
+
+    @After
+    public void tearDown() throws InterruptedException
+    {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test(timeout = 10_000L)
+    public void shouldCatchIndicesUpInParallel() throws Exception
+    {
+        givenIndicesAndArchive();
+
+        indexer.catchIndexUp(executor, archiveReaders::poll).get();
+
+        for (int i = 0; i < INDEX_COUNT; i++)
+        {
+            final Index index = indices.get(i);
+            final ArchiveReader.SessionReader sessionReader = sessionReaders.get(i);
+            long position = INDEXED_POSITION;
+            for (int chunk = 0; chunk < CHUNK_COUNT; chunk++)
+            {
+                verify(sessionReader).read(position + HEADER_LENGTH, index);
+                position += CHUNK_LENGTH;
+            }
+
+            // Each index has read up to the end of its session's archive.
+            verify(sessionReader).read(position + HEADER_LENGTH, index);
+            verifyNoMoreInteractions(sessionReader);
+        }
+
+        // The bytes that each index has read are counted separately.
+        assertEquals(INDEX_COUNT * CHUNK_COUNT * CHUNK_LENGTH, caughtUpBytes.get());
+        allArchiveReaders.forEach((archiveReader) -> verify(archiveReader).close());
+    }
+
+    @Test(timeout = 10_000L)
+    public void shouldPropagateCatchUpFailures() throws Exception
+    {
+        givenIndicesAndArchive();
+        final IllegalStateException failure = new IllegalStateException("Corrupt archive");
+        when(sessionReaders.get(1).read(anyLong(), any())).thenThrow(failure);
+
+        try
+        {
+            indexer.catchIndexUp(executor, archiveReaders::poll).get();
+            fail("Catch up should have failed");
+        }
+        catch (final ExecutionException e)
+        {
+            assertSame(failure, e.getCause());
+        }
+
+        allArchiveReaders.forEach((archiveReader) -> verify(archiveReader).close());
+    }
+
+    private void givenIndicesAndArchive()
+    {
+        for (int i = 0; i < INDEX_COUNT; i++)
+        {
+            final int aeronSessionId = FIRST_AERON_SESSION_ID + i;
+            final Index index = mock(Index.class);
+            doAnswer((inv) ->
+            {
+                final IndexedPositionConsumer consumer = inv.getArgument(0);
+                consumer.accept(aeronSessionId, INDEXED_POSITION);
+                return null;
+            }).when(index).readLastPosition(any());
+            indices.add(index);
+
+            final ArchiveReader.SessionReader sessionReader = mock(ArchiveReader.SessionReader.class);
+            long position = INDEXED_POSITION;
+            for (int chunk = 0; chunk < CHUNK_COUNT; chunk++)
+            {
+                when(sessionReader.read(position + HEADER_LENGTH, index)).thenReturn(position + CHUNK_LENGTH);
+                position += CHUNK_LENGTH;
+            }
+            sessionReaders.add(sessionReader);
+        }
+
+        // Any reader may be handed to any of the catch up tasks, so each one can read every session.
+        for (int i = 0; i < INDEX_COUNT; i++)
+        {
+            final ArchiveReader archiveReader = mock(ArchiveReader.class);
+            for (int j = 0; j < INDEX_COUNT; j++)
+            {
+                when(archiveReader.session(FIRST_AERON_SESSION_ID + j)).thenReturn(sessionReaders.get(j));
+            }
+            archiveReaders.add(archiveReader);
+            allArchiveReaders.add(archiveReader);
+        }
+
+        indexer = new Indexer(
+            indices,
+            mock(ArchiveReader.class),
+            mock(ClusterableSubscription.class),
+            "",
+            mock(CompletionPosition.class),
+            caughtUpBytes);
+    }
+}
@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.stream.IntStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
@@ -42,6 +43,10 @@ import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
 
 public class ReplayIndexTest extends AbstractLogTest
 {
+    private static final String SEGMENTED_LOG_FILE_DIR = IoUtil.tmpDirName() + File.separator + "rist";
+    private static final int SEGMENT_FILE_SIZE = 4 * RECORD_LENGTH + INITIAL_RECORD_OFFSET;
+    private static final int MAX_SEGMENTS = 3;
+
     private ByteBuffer indexBuffer = ByteBuffer.allocate(16 * 1024 + INITIAL_RECORD_OFFSET);
     private ExistingBufferFactory existingBufferFactory = mock(ExistingBufferFactory.class);
     private BufferFactory newBufferFactory = mock(BufferFactory.class);
@@ -63,6 +68,7 @@ public class ReplayIndexTest extends AbstractLogTest
             DEFAULT_LOG_FILE_DIR,
             STREAM_ID,
             DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            DEFAULT_REPLAY_INDEX_MAX_SEGMENTS,
             DEFAULT_LOGGER_CACHE_NUM_SETS,
             DEFAULT_LOGGER_CACHE_SET_SIZE,
             newBufferFactory,
@@ -100,6 +106,7 @@ public class ReplayIndexTest extends AbstractLogTest
     public void teardown()
     {
         replayIndex.close();
+        IoUtil.delete(new File(SEGMENTED_LOG_FILE_DIR), true);
     }
 
     @Test
@@ -254,6 +261,68 @@ public class ReplayIndexTest extends AbstractLogTest
         verifyMessagesRead(totalMessages);
     }
 
+    @Test
+    public void shouldOnlyReadTheRequestedRangeOfALargeIndex()
+    {
+        IntStream.rangeClosed(1, 500).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(250, SEQUENCE_INDEX, 260, SEQUENCE_INDEX);
+
+        assertEquals(11, msgCount);
+        verifyMessagesRead(11);
+    }
+
+    @Test
+    public void shouldReadTheMostRecentMessagesOfAWrappedIndex()
+    {
+        IntStream.rangeClosed(1, 1_000).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(991, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX);
+
+        assertEquals(10, msgCount);
+        verifyMessagesRead(10);
+    }
+
+    @Test
+    public void shouldBeginQueryWithinALaterSequenceIndex()
+    {
+        final int nextSequenceIndex = SEQUENCE_INDEX + 1;
+        IntStream.rangeClosed(1, 100).forEach(this::indexExampleMessage);
+        IntStream.rangeClosed(1, 100).forEach((sequenceNumber) ->
+        {
+            bufferContainsExampleMessage(true, SESSION_ID, sequenceNumber, nextSequenceIndex);
+            indexRecord();
+        });
+
+        final int msgCount = query(50, nextSequenceIndex, MOST_RECENT_MESSAGE, nextSequenceIndex);
+
+        assertEquals(51, msgCount);
+        verifyMessagesRead(51);
+    }
+
+    @Test
+    public void shouldPrefetchTheMessagesToReplayWhenReadingAhead()
+    {
+        when(mockReader.readsAhead()).thenReturn(true);
+        IntStream.rangeClosed(1, 10).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(3, SEQUENCE_INDEX, 5, SEQUENCE_INDEX);
+
+        assertEquals(3, msgCount);
+        verify(mockSessionReader).prefetch(START, START);
+        verifyMessagesRead(3);
+    }
+
+    @Test
+    public void shouldNotPrefetchWithoutReadingAhead()
+    {
+        IntStream.rangeClosed(1, 10).forEach(this::indexExampleMessage);
+
+        query(3, SEQUENCE_INDEX, 5, SEQUENCE_INDEX);
+
+        verify(mockSessionReader, never()).prefetch(anyLong(), anyLong());
+    }
+
     @Test
     public void shouldReadSecondInterleavedMessage()
     {
@@ -290,6 +359,92 @@ public class ReplayIndexTest extends AbstractLogTest
         verifyMessagesRead(totalMessages + 1);
     }
 
+    @Test
+    public void shouldRollOverToANewSegmentWhenASegmentIsFull()
+    {
+        newSegmentedReplayIndex();
+
+        IntStream.rangeClosed(1, 10).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(1, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX);
+
+        assertEquals(10, msgCount);
+        verifyMessagesRead(10);
+        assertArrayEquals(new int[]{0, 1, 2}, segmentIndices(SEGMENTED_LOG_FILE_DIR, SESSION_ID, STREAM_ID));
+    }
+
+    @Test
+    public void shouldDeleteTheOldestSegmentsWhenThereAreTooManySegments()
+    {
+        newSegmentedReplayIndex();
+
+        IntStream.rangeClosed(1, 14).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(1, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX);
+
+        assertEquals(MAX_SEGMENTS * 4 - 2, msgCount);
+        verifyMessagesRead(MAX_SEGMENTS * 4 - 2);
+        assertArrayEquals(new int[]{1, 2, 3}, segmentIndices(SEGMENTED_LOG_FILE_DIR, SESSION_ID, STREAM_ID));
+    }
+
+    @Test
+    public void shouldQuerySegmentsRolledOverToSinceThePreviousQuery()
+    {
+        newSegmentedReplayIndex();
+
+        IntStream.rangeClosed(1, 2).forEach(this::indexExampleMessage);
+        assertEquals(2, query(1, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX));
+
+        IntStream.rangeClosed(3, 14).forEach(this::indexExampleMessage);
+        assertEquals(MAX_SEGMENTS * 4 - 2, query(1, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX));
+    }
+
+    @Test
+    public void shouldCarryOnWritingTheLatestSegmentAfterARestart()
+    {
+        newSegmentedReplayIndex();
+        IntStream.rangeClosed(1, 6).forEach(this::indexExampleMessage);
+
+        replayIndex.close();
+        replayIndex = segmentedReplayIndex();
+        IntStream.rangeClosed(7, 8).forEach(this::indexExampleMessage);
+
+        final int msgCount = query(1, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX);
+
+        assertEquals(8, msgCount);
+        assertArrayEquals(new int[]{0, 1}, segmentIndices(SEGMENTED_LOG_FILE_DIR, SESSION_ID, STREAM_ID));
+    }
+
+    private void newSegmentedReplayIndex()
+    {
+        replayIndex.close();
+        IoUtil.delete(new File(SEGMENTED_LOG_FILE_DIR), true);
+
+        replayIndex = segmentedReplayIndex();
+        query = new ReplayQuery(
+            SEGMENTED_LOG_FILE_DIR,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            LoggerUtil::mapExistingFile,
+            mockReader,
+            OUTBOUND_LIBRARY_STREAM,
+            new NoOpIdleStrategy());
+    }
+
+    private ReplayIndex segmentedReplayIndex()
+    {
+        return new ReplayIndex(
+            SEGMENTED_LOG_FILE_DIR,
+            STREAM_ID,
+            SEGMENT_FILE_SIZE,
+            MAX_SEGMENTS,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            LoggerUtil::map,
+            replayPositionBuffer,
+            errorHandler);
+    }
+
     private OngoingStubbing<Long> whenHandled()
     {
         return when(mockSessionReader.read(anyLong(), any()));
@@ -305,6 +460,17 @@ public class ReplayIndexTest extends AbstractLogTest
         verify(positionConsumer, times(1)).accept(AERON_SESSION_ID, alignedEndPosition());
     }
 
+    @Test
+    public void shouldChecksumIndexedPositionsAsTheyAreWritten()
+    {
+        indexExampleMessage();
+        indexExampleMessage(SEQUENCE_NUMBER + 1);
+
+        // Without closing the index, as though the process had been killed.
+        new IndexedPositionWriter(replayPositionBuffer, errorHandler, 0, "replay-positions");
+        verify(errorHandler, never()).onError(any());
+    }
+
     @Test
     public void shouldOnlyMapSessionFileOnce()
     {
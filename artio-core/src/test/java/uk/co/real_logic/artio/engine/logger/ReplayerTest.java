@@ -28,6 +28,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.mockito.stubbing.OngoingStubbing;
@@ -40,6 +41,7 @@ import uk.co.real_logic.artio.engine.ReplayHandler;
 import uk.co.real_logic.artio.engine.SenderSequenceNumbers;
 import uk.co.real_logic.artio.fields.RejectReason;
 import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
+import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.replication.ClusterableSubscription;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -72,6 +74,9 @@ public class ReplayerTest extends AbstractLogTest
             "112=a12345678910123456789101234567891012345\00110=005\001").getBytes(US_ASCII);
 
     private static final int MAX_CLAIM_ATTEMPTS = 100;
+    private static final int REPLAY_CHUNK_SIZE = 2;
+    private static final long OTHER_CONNECTION_ID = CONNECTION_ID + 1;
+    private static final long OTHER_SESSION_ID = SESSION_ID + 1;
 
     private ReplayQuery replayQuery = mock(ReplayQuery.class);
     private ClusterableSubscription subscription = mock(ClusterableSubscription.class);
@@ -107,7 +112,8 @@ public class ReplayerTest extends AbstractLogTest
             clock,
             EngineConfiguration.DEFAULT_GAPFILL_ON_REPLAY_MESSAGE_TYPES,
             replayHandler,
-            senderSequenceNumbers);
+            senderSequenceNumbers,
+            REPLAY_CHUNK_SIZE);
 
         verify(publication).maxPayloadLength();
     }
@@ -477,6 +483,149 @@ public class ReplayerTest extends AbstractLogTest
         });
     }
 
+    @Test
+    public void shouldReplayLargeResendRequestsInChunks()
+    {
+        whenReplayQueried().thenReturn(REPLAY_CHUNK_SIZE);
+
+        final int endSeqNo = BEGIN_SEQ_NO + 2 * REPLAY_CHUNK_SIZE - 1;
+        final long result = bufferHasResendRequest(endSeqNo);
+        onContinuedRequestResendMessage(result);
+
+        verifyQueried(SESSION_ID, BEGIN_SEQ_NO, BEGIN_SEQ_NO + 1);
+        verifyNoMoreInteractions(replayQuery);
+
+        replayer.doWork();
+
+        verifyQueried(SESSION_ID, BEGIN_SEQ_NO + 2, endSeqNo);
+
+        replayer.doWork();
+
+        verifyNoMoreInteractions(replayQuery, publication);
+    }
+
+    @Test
+    public void shouldInterleaveChunksOfResendRequestsForDifferentSessions()
+    {
+        whenReplayQueried().thenReturn(REPLAY_CHUNK_SIZE);
+
+        final int endSeqNo = BEGIN_SEQ_NO + 2 * REPLAY_CHUNK_SIZE - 1;
+        final long result = bufferHasResendRequest(endSeqNo);
+        onResendRequestMessage(CONNECTION_ID, SESSION_ID, result);
+        onResendRequestMessage(OTHER_CONNECTION_ID, OTHER_SESSION_ID, result);
+
+        replayer.doWork();
+
+        final InOrder inOrder = inOrder(replayQuery);
+        verifyQueried(inOrder, SESSION_ID, BEGIN_SEQ_NO, BEGIN_SEQ_NO + 1);
+        verifyQueried(inOrder, OTHER_SESSION_ID, BEGIN_SEQ_NO, BEGIN_SEQ_NO + 1);
+        verifyQueried(inOrder, SESSION_ID, BEGIN_SEQ_NO + 2, endSeqNo);
+        verifyQueried(inOrder, OTHER_SESSION_ID, BEGIN_SEQ_NO + 2, endSeqNo);
+        verifyNoMoreInteractions(replayQuery);
+    }
+
+    @Test
+    public void shouldReplayResendRequestsForTheSameConnectionInOrder()
+    {
+        whenReplayQueried().thenReturn(REPLAY_CHUNK_SIZE);
+
+        final int endSeqNo = BEGIN_SEQ_NO + 2 * REPLAY_CHUNK_SIZE - 1;
+        onContinuedRequestResendMessage(bufferHasResendRequest(endSeqNo));
+        whenReplayQueried().thenReturn(REPLAY_CHUNK_SIZE, 1);
+        onContinuedRequestResendMessage(bufferHasResendRequest(END_SEQ_NO));
+
+        final InOrder inOrder = inOrder(replayQuery);
+        verifyQueried(inOrder, SESSION_ID, BEGIN_SEQ_NO, BEGIN_SEQ_NO + 1);
+        verifyNoMoreInteractions(replayQuery);
+
+        replayer.doWork();
+
+        verifyQueried(inOrder, SESSION_ID, BEGIN_SEQ_NO + 2, endSeqNo);
+        verifyQueried(inOrder, SESSION_ID, BEGIN_SEQ_NO, END_SEQ_NO);
+        verifyNoMoreInteractions(replayQuery);
+    }
+
+    @Test
+    public void shouldGapFillAdminMessagesAtTheEndOfAChunkBeforeTheNextAppMessage()
+    {
+        final int endSeqNo = BEGIN_SEQ_NO + REPLAY_CHUNK_SIZE;
+        final int offset = setupCapturingClaim();
+
+        onReplay(endSeqNo, inv ->
+        {
+            onTestRequest(BEGIN_SEQ_NO);
+
+            onTestRequest(BEGIN_SEQ_NO + 1);
+
+            return 2;
+        });
+
+        verifyNoMoreInteractions(publication);
+
+        whenReplayQueried().then(inv ->
+        {
+            final int srcLength = onExampleMessage(endSeqNo);
+
+            assertResentGapFillThenMessage(endSeqNo, offset, srcLength);
+
+            return 1;
+        });
+
+        replayer.doWork();
+
+        verifyQueried(SESSION_ID, endSeqNo, endSeqNo);
+    }
+
+    @Test
+    public void shouldNotGapFillAgainAfterAChunkWithoutIndexRecords()
+    {
+        final int endSeqNo = BEGIN_SEQ_NO + 2 * REPLAY_CHUNK_SIZE;
+        final int offset = setupCapturingClaim();
+
+        onReplay(endSeqNo, inv ->
+        {
+            onTestRequest(BEGIN_SEQ_NO);
+
+            onTestRequest(BEGIN_SEQ_NO + 1);
+
+            return 2;
+        });
+
+        verifyNoMoreInteractions(publication);
+
+        whenReplayQueried().thenReturn(0).then(inv ->
+        {
+            assertReSentGapFill(BEGIN_SEQ_NO, endSeqNo, offset, times(1));
+
+            final int srcLength = onExampleMessage(endSeqNo);
+
+            assertHasResentWithPossDupFlag(srcLength, times(2));
+
+            return 1;
+        });
+
+        replayer.doWork();
+
+        verifyQueried(SESSION_ID, BEGIN_SEQ_NO + 2, endSeqNo - 1);
+        verifyQueried(SESSION_ID, endSeqNo, endSeqNo);
+        verifyIllegalStateException();
+    }
+
+    @Test
+    public void shouldNotReplayChunksForDisconnectedConnections()
+    {
+        whenReplayQueried().thenReturn(REPLAY_CHUNK_SIZE);
+
+        final int endSeqNo = BEGIN_SEQ_NO + 2 * REPLAY_CHUNK_SIZE - 1;
+        onContinuedRequestResendMessage(bufferHasResendRequest(endSeqNo));
+        verifyQueried(SESSION_ID, BEGIN_SEQ_NO, BEGIN_SEQ_NO + 1);
+
+        replayer.onDisconnect(LIBRARY_ID, CONNECTION_ID, DisconnectReason.REMOTE_DISCONNECT);
+        replayer.doWork();
+
+        verifyNoMoreInteractions(replayQuery);
+    }
+
     @Test
     public void shouldIgnoreIrrelevantFixMessages()
     {
@@ -649,6 +798,27 @@ public class ReplayerTest extends AbstractLogTest
         setupPublication(length);
     }
 
+    private void verifyQueried(final long sessionId, final int beginSeqNo, final int endSeqNo)
+    {
+        verify(replayQuery).query(
+            any(), eq(sessionId), eq(beginSeqNo), eq(SEQUENCE_INDEX), eq(endSeqNo), eq(SEQUENCE_INDEX));
+    }
+
+    private void verifyQueried(
+        final InOrder inOrder, final long sessionId, final int beginSeqNo, final int endSeqNo)
+    {
+        inOrder.verify(replayQuery).query(
+            any(), eq(sessionId), eq(beginSeqNo), eq(SEQUENCE_INDEX), eq(endSeqNo), eq(SEQUENCE_INDEX));
+    }
+
+    private void onResendRequestMessage(final long connectionId, final long sessionId, final long result)
+    {
+        final Action action = replayer.onMessage(
+            buffer, Encoder.offset(result), Encoder.length(result),
+            LIBRARY_ID, connectionId, sessionId, SEQUENCE_INDEX, ResendRequestDecoder.MESSAGE_TYPE, 0L, OK, 0, 0L);
+        assertEquals(CONTINUE, action);
+    }
+
     private void verifyQueriedService(final int endSeqNo)
     {
         verify(replayQuery).query(
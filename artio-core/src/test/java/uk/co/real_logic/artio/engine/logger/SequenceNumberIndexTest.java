@@ -44,8 +44,11 @@ import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexWriter.SEQ
 public class SequenceNumberIndexTest extends AbstractLogTest
 {
     private static final int BUFFER_SIZE = 16 * 1024;
+    // Large enough for the positions table to span more than one sector
+    private static final int MULTI_SECTOR_POSITIONS_BUFFER_SIZE = 128 * 1024;
     private static final String INDEX_FILE_PATH = IoUtil.tmpDirName() + "/SequenceNumberIndex";
 
+    private int bufferSize = BUFFER_SIZE;
     private AtomicBuffer inMemoryBuffer = newBuffer();
 
     private ErrorHandler errorHandler = mock(ErrorHandler.class);
@@ -215,6 +218,65 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         }
     }
 
+    @Test
+    public void shouldSaveSectorsThatHaveChangedToBothFilesUponRotate()
+    {
+        final int sessionCount = SECTOR_SIZE / RECORD_SIZE + 1;
+        int position = alignedEndPosition();
+        for (int sessionId = 1; sessionId <= sessionCount; sessionId++)
+        {
+            bufferContainsExampleMessage(true, sessionId, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+            indexRecord(position);
+            position += buffer.capacity();
+        }
+
+        // Only the first sector changes from now on, whilst the index and writable files take turns being written
+        final int rotations = 3;
+        for (int i = 1; i <= rotations; i++)
+        {
+            bufferContainsExampleMessage(true, SESSION_ID, SEQUENCE_NUMBER + i, SEQUENCE_INDEX);
+            indexRecord(position);
+            position += buffer.capacity();
+        }
+
+        try (MappedFile mappedFile = newIndexFile())
+        {
+            final SequenceNumberIndexReader newReader = new SequenceNumberIndexReader(
+                mappedFile.buffer(), errorHandler);
+
+            assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER + rotations, newReader);
+            assertLastKnownSequenceNumberIs(sessionCount, SEQUENCE_NUMBER, newReader);
+        }
+
+        writer.close();
+
+        final SequenceNumberIndexReader newReader = newInstanceAfterRestart();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER + rotations, newReader);
+        assertLastKnownSequenceNumberIs(sessionCount, SEQUENCE_NUMBER, newReader);
+    }
+
+    @Test
+    public void shouldSaveChecksumsOfPositionsSectorsAfterTheFirstUponRotate()
+    {
+        useBufferSize(MULTI_SECTOR_POSITIONS_BUFFER_SIZE);
+
+        // Write records into the second sector, which changes the checksum of the second positions sector
+        final int sessionCount = SECTOR_SIZE / RECORD_SIZE + 1;
+        int position = alignedEndPosition();
+        for (int sessionId = 1; sessionId <= sessionCount; sessionId++)
+        {
+            bufferContainsExampleMessage(true, sessionId, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+            indexRecord(position);
+            position += buffer.capacity();
+        }
+
+        writer.close();
+
+        final SequenceNumberIndexReader newReader = newInstanceAfterRestart();
+        assertLastKnownSequenceNumberIs(sessionCount, SEQUENCE_NUMBER, newReader);
+        Mockito.verify(errorHandler, never()).onError(any(FileSystemCorruptionException.class));
+    }
+
     @Test
     public void shouldAlignMessagesAndNotOverlapCheckSums()
     {
@@ -246,6 +308,58 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertUnknownSession();
     }
 
+    @Test
+    public void shouldReadSessionsIndexedAfterAPreviousLookup()
+    {
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SessionInfo.UNK_SESSION);
+
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER + 5, SEQUENCE_INDEX);
+        indexRecord(alignedEndPosition() + fragmentLength());
+
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 5);
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+    }
+
+    @Test
+    public void shouldNotReadStaleSequenceNumbersAfterReset()
+    {
+        indexFixMessage();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+
+        writer.resetSequenceNumbers();
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexRecord(alignedEndPosition() + fragmentLength());
+
+        assertUnknownSession();
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER);
+    }
+
+    @Test
+    public void shouldReadSessionsRewrittenBeforeTheLastIndexedRecordAfterReset()
+    {
+        final long otherSessionId = SESSION_ID_2 + 1;
+        int position = alignedEndPosition();
+        bufferContainsExampleMessage(true, SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexRecord(position);
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexRecord(position += fragmentLength());
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER);
+
+        // The last indexed record is rewritten at the same offset for the same session.
+        writer.resetSequenceNumbers();
+        bufferContainsExampleMessage(true, otherSessionId, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+        indexRecord(position += fragmentLength());
+        bufferContainsExampleMessage(true, SESSION_ID_2, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
+        indexRecord(position + fragmentLength());
+
+        assertLastKnownSequenceNumberIs(otherSessionId, SEQUENCE_NUMBER);
+        assertLastKnownSequenceNumberIs(SESSION_ID_2, SEQUENCE_NUMBER + 1);
+        assertUnknownSession();
+    }
+
     @After
     public void verifyNoErrors()
     {
@@ -253,6 +367,17 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         Mockito.verify(errorHandler, never()).onError(any());
     }
 
+    private void useBufferSize(final int bufferSize)
+    {
+        writer.close();
+        deleteFiles();
+
+        this.bufferSize = bufferSize;
+        inMemoryBuffer = newBuffer();
+        writer = newWriter(inMemoryBuffer);
+        reader = new SequenceNumberIndexReader(inMemoryBuffer, errorHandler);
+    }
+
     private SequenceNumberIndexReader newInstanceAfterRestart()
     {
         final AtomicBuffer inMemoryBuffer = newBuffer();
@@ -268,12 +393,12 @@ public class SequenceNumberIndexTest extends AbstractLogTest
 
     private MappedFile newIndexFile()
     {
-        return MappedFile.map(INDEX_FILE_PATH, BUFFER_SIZE);
+        return MappedFile.map(INDEX_FILE_PATH, bufferSize);
     }
 
     private UnsafeBuffer newBuffer()
     {
-        return new UnsafeBuffer(new byte[BUFFER_SIZE]);
+        return new UnsafeBuffer(new byte[bufferSize]);
     }
 
     private void assertUnknownSession()
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.engine.logger.CompressedTermDescriptor.BLOCK_LENGTH;
+import static uk.co.real_logic.artio.engine.logger.CompressedTermDescriptor.dataOffset;
+
+public class TermCompressorTest
+{
+    private static final int TERM_LENGTH = 4 * BLOCK_LENGTH;
+    private static final byte[] MESSAGE =
+        "8=FIX.4.4\0019=0000\00135=8\00149=ABC_DEFG01\00156=CCG\00134=10\00152=20150514-15:57:31.336\001"
+        .getBytes(StandardCharsets.US_ASCII);
+
+    private final String tempDir = IoUtil.tmpDirName() + File.separator + "tct";
+    private final File termFile = new File(tempDir, "archive_term.log");
+    private final File compressedTermFile = new File(tempDir, "archive_term.log.z");
+    private final byte[] term = new byte[TERM_LENGTH];
+    private final TermCompressor compressor = new TermCompressor();
+
+    @Before
+    public void setUp() throws IOException
+    {
+        ensureTempDirDoesNotExist();
+        IoUtil.ensureDirectoryExists(new File(tempDir), tempDir);
+
+        // The second and last blocks are left as zeros.
+        fillBlock(0);
+        fillBlock(2 * BLOCK_LENGTH);
+        try (FileOutputStream out = new FileOutputStream(termFile))
+        {
+            out.write(term);
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        compressor.close();
+        ensureTempDirDoesNotExist();
+    }
+
+    @Test
+    public void shouldReplaceTermFileWithCompressedTermFile() throws IOException
+    {
+        compress();
+
+        assertFalse(termFile.exists());
+        assertTrue(compressedTermFile.exists());
+        assertTrue(compressedTermFile.length() < TERM_LENGTH / 5);
+    }
+
+    @Test
+    public void shouldDecompressWholeTerm() throws IOException
+    {
+        compress();
+
+        try (ArchivedTerm archivedTerm = ArchivedTerm.compressed(compressedTermFile))
+        {
+            final ByteBuffer termBuffer = archivedTerm.termBuffer();
+            archivedTerm.load(0, TERM_LENGTH);
+
+            assertArrayEquals(term, termBuffer.array());
+        }
+    }
+
+    @Test
+    public void shouldOnlyDecompressLoadedBlocks() throws IOException
+    {
+        compress();
+
+        try (ArchivedTerm archivedTerm = ArchivedTerm.compressed(compressedTermFile))
+        {
+            final ByteBuffer termBuffer = archivedTerm.termBuffer();
+            final int offset = 2 * BLOCK_LENGTH + 10;
+            archivedTerm.load(offset, MESSAGE.length);
+
+            assertEquals(term[offset], termBuffer.get(offset));
+            assertEquals(0, termBuffer.get(0));
+        }
+    }
+
+    @Test
+    public void shouldReadCorruptBlocksAsZeros() throws IOException
+    {
+        compress();
+
+        try (RandomAccessFile file = new RandomAccessFile(compressedTermFile, "rw"))
+        {
+            file.seek(dataOffset(TERM_LENGTH / BLOCK_LENGTH));
+            file.write(new byte[16]);
+        }
+
+        try (ArchivedTerm archivedTerm = ArchivedTerm.compressed(compressedTermFile))
+        {
+            final ByteBuffer termBuffer = archivedTerm.termBuffer();
+            archivedTerm.load(0, TERM_LENGTH);
+
+            assertEquals(0, termBuffer.get(0));
+            assertEquals(term[2 * BLOCK_LENGTH], termBuffer.get(2 * BLOCK_LENGTH));
+        }
+    }
+
+    @Test
+    public void shouldDecompressTermsThatShareADecompressionBuffer() throws IOException
+    {
+        compress();
+        final File otherCompressedTermFile = new File(tempDir, "other_archive_term.log.z");
+        try (FileOutputStream out = new FileOutputStream(termFile))
+        {
+            out.write(new byte[TERM_LENGTH]);
+        }
+        compress(otherCompressedTermFile);
+
+        final ArchivedTerm.DecompressionBuffer decompressionBuffer = new ArchivedTerm.DecompressionBuffer();
+        try (ArchivedTerm archivedTerm = ArchivedTerm.compressed(compressedTermFile, decompressionBuffer);
+            ArchivedTerm otherArchivedTerm = ArchivedTerm.compressed(otherCompressedTermFile, decompressionBuffer))
+        {
+            archivedTerm.load(0, TERM_LENGTH);
+            final byte[] decompressedTerm = archivedTerm.termBuffer().array();
+            assertArrayEquals(term, decompressedTerm);
+
+            otherArchivedTerm.load(0, TERM_LENGTH);
+            assertSame(decompressedTerm, otherArchivedTerm.termBuffer().array());
+            assertArrayEquals(new byte[TERM_LENGTH], decompressedTerm);
+
+            archivedTerm.load(0, TERM_LENGTH);
+            assertArrayEquals(term, archivedTerm.termBuffer().array());
+        }
+    }
+
+    @Test
+    public void shouldKeepTermFileWhenAborted() throws IOException
+    {
+        compressor.begin(termFile, compressedTermFile);
+        compressor.compressNextBlock();
+
+        compressor.abort();
+
+        assertTrue(termFile.exists());
+        assertFalse(compressedTermFile.exists());
+        assertArrayEquals(new String[]{ termFile.getName() }, new File(tempDir).list());
+    }
+
+    private void compress() throws IOException
+    {
+        compress(compressedTermFile);
+    }
+
+    private void compress(final File compressedTermFile) throws IOException
+    {
+        compressor.begin(termFile, compressedTermFile);
+        while (!compressor.compressNextBlock())
+        {
+        }
+        compressor.complete();
+    }
+
+    private void fillBlock(final int offset)
+    {
+        int sequenceNumber = 0;
+        for (int i = offset; i < offset + BLOCK_LENGTH; i += MESSAGE.length)
+        {
+            System.arraycopy(MESSAGE, 0, term, i, Math.min(MESSAGE.length, offset + BLOCK_LENGTH - i));
+            term[i + 4] = (byte)('0' + sequenceNumber++ % 10);
+        }
+    }
+
+    private void ensureTempDirDoesNotExist()
+    {
+        final File dir = new File(tempDir);
+        if (dir.exists())
+        {
+            IoUtil.delete(dir, false);
+        }
+    }
+}
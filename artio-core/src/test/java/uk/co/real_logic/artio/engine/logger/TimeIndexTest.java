@@ -0,0 +1,271 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FragmentHandler;
+import io.aeron.protocol.DataHeaderFlyweight;
+import io.aeron.protocol.HeaderFlyweight;
+import org.agrona.BitUtil;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.logger.FixArchiveScanner.MessageType.SENT;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.between;
+import static uk.co.real_logic.artio.engine.logger.FixMessagePredicates.from;
+
+public class TimeIndexTest
+{
+    private static final StreamIdentifier STREAM_ID = new StreamIdentifier(IPC_CHANNEL, OUTBOUND_LIBRARY_STREAM);
+    private static final int AERON_SESSION_ID = 5;
+    private static final int INITIAL_TERM_ID = 0;
+    private static final int TERM_BUFFER_LENGTH = 64 * 1024;
+    private static final int BLOCK_SIZE_IN_BYTES = 1024;
+    private static final int MESSAGE_COUNT = 40;
+    private static final int INDEXED_MESSAGE_COUNT = 30;
+    private static final int BODY_LENGTH = 100;
+    private static final long TIMESTAMP_INTERVAL = 10;
+
+    private final String tempDir = IoUtil.tmpDirName() + File.separator + "tit";
+    private final LogDirectoryDescriptor directory = new LogDirectoryDescriptor(tempDir);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final int[] termOffsets = new int[MESSAGE_COUNT + 1];
+
+    private UnsafeBuffer termBuffer;
+    private TimeIndex timeIndex;
+
+    @Before
+    public void setUp()
+    {
+        IoUtil.delete(new File(tempDir), true);
+        IoUtil.ensureDirectoryExists(new File(tempDir), tempDir);
+
+        try (ArchiveMetaData metaData =
+            new ArchiveMetaData(directory, LoggerUtil::mapExistingFile, LoggerUtil::mapNewFile))
+        {
+            metaData.write(STREAM_ID, AERON_SESSION_ID, INITIAL_TERM_ID, TERM_BUFFER_LENGTH);
+        }
+
+        final File termFile = directory.logFile(STREAM_ID, AERON_SESSION_ID, INITIAL_TERM_ID);
+        termBuffer = new UnsafeBuffer(LoggerUtil.mapNewFile(termFile, TERM_BUFFER_LENGTH));
+        writeMessages();
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (timeIndex != null)
+        {
+            timeIndex.close();
+        }
+        IoUtil.unmap((MappedByteBuffer)termBuffer.byteBuffer());
+        IoUtil.delete(new File(tempDir), true);
+
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldOnlyScanBlocksWithinTimeRangeAndUnindexedMessages()
+    {
+        indexMessages(0, INDEXED_MESSAGE_COUNT);
+
+        final int fragmentCount = countFragments(timestamp(10), timestamp(15));
+
+        assertThat(fragmentCount, lessThan(MESSAGE_COUNT));
+        assertThat(scanTimestamps(between(timestamp(10), timestamp(15))),
+            contains(timestamp(10), timestamp(11), timestamp(12), timestamp(13), timestamp(14)));
+    }
+
+    @Test
+    public void shouldScanMessagesAfterTheLastIndexedBlock()
+    {
+        indexMessages(0, INDEXED_MESSAGE_COUNT);
+
+        assertThat(scanTimestamps(from(timestamp(37))),
+            contains(timestamp(37), timestamp(38), timestamp(39)));
+    }
+
+    @Test
+    public void shouldScanEveryFragmentWithoutTimeIndex()
+    {
+        assertEquals(MESSAGE_COUNT, countFragments(timestamp(10), timestamp(15)));
+    }
+
+    @Test
+    public void shouldWriteIncompleteBlocksOnClose()
+    {
+        indexMessages(0, INDEXED_MESSAGE_COUNT);
+        timeIndex.close();
+
+        timeIndex = newTimeIndex();
+
+        final List<Long> positions = new ArrayList<>();
+        timeIndex.readLastPosition((aeronSessionId, endPosition) ->
+        {
+            assertEquals(AERON_SESSION_ID, aeronSessionId);
+            positions.add(endPosition);
+        });
+        assertThat(positions, contains(endPosition(INDEXED_MESSAGE_COUNT - 1)));
+    }
+
+    @Test
+    public void shouldNotIndexMessagesTwiceWhenCatchingUp()
+    {
+        indexMessages(0, INDEXED_MESSAGE_COUNT);
+        timeIndex.close();
+
+        timeIndex = newTimeIndex();
+        indexMessages(0, MESSAGE_COUNT);
+        timeIndex.close();
+        timeIndex = null;
+
+        final List<long[]> records = readRecords();
+        long lastEndPosition = 0;
+        long lastMaxTimestamp = Long.MIN_VALUE;
+        for (final long[] record : records)
+        {
+            assertTrue(record[0] > lastEndPosition);
+            assertTrue(record[2] > lastMaxTimestamp);
+            lastEndPosition = record[1];
+            lastMaxTimestamp = record[3];
+        }
+        assertEquals(endPosition(MESSAGE_COUNT - 1), lastEndPosition);
+        assertEquals(timestamp(MESSAGE_COUNT - 1), lastMaxTimestamp);
+    }
+
+    private void writeMessages()
+    {
+        final DataHeaderFlyweight dataHeader = new DataHeaderFlyweight();
+        final MessageHeaderEncoder header = new MessageHeaderEncoder();
+        final FixMessageEncoder messageFrame = new FixMessageEncoder();
+        final byte[] body = new byte[BODY_LENGTH];
+
+        int termOffset = 0;
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            termOffsets[i] = termOffset;
+
+            messageFrame
+                .wrapAndApplyHeader(termBuffer, termOffset + HEADER_LENGTH, header)
+                .timestamp(timestamp(i))
+                .putBody(body, 0, BODY_LENGTH);
+            final int frameLength = HEADER_LENGTH + MessageHeaderEncoder.ENCODED_LENGTH + messageFrame.encodedLength();
+
+            dataHeader.wrap(termBuffer, termOffset, HEADER_LENGTH);
+            dataHeader
+                .sessionId(AERON_SESSION_ID)
+                .streamId(STREAM_ID.streamId())
+                .termId(INITIAL_TERM_ID)
+                .termOffset(termOffset)
+                .frameLength(frameLength)
+                .version(HeaderFlyweight.CURRENT_VERSION)
+                .flags(DataHeaderFlyweight.BEGIN_AND_END_FLAGS)
+                .headerType(HeaderFlyweight.HDR_TYPE_DATA);
+
+            termOffset += BitUtil.align(frameLength, FRAME_ALIGNMENT);
+        }
+        termOffsets[MESSAGE_COUNT] = termOffset;
+    }
+
+    private void indexMessages(final int fromIndex, final int toIndex)
+    {
+        if (timeIndex == null)
+        {
+            timeIndex = newTimeIndex();
+        }
+
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            final int termOffset = termOffsets[i];
+            final int frameLength = termBuffer.getInt(termOffset);
+            timeIndex.indexRecord(
+                termBuffer,
+                termOffset + HEADER_LENGTH,
+                frameLength - HEADER_LENGTH,
+                STREAM_ID.streamId(),
+                AERON_SESSION_ID,
+                endPosition(i));
+        }
+    }
+
+    private TimeIndex newTimeIndex()
+    {
+        return new TimeIndex(tempDir, STREAM_ID.streamId(), BLOCK_SIZE_IN_BYTES, errorHandler);
+    }
+
+    private int countFragments(final long beginTimestamp, final long endTimestamp)
+    {
+        final int[] fragmentCount = {0};
+        final FragmentHandler handler = (buffer, offset, length, header) -> fragmentCount[0]++;
+        new ArchiveScanner(tempDir).forEachFragment(STREAM_ID, beginTimestamp, endTimestamp, handler, errorHandler);
+        return fragmentCount[0];
+    }
+
+    private List<Long> scanTimestamps(final FixMessagePredicate predicate)
+    {
+        final List<Long> timestamps = new ArrayList<>();
+        new FixArchiveScanner(tempDir).scan(
+            IPC_CHANNEL,
+            SENT,
+            predicate,
+            (message, buffer, offset, length, header) -> timestamps.add(message.timestamp()),
+            errorHandler);
+        return timestamps;
+    }
+
+    private List<long[]> readRecords()
+    {
+        final List<long[]> records = new ArrayList<>();
+        TimeIndexDescriptor.readRecords(
+            TimeIndexDescriptor.timeIndexFile(tempDir, STREAM_ID.streamId()),
+            errorHandler,
+            (aeronSessionId, beginPosition, endPosition, minTimestamp, maxTimestamp) ->
+                records.add(new long[]{ beginPosition, endPosition, minTimestamp, maxTimestamp }));
+        return records;
+    }
+
+    private long endPosition(final int messageIndex)
+    {
+        return termOffsets[messageIndex + 1];
+    }
+
+    private static long timestamp(final int messageIndex)
+    {
+        return messageIndex * TIMESTAMP_INTERVAL;
+    }
+}
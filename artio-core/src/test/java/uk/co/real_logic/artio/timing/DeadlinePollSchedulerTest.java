@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.timing.DeadlinePollable.NO_DEADLINE;
+
+public class DeadlinePollSchedulerTest
+{
+    private static final long START_TIME = 1_000L;
+    private static final long CONNECTION_ID = 1L;
+    private static final long OTHER_CONNECTION_ID = 2L;
+
+    private final DeadlinePollable pollable = pollable(CONNECTION_ID);
+    private final DeadlinePollable otherPollable = pollable(OTHER_CONNECTION_ID);
+    private final DeadlinePollScheduler<DeadlinePollable> scheduler = new DeadlinePollScheduler<>(START_TIME);
+
+    @Test
+    public void shouldOnlyPollWhenDeadlineHasPassed()
+    {
+        when(pollable.nextPollTimeInMs()).thenReturn(START_TIME + 100);
+        scheduler.add(pollable);
+
+        scheduler.poll(START_TIME + 99);
+        verify(pollable, never()).poll(anyLong());
+
+        scheduler.poll(START_TIME + 100);
+        verify(pollable).poll(START_TIME + 100);
+    }
+
+    @Test
+    public void shouldRescheduleAfterPolling()
+    {
+        when(pollable.nextPollTimeInMs()).thenReturn(START_TIME + 100, START_TIME + 5_000);
+        scheduler.add(pollable);
+
+        scheduler.poll(START_TIME + 100);
+        scheduler.poll(START_TIME + 4_999);
+        verify(pollable, times(1)).poll(anyLong());
+
+        scheduler.poll(START_TIME + 5_000);
+        verify(pollable, times(2)).poll(anyLong());
+    }
+
+    @Test
+    public void shouldPollEarlierWhenRescheduled()
+    {
+        when(pollable.nextPollTimeInMs()).thenReturn(START_TIME + 1_000, START_TIME + 10);
+        scheduler.add(pollable);
+
+        scheduler.reschedule(CONNECTION_ID);
+        scheduler.poll(START_TIME + 10);
+
+        verify(pollable).poll(START_TIME + 10);
+    }
+
+    @Test
+    public void shouldNotPollPollablesWithoutDeadlines()
+    {
+        when(pollable.nextPollTimeInMs()).thenReturn(NO_DEADLINE);
+        scheduler.add(pollable);
+
+        scheduler.poll(START_TIME + 100_000);
+
+        verify(pollable, never()).poll(anyLong());
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void shouldNotPollRemovedPollables()
+    {
+        when(pollable.nextPollTimeInMs()).thenReturn(START_TIME + 10);
+        when(otherPollable.nextPollTimeInMs()).thenReturn(START_TIME + 10);
+        scheduler.add(pollable);
+        scheduler.add(otherPollable);
+
+        scheduler.remove(CONNECTION_ID);
+        scheduler.poll(START_TIME + 10);
+
+        verify(pollable, never()).poll(anyLong());
+        verify(otherPollable).poll(START_TIME + 10);
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void shouldRetryOverdueDeadlinesOnTheNextTick()
+    {
+        when(pollable.nextPollTimeInMs()).thenReturn(START_TIME);
+        scheduler.add(pollable);
+
+        scheduler.poll(START_TIME);
+        scheduler.poll(START_TIME);
+        verify(pollable, times(1)).poll(anyLong());
+
+        scheduler.poll(START_TIME + 1);
+        verify(pollable, times(2)).poll(anyLong());
+    }
+
+    @Test
+    public void shouldPollDeadlinesMoreThanOneRotationAway()
+    {
+        final long deadline = START_TIME + 3 * DeadlinePollScheduler.TICKS_PER_WHEEL + 7;
+        when(pollable.nextPollTimeInMs()).thenReturn(deadline, NO_DEADLINE);
+        scheduler.add(pollable);
+
+        for (long time = START_TIME; time < deadline; time += 5)
+        {
+            scheduler.poll(time);
+        }
+        verify(pollable, never()).poll(anyLong());
+
+        scheduler.poll(deadline + 2);
+        verify(pollable).poll(deadline + 2);
+    }
+
+    @Test
+    public void shouldStopPollingPollablesRemovedWhilstBeingPolled()
+    {
+        when(pollable.nextPollTimeInMs()).thenReturn(START_TIME + 10);
+        when(pollable.poll(anyLong())).then(inv ->
+        {
+            scheduler.remove(CONNECTION_ID);
+            return 1;
+        });
+        scheduler.add(pollable);
+
+        assertEquals(1, scheduler.poll(START_TIME + 10));
+        assertEquals(0, scheduler.size());
+
+        scheduler.poll(START_TIME + 20);
+        verify(pollable, times(1)).poll(anyLong());
+    }
+
+    private static DeadlinePollable pollable(final long connectionId)
+    {
+        final DeadlinePollable pollable = mock(DeadlinePollable.class);
+        when(pollable.connectionId()).thenReturn(connectionId);
+        return pollable;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.util.AsciiBuffer.SEPARATOR;
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
+
+/**
+ * Compares the word at a time scan and checksum implementations of {@link MutableAsciiBuffer} with
+ * the bytewise loops that they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AsciiScanBenchmark
+{
+    private static final byte EQUALS = '=';
+
+    private static final String HEADER = "8=FIX.4.4\0019=0000\00135=8\00149=ABC_DEFG01\00156=CCG\00134=10\001" +
+        "52=20150514-15:57:31.336\001";
+    private static final String EXECUTION_REPORT_FIELDS = "37=ORD-0001\00111=NF 0542/03232009\00117=EXEC-0001" +
+        "\001150=F\00139=1\00155=CVS\00154=1\00138=100\00132=50\00131=25.125\00114=50\001151=50\0016=25.125\001";
+
+    /**
+     * Approximate size of the messages in bytes, messages are padded out with repeated execution report fields.
+     */
+    @Param({"128", "256", "512", "1024", "4096"})
+    int messageSize;
+
+    private MutableAsciiBuffer buffer;
+    private int length;
+
+    @Setup
+    public void setup()
+    {
+        final StringBuilder message = new StringBuilder(HEADER);
+        while (message.length() < messageSize)
+        {
+            message.append(EXECUTION_REPORT_FIELDS);
+        }
+        message.append("10=000\001");
+
+        final byte[] bytes = message.toString().getBytes(StandardCharsets.US_ASCII);
+        buffer = new MutableAsciiBuffer(bytes);
+        length = bytes.length;
+    }
+
+    @Benchmark
+    public int scanFields()
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        final int end = length - 1;
+        int position = 0;
+        int total = 0;
+        while (position < end)
+        {
+            final int equalsPosition = buffer.scan(position, end, EQUALS);
+            final int separatorPosition = buffer.scan(equalsPosition + 1, end, SEPARATOR);
+            total += separatorPosition - equalsPosition;
+            position = separatorPosition + 1;
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public int scanFieldsBytewise()
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        final int end = length - 1;
+        int position = 0;
+        int total = 0;
+        while (position < end)
+        {
+            final int equalsPosition = scanBytewise(buffer, position, end, EQUALS);
+            final int separatorPosition = scanBytewise(buffer, equalsPosition + 1, end, SEPARATOR);
+            total += separatorPosition - equalsPosition;
+            position = separatorPosition + 1;
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public int computeChecksum()
+    {
+        return buffer.computeChecksum(0, length);
+    }
+
+    @Benchmark
+    public int computeChecksumBytewise()
+    {
+        final MutableAsciiBuffer buffer = this.buffer;
+        final int end = length;
+        int total = 0;
+        for (int index = 0; index < end; index++)
+        {
+            total += (int)buffer.getByte(index);
+        }
+
+        return total % 256;
+    }
+
+    private static int scanBytewise(
+        final MutableAsciiBuffer buffer, final int startInclusive, final int endInclusive, final byte terminator)
+    {
+        for (int i = startInclusive; i <= endInclusive; i++)
+        {
+            if (buffer.getByte(i) == terminator)
+            {
+                return i;
+            }
+        }
+
+        return UNKNOWN_INDEX;
+    }
+}
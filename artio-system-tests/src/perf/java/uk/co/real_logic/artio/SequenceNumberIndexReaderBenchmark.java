@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.engine.SectorFramer;
+import uk.co.real_logic.artio.engine.logger.LoggerUtil;
+import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberDecoder;
+import uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
+import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
+import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.BLOCK_LENGTH;
+import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
+
+/**
+ * Looks up the sequence numbers of random sessions in a populated sequence number index, comparing the
+ * {@link SequenceNumberIndexReader} against a linear scan of the records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SequenceNumberIndexReaderBenchmark
+{
+    private static final int BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final int HEADER_SIZE = MessageHeaderDecoder.ENCODED_LENGTH;
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    int sessionCount;
+
+    private final LastKnownSequenceNumberDecoder lastKnownDecoder = new LastKnownSequenceNumberDecoder();
+    private final long[] sessionIds = new long[LOOKUPS];
+
+    private AtomicBuffer buffer;
+    private SectorFramer sectorFramer;
+    private SequenceNumberIndexReader reader;
+    private int lookup;
+
+    @Setup
+    public void setup()
+    {
+        buffer = new UnsafeBuffer(new byte[BUFFER_SIZE]);
+        LoggerUtil.initialiseBuffer(
+            buffer,
+            new MessageHeaderEncoder(),
+            new MessageHeaderDecoder(),
+            LastKnownSequenceNumberEncoder.SCHEMA_ID,
+            LastKnownSequenceNumberEncoder.TEMPLATE_ID,
+            SCHEMA_VERSION,
+            BLOCK_LENGTH,
+            Throwable::printStackTrace);
+
+        // Only write into the first half, the end of the buffer is reserved for the positions table.
+        sectorFramer = new SectorFramer(BUFFER_SIZE / 2);
+        final LastKnownSequenceNumberEncoder encoder = new LastKnownSequenceNumberEncoder();
+        int position = HEADER_SIZE;
+        for (int sessionId = 1; sessionId <= sessionCount; sessionId++)
+        {
+            position = sectorFramer.claim(position, BLOCK_LENGTH);
+            if (position == OUT_OF_SPACE)
+            {
+                throw new IllegalStateException("Buffer too small for " + sessionCount + " sessions");
+            }
+
+            encoder.wrap(buffer, position).sessionId(sessionId).sequenceNumber(sessionId);
+            position += BLOCK_LENGTH;
+        }
+
+        final Random random = new Random(42);
+        for (int i = 0; i < LOOKUPS; i++)
+        {
+            sessionIds[i] = 1 + random.nextInt(sessionCount);
+        }
+
+        reader = new SequenceNumberIndexReader(buffer, Throwable::printStackTrace);
+    }
+
+    @Benchmark
+    public int indexedLookup()
+    {
+        return reader.lastKnownSequenceNumber(nextSessionId());
+    }
+
+    @Benchmark
+    public int scanningLookup()
+    {
+        final long sessionId = nextSessionId();
+        int position = HEADER_SIZE;
+        while (true)
+        {
+            position = sectorFramer.claim(position, BLOCK_LENGTH);
+            if (position == OUT_OF_SPACE)
+            {
+                return UNK_SESSION;
+            }
+
+            lastKnownDecoder.wrap(buffer, position, BLOCK_LENGTH, SCHEMA_VERSION);
+            if (lastKnownDecoder.sessionId() == sessionId)
+            {
+                return lastKnownDecoder.sequenceNumber();
+            }
+
+            position += BLOCK_LENGTH;
+        }
+    }
+
+    private long nextSessionId()
+    {
+        final int lookup = this.lookup;
+        this.lookup = (lookup + 1) & (LOOKUPS - 1);
+        return sessionIds[lookup];
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2015-2018 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.dictionary.TagDispatchTable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares dispatching on the tags of an execution report with custom 5000+ and 9000+ tags through a
+ * {@link TagDispatchTable}, as generated decoders do, with the switch over tag numbers that they used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TagDispatchBenchmark
+{
+    /**
+     * The tags of an execution report, in the order that they're received, including custom tags.
+     */
+    private static final int[] MESSAGE_TAGS =
+    {
+        8, 9, 35, 34, 49, 52, 56, 1, 6, 11, 14, 17, 31, 32, 37, 38, 39, 40, 41, 44, 54, 55, 59, 60, 150, 151,
+        5001, 5002, 5003, 9001, 9002, 9003
+    };
+
+    private final TagDispatchTable tagDispatchTable = new TagDispatchTable(MESSAGE_TAGS);
+
+    @Benchmark
+    public int dispatchByTable()
+    {
+        final int[] tags = MESSAGE_TAGS;
+        int total = 0;
+        for (int i = 0; i < tags.length; i++)
+        {
+            total += dispatchSlot(tagDispatchTable.slot(tags[i]), i);
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public int dispatchByTag()
+    {
+        final int[] tags = MESSAGE_TAGS;
+        int total = 0;
+        for (int i = 0; i < tags.length; i++)
+        {
+            total += dispatchTag(tags[i], i);
+        }
+
+        return total;
+    }
+
+    private static int dispatchSlot(final int slot, final int valueLength)
+    {
+        switch (slot)
+        {
+            case 1:
+                return valueLength + 1;
+            case 2:
+                return valueLength + 2;
+            case 3:
+                return valueLength + 3;
+            case 4:
+                return valueLength + 4;
+            case 5:
+                return valueLength + 5;
+            case 6:
+                return valueLength + 6;
+            case 7:
+                return valueLength + 7;
+            case 8:
+                return valueLength + 8;
+            case 9:
+                return valueLength + 9;
+            case 10:
+                return valueLength + 10;
+            case 11:
+                return valueLength + 11;
+            case 12:
+                return valueLength + 12;
+            case 13:
+                return valueLength + 13;
+            case 14:
+                return valueLength + 14;
+            case 15:
+                return valueLength + 15;
+            case 16:
+                return valueLength + 16;
+            case 17:
+                return valueLength + 17;
+            case 18:
+                return valueLength + 18;
+            case 19:
+                return valueLength + 19;
+            case 20:
+                return valueLength + 20;
+            case 21:
+                return valueLength + 21;
+            case 22:
+                return valueLength + 22;
+            case 23:
+                return valueLength + 23;
+            case 24:
+                return valueLength + 24;
+            case 25:
+                return valueLength + 25;
+            case 26:
+                return valueLength + 26;
+            case 27:
+                return valueLength + 27;
+            case 28:
+                return valueLength + 28;
+            case 29:
+                return valueLength + 29;
+            case 30:
+                return valueLength + 30;
+            case 31:
+                return valueLength + 31;
+            case 32:
+                return valueLength + 32;
+
+            default:
+                return 0;
+        }
+    }
+
+    private static int dispatchTag(final int tag, final int valueLength)
+    {
+        switch (tag)
+        {
+            case 8:
+                return valueLength + 1;
+            case 9:
+                return valueLength + 2;
+            case 35:
+                return valueLength + 3;
+            case 34:
+                return valueLength + 4;
+            case 49:
+                return valueLength + 5;
+            case 52:
+                return valueLength + 6;
+            case 56:
+                return valueLength + 7;
+            case 1:
+                return valueLength + 8;
+            case 6:
+                return valueLength + 9;
+            case 11:
+                return valueLength + 10;
+            case 14:
+                return valueLength + 11;
+            case 17:
+                return valueLength + 12;
+            case 31:
+                return valueLength + 13;
+            case 32:
+                return valueLength + 14;
+            case 37:
+                return valueLength + 15;
+            case 38:
+                return valueLength + 16;
+            case 39:
+                return valueLength + 17;
+            case 40:
+                return valueLength + 18;
+            case 41:
+                return valueLength + 19;
+            case 44:
+                return valueLength + 20;
+            case 54:
+                return valueLength + 21;
+            case 55:
+                return valueLength + 22;
+            case 59:
+                return valueLength + 23;
+            case 60:
+                return valueLength + 24;
+            case 150:
+                return valueLength + 25;
+            case 151:
+                return valueLength + 26;
+            case 5001:
+                return valueLength + 27;
+            case 5002:
+                return valueLength + 28;
+            case 5003:
+                return valueLength + 29;
+            case 9001:
+                return valueLength + 30;
+            case 9002:
+                return valueLength + 31;
+            case 9003:
+                return valueLength + 32;
+
+            default:
+                return 0;
+        }
+    }
+}